@@ -24,6 +24,7 @@ import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.Cognito
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoNotAuthorizedException;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoParameterInvalidException;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.handlers.GenericHandler;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoIdentityProviderClientConfig;
 import com.amazonaws.services.cognitoidentityprovider.model.DeviceType;
 import com.amazonaws.services.cognitoidentityprovider.model.ForgetDeviceRequest;
 import com.amazonaws.services.cognitoidentityprovider.model.GetDeviceRequest;
@@ -32,6 +33,7 @@ import com.amazonaws.services.cognitoidentityprovider.model.UpdateDeviceStatusRe
 import com.amazonaws.services.cognitoidentityprovider.model.UpdateDeviceStatusResult;
 
 import java.util.Date;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * This class is an abstraction for a tracked device. A instance of this class represents one
@@ -197,31 +199,40 @@ public class CognitoDevice {
         if (callback == null) {
             throw new CognitoParameterInvalidException("callback is null");
         }
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final GetDeviceResult getDeviceResult = getDeviceInternal(user.getCachedSession());
-                    updateThis(getDeviceResult.getDevice());
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final GetDeviceResult getDeviceResult = getDeviceInternal(user.getCachedSession());
+                        updateThis(getDeviceResult.getDevice());
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -258,30 +269,39 @@ public class CognitoDevice {
         if (callback == null) {
             throw  new CognitoParameterInvalidException("callback is null");
         }
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    forgetDeviceInternal(user.getCachedSession());
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        forgetDeviceInternal(user.getCachedSession());
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -314,30 +334,39 @@ public class CognitoDevice {
         if (callback == null) {
             throw  new CognitoParameterInvalidException("callback is null");
         }
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    updateDeviceStatusInternal(user.getCachedSession(), DEVICE_TYPE_REMEMBERED);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        updateDeviceStatusInternal(user.getCachedSession(), DEVICE_TYPE_REMEMBERED);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -371,30 +400,39 @@ public class CognitoDevice {
             throw  new CognitoParameterInvalidException("callback is null");
         }
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    updateDeviceStatusInternal(user.getCachedSession(), DEVICE_TYPE_NOT_REMEMBERED);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        updateDeviceStatusInternal(user.getCachedSession(), DEVICE_TYPE_NOT_REMEMBERED);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -45,6 +45,7 @@ import com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens.CognitoAcce
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens.CognitoIdToken;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens.CognitoRefreshToken;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoDeviceHelper;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoIdentityProviderClientConfig;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoJWTParser;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoSecretHash;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoServiceConstants;
@@ -102,6 +103,7 @@ import com.amazonaws.services.cognitoidentityprovider.model.VerifySoftwareTokenR
 import com.amazonaws.services.cognitoidentityprovider.model.VerifyUserAttributeRequest;
 import com.amazonaws.services.cognitoidentityprovider.model.VerifyUserAttributeResult;
 import com.amazonaws.util.Base64;
+import com.amazonaws.util.DaemonThreadPools;
 import com.amazonaws.util.StringUtils;
 
 import com.amazonaws.logging.Log;
@@ -120,6 +122,11 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -188,15 +195,41 @@ public class CognitoUser {
      */
     private String secretHash;
 
+    private static final int SESSION_REFRESH_THREAD_COUNT = 2;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+    /**
+     * Executor for the background session refreshes.
+     */
+    private static ExecutorService sessionRefreshExecutor;
+
     /**
      * The current session.
      */
-    private CognitoUserSession cipSession;
+    private volatile CognitoUserSession cipSession;
+
+    /**
+     * Lock for the session of this user.
+     */
+    private final Object sessionLock = new Object();
 
     /**
-     * Lock for getCachedSession.
+     * The in-flight load or refresh of the session, if any. Guarded by
+     * {@code sessionLock}.
      */
-    private static final Object GET_CACHED_SESSION_LOCK = new Object();
+    private FutureTask<CognitoUserSession> sessionTask;
+
+    /**
+     * The last session refreshed in the background, so that a failed refresh
+     * is not retried for the same session. Guarded by {@code sessionLock}.
+     */
+    private CognitoUserSession backgroundRefreshedSession;
+
+    /**
+     * Callbacks of the {@link #getDetailsInBackground} calls waiting for the
+     * in-flight request, if any.
+     */
+    private final List<GetDetailsHandler> getDetailsCallbacks = new ArrayList<GetDetailsHandler>();
 
     /**
      * Constructs a new Cognito User from a Cognito user identity pool
@@ -324,30 +357,39 @@ public class CognitoUser {
         if (callback == null) {
             throw new CognitoParameterInvalidException("callback is null");
         }
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    confirmSignUpInternal(confirmationCode, forcedAliasCreation, clientMetadata);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        confirmSignUpInternal(confirmationCode, forcedAliasCreation, clientMetadata);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -438,32 +480,41 @@ public class CognitoUser {
         if (callback == null) {
             throw new CognitoParameterInvalidException("callback is null");
         }
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final ResendConfirmationCodeResult resendConfirmationCodeResult =
-                            resendConfirmationCodeInternal(clientMetadata);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess(new CognitoUserCodeDeliveryDetails(
-                                    resendConfirmationCodeResult.getCodeDeliveryDetails()));
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final ResendConfirmationCodeResult resendConfirmationCodeResult =
+                                resendConfirmationCodeInternal(clientMetadata);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess(new CognitoUserCodeDeliveryDetails(
+                                        resendConfirmationCodeResult.getCodeDeliveryDetails()));
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -602,35 +653,44 @@ public class CognitoUser {
 
         final CognitoUser cognitoUser = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final ForgotPasswordResult forgotPasswordResult = forgotPasswordInternal(clientMetadata);
-                    final ForgotPasswordContinuation continuation = new ForgotPasswordContinuation(
-                            cognitoUser,
-                            new CognitoUserCodeDeliveryDetails(
-                                    forgotPasswordResult.getCodeDeliveryDetails()),
-                            ForgotPasswordContinuation.RUN_IN_BACKGROUND, callback);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.getResetCode(continuation);
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final ForgotPasswordResult forgotPasswordResult = forgotPasswordInternal(clientMetadata);
+                        final ForgotPasswordContinuation continuation = new ForgotPasswordContinuation(
+                                cognitoUser,
+                                new CognitoUserCodeDeliveryDetails(
+                                        forgotPasswordResult.getCodeDeliveryDetails()),
+                                ForgotPasswordContinuation.RUN_IN_BACKGROUND, callback);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.getResetCode(continuation);
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -740,30 +800,39 @@ public class CognitoUser {
         if (callback == null) {
             throw new CognitoParameterInvalidException("callback is null");
         }
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    confirmPasswordInternal(verificationCode, newPassword, clientMetadata);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        confirmPasswordInternal(verificationCode, newPassword, clientMetadata);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -892,44 +961,53 @@ public class CognitoUser {
 
         final CognitoUser cognitoUser = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    getCachedSession();
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess(cipSession, null);
-                        }
-                    };
-                } catch (final CognitoNotAuthorizedException e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            final AuthenticationContinuation authenticationContinuation =
-                                    new AuthenticationContinuation(
-                                        cognitoUser,
-                                        context,
-                                        AuthenticationContinuation.RUN_IN_BACKGROUND, callback
-                                    );
-                            callback.getAuthenticationDetails(authenticationContinuation,
-                                    cognitoUser.getUserId());
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final CognitoUserSession session = getCachedSession();
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess(session, null);
+                            }
+                        };
+                    } catch (final CognitoNotAuthorizedException e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                final AuthenticationContinuation authenticationContinuation =
+                                        new AuthenticationContinuation(
+                                            cognitoUser,
+                                            context,
+                                            AuthenticationContinuation.RUN_IN_BACKGROUND, callback
+                                        );
+                                callback.getAuthenticationDetails(authenticationContinuation,
+                                        cognitoUser.getUserId());
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -1019,8 +1097,8 @@ public class CognitoUser {
         }
 
         try {
-            getCachedSession();
-            callback.onSuccess(cipSession, null);
+            final CognitoUserSession session = getCachedSession();
+            callback.onSuccess(session, null);
         } catch (final InvalidParameterException e) {
             callback.onFailure(e);
         } catch (final CognitoNotAuthorizedException e) {
@@ -1165,12 +1243,16 @@ public class CognitoUser {
             return new Runnable() {
                 @Override
                 public void run() {
-                    new Thread(new Runnable() {
-                        @Override
-                        public void run() {
-                            task.run();
-                        }
-                    }).start();
+                    try {
+                        CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                task.run();
+                            }
+                        });
+                    } catch (final RejectedExecutionException e) {
+                        internalCallback.onFailure(e);
+                    }
                 }
             };
         } else {
@@ -1277,45 +1359,171 @@ public class CognitoUser {
      *         otherwise.
      */
     protected CognitoUserSession getCachedSession() {
-        synchronized (GET_CACHED_SESSION_LOCK) {
-            if (userId == null) {
-                throw new CognitoNotAuthorizedException("User-ID is null");
+        if (userId == null) {
+            throw new CognitoNotAuthorizedException("User-ID is null");
+        }
+
+        while (true) {
+            final CognitoUserSession session = cipSession;
+            if (session != null && session.isValidForThreshold()) {
+                cacheLastAuthUser();
+                if (session.isInRefreshWindow(
+                        CognitoIdentityProviderClientConfig.getRefreshThreshold())) {
+                    refreshSessionInBackground(session);
+                }
+                return session;
             }
 
-            if (cipSession != null) {
-                if (cipSession.isValidForThreshold()) {
-                    cacheLastAuthUser();
-                    return cipSession;
+            // Only one thread loads the session, the others wait for it.
+            final FutureTask<CognitoUserSession> task;
+            boolean loadSession = false;
+            synchronized (sessionLock) {
+                if (sessionTask == null || sessionTask.isDone()) {
+                    if (cipSession != session) {
+                        // loaded meanwhile
+                        continue;
+                    }
+                    sessionTask = newSessionTask(new Callable<CognitoUserSession>() {
+                        @Override
+                        public CognitoUserSession call() {
+                            return loadSession();
+                        }
+                    });
+                    loadSession = true;
                 }
+                task = sessionTask;
+            }
+            if (loadSession) {
+                task.run();
             }
 
-            final CognitoUserSession cognitoUserSessionFromStore = readCachedTokens();
+            final CognitoUserSession loadedSession = getSessionTaskResult(task);
+            // null if a background refresh failed
+            if (loadedSession != null) {
+                return loadedSession;
+            }
+        }
+    }
 
-            if (cognitoUserSessionFromStore.isValidForThreshold()) {
-                cipSession = cognitoUserSessionFromStore;
-                cacheLastAuthUser();
-                return cipSession;
+    /**
+     * Reads the cached tokens, and refreshes them if they are not valid for
+     * the threshold.
+     *
+     * @return Valid tokens {@link CognitoUserSession}.
+     */
+    private CognitoUserSession loadSession() {
+        final CognitoUserSession cognitoUserSessionFromStore = readCachedTokens();
+
+        if (cognitoUserSessionFromStore.isValidForThreshold()) {
+            cipSession = cognitoUserSessionFromStore;
+            cacheLastAuthUser();
+            return cognitoUserSessionFromStore;
+        }
+
+        if (cognitoUserSessionFromStore.getRefreshToken() != null) {
+            try {
+                final CognitoUserSession refreshedSession =
+                        refreshSession(cognitoUserSessionFromStore);
+                cipSession = refreshedSession;
+                cacheTokens(refreshedSession);
+                return refreshedSession;
+            } catch (final NotAuthorizedException nae) {
+                clearCachedTokens();
+                throw new CognitoNotAuthorizedException("User is not authenticated", nae);
+            } catch (final UserNotFoundException unfe) {
+                clearCachedTokens();
+                throw new CognitoNotAuthorizedException("User does not exist", unfe);
+            } catch (final Exception e) {
+                throw new CognitoInternalErrorException("Failed to authenticate user", e);
             }
+        }
+        throw new CognitoNotAuthorizedException("User is not authenticated");
+    }
 
-            if (cognitoUserSessionFromStore.getRefreshToken() != null) {
-                try {
-                    cipSession = refreshSession(cognitoUserSessionFromStore);
-                    cacheTokens(cipSession);
-                    return cipSession;
-                } catch (final NotAuthorizedException nae) {
-                    clearCachedTokens();
-                    throw new CognitoNotAuthorizedException("User is not authenticated", nae);
-                } catch (final UserNotFoundException unfe) {
-                    clearCachedTokens();
-                    throw new CognitoNotAuthorizedException("User does not exist", unfe);
-                } catch (final Exception e) {
-                    throw new CognitoInternalErrorException("Failed to authenticate user", e);
+    /**
+     * Refreshes a session which is about to reach the refresh threshold in
+     * background, unless the session is already being loaded or refreshed.
+     * The session is kept if the refresh fails.
+     *
+     * @param session REQUIRED: The current session.
+     */
+    private void refreshSessionInBackground(final CognitoUserSession session) {
+        if (session.getRefreshToken() == null) {
+            return;
+        }
+        final FutureTask<CognitoUserSession> task;
+        synchronized (sessionLock) {
+            if ((sessionTask != null && !sessionTask.isDone())
+                    || backgroundRefreshedSession == session) {
+                return;
+            }
+            backgroundRefreshedSession = session;
+            task = newSessionTask(new Callable<CognitoUserSession>() {
+                @Override
+                public CognitoUserSession call() {
+                    try {
+                        final CognitoUserSession refreshedSession = refreshSession(session);
+                        synchronized (sessionLock) {
+                            // signed out or replaced meanwhile
+                            if (cipSession != session) {
+                                return null;
+                            }
+                            cipSession = refreshedSession;
+                            cacheTokens(refreshedSession);
+                        }
+                        return refreshedSession;
+                    } catch (final Exception e) {
+                        LOGGER.warn("Failed to refresh the session in background.", e);
+                        return null;
+                    }
                 }
+            });
+            sessionTask = task;
+        }
+        getSessionRefreshExecutor().execute(task);
+    }
+
+    private FutureTask<CognitoUserSession> newSessionTask(
+            Callable<CognitoUserSession> callable) {
+        return new FutureTask<CognitoUserSession>(callable) {
+            @Override
+            protected void done() {
+                synchronized (sessionLock) {
+                    if (sessionTask == this) {
+                        sessionTask = null;
+                    }
+                }
+            }
+        };
+    }
+
+    private static CognitoUserSession getSessionTaskResult(
+            FutureTask<CognitoUserSession> task) {
+        try {
+            return task.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CognitoInternalErrorException("Interrupted while waiting for the session", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
             }
-            throw new CognitoNotAuthorizedException("User is not authenticated");
+            throw new CognitoInternalErrorException("Failed to authenticate user", cause);
         }
     }
 
+    private static synchronized ExecutorService getSessionRefreshExecutor() {
+        if (sessionRefreshExecutor == null) {
+            sessionRefreshExecutor = DaemonThreadPools.newFixedThreadPool("CognitoUserSessionRefresh",
+                    SESSION_REFRESH_THREAD_COUNT, THREAD_KEEP_ALIVE_SECONDS);
+        }
+        return sessionRefreshExecutor;
+    }
+
     /**
      * Request to change password for this user, in background.
      * <p>
@@ -1337,31 +1545,40 @@ public class CognitoUser {
 
         final CognitoUser user = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final CognitoUserSession session = user.getCachedSession();
-                    changePasswordInternal(oldUserPassword, newUserPassword, session);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final CognitoUserSession session = user.getCachedSession();
+                        changePasswordInternal(oldUserPassword, newUserPassword, session);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -1416,7 +1633,7 @@ public class CognitoUser {
      * Retrieves the current user attributes. Runs in background.
      * <p>
      * All attributes, which are set for this user, are fetched. This method
-     * requires valid accessToken.
+     * requires valid accessToken. Concurrent calls share the same request.
      * </p>
      *
      * @param callback REQUIRED: {@link GetDetailsHandler} callback
@@ -1426,33 +1643,64 @@ public class CognitoUser {
         if (callback == null) {
             throw new CognitoParameterInvalidException("callback is null");
         }
+        synchronized (getDetailsCallbacks) {
+            getDetailsCallbacks.add(callback);
+            if (getDetailsCallbacks.size() > 1) {
+                // a request is in flight, its result is passed to this callback too
+                return;
+            }
+        }
         final CognitoUser user = this;
 
-        new Thread(new Runnable() {
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    CognitoUserDetails details = null;
+                    Exception exception = null;
+                    try {
+                        final CognitoUserSession session = user.getCachedSession();
+                        details = getUserDetailsInternal(session);
+                    } catch (final Exception e) {
+                        exception = e;
+                    }
+                    returnGetDetailsResult(details, exception);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            // fail the waiting callbacks, so that later calls send a new request
+            returnGetDetailsResult(null, e);
+        }
+    }
+
+    /**
+     * Passes the result of a {@link #getDetailsInBackground} request to the
+     * callbacks waiting for it, on the main thread.
+     *
+     * @param userDetails the user details, null if the request failed.
+     * @param e the failure, null if the request succeeded.
+     */
+    private void returnGetDetailsResult(final CognitoUserDetails userDetails,
+            final Exception e) {
+        final List<GetDetailsHandler> callbacks;
+        synchronized (getDetailsCallbacks) {
+            callbacks = new ArrayList<GetDetailsHandler>(getDetailsCallbacks);
+            getDetailsCallbacks.clear();
+        }
+        final Handler handler = new Handler(context.getMainLooper());
+        final Runnable returnCallback = new Runnable() {
             @Override
             public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final CognitoUserSession session = user.getCachedSession();
-                    final CognitoUserDetails userDetails = getUserDetailsInternal(session);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess(userDetails);
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+                for (final GetDetailsHandler getDetailsHandler : callbacks) {
+                    if (e == null) {
+                        getDetailsHandler.onSuccess(userDetails);
+                    } else {
+                        getDetailsHandler.onFailure(e);
+                    }
                 }
-                handler.post(returnCallback);
             }
-        }).start();
+        };
+        handler.post(returnCallback);
     }
 
     /**
@@ -1549,34 +1797,43 @@ public class CognitoUser {
         }
         final CognitoUser user = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final CognitoUserSession session = user.getCachedSession();
-                    final GetUserAttributeVerificationCodeResult getUserAttributeVerificationCodeResult = getAttributeVerificationCodeInternal(
-                            clientMetadata, attributeName, session);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess(new CognitoUserCodeDeliveryDetails(
-                                    getUserAttributeVerificationCodeResult
-                                            .getCodeDeliveryDetails()));
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final CognitoUserSession session = user.getCachedSession();
+                        final GetUserAttributeVerificationCodeResult getUserAttributeVerificationCodeResult = getAttributeVerificationCodeInternal(
+                                clientMetadata, attributeName, session);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess(new CognitoUserCodeDeliveryDetails(
+                                        getUserAttributeVerificationCodeResult
+                                                .getCodeDeliveryDetails()));
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -1691,31 +1948,40 @@ public class CognitoUser {
         }
         final CognitoUser user = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final CognitoUserSession session = user.getCachedSession();
-                    verifyAttributeInternal(attributeName, verificationCode, session);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final CognitoUserSession session = user.getCachedSession();
+                        verifyAttributeInternal(attributeName, verificationCode, session);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -1783,70 +2049,79 @@ public class CognitoUser {
         }
         final CognitoUser user = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                boolean useSessionToken;
-                try {
-                    final CognitoUserSession cognitoTokens = user.getCachedSession();
-                    AssociateSoftwareTokenResult result;
-                    if (!StringUtils.isBlank(sessionToken)) {
-                        result = associateTotpMfaInternalWithSession(sessionToken);
-                        useSessionToken = true;
-                    } else {
-                        result = associateTotpMfaInternalWithTokens(cognitoTokens);
-                        useSessionToken = false;
-                    }
-                    final String nextSessionToken = result.getSession();
-                    final Map<String, String> parameters = new HashMap<String, String>();
-                    parameters.put("type", CognitoServiceConstants.CHLG_TYPE_SOFTWARE_TOKEN_MFA);
-                    parameters.put("secretKey", result.getSecretCode());
-                    if (useSessionToken) {
-                        returnCallback = new Runnable() {
-                            @Override
-                            public void run() {
-                                callback.onVerify(new VerifyMfaContinuation(
-                                        context,
-                                        clientId,
-                                        user,
-                                        callback,
-                                        parameters,
-                                        true,
-                                        nextSessionToken,
-                                        VerifyMfaContinuation.RUN_IN_BACKGROUND)
-                                );
-                            }
-                        };
-                    } else {
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    boolean useSessionToken;
+                    try {
+                        final CognitoUserSession cognitoTokens = user.getCachedSession();
+                        AssociateSoftwareTokenResult result;
+                        if (!StringUtils.isBlank(sessionToken)) {
+                            result = associateTotpMfaInternalWithSession(sessionToken);
+                            useSessionToken = true;
+                        } else {
+                            result = associateTotpMfaInternalWithTokens(cognitoTokens);
+                            useSessionToken = false;
+                        }
+                        final String nextSessionToken = result.getSession();
+                        final Map<String, String> parameters = new HashMap<String, String>();
+                        parameters.put("type", CognitoServiceConstants.CHLG_TYPE_SOFTWARE_TOKEN_MFA);
+                        parameters.put("secretKey", result.getSecretCode());
+                        if (useSessionToken) {
+                            returnCallback = new Runnable() {
+                                @Override
+                                public void run() {
+                                    callback.onVerify(new VerifyMfaContinuation(
+                                            context,
+                                            clientId,
+                                            user,
+                                            callback,
+                                            parameters,
+                                            true,
+                                            nextSessionToken,
+                                            VerifyMfaContinuation.RUN_IN_BACKGROUND)
+                                    );
+                                }
+                            };
+                        } else {
+                            returnCallback = new Runnable() {
+                                @Override
+                                public void run() {
+                                    callback.onVerify(new VerifyMfaContinuation(
+                                            context,
+                                            clientId,
+                                            user,
+                                            callback,
+                                            parameters,
+                                            false,
+                                            nextSessionToken,
+                                            VerifyMfaContinuation.RUN_IN_BACKGROUND)
+                                    );
+                                }
+                            };
+                        }
+                    } catch (final Exception e) {
                         returnCallback = new Runnable() {
                             @Override
                             public void run() {
-                                callback.onVerify(new VerifyMfaContinuation(
-                                        context,
-                                        clientId,
-                                        user,
-                                        callback,
-                                        parameters,
-                                        false,
-                                        nextSessionToken,
-                                        VerifyMfaContinuation.RUN_IN_BACKGROUND)
-                                );
+                                callback.onFailure(e);
                             }
                         };
                     }
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -1933,63 +2208,72 @@ public class CognitoUser {
     /**
      * Verify the Time-based One-time Password based MFA tpo complete registration.
      * @param sessionToken Optional: If a session token has to be used to register the MFA.
-     * @param totpCode Required: The TOTP code.
-     * @param friendlyName Required: Friendly name to be associated with this MFA.
-     * @param callback Required: Callback handler {@link VerifyMfaContinuation}.
-     */
-    public void verifySoftwareTokenInBackground(
-            final String sessionToken, final String totpCode, final String friendlyName, final RegisterMfaHandler callback) {
-        if (callback == null) {
-            throw new CognitoParameterInvalidException("callback is null");
-        }
-        final CognitoUser user = this;
-
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final CognitoUserSession cognitoTokens = user.getCachedSession();
-                    VerifySoftwareTokenResult result;
-                    boolean useSessionToken;
-                    if (!StringUtils.isBlank(sessionToken)) {
-                        result = verifyTotpAssociationWithSession(sessionToken, totpCode, friendlyName);
-                        useSessionToken = true;
-                    } else {
-                        result = verifyTotpAssociationWithTokens(cognitoTokens, totpCode, friendlyName);
-                        useSessionToken = false;
-                    }
-                    final String newSessionToken = result.getSession();
-                    if (VerifySoftwareTokenResponseType.ERROR.equals(result.getStatus())) {
-                        throw new CognitoInternalErrorException("verification failed");
-                    }
-                    if (useSessionToken) {
-                        returnCallback = new Runnable() {
-                            @Override
-                            public void run() {
-                                callback.onSuccess(newSessionToken);
-                            }
-                        };
-                    } else {
+     * @param totpCode Required: The TOTP code.
+     * @param friendlyName Required: Friendly name to be associated with this MFA.
+     * @param callback Required: Callback handler {@link VerifyMfaContinuation}.
+     */
+    public void verifySoftwareTokenInBackground(
+            final String sessionToken, final String totpCode, final String friendlyName, final RegisterMfaHandler callback) {
+        if (callback == null) {
+            throw new CognitoParameterInvalidException("callback is null");
+        }
+        final CognitoUser user = this;
+
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final CognitoUserSession cognitoTokens = user.getCachedSession();
+                        VerifySoftwareTokenResult result;
+                        boolean useSessionToken;
+                        if (!StringUtils.isBlank(sessionToken)) {
+                            result = verifyTotpAssociationWithSession(sessionToken, totpCode, friendlyName);
+                            useSessionToken = true;
+                        } else {
+                            result = verifyTotpAssociationWithTokens(cognitoTokens, totpCode, friendlyName);
+                            useSessionToken = false;
+                        }
+                        final String newSessionToken = result.getSession();
+                        if (VerifySoftwareTokenResponseType.ERROR.equals(result.getStatus())) {
+                            throw new CognitoInternalErrorException("verification failed");
+                        }
+                        if (useSessionToken) {
+                            returnCallback = new Runnable() {
+                                @Override
+                                public void run() {
+                                    callback.onSuccess(newSessionToken);
+                                }
+                            };
+                        } else {
+                            returnCallback = new Runnable() {
+                                @Override
+                                public void run() {
+                                    callback.onSuccess(null);
+                                }
+                            };
+                        }
+                    } catch (final Exception e) {
                         returnCallback = new Runnable() {
                             @Override
                             public void run() {
-                                callback.onSuccess(null);
+                                callback.onFailure(e);
                             }
                         };
                     }
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -2116,42 +2400,51 @@ public class CognitoUser {
         }
         final CognitoUser user = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final CognitoUserSession session = user.getCachedSession();
-                    final UpdateUserAttributesResult updateUserAttributesResult = updateAttributesInternal(
-                            clientMetadata, attributes, session);
-
-                    final List<CognitoUserCodeDeliveryDetails> attributesVerificationList = new ArrayList<CognitoUserCodeDeliveryDetails>();
-                    if (updateUserAttributesResult.getCodeDeliveryDetailsList() != null) {
-                        for (final CodeDeliveryDetailsType details : updateUserAttributesResult
-                                .getCodeDeliveryDetailsList()) {
-                            attributesVerificationList
-                                    .add(new CognitoUserCodeDeliveryDetails(details));
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final CognitoUserSession session = user.getCachedSession();
+                        final UpdateUserAttributesResult updateUserAttributesResult = updateAttributesInternal(
+                                clientMetadata, attributes, session);
+
+                        final List<CognitoUserCodeDeliveryDetails> attributesVerificationList = new ArrayList<CognitoUserCodeDeliveryDetails>();
+                        if (updateUserAttributesResult.getCodeDeliveryDetailsList() != null) {
+                            for (final CodeDeliveryDetailsType details : updateUserAttributesResult
+                                    .getCodeDeliveryDetailsList()) {
+                                attributesVerificationList
+                                        .add(new CognitoUserCodeDeliveryDetails(details));
+                            }
                         }
-                    }
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
 
-                            callback.onSuccess(attributesVerificationList);
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+                                callback.onSuccess(attributesVerificationList);
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -2249,31 +2542,40 @@ public class CognitoUser {
         }
         final CognitoUser user = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final CognitoUserSession session = user.getCachedSession();
-                    deleteAttributesInternal(attributeNamesToDelete, session);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final CognitoUserSession session = user.getCachedSession();
+                        deleteAttributesInternal(attributeNamesToDelete, session);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -2363,7 +2665,9 @@ public class CognitoUser {
      * Sign-Out this user by removing all cached tokens.
      */
     public void signOut() {
-        cipSession = null;
+        synchronized (sessionLock) {
+            cipSession = null;
+        }
         clearCachedTokens();
     }
 
@@ -2379,32 +2683,41 @@ public class CognitoUser {
         }
         final CognitoUser user = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final CognitoUserSession session = user.getCachedSession();
-                    globalSignOutInternal(session);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            signOut();
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final CognitoUserSession session = user.getCachedSession();
+                        globalSignOutInternal(session);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                signOut();
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -2463,31 +2776,40 @@ public class CognitoUser {
         }
         final CognitoUser user = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final CognitoUserSession session = user.getCachedSession();
-                    deleteUserInternal(session);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final CognitoUserSession session = user.getCachedSession();
+                        deleteUserInternal(session);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -2549,30 +2871,39 @@ public class CognitoUser {
         }
         final CognitoUserSession session = this.getCachedSession();
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    setUserSettingsInternal(cognitoUserSettings, session);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        setUserSettingsInternal(cognitoUserSettings, session);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -2636,30 +2967,39 @@ public class CognitoUser {
         }
         final CognitoUserSession session = this.getCachedSession();
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    setUserMfaSettingsInternal(mfaSettings, session);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess();
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        setUserMfaSettingsInternal(mfaSettings, session);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess();
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -3754,36 +4094,45 @@ public class CognitoUser {
 
         final CognitoUser user = this;
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final ListDevicesResult listDevicesResult = listDevicesInternal(
-                            user.getCachedSession(), limit, paginationToken);
-                    final List<CognitoDevice> devicesList = new ArrayList<CognitoDevice>();
-                    for (final DeviceType device : listDevicesResult.getDevices()) {
-                        devicesList.add(new CognitoDevice(device, user, context));
-                    }
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess(devicesList);
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final ListDevicesResult listDevicesResult = listDevicesInternal(
+                                user.getCachedSession(), limit, paginationToken);
+                        final List<CognitoDevice> devicesList = new ArrayList<CognitoDevice>();
+                        for (final DeviceType device : listDevicesResult.getDevices()) {
+                            devicesList.add(new CognitoDevice(device, user, context));
                         }
-                    };
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess(devicesList);
+                            }
+                        };
 
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -32,6 +32,7 @@ import com.amazonaws.mobile.config.AWSConfiguration;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.handlers.AuthenticationHandler;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.handlers.SignUpHandler;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoDeviceHelper;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoIdentityProviderClientConfig;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoPinpointSharedContext;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoSecretHash;
 import com.amazonaws.regions.Regions;
@@ -49,6 +50,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Pattern;
 
 /**
@@ -454,32 +456,41 @@ public class CognitoUserPool {
                                          final Map<String, String> validationData,
                                          final Map<String, String> clientMetadata,
                                          final SignUpHandler callback) {
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final Handler handler = new Handler(context.getMainLooper());
-                Runnable returnCallback;
-                try {
-                    final SignUpResult signUpResult = signUpInternal(userId, password,
-                            userAttributes, validationData, clientMetadata);
-                    final CognitoUser user = getUser(userId);
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onSuccess(user, signUpResult);
-                        }
-                    };
-                } catch (final Exception e) {
-                    returnCallback = new Runnable() {
-                        @Override
-                        public void run() {
-                            callback.onFailure(e);
-                        }
-                    };
+        try {
+            CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final Handler handler = new Handler(context.getMainLooper());
+                    Runnable returnCallback;
+                    try {
+                        final SignUpResult signUpResult = signUpInternal(userId, password,
+                                userAttributes, validationData, clientMetadata);
+                        final CognitoUser user = getUser(userId);
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess(user, signUpResult);
+                            }
+                        };
+                    } catch (final Exception e) {
+                        returnCallback = new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure(e);
+                            }
+                        };
+                    }
+                    handler.post(returnCallback);
                 }
-                handler.post(returnCallback);
-            }
-        }).start();
+            });
+        } catch (final RejectedExecutionException e) {
+            new Handler(context.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
     }
 
     /**
@@ -22,6 +22,7 @@ import android.util.Log;
 import com.amazonaws.SDKGlobalConfiguration;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens.CognitoAccessToken;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens.CognitoIdToken;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens.CognitoJWTClaims;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens.CognitoRefreshToken;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoIdentityProviderClientConfig;
 
@@ -34,6 +35,13 @@ import java.util.Objects;
 public class CognitoUserSession {
     private static final int SECS_CONVERSION = 1000;
 
+    /**
+     * A token is refreshed ahead of the threshold in the last
+     * 1/REFRESH_WINDOW_DIVISOR of the time it's valid for before the
+     * threshold.
+     */
+    private static final int REFRESH_WINDOW_DIVISOR = 4;
+
     private static final String TAG = CognitoUserSession.class.getSimpleName();
 
     /**
@@ -97,24 +105,17 @@ public class CognitoUserSession {
      * @return boolean to indicate if the access and id tokens have not expired.
      */
     public boolean isValid() {
-        final Date currentTimeStamp = new Date();
-
-        try {
-            if (idToken == null) {
-                Log.w(TAG, "CognitoUserSession is not valid because idToken is null.");
-                return false;
-            }
-
-            if (accessToken == null) {
-                Log.w(TAG, "CognitoUserSession is not valid because accessToken is null.");
-                return false;
-            }
+        if (idToken == null) {
+            Log.w(TAG, "CognitoUserSession is not valid because idToken is null.");
+            return false;
+        }
 
-            return (currentTimeStamp.before(idToken.getExpiration())
-                    & currentTimeStamp.before(accessToken.getExpiration()));
-        } catch (final Exception e) {
+        if (accessToken == null) {
+            Log.w(TAG, "CognitoUserSession is not valid because accessToken is null.");
             return false;
         }
+
+        return System.currentTimeMillis() < getExpirationTime();
     }
 
     /**
@@ -131,27 +132,86 @@ public class CognitoUserSession {
      * {@link CognitoIdentityProviderClientConfig#getRefreshThreshold} seconds.
      */
     public boolean isValidForThreshold() {
-        try {
-            if (idToken == null) {
-                Log.w(TAG, "CognitoUserSession is not valid because idToken is null.");
-                return false;
-            }
+        return isValidFor(CognitoIdentityProviderClientConfig.getRefreshThreshold());
+    }
 
-            if (accessToken == null) {
-                Log.w(TAG, "CognitoUserSession is not valid because accessToken is null.");
-                return false;
-            }
+    /**
+     * Returns true if the access and id tokens of this session exist and
+     * expire in more than the given time, accounting for the clock skew.
+     *
+     * @param threshold REQUIRED: Time in milliseconds.
+     * @return boolean to indicate if the session is valid for at-least the
+     * given time.
+     */
+    boolean isValidFor(long threshold) {
+        if (idToken == null) {
+            Log.w(TAG, "CognitoUserSession is not valid because idToken is null.");
+            return false;
+        }
+
+        if (accessToken == null) {
+            Log.w(TAG, "CognitoUserSession is not valid because accessToken is null.");
+            return false;
+        }
+
+        final long currentTime = System.currentTimeMillis()
+                - SDKGlobalConfiguration.getGlobalTimeOffset() * SECS_CONVERSION;
+        return getExpirationTime() - currentTime > threshold;
+    }
 
+    /**
+     * Returns true if the id or access token of this session is close enough
+     * to the threshold to be refreshed ahead of it: in the last quarter of the
+     * time between its issue and the threshold. A token issued with less time
+     * left never is, so a new session doesn't qualify whatever the threshold.
+     *
+     * @param threshold REQUIRED: Time in milliseconds.
+     * @return boolean to indicate if the session should be refreshed ahead of
+     * the threshold.
+     */
+    boolean isInRefreshWindow(long threshold) {
+        if (idToken == null || accessToken == null) {
+            return false;
+        }
+        try {
             final long currentTime = System.currentTimeMillis()
                     - SDKGlobalConfiguration.getGlobalTimeOffset() * SECS_CONVERSION;
-            final long idTokenExpiresInMilliSeconds = idToken.getExpiration().getTime() - currentTime;
-            final long accessTokenExpiresInMilliSeconds = accessToken.getExpiration().getTime() - currentTime;
-            return (idTokenExpiresInMilliSeconds > CognitoIdentityProviderClientConfig.getRefreshThreshold()) &&
-                    (accessTokenExpiresInMilliSeconds > CognitoIdentityProviderClientConfig.getRefreshThreshold());
+            return isInRefreshWindow(idToken.getClaims(), threshold, currentTime)
+                    || isInRefreshWindow(accessToken.getClaims(), threshold, currentTime);
         } catch (final Exception e) {
             return false;
         }
     }
+
+    private static boolean isInRefreshWindow(CognitoJWTClaims claims, long threshold,
+            long currentTime) {
+        final Date expiration = claims.getExpiration();
+        final Date issuedAt = claims.getIssuedAt();
+        if (expiration == null || issuedAt == null) {
+            return false;
+        }
+        final long timeBeforeThreshold = expiration.getTime() - issuedAt.getTime() - threshold;
+        if (timeBeforeThreshold <= 0) {
+            return false;
+        }
+        return expiration.getTime() - currentTime
+                < threshold + timeBeforeThreshold / REFRESH_WINDOW_DIVISOR;
+    }
+
+    /**
+     * Returns the earliest expiration of the id and access tokens.
+     *
+     * @return expiration time in milliseconds, 0 if the tokens are not
+     * parsable.
+     */
+    private long getExpirationTime() {
+        try {
+            return Math.min(idToken.getExpiration().getTime(),
+                    accessToken.getExpiration().getTime());
+        } catch (final Exception e) {
+            return 0;
+        }
+    }
     
     /**
      * Returns username contained in this session.
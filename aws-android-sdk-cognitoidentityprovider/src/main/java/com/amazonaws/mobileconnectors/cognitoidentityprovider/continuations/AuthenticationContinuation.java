@@ -22,10 +22,12 @@ import android.os.Handler;
 
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.CognitoUser;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.handlers.AuthenticationHandler;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoIdentityProviderClientConfig;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Defines Continuation for authentication. This Continuation is used when user log-in details
@@ -114,24 +116,33 @@ public class AuthenticationContinuation implements CognitoIdentityProviderContin
     @Override
     public void continueTask() {
         if (runInBackground) {
-            new Thread(new Runnable() {
-                @Override
-                public void run() {
-                    final Handler handler = new Handler(context.getMainLooper());
-                    Runnable nextStep;
-                    try {
-                        nextStep = user.initiateUserAuthentication(clientMetadata, authenticationDetails, callback, RUN_IN_BACKGROUND);
-                    } catch (final Exception e) {
-                        nextStep = new Runnable() {
-                            @Override
-                            public void run() {
-                                callback.onFailure(e);
-                            }
-                        };
+            try {
+                CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final Handler handler = new Handler(context.getMainLooper());
+                        Runnable nextStep;
+                        try {
+                            nextStep = user.initiateUserAuthentication(clientMetadata, authenticationDetails, callback, RUN_IN_BACKGROUND);
+                        } catch (final Exception e) {
+                            nextStep = new Runnable() {
+                                @Override
+                                public void run() {
+                                    callback.onFailure(e);
+                                }
+                            };
+                        }
+                        handler.post(nextStep);
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                new Handler(context.getMainLooper()).post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onFailure(e);
                     }
-                    handler.post(nextStep);
-                }
-            }).start();
+                });
+            }
         } else {
             Runnable nextStep;
             try {
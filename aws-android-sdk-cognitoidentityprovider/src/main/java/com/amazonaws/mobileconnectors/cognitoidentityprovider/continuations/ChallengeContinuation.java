@@ -22,6 +22,7 @@ import android.os.Handler;
 
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.CognitoUser;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.handlers.AuthenticationHandler;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoIdentityProviderClientConfig;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoServiceConstants;
 import com.amazonaws.services.cognitoidentityprovider.model.RespondToAuthChallengeRequest;
 import com.amazonaws.services.cognitoidentityprovider.model.RespondToAuthChallengeResult;
@@ -29,6 +30,7 @@ import com.amazonaws.services.cognitoidentityprovider.model.RespondToAuthChallen
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Defines a Continuation for a generic auth-challenge. This Continuation is used for all developer
@@ -169,24 +171,33 @@ public class ChallengeContinuation implements CognitoIdentityProviderContinuatio
             respondToAuthChallengeRequest.setClientMetadata(clientMetaData);
         }
         if (runInBackground) {
-            new Thread(new Runnable() {
-                @Override
-                public void run() {
-                    final Handler handler = new Handler(context.getMainLooper());
-                    Runnable nextStep;
-                    try {
-                        nextStep = user.respondToChallenge(clientMetaData, respondToAuthChallengeRequest, callback, RUN_IN_BACKGROUND);
-                    } catch (final Exception e) {
-                        nextStep = new Runnable() {
-                            @Override
-                            public void run() {
-                                callback.onFailure(e);
-                            }
-                        };
+            try {
+                CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final Handler handler = new Handler(context.getMainLooper());
+                        Runnable nextStep;
+                        try {
+                            nextStep = user.respondToChallenge(clientMetaData, respondToAuthChallengeRequest, callback, RUN_IN_BACKGROUND);
+                        } catch (final Exception e) {
+                            nextStep = new Runnable() {
+                                @Override
+                                public void run() {
+                                    callback.onFailure(e);
+                                }
+                            };
+                        }
+                        handler.post(nextStep);
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                new Handler(context.getMainLooper()).post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onFailure(e);
                     }
-                    handler.post(nextStep);
-                }
-            }).start();
+                });
+            }
         } else {
             Runnable nextStep;
             try {
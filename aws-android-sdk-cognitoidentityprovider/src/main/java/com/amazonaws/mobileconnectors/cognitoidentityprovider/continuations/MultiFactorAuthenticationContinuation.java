@@ -23,12 +23,14 @@ import android.os.Handler;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.CognitoUser;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.CognitoUserCodeDeliveryDetails;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.handlers.AuthenticationHandler;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoIdentityProviderClientConfig;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoServiceConstants;
 import com.amazonaws.services.cognitoidentityprovider.model.RespondToAuthChallengeResult;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * This is a Continuation for multi-factor authentication.
@@ -126,26 +128,35 @@ public class MultiFactorAuthenticationContinuation implements CognitoIdentityPro
     @Override
     public void continueTask() {
         if (runInBackground) {
-            new Thread(new Runnable() {
-                @Override
-                public void run() {
-                    final Handler handler = new Handler(context.getMainLooper());
-                    Runnable nextStep;
-                    try {
+            try {
+                CognitoIdentityProviderClientConfig.getBackgroundExecutor().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final Handler handler = new Handler(context.getMainLooper());
+                        Runnable nextStep;
+                        try {
 
-                        nextStep = user.respondToMfaChallenge(clientMetadata, mfaCode, challenge, callback,
-                                RUN_IN_BACKGROUND);
-                    } catch (final Exception e) {
-                        nextStep = new Runnable() {
-                            @Override
-                            public void run() {
-                                callback.onFailure(e);
-                            }
-                        };
+                            nextStep = user.respondToMfaChallenge(clientMetadata, mfaCode, challenge, callback,
+                                    RUN_IN_BACKGROUND);
+                        } catch (final Exception e) {
+                            nextStep = new Runnable() {
+                                @Override
+                                public void run() {
+                                    callback.onFailure(e);
+                                }
+                            };
+                        }
+                        handler.post(nextStep);
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                new Handler(context.getMainLooper()).post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onFailure(e);
                     }
-                    handler.post(nextStep);
-                }
-            }).start();
+                });
+            }
         } else {
             Runnable nextStep;
             try {
@@ -18,7 +18,7 @@
 package com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens;
 
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoInternalErrorException;
-import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoJWTParser;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoParameterInvalidException;
 
 import java.util.Date;
 
@@ -28,7 +28,11 @@ import java.util.Date;
 
 public class CognitoAccessToken extends CognitoUserToken {
 
-    private static final int SECS = 1000;
+    /**
+     * Claims of this token, decoded once. Null if the token is not a valid
+     * JWT.
+     */
+    private final CognitoJWTClaims claims;
 
     /**
      * Create a new access token.
@@ -37,6 +41,13 @@ public class CognitoAccessToken extends CognitoUserToken {
      */
     public CognitoAccessToken(String jwtToken) {
         super(jwtToken);
+        CognitoJWTClaims decodedClaims = null;
+        try {
+            decodedClaims = CognitoJWTClaims.decode(jwtToken);
+        } catch (final Exception e) {
+            // reported when the claims are read
+        }
+        this.claims = decodedClaims;
     }
 
     /**
@@ -48,6 +59,21 @@ public class CognitoAccessToken extends CognitoUserToken {
         return super.getToken();
     }
 
+    /**
+     * Returns the claims of this access token, decoded when the token was
+     * created.
+     *
+     * @return the claims as {@link CognitoJWTClaims}.
+     * @throws CognitoParameterInvalidException if this token is not a valid
+     *             JWT.
+     */
+    public CognitoJWTClaims getClaims() {
+        if (claims == null) {
+            throw new CognitoParameterInvalidException("invalid token");
+        }
+        return claims;
+    }
+
     /**
      * Returns expiration of this access token.
      *
@@ -55,13 +81,7 @@ public class CognitoAccessToken extends CognitoUserToken {
      */
     public Date getExpiration() {
         try {
-            final String claim = CognitoJWTParser.getClaim(super.getToken(), "exp");
-            if (claim == null) {
-                return null;
-            }
-            final long epocTimeSec = Long.parseLong(claim);
-            final long epocTimeMilliSec = epocTimeSec * SECS;
-            return new Date(epocTimeMilliSec);
+            return getClaims().getExpiration();
         } catch (final Exception e) {
             throw new CognitoInternalErrorException(e.getMessage());
         }
@@ -72,6 +92,6 @@ public class CognitoAccessToken extends CognitoUserToken {
      * @return Username.
      */
     public String getUsername() throws Exception {
-        return CognitoJWTParser.getClaim(super.getToken(), "username");
+        return getClaims().getClaim("username");
     }
 }
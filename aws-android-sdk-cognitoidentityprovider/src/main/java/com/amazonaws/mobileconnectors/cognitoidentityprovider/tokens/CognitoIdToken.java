@@ -18,7 +18,7 @@
 package com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens;
 
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoInternalErrorException;
-import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoJWTParser;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoParameterInvalidException;
 
 import java.util.Date;
 
@@ -27,7 +27,11 @@ import java.util.Date;
  */
 public class CognitoIdToken extends CognitoUserToken {
 
-    private static final int SECS = 1000;
+    /**
+     * Claims of this token, decoded once. Null if the token is not a valid
+     * JWT.
+     */
+    private final CognitoJWTClaims claims;
 
     /**
      * Create a new id token.
@@ -36,6 +40,13 @@ public class CognitoIdToken extends CognitoUserToken {
      */
     public CognitoIdToken(String jwtToken) {
         super(jwtToken);
+        CognitoJWTClaims decodedClaims = null;
+        try {
+            decodedClaims = CognitoJWTClaims.decode(jwtToken);
+        } catch (final Exception e) {
+            // reported when the claims are read
+        }
+        this.claims = decodedClaims;
     }
 
     /**
@@ -47,6 +58,21 @@ public class CognitoIdToken extends CognitoUserToken {
         return super.getToken();
     }
 
+    /**
+     * Returns the claims of this id token, decoded when the token was
+     * created.
+     *
+     * @return the claims as {@link CognitoJWTClaims}.
+     * @throws CognitoParameterInvalidException if this token is not a valid
+     *             JWT.
+     */
+    public CognitoJWTClaims getClaims() {
+        if (claims == null) {
+            throw new CognitoParameterInvalidException("invalid token");
+        }
+        return claims;
+    }
+
     /**
      * Returns expiration of this id token.
      *
@@ -54,13 +80,7 @@ public class CognitoIdToken extends CognitoUserToken {
      */
     public Date getExpiration() {
         try {
-            final String claim = CognitoJWTParser.getClaim(super.getToken(), "exp");
-            if (claim == null) {
-                return null;
-            }
-            final long epocTimeSec = Long.parseLong(claim);
-            final long epocTimeMilliSec = epocTimeSec * SECS;
-            return new Date(epocTimeMilliSec);
+            return getClaims().getExpiration();
         } catch (final Exception e) {
             throw new CognitoInternalErrorException(e.getMessage(), e);
         }
@@ -73,13 +93,7 @@ public class CognitoIdToken extends CognitoUserToken {
      */
     public Date getNotBefore() {
         try {
-            final String claim = CognitoJWTParser.getClaim(super.getToken(), "nbf");
-            if (claim == null) {
-                return null;
-            }
-            final long epocTimeSec = Long.parseLong(claim);
-            final long epocTimeMilliSec = epocTimeSec * SECS;
-            return new Date(epocTimeMilliSec);
+            return getClaims().getNotBefore();
         } catch (final Exception e) {
             throw new CognitoInternalErrorException(e.getMessage(), e);
         }
@@ -92,13 +106,7 @@ public class CognitoIdToken extends CognitoUserToken {
      */
     public Date getIssuedAt() {
         try {
-            final String claim = CognitoJWTParser.getClaim(super.getToken(), "iat");
-            if (claim == null) {
-                return null;
-            }
-            final long epocTimeSec = Long.parseLong(claim);
-            final long epocTimeMilliSec = epocTimeSec * SECS;
-            return new Date(epocTimeMilliSec);
+            return getClaims().getIssuedAt();
         } catch (final Exception e) {
             throw new CognitoInternalErrorException(e.getMessage(), e);
         }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2013-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens;
+
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoParameterInvalidException;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoJWTParser;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The claims of a JWT, decoded once. Provides typed accessors for the
+ * registered claims used by Cognito tokens. The time claims are parsed when
+ * read, so an invalid one only fails its own accessor.
+ */
+public final class CognitoJWTClaims {
+
+    private static final int SECS = 1000;
+
+    private static final String EXPIRATION = "exp";
+    private static final String ISSUED_AT = "iat";
+    private static final String NOT_BEFORE = "nbf";
+    private static final String SUBJECT = "sub";
+    private static final String GROUPS = "cognito:groups";
+
+    private final JSONObject header;
+    private final JSONObject payload;
+    private final List<String> groups;
+
+    private CognitoJWTClaims(JSONObject header, JSONObject payload) {
+        this.header = header;
+        this.payload = payload;
+        this.groups = getStrings(payload, GROUPS);
+    }
+
+    /**
+     * Decodes the header and the payload of a JWT.
+     *
+     * @param jwt REQUIRED: valid JSON Web Token as String.
+     * @return the claims of the JWT.
+     * @throws CognitoParameterInvalidException if the JWT is not valid.
+     */
+    public static CognitoJWTClaims decode(String jwt) {
+        try {
+            return new CognitoJWTClaims(CognitoJWTParser.getHeader(jwt),
+                    CognitoJWTParser.getPayload(jwt));
+        } catch (final CognitoParameterInvalidException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new CognitoParameterInvalidException("invalid token");
+        }
+    }
+
+    /**
+     * Returns a claim from the payload as a String.
+     *
+     * @param claim REQUIRED: claim name as String.
+     * @return claim as a String.
+     * @throws CognitoParameterInvalidException if the claim is not present.
+     */
+    public String getClaim(String claim) {
+        return getString(payload, claim);
+    }
+
+    /**
+     * Checks if the payload contains a claim.
+     *
+     * @param claim REQUIRED: claim name as String.
+     * @return true if the claim is present.
+     */
+    public boolean hasClaim(String claim) {
+        return payload.has(claim);
+    }
+
+    /**
+     * Returns a parameter from the header as a String, such as "kid".
+     *
+     * @param name REQUIRED: parameter name as String.
+     * @return parameter as a String.
+     * @throws CognitoParameterInvalidException if the parameter is not present.
+     */
+    public String getHeaderClaim(String name) {
+        return getString(header, name);
+    }
+
+    /**
+     * @return "exp" claim as {@link java.util.Date} in UTC, null if absent.
+     * @throws CognitoParameterInvalidException if the claim is not a number.
+     */
+    public Date getExpiration() {
+        return getTime(payload, EXPIRATION);
+    }
+
+    /**
+     * @return "iat" claim as {@link java.util.Date} in UTC, null if absent.
+     * @throws CognitoParameterInvalidException if the claim is not a number.
+     */
+    public Date getIssuedAt() {
+        return getTime(payload, ISSUED_AT);
+    }
+
+    /**
+     * @return "nbf" claim as {@link java.util.Date} in UTC, null if absent.
+     * @throws CognitoParameterInvalidException if the claim is not a number.
+     */
+    public Date getNotBefore() {
+        return getTime(payload, NOT_BEFORE);
+    }
+
+    /**
+     * @return "sub" claim, null if absent.
+     */
+    public String getSubject() {
+        return hasClaim(SUBJECT) ? getClaim(SUBJECT) : null;
+    }
+
+    /**
+     * @return "cognito:groups" claim as an unmodifiable list, empty if absent.
+     */
+    public List<String> getGroups() {
+        return groups;
+    }
+
+    private static String getString(JSONObject object, String name) {
+        final Object value = object.opt(name);
+        if (value == null) {
+            throw new CognitoParameterInvalidException("invalid token");
+        }
+        return value.toString();
+    }
+
+    private static Date getTime(JSONObject object, String name) {
+        final Object value = object.opt(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new Date(Long.parseLong(value.toString()) * SECS);
+        } catch (final NumberFormatException e) {
+            throw new CognitoParameterInvalidException("invalid " + name + " claim");
+        }
+    }
+
+    private static List<String> getStrings(JSONObject object, String name) {
+        final JSONArray array = object.optJSONArray(name);
+        if (array == null) {
+            return Collections.emptyList();
+        }
+        final List<String> strings = new ArrayList<String>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            strings.add(array.optString(i));
+        }
+        return Collections.unmodifiableList(strings);
+    }
+}
@@ -19,6 +19,9 @@ package com.amazonaws.mobileconnectors.cognitoidentityprovider.util;
 
 
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoParameterInvalidException;
+import com.amazonaws.util.DaemonThreadPools;
+
+import java.util.concurrent.Executor;
 
 /**
  * Maintains SDK configuration.
@@ -45,6 +48,23 @@ public final class CognitoIdentityProviderClientConfig {
      */
     private static long refreshThreshold = REFRESH_THRESHOLD_DEFAULT;
 
+    /**
+     * Number of threads of the default executor for background operations.
+     */
+    private static final int BACKGROUND_THREAD_COUNT_DEFAULT = 4;
+
+    /**
+     * Time after which the idle threads of the default executor end, in
+     * seconds.
+     */
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+    /**
+     * Executor for the background operations, such as
+     * {@code CognitoUser#getDetailsInBackground}.
+     */
+    private static Executor backgroundExecutor;
+
     /**
      * Set the threshold for token refresh.
      *
@@ -65,4 +85,30 @@ public final class CognitoIdentityProviderClientConfig {
     public static long getRefreshThreshold() {
         return refreshThreshold;
     }
+
+    /**
+     * Set the executor which runs the background operations, such as the
+     * {@code *InBackground} methods of {@code CognitoUser} and
+     * {@code CognitoDevice}. The callbacks are still called on the main
+     * thread. An operation rejected by the executor fails its callback with
+     * the {@link java.util.concurrent.RejectedExecutionException}.
+     *
+     * @param executor          REQUIRED: The executor, null to use the default
+     *                          executor of {@value #BACKGROUND_THREAD_COUNT_DEFAULT}
+     *                          threads.
+     */
+    public static synchronized void setBackgroundExecutor(Executor executor) {
+        backgroundExecutor = executor;
+    }
+
+    /**
+     * @return the executor which runs the background operations.
+     */
+    public static synchronized Executor getBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = DaemonThreadPools.newFixedThreadPool("CognitoIdentityProvider",
+                    BACKGROUND_THREAD_COUNT_DEFAULT, THREAD_KEEP_ALIVE_SECONDS);
+        }
+        return backgroundExecutor;
+    }
 }
@@ -16,8 +16,16 @@ package com.amazonaws.mobileconnectors.cognitoidentityprovider;
 
 import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.util.Base64;
@@ -27,28 +35,47 @@ import com.amazonaws.mobileconnectors.cognitoidentityprovider.continuations.Auth
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.continuations.AuthenticationDetails;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.continuations.ChallengeContinuation;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.continuations.MultiFactorAuthenticationContinuation;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoNotAuthorizedException;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.handlers.AuthenticationHandler;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.handlers.GenericHandler;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.handlers.GetDetailsHandler;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens.CognitoAccessToken;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens.CognitoIdToken;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens.CognitoRefreshToken;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoIdentityProviderClientConfig;
 import com.amazonaws.mobileconnectors.cognitoidentityprovider.util.CognitoServiceConstants;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.cognitoidentityprovider.AmazonCognitoIdentityProvider;
 import com.amazonaws.services.cognitoidentityprovider.model.AuthenticationResultType;
+import com.amazonaws.services.cognitoidentityprovider.model.GetUserRequest;
+import com.amazonaws.services.cognitoidentityprovider.model.GetUserResult;
 import com.amazonaws.services.cognitoidentityprovider.model.InitiateAuthRequest;
 import com.amazonaws.services.cognitoidentityprovider.model.InitiateAuthResult;
+import com.amazonaws.services.cognitoidentityprovider.model.InternalErrorException;
 import com.amazonaws.services.cognitoidentityprovider.model.RespondToAuthChallengeRequest;
 import com.amazonaws.services.cognitoidentityprovider.model.RespondToAuthChallengeResult;
 import com.amazonaws.util.StringUtils;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 import org.robolectric.shadows.ShadowLog;
+import org.robolectric.shadows.ShadowLooper;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(manifest= Config.NONE, sdk = 27)
@@ -66,6 +93,11 @@ public class CognitoUserPoolTest {
         cognitoUserPool.setIdentityProvider(mockProvider);
     }
 
+    @After
+    public void teardown() {
+        CognitoIdentityProviderClientConfig.setBackgroundExecutor(null);
+    }
+
     /**
      * Verify that the last auth user is saved when a previous session is read from cache.
      *
@@ -97,6 +129,235 @@ public class CognitoUserPoolTest {
         assertEquals(USER1, currentUser1.getUserId());
     }
 
+    /**
+     * Verify that concurrent callers of an expired session share one refresh.
+     */
+    @Test
+    public void verifyConcurrentCallersShareOneRefresh() throws Exception {
+        CognitoUser user = cognitoUserPool.getUser(USER1);
+        user.cacheTokens(getSession(-60));
+        final AtomicInteger refreshes = new AtomicInteger();
+        final CountDownLatch refreshStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRefresh = new CountDownLatch(1);
+        when(mockProvider.initiateAuth(any(InitiateAuthRequest.class))).thenAnswer(answer -> {
+            refreshes.incrementAndGet();
+            refreshStarted.countDown();
+            releaseRefresh.await(5, TimeUnit.SECONDS);
+            return getRefreshResult(3600);
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CognitoUserSession>> sessions = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                sessions.add(callers.submit(user::getCachedSession));
+            }
+            assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+            releaseRefresh.countDown();
+
+            CognitoUserSession refreshed = sessions.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<CognitoUserSession> session : sessions) {
+                assertSame(refreshed, session.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, refreshes.get());
+        verify(mockProvider, times(1)).initiateAuth(any(InitiateAuthRequest.class));
+    }
+
+    /**
+     * Verify that a session close to the refresh threshold is kept when its
+     * background refresh fails, and that the refresh isn't retried.
+     */
+    @Test
+    public void verifyFailedBackgroundRefreshKeepsSession() throws Exception {
+        CognitoUser user = cognitoUserPool.getUser(USER1);
+        user.cacheTokens(getSession(-3420, 180));
+        final CountDownLatch refreshFailed = new CountDownLatch(1);
+        when(mockProvider.initiateAuth(any(InitiateAuthRequest.class))).thenAnswer(answer -> {
+            refreshFailed.countDown();
+            throw new InternalErrorException("refresh failed");
+        });
+
+        CognitoUserSession session = user.getCachedSession();
+        // starts the background refresh
+        assertSame(session, user.getCachedSession());
+        assertTrue(refreshFailed.await(5, TimeUnit.SECONDS));
+
+        assertSame(session, user.getCachedSession());
+        assertSame(session, user.getCachedSession());
+        verify(mockProvider, times(1)).initiateAuth(any(InitiateAuthRequest.class));
+    }
+
+    /**
+     * Verify that with the maximum refresh threshold a new one hour session
+     * isn't refreshed in the background, and that a session in the refresh
+     * window is refreshed once.
+     */
+    @Test
+    public void verifyBackgroundRefreshAtMaxThreshold() throws Exception {
+        final long refreshThreshold = CognitoIdentityProviderClientConfig.getRefreshThreshold();
+        CognitoIdentityProviderClientConfig.setRefreshThreshold(1800 * 1000);
+        try {
+            CognitoUser user = cognitoUserPool.getUser(USER1);
+            when(mockProvider.initiateAuth(any(InitiateAuthRequest.class)))
+                    .thenReturn(getRefreshResult(3600));
+
+            CognitoUserSession session = getSession(3600);
+            user.cacheTokens(session);
+            for (int i = 0; i < 10; i++) {
+                assertSame(session, user.getCachedSession());
+            }
+            verify(mockProvider, never()).initiateAuth(any(InitiateAuthRequest.class));
+
+            // valid for 2000s, in the last quarter of the 1800s before the threshold
+            session = getSession(-1600, 2000);
+            user.cacheTokens(session);
+            assertSame(session, user.getCachedSession());
+            CognitoUserSession refreshed = session;
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (refreshed == session && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                refreshed = user.getCachedSession();
+            }
+            assertNotSame(session, refreshed);
+            for (int i = 0; i < 10; i++) {
+                assertSame(refreshed, user.getCachedSession());
+            }
+            verify(mockProvider, times(1)).initiateAuth(any(InitiateAuthRequest.class));
+        } finally {
+            CognitoIdentityProviderClientConfig.setRefreshThreshold(refreshThreshold);
+        }
+    }
+
+    /**
+     * Verify that signing out during a background refresh doesn't bring the
+     * refreshed session back.
+     */
+    @Test
+    public void verifySignOutDuringBackgroundRefresh() throws Exception {
+        CognitoUser user = cognitoUserPool.getUser(USER1);
+        user.cacheTokens(getSession(-3420, 180));
+        final CountDownLatch refreshStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRefresh = new CountDownLatch(1);
+        when(mockProvider.initiateAuth(any(InitiateAuthRequest.class))).thenAnswer(answer -> {
+            refreshStarted.countDown();
+            releaseRefresh.await(5, TimeUnit.SECONDS);
+            return getRefreshResult(3600);
+        });
+
+        user.getCachedSession();
+        // starts the background refresh
+        user.getCachedSession();
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+        user.signOut();
+        releaseRefresh.countDown();
+
+        try {
+            user.getCachedSession();
+            fail("Expected CognitoNotAuthorizedException");
+        } catch (final CognitoNotAuthorizedException expected) {
+            // expected
+        }
+        verify(mockProvider, times(1)).initiateAuth(any(InitiateAuthRequest.class));
+    }
+
+    /**
+     * Verify that concurrent getDetailsInBackground calls share one GetUser
+     * request, sent on the configured background executor.
+     */
+    @Test
+    public void verifyConcurrentGetDetailsShareOneRequest() {
+        final List<Runnable> submitted = new ArrayList<>();
+        CognitoIdentityProviderClientConfig.setBackgroundExecutor(submitted::add);
+        when(mockProvider.getUser(any(GetUserRequest.class))).thenReturn(new GetUserResult()
+                .withUsername(USER1));
+        CognitoUser user = cognitoUserPool.getUser(USER1);
+        user.cacheTokens(getSession(3600));
+
+        RecordingGetDetailsHandler first = new RecordingGetDetailsHandler();
+        RecordingGetDetailsHandler second = new RecordingGetDetailsHandler();
+        user.getDetailsInBackground(first);
+        user.getDetailsInBackground(second);
+        assertEquals(1, submitted.size());
+
+        submitted.get(0).run();
+        ShadowLooper.idleMainLooper();
+        assertNotNull(first.details);
+        assertNotNull(second.details);
+        verify(mockProvider, times(1)).getUser(any(GetUserRequest.class));
+
+        // the next call sends a new request
+        user.getDetailsInBackground(new RecordingGetDetailsHandler());
+        assertEquals(2, submitted.size());
+    }
+
+    /**
+     * Verify that a getDetailsInBackground request rejected by the background
+     * executor fails its callbacks and doesn't block the later calls.
+     */
+    @Test
+    public void verifyRejectedGetDetailsFailsCallbacks() {
+        CognitoIdentityProviderClientConfig.setBackgroundExecutor(command -> {
+            throw new RejectedExecutionException("shutdown");
+        });
+        CognitoUser user = cognitoUserPool.getUser(USER1);
+
+        RecordingGetDetailsHandler rejected = new RecordingGetDetailsHandler();
+        user.getDetailsInBackground(rejected);
+        ShadowLooper.idleMainLooper();
+        assertTrue(rejected.exception instanceof RejectedExecutionException);
+
+        final List<Runnable> submitted = new ArrayList<>();
+        CognitoIdentityProviderClientConfig.setBackgroundExecutor(submitted::add);
+        user.getDetailsInBackground(new RecordingGetDetailsHandler());
+        assertEquals(1, submitted.size());
+    }
+
+    /**
+     * Verify that the other background operations fail their callback too
+     * when the background executor rejects them.
+     */
+    @Test
+    public void verifyRejectedBackgroundOperationFailsCallback() {
+        CognitoIdentityProviderClientConfig.setBackgroundExecutor(command -> {
+            throw new RejectedExecutionException("shutdown");
+        });
+        CognitoUser user = cognitoUserPool.getUser(USER1);
+
+        final List<Exception> failures = new ArrayList<>();
+        user.globalSignOutInBackground(new GenericHandler() {
+            @Override
+            public void onSuccess() {
+                fail("The operation was rejected");
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                failures.add(exception);
+            }
+        });
+        ShadowLooper.idleMainLooper();
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof RejectedExecutionException);
+    }
+
+    static final class RecordingGetDetailsHandler implements GetDetailsHandler {
+        CognitoUserDetails details;
+        Exception exception;
+
+        @Override
+        public void onSuccess(CognitoUserDetails cognitoUserDetails) {
+            details = cognitoUserDetails;
+        }
+
+        @Override
+        public void onFailure(Exception exception) {
+            this.exception = exception;
+        }
+    }
+
     static final class LatchedAuthenticationHandler implements AuthenticationHandler {
         private final CountDownLatch loginLatch;
 
@@ -151,12 +412,33 @@ public class CognitoUserPoolTest {
         });
     }
 
+    private CognitoUserSession getSession(long expiryInSecs) {
+        return getSession(0, expiryInSecs);
+    }
+
+    private CognitoUserSession getSession(long issuedInSecs, long expiryInSecs) {
+        String validJWT = getValidJWT(issuedInSecs, expiryInSecs);
+        return new CognitoUserSession(new CognitoIdToken(validJWT),
+                new CognitoAccessToken(validJWT), new CognitoRefreshToken("refreshToken"));
+    }
+
+    private InitiateAuthResult getRefreshResult(long expiryInSecs) {
+        String validJWT = getValidJWT(expiryInSecs);
+        return new InitiateAuthResult().withAuthenticationResult(new AuthenticationResultType()
+                .withAccessToken(validJWT)
+                .withIdToken(validJWT));
+    }
+
     private String getValidJWT(long expiryInSecs){
-        long epoch = System.currentTimeMillis()/1000L;
-        epoch = epoch + expiryInSecs;
+        return getValidJWT(0, expiryInSecs);
+    }
+
+    private String getValidJWT(long issuedInSecs, long expiryInSecs){
+        long now = System.currentTimeMillis()/1000L;
+        long epoch = now + expiryInSecs;
         String accessToken_p1_Base64 = "eyJ0eXAiOiAiSldUIiwgImFsZyI6IlJTMjU2In0=";
         String accessToken_p3_Base64 = "e0VuY3J5cHRlZF9LZXl9";
-        String accessToken_p2_Str = "{\"iss\": \"userPoolId\",\"sub\": \"my@email.com\",\"aud\": \"https:aws.cognito.com\",\"exp\": \"" + String.valueOf(epoch).toString() + "\"}";
+        String accessToken_p2_Str = "{\"iss\": \"userPoolId\",\"sub\": \"my@email.com\",\"aud\": \"https:aws.cognito.com\",\"exp\": \"" + String.valueOf(epoch).toString() + "\",\"iat\": \"" + (now + issuedInSecs) + "\"}";
         byte[] accessToken_p2_UTF8 = accessToken_p2_Str.getBytes(StringUtils.UTF8);
         //String accessToken_p2_Base64 = Base64.encodeToString(accessToken_p2_UTF8, Base64.DEFAULT);
         String accessToken_p2_Base64 = new String(Base64.encode(accessToken_p2_UTF8, Base64.DEFAULT));
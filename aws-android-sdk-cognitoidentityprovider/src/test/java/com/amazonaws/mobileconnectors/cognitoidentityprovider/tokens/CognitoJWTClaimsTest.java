@@ -0,0 +1,124 @@
+/*
+ * Copyright 2021 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.mobileconnectors.cognitoidentityprovider.tokens;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.util.Base64;
+
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoInternalErrorException;
+import com.amazonaws.mobileconnectors.cognitoidentityprovider.exceptions.CognitoParameterInvalidException;
+import com.amazonaws.util.StringUtils;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Date;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest= Config.NONE, sdk = 27)
+public class CognitoJWTClaimsTest {
+    private static final String HEADER = "{\"kid\": \"key-id\", \"alg\": \"RS256\"}";
+
+    @Test
+    public void testRegisteredClaims() {
+        final CognitoJWTClaims claims = CognitoJWTClaims.decode(jwt("{\"sub\": \"subject\","
+                + "\"exp\": 1600000300, \"iat\": \"1600000000\", \"nbf\": 1600000000,"
+                + "\"cognito:groups\": [\"admin\", \"users\"],"
+                + "\"cognito:username\": \"user1\"}"));
+
+        assertEquals(new Date(1600000300000L), claims.getExpiration());
+        assertEquals(new Date(1600000000000L), claims.getIssuedAt());
+        assertEquals(new Date(1600000000000L), claims.getNotBefore());
+        assertEquals("subject", claims.getSubject());
+        assertEquals(Arrays.asList("admin", "users"), claims.getGroups());
+        assertEquals("user1", claims.getClaim("cognito:username"));
+        assertTrue(claims.hasClaim("cognito:username"));
+        assertEquals("key-id", claims.getHeaderClaim("kid"));
+    }
+
+    @Test
+    public void testMissingClaims() {
+        final CognitoJWTClaims claims = CognitoJWTClaims.decode(jwt("{}"));
+
+        assertNull(claims.getExpiration());
+        assertNull(claims.getIssuedAt());
+        assertNull(claims.getNotBefore());
+        assertNull(claims.getSubject());
+        assertTrue(claims.getGroups().isEmpty());
+        assertFalse(claims.hasClaim("cognito:username"));
+        try {
+            claims.getClaim("cognito:username");
+            fail("Expected CognitoParameterInvalidException");
+        } catch (final CognitoParameterInvalidException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testInvalidTimeClaimOnlyFailsItsAccessor() {
+        final CognitoIdToken token = new CognitoIdToken(jwt("{\"exp\": \"soon\","
+                + "\"iat\": 1600000000, \"cognito:username\": \"user1\"}"));
+
+        assertEquals("user1", token.getClaims().getClaim("cognito:username"));
+        assertEquals(new Date(1600000000000L), token.getIssuedAt());
+        try {
+            token.getClaims().getExpiration();
+            fail("Expected CognitoParameterInvalidException");
+        } catch (final CognitoParameterInvalidException expected) {
+            // expected
+        }
+        try {
+            token.getExpiration();
+            fail("Expected CognitoInternalErrorException");
+        } catch (final CognitoInternalErrorException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testInvalidJWT() {
+        final CognitoAccessToken token = new CognitoAccessToken("not a jwt");
+
+        try {
+            token.getClaims();
+            fail("Expected CognitoParameterInvalidException");
+        } catch (final CognitoParameterInvalidException expected) {
+            // expected
+        }
+        try {
+            CognitoJWTClaims.decode("not.a.jwt");
+            fail("Expected CognitoParameterInvalidException");
+        } catch (final CognitoParameterInvalidException expected) {
+            // expected
+        }
+    }
+
+    private static String jwt(String payload) {
+        return encode(HEADER) + "." + encode(payload) + "." + encode("signature");
+    }
+
+    private static String encode(String section) {
+        return Base64.encodeToString(section.getBytes(StringUtils.UTF8),
+                Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING);
+    }
+}
@@ -31,8 +31,11 @@ import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Signer implementation that signs requests with the AWS4 signing protocol.
@@ -42,12 +45,44 @@ public class AWS4Signer extends AbstractAWSSigner
 
     protected static final String ALGORITHM = "AWS4-HMAC-SHA256";
     protected static final String TERMINATOR = "aws4_request";
+    /**
+     * Value of the x-amz-content-sha256 header when the payload is signed
+     * chunk by chunk while it is sent.
+     */
+    protected static final String STREAMING_CONTENT_SHA256 = "STREAMING-AWS4-HMAC-SHA256-PAYLOAD";
+    private static final String AWS_CHUNKED_ENCODING = "aws-chunked";
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String DECODED_CONTENT_LENGTH = "x-amz-decoded-content-length";
     private static final String DATE_PATTERN = "yyyyMMdd";
     private static final String TIME_PATTERN = "yyyyMMdd'T'HHmmss'Z'";
     private static final long MILLISEC = 1000L;
 
     /** Seconds in a week, which is the max expiration time Sig-v4 accepts */
     private static final long MAX_EXPIRATION_TIME_IN_SECONDS = 60 * 60 * 24 * 7;
+
+    /** Maximum number of signing keys cached across signer instances. */
+    private static final int MAX_SIGNING_KEY_CACHE_SIZE = 300;
+
+    /**
+     * Signing keys by SHA-256 digest of the secret key, region and service,
+     * shared by all signers.
+     * Access is synchronized on the cache.
+     */
+    private static final SigningKeyCache SIGNING_KEY_CACHE =
+            new SigningKeyCache(MAX_SIGNING_KEY_CACHE_SIZE);
+
+    /**
+     * Orders headers the way they appear in the canonical request.
+     */
+    private static final Comparator<Map.Entry<String, String>> HEADER_ORDER =
+            new Comparator<Map.Entry<String, String>>() {
+                @Override
+                public int compare(Map.Entry<String, String> a, Map.Entry<String, String> b) {
+                    return String.CASE_INSENSITIVE_ORDER.compare(a.getKey(), b.getKey());
+                }
+            };
+
     /**
      * Service name override for use when the endpoint can't be used to
      * determine the service name.
@@ -71,6 +106,12 @@ public class AWS4Signer extends AbstractAWSSigner
      */
     protected boolean doubleUrlEncode;
 
+    /**
+     * Whether payloads of known length are sent aws-chunked, with each chunk
+     * signed as it is read, instead of being hashed before sending.
+     */
+    protected boolean streamingPayloadSigning;
+
     /**
      * Construct a new AWS4 signer instance. By default, enable double
      * url-encoding.
@@ -175,6 +216,26 @@ public class AWS4Signer extends AbstractAWSSigner
         this.regionName = regionName;
     }
 
+    /**
+     * Enables signing the request payload while it is sent. The payload is
+     * then read once, in chunks, instead of being read in full to compute its
+     * hash before the request is sent. Only requests with a Content-Length
+     * header are streamed; the others are signed as usual. The service must
+     * accept aws-chunked payloads. Disabled by default.
+     *
+     * @param streamingPayloadSigning Whether to sign payloads chunk by chunk.
+     */
+    public void setStreamingPayloadSigning(boolean streamingPayloadSigning) {
+        this.streamingPayloadSigning = streamingPayloadSigning;
+    }
+
+    /**
+     * @return whether payloads are signed chunk by chunk while sent.
+     */
+    public boolean isStreamingPayloadSigning() {
+        return streamingPayloadSigning;
+    }
+
     @Override
     protected void addSessionCredentials(Request<?> request, AWSSessionCredentials credentials) {
         request.addHeader("x-amz-security-token", credentials.getSessionToken());
@@ -208,46 +269,68 @@ public class AWS4Signer extends AbstractAWSSigner
     }
 
     protected String getCanonicalizedHeaderString(Request<?> request) {
-        final List<String> sortedHeaders = new ArrayList<String>();
-        sortedHeaders.addAll(request.getHeaders().keySet());
-        Collections.sort(sortedHeaders, String.CASE_INSENSITIVE_ORDER);
-
         final StringBuilder buffer = new StringBuilder();
-        for (final String header : sortedHeaders) {
-            if (needsSign(header)) {
-                final String key = StringUtils.lowerCase(header).replaceAll("\\s+", " ");
-                final String value = request.getHeaders().get(header);
-
-                buffer.append(key).append(":");
-                if (value != null) {
-                    buffer.append(value.replaceAll("\\s+", " "));
-                }
-
-                buffer.append("\n");
+        for (final Map.Entry<String, String> header : getSortedSignedHeaders(request)) {
+            appendCollapsingWhitespace(buffer, StringUtils.lowerCase(header.getKey()));
+            buffer.append(":");
+            if (header.getValue() != null) {
+                appendCollapsingWhitespace(buffer, header.getValue());
             }
+            buffer.append("\n");
         }
 
         return buffer.toString();
     }
 
     protected String getSignedHeadersString(Request<?> request) {
-        final List<String> sortedHeaders = new ArrayList<String>();
-        sortedHeaders.addAll(request.getHeaders().keySet());
-        Collections.sort(sortedHeaders, String.CASE_INSENSITIVE_ORDER);
-
         final StringBuilder buffer = new StringBuilder();
-        for (final String header : sortedHeaders) {
-            if (needsSign(header)) {
-                if (buffer.length() > 0) {
-                    buffer.append(";");
-                }
-                buffer.append(StringUtils.lowerCase(header));
+        for (final Map.Entry<String, String> header : getSortedSignedHeaders(request)) {
+            if (buffer.length() > 0) {
+                buffer.append(";");
             }
+            buffer.append(StringUtils.lowerCase(header.getKey()));
         }
 
         return buffer.toString();
     }
 
+    /**
+     * Returns the headers that need to be signed, in canonical order. Only
+     * the signed headers are sorted.
+     */
+    private List<Map.Entry<String, String>> getSortedSignedHeaders(Request<?> request) {
+        final List<Map.Entry<String, String>> signedHeaders =
+                new ArrayList<Map.Entry<String, String>>(request.getHeaders().size());
+        for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (needsSign(header.getKey())) {
+                signedHeaders.add(header);
+            }
+        }
+        Collections.sort(signedHeaders, HEADER_ORDER);
+        return signedHeaders;
+    }
+
+    /**
+     * Appends the value, replacing each run of whitespace characters with a
+     * single space. Same as {@code value.replaceAll("\\s+", " ")} without
+     * compiling a pattern.
+     */
+    private static void appendCollapsingWhitespace(StringBuilder buffer, String value) {
+        boolean inWhitespace = false;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                if (!inWhitespace) {
+                    buffer.append(' ');
+                    inWhitespace = true;
+                }
+            } else {
+                buffer.append(c);
+                inWhitespace = false;
+            }
+        }
+    }
+
     protected String getCanonicalRequest(Request<?> request, String contentSha256) {
         /* This would url-encode the resource path for the first time */
         String path;
@@ -300,18 +383,46 @@ public class AWS4Signer extends AbstractAWSSigner
         final String stringToSign = getStringToSign(algorithm, timeStamp, scope,
                 getCanonicalRequest(request, contentSha256));
 
+        final byte[] kSigning = getSigningKey(sanitizedCredentials, dateStamp, regionName,
+                serviceName);
+
+        final byte[] signature = sign(stringToSign.getBytes(StringUtils.UTF8), kSigning,
+                SigningAlgorithm.HmacSHA256);
+        return new HeaderSigningResult(timeStamp, scope, kSigning, signature);
+    }
+
+    /**
+     * Returns the signing key for the credentials and scope. The key only
+     * changes with the date, so it is derived once per day and cached.
+     */
+    @SuppressWarnings("checkstyle:hiddenfield")
+    private byte[] getSigningKey(AWSCredentials sanitizedCredentials, String dateStamp,
+            String regionName, String serviceName) {
+        final String secretKey = sanitizedCredentials.getAWSSecretKey();
+        // keyed by a digest so that the cache doesn't hold the secret key
+        final String cacheKey = BinaryUtils.toHex(hash(secretKey)) + "\n" + regionName
+                + "\n" + serviceName;
+        SigningKey signingKey;
+        synchronized (SIGNING_KEY_CACHE) {
+            signingKey = SIGNING_KEY_CACHE.get(cacheKey);
+        }
+        if (signingKey != null && signingKey.dateStamp.equals(dateStamp)) {
+            return signingKey.kSigning;
+        }
+
         // AWS4 uses a series of derived keys, formed by hashing different
         // pieces of data
-        final byte[] kSecret = ("AWS4" + sanitizedCredentials.getAWSSecretKey())
-                .getBytes(StringUtils.UTF8);
+        final byte[] kSecret = ("AWS4" + secretKey).getBytes(StringUtils.UTF8);
         final byte[] kDate = sign(dateStamp, kSecret, SigningAlgorithm.HmacSHA256);
         final byte[] kRegion = sign(regionName, kDate, SigningAlgorithm.HmacSHA256);
         final byte[] kService = sign(serviceName, kRegion, SigningAlgorithm.HmacSHA256);
         final byte[] kSigning = sign(TERMINATOR, kService, SigningAlgorithm.HmacSHA256);
 
-        final byte[] signature = sign(stringToSign.getBytes(StringUtils.UTF8), kSigning,
-                SigningAlgorithm.HmacSHA256);
-        return new HeaderSigningResult(timeStamp, scope, kSigning, signature);
+        signingKey = new SigningKey(dateStamp, kSigning);
+        synchronized (SIGNING_KEY_CACHE) {
+            SIGNING_KEY_CACHE.put(cacheKey, signingKey);
+        }
+        return kSigning;
     }
 
     protected final String getTimeStamp(long dateMilli) {
@@ -357,6 +468,19 @@ public class AWS4Signer extends AbstractAWSSigner
      * relating to content-encoding and content-length.)
      */
     protected String calculateContentHash(Request<?> request) {
+        if (useChunkEncoding(request)) {
+            final long originalContentLength =
+                    Long.parseLong(request.getHeaders().get(CONTENT_LENGTH));
+            final String contentEncoding = request.getHeaders().get(CONTENT_ENCODING);
+            request.addHeader(CONTENT_ENCODING, contentEncoding == null
+                    ? AWS_CHUNKED_ENCODING
+                    : AWS_CHUNKED_ENCODING + "," + contentEncoding);
+            request.addHeader(DECODED_CONTENT_LENGTH, Long.toString(originalContentLength));
+            request.addHeader(CONTENT_LENGTH, Long.toString(AwsChunkedEncodingInputStream
+                    .calculateStreamContentLength(originalContentLength)));
+            request.addHeader("x-amz-content-sha256", STREAMING_CONTENT_SHA256);
+            return STREAMING_CONTENT_SHA256;
+        }
         final InputStream payloadStream = getBinaryRequestPayloadStream(request);
         payloadStream.mark(-1);
         final String contentSha256 = BinaryUtils.toHex(hash(payloadStream));
@@ -376,7 +500,32 @@ public class AWS4Signer extends AbstractAWSSigner
      * implementation doesn't need to do anything.
      */
     protected void processRequestPayload(Request<?> request, HeaderSigningResult headerSigningResult) {
-        return;
+        if (useChunkEncoding(request)) {
+            final AwsChunkedEncodingInputStream chunkEncodedStream =
+                    new AwsChunkedEncodingInputStream(request.getContent(),
+                            headerSigningResult.getKSigning(),
+                            headerSigningResult.getDateTime(),
+                            headerSigningResult.getScope(),
+                            BinaryUtils.toHex(headerSigningResult.getSignature()),
+                            this);
+            request.setContent(chunkEncodedStream);
+        }
+    }
+
+    /**
+     * Determine whether the request payload is signed chunk by chunk with
+     * aws-chunked encoding. By default, only when streaming payload signing is
+     * enabled and the request has content of known length. Presigned requests
+     * are never chunk-encoded.
+     *
+     * @param request the request being signed.
+     * @return true if the payload is chunk-encoded.
+     */
+    protected boolean useChunkEncoding(Request<?> request) {
+        return streamingPayloadSigning
+                && request.getContent() != null
+                && request.getHeaders().get(CONTENT_LENGTH) != null
+                && !request.getParameters().containsKey("X-Amz-Algorithm");
     }
 
     protected static class HeaderSigningResult {
@@ -414,6 +563,39 @@ public class AWS4Signer extends AbstractAWSSigner
         }
     }
 
+    /**
+     * Derived signing key and the date it is valid for. The key is never
+     * modified once created.
+     */
+    private static final class SigningKey {
+        private final String dateStamp;
+        private final byte[] kSigning;
+
+        SigningKey(String dateStamp, byte[] kSigning) {
+            this.dateStamp = dateStamp;
+            this.kSigning = kSigning;
+        }
+    }
+
+    /**
+     * LinkedHashMap in access order that evicts the least recently used
+     * signing key once the max size has been reached.
+     */
+    private static final class SigningKeyCache extends LinkedHashMap<String, SigningKey> {
+        private static final long serialVersionUID = 1L;
+        private final int maxSize;
+
+        SigningKeyCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SigningKey> eldest) {
+            return size() > maxSize;
+        }
+    }
+
     @Override
     public void presignRequest(Request<?> request, AWSCredentials credentials,
             Date expiration) {
@@ -28,7 +28,9 @@ import com.amazonaws.Response;
 import com.amazonaws.ResponseMetadata;
 import com.amazonaws.SDKGlobalConfiguration;
 import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.Signer;
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.handlers.CredentialsRequestHandler;
 import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.internal.CRC32MismatchException;
@@ -38,7 +40,9 @@ import com.amazonaws.retry.RetryPolicy;
 import com.amazonaws.retry.RetryUtils;
 import com.amazonaws.util.AWSRequestMetrics;
 import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.DaemonThreadPools;
 import com.amazonaws.util.DateUtils;
+import com.amazonaws.util.IOUtils;
 import com.amazonaws.util.TimingInfo;
 
 import com.amazonaws.logging.Log;
@@ -56,6 +60,17 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The Amazon HTTP Client class.
@@ -74,6 +89,14 @@ public class AmazonHttpClient {
 
     private static final long TIME_MILLISEC = 1000L;
 
+    private static final long RETRY_THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+    /**
+     * Schedules the retries of the requests executed asynchronously, shared by
+     * all the clients and created on first use.
+     */
+    private static ScheduledExecutorService retryScheduler;
+
     /**
      * Logger providing detailed information on requests/responses. Users can
      * enable this logger to get access to AWS request IDs for responses,
@@ -204,20 +227,7 @@ public class AmazonHttpClient {
             HttpResponseHandler<AmazonWebServiceResponse<T>> responseHandler,
             HttpResponseHandler<AmazonServiceException> errorResponseHandler,
             ExecutionContext executionContext) {
-        // Prepend host prefix if specified in the request.
-        if (request.getHostPrefix() != null) {
-            try {
-                URI endpoint = request.getEndpoint();
-                String host = request.getHostPrefix() + endpoint.getHost();
-                request.setEndpoint(URIBuilder.builder(endpoint)
-                        .host(host)
-                        .build());
-            } catch (URISyntaxException error) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Failed to prepend host prefix: " + error.getMessage(), error);
-                }
-            }
-        }
+        prependHostPrefix(request);
         if (executionContext == null) {
             throw new AmazonClientException(
                     "Internal SDK Error: No execution context parameter specified.");
@@ -237,6 +247,72 @@ public class AmazonHttpClient {
         }
     }
 
+    /**
+     * Executes the request without blocking the calling thread. The request is
+     * signed, sent and its response handled on the threads of the executor,
+     * with the same retries as
+     * {@link #execute(Request, HttpResponseHandler, HttpResponseHandler, ExecutionContext)}
+     * , but no thread is held while waiting before a retry. When the
+     * {@link HttpClient} of this client is an {@link AsyncHttpClient}, no
+     * thread is held while the request is on the wire either.
+     *
+     * @param request The AmazonWebServices request to send to the remote server
+     * @param responseHandler A response handler to accept a successful response
+     *            from the remote server
+     * @param errorResponseHandler A response handler to accept an unsuccessful
+     *            response from the remote server
+     * @param executionContext Additional information about the context of this
+     *            web service call
+     * @param credentialsProvider If not null, the provider of the credentials
+     *            of the request, used in place of the credentials of the
+     *            execution context. They are retrieved on the executor, so
+     *            that the calling thread never waits for a refresh.
+     * @param executor The executor which runs the steps of the request.
+     * @param asyncHandler The handler notified of the result once the
+     *            returned future completes, may be null. Exceptions thrown by
+     *            it are logged and don't change the result of the future.
+     * @param <T> the response type.
+     * @return a future of the result of the request. Cancelling it stops the
+     *         retries.
+     */
+    public <T> Future<Response<T>> executeAsync(Request<?> request,
+            HttpResponseHandler<AmazonWebServiceResponse<T>> responseHandler,
+            HttpResponseHandler<AmazonServiceException> errorResponseHandler,
+            ExecutionContext executionContext, AWSCredentialsProvider credentialsProvider,
+            Executor executor,
+            AsyncHandler<AmazonWebServiceRequest, Response<T>> asyncHandler) {
+        prependHostPrefix(request);
+        if (executionContext == null) {
+            throw new AmazonClientException(
+                    "Internal SDK Error: No execution context parameter specified.");
+        }
+        final List<RequestHandler2> requestHandler2s = requestHandler2s(request, executionContext);
+        final AsyncRequestExecution<T> execution = new AsyncRequestExecution<T>(request,
+                responseHandler, errorResponseHandler, executionContext, requestHandler2s,
+                credentialsProvider, executor, asyncHandler);
+        execution.start();
+        return execution.future;
+    }
+
+    /**
+     * Prepends the host prefix of the request, if any, to its endpoint.
+     */
+    private void prependHostPrefix(Request<?> request) {
+        if (request.getHostPrefix() != null) {
+            try {
+                URI endpoint = request.getEndpoint();
+                String host = request.getHostPrefix() + endpoint.getHost();
+                request.setEndpoint(URIBuilder.builder(endpoint)
+                        .host(host)
+                        .build());
+            } catch (URISyntaxException error) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Failed to prepend host prefix: " + error.getMessage(), error);
+                }
+            }
+        }
+    }
+
     void afterError(Request<?> request, Response<?> response,
             List<RequestHandler2> requestHandler2s, AmazonClientException e) {
         for (final RequestHandler2 handler2 : requestHandler2s) {
@@ -280,11 +356,92 @@ public class AmazonHttpClient {
      * @see AmazonHttpClient#execute(Request, HttpResponseHandler,
      *      HttpResponseHandler, ExecutionContext)
      */
-    @SuppressWarnings("checkstyle:methodlength")
     <T> Response<T> executeHelper(Request<?> request,
             HttpResponseHandler<AmazonWebServiceResponse<T>> responseHandler,
             HttpResponseHandler<AmazonServiceException> errorResponseHandler,
             ExecutionContext executionContext) {
+        final RequestExecution<T> execution = new RequestExecution<T>(request, responseHandler,
+                errorResponseHandler, executionContext);
+        final AWSRequestMetrics awsRequestMetrics = executionContext.getAwsRequestMetrics();
+        while (true) {
+            final boolean retry = execution.startAttempt();
+            HttpResponse httpResponse = null;
+            IOException failure = null;
+            try {
+                if (retry) {
+                    awsRequestMetrics.startEvent(Field.RetryPauseTime);
+                    try {
+                        pauseBeforeNextRetry(execution.backoffDelay());
+                    } finally {
+                        awsRequestMetrics.endEvent(Field.RetryPauseTime);
+                    }
+                }
+                final HttpRequest httpRequest = execution.prepareAttempt();
+                awsRequestMetrics.startEvent(Field.HttpRequestTime);
+                try {
+                    httpResponse = httpClient.execute(httpRequest);
+                } finally {
+                    awsRequestMetrics.endEvent(Field.HttpRequestTime);
+                    captureConnectionMetrics(awsRequestMetrics);
+                }
+            } catch (final IOException ioe) {
+                failure = ioe;
+            } catch (final RuntimeException e) {
+                throw handleUnexpectedFailure(e, awsRequestMetrics);
+            } catch (final Error e) {
+                throw handleUnexpectedFailure(e, awsRequestMetrics);
+            }
+            final Response<T> response = execution.completeAttempt(httpResponse, failure);
+            if (response != null) {
+                return response;
+            }
+        } /* end while (true) */
+    }
+
+    private void captureConnectionMetrics(AWSRequestMetrics awsRequestMetrics) {
+        if (httpClient instanceof PooledUrlHttpClient) {
+            ((PooledUrlHttpClient) httpClient).captureConnectionMetrics(awsRequestMetrics);
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getRetryScheduler() {
+        if (retryScheduler == null) {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                    DaemonThreadPools.newThreadFactory("AmazonHttpClientRetry"));
+            scheduler.setKeepAliveTime(RETRY_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            scheduler.allowCoreThreadTimeOut(true);
+            retryScheduler = scheduler;
+        }
+        return retryScheduler;
+    }
+
+    /**
+     * The state of a request across its attempts: the retries, the redirects
+     * and the original content of the request which is restored before each
+     * retry.
+     *
+     * @param <T> the response type.
+     */
+    private class RequestExecution<T> {
+        final Request<?> request;
+        final HttpResponseHandler<AmazonWebServiceResponse<T>> responseHandler;
+        final HttpResponseHandler<AmazonServiceException> errorResponseHandler;
+        final ExecutionContext executionContext;
+        final AWSRequestMetrics awsRequestMetrics;
+
+        private final Map<String, String> originalParameters;
+        private final Map<String, String> originalHeaders;
+        private final InputStream originalContent;
+        AWSCredentials credentials;
+        private Signer signer;
+
+        private int requestCount;
+        private long lastBackoffDelay;
+        private URI redirectedURI;
+        private AmazonClientException retriedException;
+        private HttpRequest httpRequest;
+        private HttpResponse httpResponse;
+
         /*
          * Depending on which response handler we end up choosing to handle the
          * HTTP response, it might require us to leave the underlying HTTP
@@ -292,41 +449,48 @@ public class AmazonHttpClient {
          * HTTP response stream from the HTTP connection, or if delays reading
          * any of the content until after a response is returned to the caller.
          */
-        boolean leaveHttpConnectionOpen = false;
-        final AWSRequestMetrics awsRequestMetrics = executionContext.getAwsRequestMetrics();
-        /*
-         * add the service endpoint to the logs. You can infer service name from
-         * service endpoint
-         */
-        awsRequestMetrics.addProperty(Field.ServiceName, request.getServiceName());
-        awsRequestMetrics.addProperty(Field.ServiceEndpoint, request.getEndpoint());
-
-        // Apply whatever request options we know how to handle, such as
-        // user-agent.
-        setUserAgent(request);
-        request.addHeader(HEADER_SDK_TRANSACTION_ID, UUID.randomUUID().toString());
-        int requestCount = 0;
-        long lastBackoffDelay = 0;
-        URI redirectedURI = null;
-        AmazonClientException retriedException = null;
-
-        // Make a copy of the original request params and headers so that we can
-        // permute it in this loop and start over with the original every time.
-        final Map<String, String> originalParameters = new LinkedHashMap<String, String>(
-                request.getParameters());
-        final Map<String, String> originalHeaders = new HashMap<String, String>(request.getHeaders());
-        // mark input stream if supported
-        final InputStream originalContent = request.getContent();
-        if (originalContent != null && originalContent.markSupported()) {
-            originalContent.mark(-1);
-        }
-
-        final AWSCredentials credentials = executionContext.getCredentials();
-        Signer signer = null;
-        HttpResponse httpResponse = null;
-        HttpRequest httpRequest = null;
+        private boolean leaveHttpConnectionOpen;
+
+        RequestExecution(Request<?> request,
+                HttpResponseHandler<AmazonWebServiceResponse<T>> responseHandler,
+                HttpResponseHandler<AmazonServiceException> errorResponseHandler,
+                ExecutionContext executionContext) {
+            this.request = request;
+            this.responseHandler = responseHandler;
+            this.errorResponseHandler = errorResponseHandler;
+            this.executionContext = executionContext;
+            this.awsRequestMetrics = executionContext.getAwsRequestMetrics();
+            /*
+             * add the service endpoint to the logs. You can infer service
+             * name from service endpoint
+             */
+            awsRequestMetrics.addProperty(Field.ServiceName, request.getServiceName());
+            awsRequestMetrics.addProperty(Field.ServiceEndpoint, request.getEndpoint());
+
+            // Apply whatever request options we know how to handle, such as
+            // user-agent.
+            setUserAgent(request);
+            request.addHeader(HEADER_SDK_TRANSACTION_ID, UUID.randomUUID().toString());
+
+            // Make a copy of the original request params and headers so that
+            // we can permute it in every attempt and start over with the
+            // original every time.
+            originalParameters = new LinkedHashMap<String, String>(request.getParameters());
+            originalHeaders = new HashMap<String, String>(request.getHeaders());
+            // mark input stream if supported
+            originalContent = request.getContent();
+            if (originalContent != null && originalContent.markSupported()) {
+                originalContent.mark(-1);
+            }
+            credentials = executionContext.getCredentials();
+        }
 
-        while (true) {
+        /**
+         * Restores the request before a new attempt.
+         *
+         * @return true if the attempt is a retry.
+         */
+        boolean startAttempt() {
             ++requestCount;
             awsRequestMetrics.setCounter(Field.RequestCount, requestCount);
             if (requestCount > 1) { // retry
@@ -340,131 +504,80 @@ public class AmazonHttpClient {
                         redirectedURI.getScheme() + "://" + redirectedURI.getAuthority()));
                 request.setResourcePath(redirectedURI.getPath());
             }
+            return requestCount > 1;
+        }
 
-            try {
-                if (requestCount > 1) { // retry
-                    awsRequestMetrics.startEvent(Field.RetryPauseTime);
-                    try {
-                        lastBackoffDelay = pauseBeforeNextRetry(request.getOriginalRequest(),
-                                retriedException,
-                                requestCount,
-                                config.getRetryPolicy());
-                    } finally {
-                        awsRequestMetrics.endEvent(Field.RetryPauseTime);
-                    }
-                    final InputStream content = request.getContent();
-                    if (content != null && content.markSupported()) {
-                        content.reset();
-                    }
-                }
-                request.addHeader(HEADER_SDK_RETRY_INFO,
-                        (requestCount - 1) + "/" + lastBackoffDelay);
-
-                // Sign the request if a signer was provided
-                if (signer == null) {
-                    signer = executionContext.getSignerByURI(request.getEndpoint());
-                }
-                if (signer != null && credentials != null) {
-                    awsRequestMetrics.startEvent(Field.RequestSigningTime);
-                    try {
-                        signer.sign(request, credentials);
-                    } finally {
-                        awsRequestMetrics.endEvent(Field.RequestSigningTime);
-                    }
-                }
+        /**
+         * @return the delay in milliseconds before the current retry.
+         */
+        long backoffDelay() {
+            lastBackoffDelay = AmazonHttpClient.this.backoffDelay(request.getOriginalRequest(),
+                    retriedException,
+                    requestCount,
+                    config.getRetryPolicy());
+            return lastBackoffDelay;
+        }
 
-                if (REQUEST_LOG.isDebugEnabled()) {
-                    REQUEST_LOG.debug("Sending Request: " + request.toString());
+        /**
+         * Signs the request of the current attempt.
+         *
+         * @return the HTTP request to send.
+         * @throws IOException if the content of the request can't be reset.
+         */
+        HttpRequest prepareAttempt() throws IOException {
+            if (requestCount > 1) { // retry
+                final InputStream content = request.getContent();
+                if (content != null && content.markSupported()) {
+                    content.reset();
                 }
+            }
+            request.addHeader(HEADER_SDK_RETRY_INFO,
+                    (requestCount - 1) + "/" + lastBackoffDelay);
 
-                httpRequest = requestFactory.createHttpRequest(request, config,
-                        executionContext);
-
-                retriedException = null;
-                awsRequestMetrics.startEvent(Field.HttpRequestTime);
+            // Sign the request if a signer was provided
+            if (signer == null) {
+                signer = executionContext.getSignerByURI(request.getEndpoint());
+            }
+            if (signer != null && credentials != null) {
+                awsRequestMetrics.startEvent(Field.RequestSigningTime);
                 try {
-                    httpResponse = httpClient.execute(httpRequest);
+                    signer.sign(request, credentials);
                 } finally {
-                    awsRequestMetrics.endEvent(Field.HttpRequestTime);
+                    awsRequestMetrics.endEvent(Field.RequestSigningTime);
                 }
+            }
 
-                if (isRequestSuccessful(httpResponse)) {
-                    awsRequestMetrics.addProperty(Field.StatusCode, httpResponse.getStatusCode());
-                    /*
-                     * If we get back any 2xx status code, then we know we
-                     * should treat the service call as successful.
-                     */
-                    leaveHttpConnectionOpen = responseHandler.needsConnectionLeftOpen();
-                    final T response = handleResponse(request, responseHandler,
-                            httpResponse,
-                            executionContext);
-                    return new Response<T>(response, httpResponse);
-                } else if (isTemporaryRedirect(httpResponse)) {
-                    /*
-                     * S3 sends 307 Temporary Redirects if you try to delete an
-                     * EU bucket from the US endpoint. If we get a 307, we'll
-                     * point the HTTP method to the redirected location, and let
-                     * the next retry deliver the request to the right location.
-                     */
-                    final String redirectedLocation = httpResponse.getHeaders().get("Location");
-                    log.debug("Redirecting to: " + redirectedLocation);
-                    // set redirect uri and retry
-                    redirectedURI = URI.create(redirectedLocation);
-                    request.setEndpoint(null);
-                    request.setResourcePath(null);
-                    awsRequestMetrics.addProperty(Field.StatusCode, httpResponse.getStatusCode());
-                    awsRequestMetrics.addProperty(Field.RedirectLocation, redirectedLocation);
-                    awsRequestMetrics.addProperty(Field.AWSRequestID, null);
-                } else {
-                    leaveHttpConnectionOpen = errorResponseHandler.needsConnectionLeftOpen();
-                    final AmazonServiceException ase = handleErrorResponse(request, errorResponseHandler,
-                            httpResponse);
-                    awsRequestMetrics.addProperty(Field.AWSRequestID, ase.getRequestId());
-                    awsRequestMetrics.addProperty(Field.AWSErrorCode, ase.getErrorCode());
-                    awsRequestMetrics.addProperty(Field.StatusCode, ase.getStatusCode());
-
-                    if (!shouldRetry(request.getOriginalRequest(),
-                            httpRequest.getContent(),
-                            ase,
-                            requestCount,
-                            config.getRetryPolicy())) {
-                        throw ase;
-                    }
+            if (REQUEST_LOG.isDebugEnabled()) {
+                REQUEST_LOG.debug("Sending Request: " + request.toString());
+            }
 
-                    // Cache the retryable exception
-                    retriedException = ase;
-                    /*
-                     * Checking for clock skew error again because we don't want
-                     * to set the global time offset for every service
-                     * exception.
-                     */
-                    if (RetryUtils.isClockSkewError(ase)) {
-                        final long timeOffset = parseClockSkewOffset(httpResponse, ase);
-                        SDKGlobalConfiguration.setGlobalTimeOffset(timeOffset);
-                    }
-                    resetRequestAfterError(request, ase);
-                }
-            } catch (final IOException ioe) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Unable to execute HTTP request: " + ioe.getMessage(), ioe);
-                }
-                awsRequestMetrics.incrementCounter(Field.Exception);
-                awsRequestMetrics.addProperty(Field.Exception, ioe);
-                awsRequestMetrics.addProperty(Field.AWSRequestID, null);
+            httpRequest = requestFactory.createHttpRequest(request, config,
+                    executionContext);
 
-                final AmazonClientException ace = new AmazonClientException(
-                        "Unable to execute HTTP request: " + ioe.getMessage(), ioe);
-                if (!shouldRetry(request.getOriginalRequest(),
-                        httpRequest.getContent(),
-                        ace,
-                        requestCount,
-                        config.getRetryPolicy())) {
-                    throw ace;
-                }
+            retriedException = null;
+            return httpRequest;
+        }
 
-                // Cache the retryable exception
-                retriedException = ace;
-                resetRequestAfterError(request, ioe);
+        /**
+         * Handles the outcome of the current attempt.
+         *
+         * @param response the HTTP response, null if the request failed.
+         * @param failure the connection problem, null if a response was
+         *            received.
+         * @return the response, or null if the request should be retried.
+         * @throws AmazonClientException if the request failed and shouldn't be
+         *             retried.
+         */
+        Response<T> completeAttempt(HttpResponse response, IOException failure) {
+            httpResponse = response;
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+                return handleHttpResponse();
+            } catch (final IOException ioe) {
+                handleIOException(ioe);
+                return null;
             } catch (final RuntimeException e) {
                 throw handleUnexpectedFailure(e, awsRequestMetrics);
             } catch (final Error e) {
@@ -487,7 +600,416 @@ public class AmazonHttpClient {
                     }
                 }
             }
-        } /* end while (true) */
+        }
+
+        private Response<T> handleHttpResponse() throws IOException {
+            if (isRequestSuccessful(httpResponse)) {
+                awsRequestMetrics.addProperty(Field.StatusCode, httpResponse.getStatusCode());
+                /*
+                 * If we get back any 2xx status code, then we know we should
+                 * treat the service call as successful.
+                 */
+                leaveHttpConnectionOpen = responseHandler.needsConnectionLeftOpen();
+                final T response = handleResponse(request, responseHandler,
+                        httpResponse,
+                        executionContext);
+                return new Response<T>(response, httpResponse);
+            } else if (isTemporaryRedirect(httpResponse)) {
+                /*
+                 * S3 sends 307 Temporary Redirects if you try to delete an EU
+                 * bucket from the US endpoint. If we get a 307, we'll point the
+                 * HTTP method to the redirected location, and let the next
+                 * retry deliver the request to the right location.
+                 */
+                final String redirectedLocation = httpResponse.getHeaders().get("Location");
+                log.debug("Redirecting to: " + redirectedLocation);
+                // set redirect uri and retry
+                redirectedURI = URI.create(redirectedLocation);
+                request.setEndpoint(null);
+                request.setResourcePath(null);
+                awsRequestMetrics.addProperty(Field.StatusCode, httpResponse.getStatusCode());
+                awsRequestMetrics.addProperty(Field.RedirectLocation, redirectedLocation);
+                awsRequestMetrics.addProperty(Field.AWSRequestID, null);
+                return null;
+            }
+            leaveHttpConnectionOpen = errorResponseHandler.needsConnectionLeftOpen();
+            final AmazonServiceException ase = handleErrorResponse(request, errorResponseHandler,
+                    httpResponse);
+            awsRequestMetrics.addProperty(Field.AWSRequestID, ase.getRequestId());
+            awsRequestMetrics.addProperty(Field.AWSErrorCode, ase.getErrorCode());
+            awsRequestMetrics.addProperty(Field.StatusCode, ase.getStatusCode());
+
+            if (!shouldRetry(request.getOriginalRequest(),
+                    httpRequest.getContent(),
+                    ase,
+                    requestCount,
+                    config.getRetryPolicy())) {
+                throw ase;
+            }
+
+            // Cache the retryable exception
+            retriedException = ase;
+            /*
+             * Checking for clock skew error again because we don't want to set
+             * the global time offset for every service exception.
+             */
+            if (RetryUtils.isClockSkewError(ase)) {
+                final long timeOffset = parseClockSkewOffset(httpResponse, ase);
+                SDKGlobalConfiguration.setGlobalTimeOffset(timeOffset);
+            }
+            resetRequestAfterError(request, ase);
+            return null;
+        }
+
+        private void handleIOException(IOException ioe) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to execute HTTP request: " + ioe.getMessage(), ioe);
+            }
+            awsRequestMetrics.incrementCounter(Field.Exception);
+            awsRequestMetrics.addProperty(Field.Exception, ioe);
+            awsRequestMetrics.addProperty(Field.AWSRequestID, null);
+
+            final AmazonClientException ace = new AmazonClientException(
+                    "Unable to execute HTTP request: " + ioe.getMessage(), ioe);
+            if (!shouldRetry(request.getOriginalRequest(),
+                    httpRequest.getContent(),
+                    ace,
+                    requestCount,
+                    config.getRetryPolicy())) {
+                throw ace;
+            }
+
+            // Cache the retryable exception
+            retriedException = ace;
+            resetRequestAfterError(request, ioe);
+        }
+    }
+
+    /**
+     * A request executed by
+     * {@link AmazonHttpClient#executeAsync(Request, HttpResponseHandler, HttpResponseHandler, ExecutionContext, AWSCredentialsProvider, Executor, AsyncHandler)}
+     * . Each attempt runs on the executor, and is handed back to it by the
+     * retry scheduler after the backoff delay, or by the
+     * {@link AsyncHttpClient} when the response is received.
+     *
+     * @param <T> the response type.
+     */
+    private final class AsyncRequestExecution<T> extends RequestExecution<T>
+            implements Runnable, AsyncHttpClient.Callback {
+        final ResponseFuture<T> future = new ResponseFuture<T>();
+        private final List<RequestHandler2> requestHandler2s;
+        private final Executor executor;
+        private final AsyncHandler<AmazonWebServiceRequest, Response<T>> asyncHandler;
+        /** Cleared once the credentials are retrieved. */
+        private AWSCredentialsProvider credentialsProvider;
+
+        AsyncRequestExecution(Request<?> request,
+                HttpResponseHandler<AmazonWebServiceResponse<T>> responseHandler,
+                HttpResponseHandler<AmazonServiceException> errorResponseHandler,
+                ExecutionContext executionContext,
+                List<RequestHandler2> requestHandler2s,
+                AWSCredentialsProvider credentialsProvider,
+                Executor executor,
+                AsyncHandler<AmazonWebServiceRequest, Response<T>> asyncHandler) {
+            super(request, responseHandler, errorResponseHandler, executionContext);
+            this.requestHandler2s = requestHandler2s;
+            this.credentialsProvider = credentialsProvider;
+            this.executor = executor;
+            this.asyncHandler = asyncHandler;
+        }
+
+        void start() {
+            startAttempt();
+            dispatch(this);
+        }
+
+        /**
+         * Sends the current attempt.
+         */
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            final HttpRequest httpRequest;
+            try {
+                retrieveCredentials();
+                httpRequest = prepareAttempt();
+            } catch (final IOException ioe) {
+                complete(null, ioe);
+                return;
+            } catch (final RuntimeException e) {
+                fail(null, handleUnexpectedFailure(e, awsRequestMetrics));
+                return;
+            } catch (final Error e) {
+                fail(null, handleUnexpectedFailure(e, awsRequestMetrics));
+                return;
+            }
+
+            awsRequestMetrics.startEvent(Field.HttpRequestTime);
+            if (httpClient instanceof AsyncHttpClient) {
+                ((AsyncHttpClient) httpClient).execute(httpRequest, this);
+                return;
+            }
+            HttpResponse response = null;
+            IOException failure = null;
+            try {
+                response = httpClient.execute(httpRequest);
+            } catch (final IOException ioe) {
+                failure = ioe;
+            } catch (final RuntimeException e) {
+                fail(null, handleUnexpectedFailure(e, awsRequestMetrics));
+                return;
+            } catch (final Error e) {
+                fail(null, handleUnexpectedFailure(e, awsRequestMetrics));
+                return;
+            } finally {
+                awsRequestMetrics.endEvent(Field.HttpRequestTime);
+                captureConnectionMetrics(awsRequestMetrics);
+            }
+            complete(response, failure);
+        }
+
+        private void retrieveCredentials() {
+            if (credentialsProvider == null) {
+                return;
+            }
+            awsRequestMetrics.startEvent(Field.CredentialsRequestTime);
+            try {
+                credentials = credentialsProvider.getCredentials();
+            } finally {
+                awsRequestMetrics.endEvent(Field.CredentialsRequestTime);
+            }
+            executionContext.setCredentials(credentials);
+            credentialsProvider = null;
+        }
+
+        @Override
+        public void onResponse(final HttpResponse response) {
+            onHttpRequestComplete(response, null);
+        }
+
+        @Override
+        public void onFailure(final IOException exception) {
+            onHttpRequestComplete(null, exception);
+        }
+
+        private void onHttpRequestComplete(final HttpResponse response,
+                final IOException failure) {
+            final boolean dispatched = dispatch(new Runnable() {
+                @Override
+                public void run() {
+                    awsRequestMetrics.endEvent(Field.HttpRequestTime);
+                    complete(response, failure);
+                }
+            });
+            if (!dispatched && response != null) {
+                // the response is never handled, release its connection
+                try {
+                    IOUtils.closeQuietly(response.getRawContent(), log);
+                } catch (final IOException ioe) {
+                    log.debug("Unable to close the response content", ioe);
+                }
+            }
+        }
+
+        private void complete(HttpResponse httpResponse, IOException failure) {
+            final Response<T> response;
+            try {
+                response = completeAttempt(httpResponse, failure);
+            } catch (final RuntimeException e) {
+                fail(null, e);
+                return;
+            } catch (final Error e) {
+                fail(null, e);
+                return;
+            }
+            if (response != null) {
+                succeed(response);
+            } else {
+                scheduleRetry();
+            }
+        }
+
+        private void scheduleRetry() {
+            if (future.isDone()) {
+                return;
+            }
+            startAttempt();
+            final long delay;
+            awsRequestMetrics.startEvent(Field.RetryPauseTime);
+            try {
+                delay = backoffDelay();
+            } catch (final RuntimeException e) {
+                awsRequestMetrics.endEvent(Field.RetryPauseTime);
+                fail(null, handleUnexpectedFailure(e, awsRequestMetrics));
+                return;
+            }
+            final Runnable retry = new Runnable() {
+                @Override
+                public void run() {
+                    awsRequestMetrics.endEvent(Field.RetryPauseTime);
+                    dispatch(AsyncRequestExecution.this);
+                }
+            };
+            try {
+                getRetryScheduler().schedule(retry, delay, TimeUnit.MILLISECONDS);
+            } catch (final RejectedExecutionException e) {
+                awsRequestMetrics.endEvent(Field.RetryPauseTime);
+                fail(null, new AmazonClientException("Unable to schedule the retry", e));
+            }
+        }
+
+        /**
+         * Hands the given step to the executor, failing the request if it's
+         * rejected.
+         *
+         * @return true if the step was accepted by the executor.
+         */
+        private boolean dispatch(Runnable step) {
+            try {
+                executor.execute(step);
+                return true;
+            } catch (final RejectedExecutionException e) {
+                fail(null, new AmazonClientException("Unable to execute HTTP request: "
+                        + e.getMessage(), e));
+                return false;
+            }
+        }
+
+        private void succeed(Response<T> response) {
+            if (future.isCancelled()) {
+                // the caller gave up on the request, don't notify the handlers
+                return;
+            }
+            final TimingInfo timingInfo = awsRequestMetrics.getTimingInfo().endTiming();
+            try {
+                afterResponse(request, requestHandler2s, response, timingInfo);
+            } catch (final RuntimeException e) {
+                fail(response, e);
+                return;
+            }
+            if (!future.succeed(response) || asyncHandler == null) {
+                return;
+            }
+            try {
+                asyncHandler.onSuccess(request.getOriginalRequest(), response);
+            } catch (final RuntimeException e) {
+                log.warn("The async handler failed to handle the response", e);
+            }
+        }
+
+        private void fail(Response<T> response, Throwable t) {
+            if (future.isCancelled()) {
+                return;
+            }
+            try {
+                if (t instanceof AmazonClientException) {
+                    afterError(request, response, requestHandler2s, (AmazonClientException) t);
+                }
+            } catch (final RuntimeException e) {
+                log.warn("A request handler failed to handle the error", e);
+            }
+            if (!future.fail(t) || asyncHandler == null) {
+                return;
+            }
+            try {
+                asyncHandler.onError(t instanceof Exception
+                        ? (Exception) t
+                        : new AmazonClientException(t.getMessage(), t));
+            } catch (final RuntimeException e) {
+                log.warn("The async handler failed to handle the error", e);
+            }
+        }
+    }
+
+    /**
+     * The future of a request executed asynchronously, completed by the
+     * request itself rather than by running a task. Only the first of
+     * succeed, fail and cancel takes effect.
+     *
+     * @param <T> the response type.
+     */
+    private static final class ResponseFuture<T> implements Future<Response<T>> {
+
+        private final CountDownLatch doneLatch = new CountDownLatch(1);
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile Response<T> response;
+        private volatile Throwable failure;
+        private volatile boolean cancelled;
+
+        /**
+         * @return true if this call completed the future.
+         */
+        boolean succeed(Response<T> response) {
+            if (!completed.compareAndSet(false, true)) {
+                return false;
+            }
+            this.response = response;
+            doneLatch.countDown();
+            return true;
+        }
+
+        /**
+         * @return true if this call completed the future.
+         */
+        boolean fail(Throwable t) {
+            if (!completed.compareAndSet(false, true)) {
+                return false;
+            }
+            this.failure = t;
+            doneLatch.countDown();
+            return true;
+        }
+
+        /**
+         * Cancels the request. The request execution stops at its next step;
+         * an HTTP request in flight is not interrupted.
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!completed.compareAndSet(false, true)) {
+                return false;
+            }
+            cancelled = true;
+            doneLatch.countDown();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return doneLatch.getCount() == 0;
+        }
+
+        @Override
+        public Response<T> get() throws InterruptedException, ExecutionException {
+            doneLatch.await();
+            return getResult();
+        }
+
+        @Override
+        public Response<T> get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (!doneLatch.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return getResult();
+        }
+
+        private Response<T> getResult() throws ExecutionException {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+            return response;
+        }
     }
 
     /**
@@ -744,8 +1266,8 @@ public class AmazonHttpClient {
     }
 
     /**
-     * Sleep for a period of time on failed request to avoid flooding a service
-     * with retries.
+     * Returns the delay before the next retry of a failed request, to avoid
+     * flooding a service with retries.
      *
      * @param originalRequest The original service request that is being
      *            executed.
@@ -755,7 +1277,7 @@ public class AmazonHttpClient {
      *            after the delay)
      * @param retryPolicy The retry policy configured in this http client.
      */
-    private long pauseBeforeNextRetry(AmazonWebServiceRequest originalRequest,
+    private long backoffDelay(AmazonWebServiceRequest originalRequest,
             AmazonClientException previousException,
             int requestCount,
             RetryPolicy retryPolicy) {
@@ -770,16 +1292,23 @@ public class AmazonHttpClient {
             log.debug("Retriable error detected, " +
                     "will retry in " + delay + "ms, attempt number: " + retries);
         }
+        return delay;
+    }
 
+    /**
+     * Sleep for a period of time on failed request to avoid flooding a service
+     * with retries.
+     *
+     * @param delay the delay in milliseconds.
+     */
+    private void pauseBeforeNextRetry(long delay) {
         try {
             Thread.sleep(delay);
-            return delay;
         } catch (final InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new AmazonClientException(e.getMessage(), e);
         }
     }
-
     /**
      * Returns date string from the exception message body in form of
      * yyyyMMdd'T'HHmmss'Z' We needed to extract date from the message body
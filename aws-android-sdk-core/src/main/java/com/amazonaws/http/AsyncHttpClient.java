@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.http;
+
+import java.io.IOException;
+
+/**
+ * An {@link HttpClient} which can also send a request without blocking the
+ * calling thread. When the client of an {@link AmazonHttpClient} implements
+ * this interface,
+ * {@link AmazonHttpClient#executeAsync(com.amazonaws.Request, HttpResponseHandler, HttpResponseHandler, ExecutionContext, com.amazonaws.auth.AWSCredentialsProvider, java.util.concurrent.Executor, com.amazonaws.handlers.AsyncHandler)}
+ * doesn't hold a thread while a request is on the wire; otherwise the request
+ * is sent by {@link HttpClient#execute(HttpRequest)} on a thread of the
+ * executor. The same requirements as {@link HttpClient} apply.
+ */
+public interface AsyncHttpClient extends HttpClient {
+
+    /**
+     * Sends a {@link HttpRequest} and returns immediately. The callback is
+     * invoked exactly once, from any thread, when the response headers are
+     * received or the request fails.
+     *
+     * @param request a HTTP request
+     * @param callback the callback notified of the response.
+     */
+    void execute(HttpRequest request, Callback callback);
+
+    /**
+     * Callback notified of the response of a request sent by
+     * {@link AsyncHttpClient#execute(HttpRequest, Callback)}.
+     */
+    interface Callback {
+
+        /**
+         * Invoked when the response is received. Its content may still be
+         * read from the network.
+         *
+         * @param response the response.
+         */
+        void onResponse(HttpResponse response);
+
+        /**
+         * Invoked when the request couldn't be sent or its response couldn't
+         * be received.
+         *
+         * @param exception the connection problem.
+         */
+        void onFailure(IOException exception);
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.http;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.internal.SdkFilterInputStream;
+import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.TimingInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+
+/**
+ * An implementation of {@link HttpClient} by {@link HttpURLConnection} which
+ * manages its connections as a pool, for clients that send many small
+ * requests.
+ * <ul>
+ * <li>At most {@link ClientConfiguration#getMaxConnections()} requests are in
+ * flight, the others wait up to the connection timeout for a connection. A
+ * connection is held until the response content is closed, so the content of
+ * every response must be closed.</li>
+ * <li>Unread response content is drained when it's closed, up to
+ * {@link #MAX_DRAIN_BYTES}, so that the connection is kept alive by the
+ * platform for the next request instead of being closed.</li>
+ * <li>All the HTTPS connections use the same SSL socket factory, which the
+ * platform requires to reuse a connection, also with a custom trust
+ * manager.</li>
+ * </ul>
+ * The platform owns the idle connections and doesn't multiplex requests, so
+ * this client can't offer HTTP/2. For HTTPS requests, whether a new
+ * connection was opened and the time taken by its TLS handshake are recorded
+ * in the {@link AWSRequestMetrics} of the request, along with the number of
+ * leased connections and waiting requests.
+ */
+public class PooledUrlHttpClient extends UrlHttpClient {
+
+    /** The max number of unread bytes drained from a response content. */
+    static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+    private static final int DRAIN_BUFFER_SIZE = 8 * 1024;
+
+    private final ClientConfiguration config;
+    private final int maxConnections;
+    private final Semaphore connections;
+    private final SSLSocketFactory socketFactory;
+
+    /** The connection of the request executed last on each thread. */
+    private final ThreadLocal<ConnectionStats> currentStats = new ThreadLocal<ConnectionStats>();
+
+    private final AtomicLong poolHitCount = new AtomicLong();
+    private final AtomicLong poolMissCount = new AtomicLong();
+
+    /**
+     * Constructor.
+     * @param config the client config.
+     */
+    public PooledUrlHttpClient(ClientConfiguration config) {
+        super(config);
+        this.config = config;
+        this.maxConnections = Math.max(1, config.getMaxConnections());
+        this.connections = new Semaphore(maxConnections, true);
+        this.socketFactory = new TrackingSocketFactory(getDelegateSocketFactory(config));
+    }
+
+    @Override
+    public HttpResponse execute(final HttpRequest request) throws IOException {
+        final ConnectionStats stats = new ConnectionStats();
+        currentStats.set(stats);
+        leaseConnection();
+        boolean leased = true;
+        try {
+            stats.leasedCount = maxConnections - connections.availablePermits();
+            stats.pendingCount = connections.getQueueLength();
+            stats.secure = "https".equalsIgnoreCase(request.getUri().getScheme());
+
+            final HttpURLConnection connection = getUrlConnection(request.getUri().toURL());
+            final HttpResponse response = execute(request, connection);
+            stats.completed = true;
+            if (stats.newConnection) {
+                poolMissCount.incrementAndGet();
+            } else if (stats.secure) {
+                poolHitCount.incrementAndGet();
+            }
+
+            final InputStream content = response.getRawContent();
+            if (content == null) {
+                return response;
+            }
+            final HttpResponse.Builder builder = HttpResponse.builder()
+                    .statusCode(response.getStatusCode())
+                    .statusText(response.getStatusText())
+                    .content(new PooledContentInputStream(content, connection));
+            for (final Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+            leased = false;
+            return builder.build();
+        } finally {
+            if (leased) {
+                connections.release();
+            }
+        }
+    }
+
+    @Override
+    void configureConnection(HttpRequest request, HttpURLConnection connection) {
+        super.configureConnection(request, connection);
+        if (connection instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) connection).setSSLSocketFactory(socketFactory);
+        }
+    }
+
+    /**
+     * Records the connection metrics of the request executed last by the
+     * current thread, and forgets them.
+     *
+     * @param awsRequestMetrics the metrics of the request.
+     */
+    void captureConnectionMetrics(AWSRequestMetrics awsRequestMetrics) {
+        final ConnectionStats stats = currentStats.get();
+        if (stats == null) {
+            return;
+        }
+        currentStats.remove();
+
+        awsRequestMetrics.setCounter(Field.HttpClientPoolLeasedCount, stats.leasedCount);
+        awsRequestMetrics.setCounter(Field.HttpClientPoolPendingCount, stats.pendingCount);
+        if (stats.newConnection) {
+            awsRequestMetrics.incrementCounter(Field.HttpClientPoolMissCount);
+            final long handshakeEndNanos = stats.handshakeEndNanos;
+            if (handshakeEndNanos != 0) {
+                awsRequestMetrics.getTimingInfo().addSubMeasurement(
+                        Field.HttpClientHandshakeTime.name(),
+                        TimingInfo.newTimingInfoFullSupport(stats.socketCreatedNanos,
+                                handshakeEndNanos));
+            }
+        } else if (stats.secure && stats.completed) {
+            awsRequestMetrics.incrementCounter(Field.HttpClientPoolHitCount);
+        }
+    }
+
+    /**
+     * @return the number of HTTPS requests sent on a connection that was
+     *         already open.
+     */
+    public long getPoolHitCount() {
+        return poolHitCount.get();
+    }
+
+    /**
+     * @return the number of requests that opened a new HTTPS connection.
+     */
+    public long getPoolMissCount() {
+        return poolMissCount.get();
+    }
+
+    /**
+     * @return the number of connections in use.
+     */
+    public int getLeasedConnectionCount() {
+        return maxConnections - connections.availablePermits();
+    }
+
+    private void leaseConnection() throws IOException {
+        final int timeout = config.getConnectionTimeout();
+        try {
+            if (timeout <= 0) {
+                connections.acquire();
+            } else if (!connections.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timeout waiting for connection from pool");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for connection from pool");
+        }
+    }
+
+    private static SSLSocketFactory getDelegateSocketFactory(ClientConfiguration config) {
+        if (config.getTrustManager() == null) {
+            return HttpsURLConnection.getDefaultSSLSocketFactory();
+        }
+        try {
+            final SSLContext sc = SSLContext.getInstance("TLS");
+            sc.init(null, new TrustManager[] {
+                    config.getTrustManager()
+            }, null);
+            return sc.getSocketFactory();
+        } catch (final GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The connection used by one request.
+     */
+    private static final class ConnectionStats {
+        private int leasedCount;
+        private int pendingCount;
+        private boolean secure;
+        private boolean completed;
+        private volatile boolean newConnection;
+        private volatile long socketCreatedNanos;
+        private volatile long handshakeEndNanos;
+    }
+
+    /**
+     * The content of a response, which gives its connection back to the pool
+     * when it's closed.
+     */
+    private final class PooledContentInputStream extends SdkFilterInputStream {
+        private final HttpURLConnection connection;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PooledContentInputStream(InputStream in, HttpURLConnection connection) {
+            super(in);
+            this.connection = connection;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (released.get()) {
+                return;
+            }
+            try {
+                if (!drain()) {
+                    connection.disconnect();
+                }
+                in.close();
+            } finally {
+                release();
+            }
+        }
+
+        @Override
+        protected void abort() {
+            connection.disconnect();
+            release();
+        }
+
+        /**
+         * @return true if the content was read to the end.
+         */
+        @SuppressWarnings("checkstyle:emptyblock")
+        private boolean drain() {
+            final byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+            try {
+                for (int drained = 0; drained <= MAX_DRAIN_BYTES;) {
+                    final int read = in.read(buffer);
+                    if (read == -1) {
+                        return true;
+                    }
+                    drained += read;
+                }
+            } catch (final IOException e) {
+                // the connection can't be reused
+            }
+            return false;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                connections.release();
+            }
+        }
+    }
+
+    /**
+     * Records the sockets opened for the request executed by the current
+     * thread.
+     */
+    private final class TrackingSocketFactory extends SSLSocketFactory {
+        private final SSLSocketFactory delegate;
+
+        TrackingSocketFactory(SSLSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return track(delegate.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(Socket s, String host, int port, boolean autoClose)
+                throws IOException {
+            return track(delegate.createSocket(s, host, port, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return track(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort)
+                throws IOException {
+            return track(delegate.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return track(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress,
+                int localPort) throws IOException {
+            return track(delegate.createSocket(address, port, localAddress, localPort));
+        }
+
+        private Socket track(Socket socket) {
+            final ConnectionStats stats = currentStats.get();
+            if (stats == null) {
+                return socket;
+            }
+            stats.socketCreatedNanos = System.nanoTime();
+            stats.newConnection = true;
+            if (socket instanceof SSLSocket) {
+                ((SSLSocket) socket).addHandshakeCompletedListener(
+                        new HandshakeCompletedListener() {
+                            @Override
+                            public void handshakeCompleted(HandshakeCompletedEvent event) {
+                                stats.handshakeEndNanos = System.nanoTime();
+                                event.getSocket().removeHandshakeCompletedListener(this);
+                            }
+                        });
+            }
+            return socket;
+        }
+    }
+}
@@ -67,6 +67,20 @@ public class UrlHttpClient implements HttpClient {
     public HttpResponse execute(final HttpRequest request) throws IOException {
         final URL url = request.getUri().toURL();
         final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        return execute(request, connection);
+    }
+
+    /**
+     * Executes the request on the given connection.
+     *
+     * @param request the request.
+     * @param connection a connection to the URI of the request, not connected
+     *            yet.
+     * @return the response.
+     * @throws IOException in case of a connection problem
+     */
+    HttpResponse execute(final HttpRequest request, final HttpURLConnection connection)
+            throws IOException {
         final CurlBuilder curlBuilder = config.isCurlLogging()
                 ? new CurlBuilder(request.getUri().toURL()) : null;
 
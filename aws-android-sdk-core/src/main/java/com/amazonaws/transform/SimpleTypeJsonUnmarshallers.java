@@ -16,8 +16,8 @@
 package com.amazonaws.transform;
 
 import com.amazonaws.AmazonClientException;
-import com.amazonaws.util.Base64;
 import com.amazonaws.util.DateUtils;
+import com.amazonaws.util.json.JsonUtils;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -312,9 +312,7 @@ public class SimpleTypeJsonUnmarshallers {
             Unmarshaller<ByteBuffer, JsonUnmarshallerContext> {
         @Override
         public ByteBuffer unmarshall(JsonUnmarshallerContext unmarshallerContext) throws Exception {
-            String base64EncodedString = unmarshallerContext.getReader().nextString();
-            byte[] decodedBytes = Base64.decode(base64EncodedString);
-            return ByteBuffer.wrap(decodedBytes);
+            return JsonUtils.nextByteBuffer(unmarshallerContext.getReader());
 
         }
 
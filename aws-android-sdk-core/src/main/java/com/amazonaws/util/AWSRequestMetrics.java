@@ -112,6 +112,29 @@ public class AWSRequestMetrics {
          * excluding any retry.
          */
         HttpClientReceiveResponseTime,
+        /**
+         * Number of physical requests sent on a pooled connection that was
+         * already open.
+         */
+        HttpClientPoolHitCount,
+        /**
+         * Number of physical requests that opened a new connection.
+         */
+        HttpClientPoolMissCount,
+        /**
+         * Number of pooled connections in use when a physical request was
+         * sent.
+         */
+        HttpClientPoolLeasedCount,
+        /**
+         * Number of physical requests waiting for a pooled connection when a
+         * physical request was sent.
+         */
+        HttpClientPoolPendingCount,
+        /**
+         * Time taken by the TLS handshake of a new connection.
+         */
+        HttpClientHandshakeTime,
 
         /** RetryPauseTime. */
         RetryPauseTime,
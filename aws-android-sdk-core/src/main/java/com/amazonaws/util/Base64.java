@@ -15,6 +15,10 @@
 
 package com.amazonaws.util;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
 /**
  * A Base 64 CODEC API. See http://www.ietf.org/rfc/rfc4648.txt
  *
@@ -43,6 +47,19 @@ public enum Base64 {
         return bytes == null || bytes.length == 0 ? bytes : CODEC.encode(bytes);
     }
 
+    /**
+     * Writes the base 64 encoding of the remaining bytes of the given buffer
+     * to the writer, without copying them into an intermediate array or
+     * string. The position of the buffer is not changed.
+     *
+     * @param bytes the bytes.
+     * @param out the writer to write the encoded characters to.
+     * @throws IOException if the writer fails.
+     */
+    public static void encode(ByteBuffer bytes, Writer out) throws IOException {
+        CODEC.encode(bytes, out);
+    }
+
     /**
      * Decodes the given base 64 encoded string, skipping carriage returns, line
      * feeds and spaces as needed.
@@ -69,4 +86,14 @@ public enum Base64 {
     public static byte[] decode(byte[] b64) {
         return b64 == null || b64.length == 0 ? b64 : CODEC.decode(b64, b64.length);
     }
+
+    /**
+     * Decodes the first bytes of the given array, base 64 encoded.
+     * @param b64 the base 64 encoded bytes.
+     * @param length the number of bytes to decode.
+     * @return the decoded result.
+     */
+    public static byte[] decode(byte[] b64, int length) {
+        return length == 0 ? new byte[0] : CODEC.decode(b64, length);
+    }
 }
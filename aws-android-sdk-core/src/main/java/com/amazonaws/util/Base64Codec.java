@@ -17,6 +17,10 @@ package com.amazonaws.util;
 
 import static com.amazonaws.util.CodecUtils.sanityCheckLastPos;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
 /**
  * A Base 64 codec implementation.
  *
@@ -39,6 +43,16 @@ class Base64Codec implements Codec {
     private static final int BITS_4 = 4;
     private static final int BITS_6 = 6;
 
+    private static final int BITS_8 = 8;
+    private static final int BITS_10 = 10;
+    private static final int BITS_12 = 12;
+    private static final int BITS_16 = 16;
+    private static final int BITS_18 = 18;
+    private static final int MASK_8BITS = (1 << BITS_8) - 1;
+
+    /** The number of characters written to the Writer at a time. */
+    private static final int ENCODE_CHUNK_CHARS = 4096;
+
     private static final int MASK_2BITS = (1 << 2) - 1;
     private static final int MASK_4BITS = (1 << BITS_4) - 1;
     private static final int MASK_6BITS = (1 << BITS_6) - 1;
@@ -112,6 +126,56 @@ class Base64Codec implements Codec {
         return dest;
     }
 
+    /**
+     * Writes the base 64 encoding of the remaining bytes of the buffer to the
+     * writer, a chunk at a time. The position of the buffer is not changed.
+     */
+    void encode(ByteBuffer src, Writer out) throws IOException {
+        final char[] dest = new char[ENCODE_CHUNK_CHARS];
+        final int limit = src.limit();
+        int s = src.position();
+        int d = 0;
+
+        for (; limit - s >= BITS_3; s += BITS_3) {
+            final int p = (src.get(s) & MASK_8BITS) << BITS_16
+                    | (src.get(s + 1) & MASK_8BITS) << BITS_8
+                    | src.get(s + 2) & MASK_8BITS;
+            dest[d++] = (char) alpahbets[p >>> BITS_18];
+            dest[d++] = (char) alpahbets[p >>> BITS_12 & MASK_6BITS];
+            dest[d++] = (char) alpahbets[p >>> BITS_6 & MASK_6BITS];
+            dest[d++] = (char) alpahbets[p & MASK_6BITS];
+            if (d == dest.length) {
+                out.write(dest, 0, d);
+                d = 0;
+            }
+        }
+
+        // dest always has room for the final quantum
+        switch (limit - s) {
+            case 1: {
+                final int p = src.get(s) & MASK_8BITS;
+                dest[d++] = (char) alpahbets[p >>> 2];
+                dest[d++] = (char) alpahbets[(p & MASK_2BITS) << BITS_4];
+                dest[d++] = (char) PAD;
+                dest[d++] = (char) PAD;
+                break;
+            }
+            case 2: {
+                final int p = (src.get(s) & MASK_8BITS) << BITS_8 | src.get(s + 1) & MASK_8BITS;
+                dest[d++] = (char) alpahbets[p >>> BITS_10];
+                dest[d++] = (char) alpahbets[p >>> BITS_4 & MASK_6BITS];
+                dest[d++] = (char) alpahbets[(p & MASK_4BITS) << 2];
+                dest[d++] = (char) PAD;
+                break;
+            }
+            default:
+                break;
+        }
+        if (d > 0) {
+            out.write(dest, 0, d);
+        }
+    }
+
     void encode3bytes(byte[] src, int s, byte[] dest, int d) {
         // operator precedence in descending order: >>> or <<, &, |
         byte p;
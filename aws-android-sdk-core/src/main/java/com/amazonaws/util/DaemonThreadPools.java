@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.util;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the thread pools the clients run their background work on. The
+ * threads are daemon threads, so they never keep the process alive, and are
+ * named after the pool, followed by a sequence number, so they can be told
+ * apart in thread dumps.
+ */
+public final class DaemonThreadPools {
+
+    private DaemonThreadPools() {
+    }
+
+    /**
+     * @param namePrefix the name of the threads, before their sequence number
+     * @return a thread factory creating daemon threads named
+     *         {@code namePrefix-1}, {@code namePrefix-2} and so on
+     */
+    public static ThreadFactory newThreadFactory(final String namePrefix) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable,
+                        namePrefix + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Creates a pool of up to the given number of daemon threads, with an
+     * unbounded queue. Idle threads, core threads included, stop after the
+     * keep alive time, so an unused pool holds no thread.
+     *
+     * @param namePrefix the name of the threads, before their sequence number
+     * @param threads the max number of threads
+     * @param keepAliveSeconds how long idle threads are kept, in seconds
+     * @return the new pool
+     */
+    public static ThreadPoolExecutor newFixedThreadPool(String namePrefix, int threads,
+            long keepAliveSeconds) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                keepAliveSeconds, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                newThreadFactory(namePrefix));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Changes the number of threads of a pool created by
+     * {@link #newFixedThreadPool(String, int, long)}, keeping its core size
+     * no greater than its max size while resizing.
+     *
+     * @param executor the pool
+     * @param threads the new max number of threads
+     */
+    public static void setPoolSize(ThreadPoolExecutor executor, int threads) {
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else if (threads < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+}
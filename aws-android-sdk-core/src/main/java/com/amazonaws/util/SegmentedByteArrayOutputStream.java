@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.util;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An output stream that collects a request body in memory, for marshallers
+ * that encode or compress the body as they write it.
+ * <p>
+ * Unlike {@link java.io.ByteArrayOutputStream}, the bytes are kept in
+ * segments that are never copied when the stream grows, and are read back by
+ * {@link #toInputStream()} without being copied into one array. The input
+ * stream supports mark and reset, so the body can be hashed by the signer and
+ * sent again on retries, and its length is known up front so that it is sent
+ * in fixed-length streaming mode.
+ * </p>
+ * This class is not thread safe.
+ */
+public class SegmentedByteArrayOutputStream extends OutputStream {
+
+    private static final int FIRST_SEGMENT_SIZE = 4 * 1024;
+    private static final int MAX_SEGMENT_SIZE = 256 * 1024;
+    private static final int BYTE_MASK = 0xff;
+
+    private final List<byte[]> segments = new ArrayList<byte[]>();
+    private byte[] current;
+    private int position;
+    private long size;
+
+    @Override
+    public void write(int b) {
+        if (current == null || position == current.length) {
+            addSegment();
+        }
+        current[position++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (current == null || position == current.length) {
+                addSegment();
+            }
+            final int count = Math.min(len, current.length - position);
+            System.arraycopy(b, off, current, position, count);
+            position += count;
+            size += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * @return the number of bytes written so far.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns an input stream over the bytes written so far. The bytes are
+     * shared, not copied, so nothing should be written after this call.
+     *
+     * @return an input stream of the written bytes which supports mark and
+     *         reset.
+     */
+    public InputStream toInputStream() {
+        return new SegmentedInputStream(new ArrayList<byte[]>(segments), size);
+    }
+
+    private void addSegment() {
+        final int segmentSize = current == null
+                ? FIRST_SEGMENT_SIZE
+                : Math.min(MAX_SEGMENT_SIZE, current.length * 2);
+        current = new byte[segmentSize];
+        position = 0;
+        segments.add(current);
+    }
+
+    private static final class SegmentedInputStream extends InputStream {
+        private final List<byte[]> segments;
+        private final long size;
+
+        private int segment;
+        private int offset;
+        private long position;
+
+        private int markSegment;
+        private int markOffset;
+        private long markPosition;
+
+        SegmentedInputStream(List<byte[]> segments, long size) {
+            this.segments = segments;
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            if (position == size) {
+                return -1;
+            }
+            nextSegmentIfNeeded();
+            position++;
+            return segments.get(segment)[offset++] & BYTE_MASK;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (position == size) {
+                return -1;
+            }
+            int read = 0;
+            while (read < len && position < size) {
+                nextSegmentIfNeeded();
+                final byte[] bytes = segments.get(segment);
+                final int count = (int) Math.min(Math.min(len - read, bytes.length - offset),
+                        size - position);
+                System.arraycopy(bytes, offset, b, off + read, count);
+                offset += count;
+                position += count;
+                read += count;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = 0;
+            while (skipped < n && position < size) {
+                nextSegmentIfNeeded();
+                final int count = (int) Math.min(Math.min(n - skipped,
+                        segments.get(segment).length - offset), size - position);
+                offset += count;
+                position += count;
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, size - position);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readlimit) {
+            markSegment = segment;
+            markOffset = offset;
+            markPosition = position;
+        }
+
+        @Override
+        public void reset() {
+            segment = markSegment;
+            offset = markOffset;
+            position = markPosition;
+        }
+
+        private void nextSegmentIfNeeded() {
+            if (offset == segments.get(segment).length) {
+                segment++;
+                offset = 0;
+            }
+        }
+    }
+}
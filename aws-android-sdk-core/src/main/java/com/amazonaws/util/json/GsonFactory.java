@@ -15,7 +15,7 @@
 
 package com.amazonaws.util.json;
 
-import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.Base64;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
@@ -153,9 +153,11 @@ final class GsonFactory implements AwsJsonFactory {
     private static final class GsonWriter implements AwsJsonWriter {
 
         private final JsonWriter writer;
+        private final Writer out;
         private static final int NEGATIVE_THREE = -3;
 
         public GsonWriter(Writer out) {
+            this.out = out;
             writer = new JsonWriter(out);
         }
 
@@ -228,11 +230,13 @@ final class GsonFactory implements AwsJsonFactory {
 
         @Override
         public AwsJsonWriter value(ByteBuffer value) throws IOException {
-            value.mark();
-            byte[] bytes = new byte[value.remaining()];
-            value.get(bytes, 0, bytes.length);
-            value.reset();
-            writer.value(BinaryUtils.toBase64(bytes));
+            // An empty raw value writes the name and separator, the encoded
+            // blob then goes straight to the underlying writer. Base 64
+            // characters never need escaping.
+            writer.jsonValue("");
+            out.write('"');
+            Base64.encode(value, out);
+            out.write('"');
             return this;
         }
 
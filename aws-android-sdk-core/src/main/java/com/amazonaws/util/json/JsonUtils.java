@@ -16,12 +16,15 @@
 package com.amazonaws.util.json;
 
 import com.amazonaws.AmazonClientException;
+import com.amazonaws.util.Base64;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -79,6 +82,35 @@ public class JsonUtils {
         return FACTORY.getJsonReader(in);
     }
 
+    /**
+     * Gets a JSON reader of UTF-8 encoded JSON, which parses the bytes
+     * without decoding them into characters first.
+     *
+     * @param in input stream
+     * @return a JSON reader
+     */
+    public static AwsJsonReader getJsonReader(InputStream in) {
+        return new Utf8JsonReader(in);
+    }
+
+    /**
+     * Gets the next value of a JSON reader, a Base64 encoded string, as
+     * decoded bytes, or null if the value is null. A reader from
+     * {@link #getJsonReader(InputStream)} decodes the value from the bytes
+     * without building an intermediate string.
+     *
+     * @param reader JSON reader
+     * @return the next value as {@link ByteBuffer}
+     * @throws IOException
+     */
+    public static ByteBuffer nextByteBuffer(AwsJsonReader reader) throws IOException {
+        if (reader instanceof Utf8JsonReader) {
+            return ((Utf8JsonReader) reader).nextByteBuffer();
+        }
+        final String value = reader.nextString();
+        return value == null ? null : ByteBuffer.wrap(Base64.decode(value));
+    }
+
     /**
      * Gets a JSON writer. If no JSON engine is available, an
      * {@link AmazonClientException} will be thrown.
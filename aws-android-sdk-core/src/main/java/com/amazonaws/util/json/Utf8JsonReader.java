@@ -0,0 +1,601 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.util.json;
+
+import com.amazonaws.util.Base64;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A streaming JSON reader which parses UTF-8 bytes directly, without a
+ * {@link java.io.Reader} decoding them into characters first.
+ * <ul>
+ * <li>Strings are decoded from UTF-8 straight into a reused character buffer,
+ * malformed sequences are replaced by U+FFFD like
+ * {@link java.io.InputStreamReader} does.</li>
+ * <li>Short ASCII field names are looked up in a small cache, so the names
+ * repeated in every element of a list are allocated once.</li>
+ * <li>Numbers are read as ASCII, and Base64 blobs are decoded from the bytes
+ * without building an intermediate string.</li>
+ * </ul>
+ * Like Gson's JsonReader, the JSON must be strict. This class is not thread
+ * safe.
+ */
+final class Utf8JsonReader implements AwsJsonReader {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int INITIAL_CHARS_SIZE = 64;
+    private static final int INITIAL_STACK_SIZE = 32;
+    private static final int NAME_CACHE_SIZE = 256;
+    private static final int MAX_CACHED_NAME_LENGTH = 32;
+
+    private static final char REPLACEMENT_CHAR = '\ufffd';
+    private static final int HEX_RADIX = 16;
+    private static final int UNICODE_ESCAPE_LENGTH = 4;
+
+    /* The scopes of the stack. */
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+    private static final int CLOSED = 8;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    /** The number of bytes read before the ones in the buffer. */
+    private long offset;
+
+    private char[] chars = new char[INITIAL_CHARS_SIZE];
+    private byte[] blob;
+    private final String[] nameCache = new String[NAME_CACHE_SIZE];
+
+    private int[] stack = new int[INITIAL_STACK_SIZE];
+    private int stackSize;
+
+    /** The next token if it was peeked, null otherwise. */
+    private AwsJsonToken peeked;
+
+    /**
+     * @param in the UTF-8 encoded JSON.
+     */
+    Utf8JsonReader(InputStream in) {
+        if (in == null) {
+            throw new IllegalArgumentException("in == null");
+        }
+        this.in = in;
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(AwsJsonToken.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+        peeked = null;
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(AwsJsonToken.END_ARRAY);
+        stackSize--;
+        peeked = null;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(AwsJsonToken.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+        peeked = null;
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(AwsJsonToken.END_OBJECT);
+        stackSize--;
+        peeked = null;
+    }
+
+    @Override
+    public boolean isContainer() throws IOException {
+        final AwsJsonToken token = peek();
+        return AwsJsonToken.BEGIN_ARRAY.equals(token)
+                || AwsJsonToken.BEGIN_OBJECT.equals(token);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        final AwsJsonToken token = peek();
+        return token != null && token != AwsJsonToken.END_OBJECT
+                && token != AwsJsonToken.END_ARRAY;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(AwsJsonToken.FIELD_NAME);
+        peeked = null;
+        return readName();
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        final AwsJsonToken token = peek();
+        if (token == null) {
+            throw new IllegalStateException("Expected a string but was END_DOCUMENT");
+        }
+        switch (token) {
+            case VALUE_STRING:
+                peeked = null;
+                return readString();
+            case VALUE_NUMBER:
+                peeked = null;
+                return readNumber();
+            case VALUE_BOOLEAN:
+                peeked = null;
+                return readBoolean() ? "true" : "false";
+            case VALUE_NULL:
+                peeked = null;
+                readLiteral("null");
+                return null;
+            default:
+                throw new IllegalStateException("Expected a string but was " + token);
+        }
+    }
+
+    /**
+     * Gets the next value, a Base64 encoded string, as decoded bytes, or null
+     * if the token is {@link AwsJsonToken#VALUE_NULL}.
+     *
+     * @return the next value as {@link ByteBuffer}
+     * @throws IOException
+     */
+    public ByteBuffer nextByteBuffer() throws IOException {
+        final AwsJsonToken token = peek();
+        if (AwsJsonToken.VALUE_STRING.equals(token)) {
+            peeked = null;
+            return ByteBuffer.wrap(readBase64());
+        }
+        final String value = nextString();
+        return value == null ? null : ByteBuffer.wrap(Base64.decode(value));
+    }
+
+    @Override
+    public AwsJsonToken peek() throws IOException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            final AwsJsonToken token = peek();
+            if (token == null) {
+                return;
+            }
+            switch (token) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case FIELD_NAME:
+                case VALUE_STRING:
+                    peeked = null;
+                    skipString();
+                    break;
+                default:
+                    nextString();
+                    break;
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        stack[0] = CLOSED;
+        stackSize = 1;
+        in.close();
+    }
+
+    private void expect(AwsJsonToken expected) throws IOException {
+        final AwsJsonToken token = peek();
+        if (!expected.equals(token)) {
+            throw new IllegalStateException("Expected " + expected + " but was "
+                    + (token == null ? "END_DOCUMENT" : token));
+        }
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    /**
+     * Finds the next token, and moves past its first character if it's a
+     * bracket or a quote.
+     */
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private AwsJsonToken doPeek() throws IOException {
+        final int top = stackSize - 1;
+        final int scope = stack[top];
+        int c;
+        switch (scope) {
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY:
+                stack[top] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return AwsJsonToken.END_ARRAY;
+                }
+                if (scope == NONEMPTY_ARRAY) {
+                    if (c != ',') {
+                        throw syntaxError("Unterminated array");
+                    }
+                } else {
+                    pos--;
+                }
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                stack[top] = DANGLING_NAME;
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return AwsJsonToken.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Unterminated object");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected name");
+                }
+                return AwsJsonToken.FIELD_NAME;
+            case DANGLING_NAME:
+                stack[top] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                break;
+            case EMPTY_DOCUMENT:
+                stack[top] = NONEMPTY_DOCUMENT;
+                if (nextNonWhitespace() == -1) {
+                    return null;
+                }
+                pos--;
+                break;
+            case NONEMPTY_DOCUMENT:
+                if (nextNonWhitespace() == -1) {
+                    return null;
+                }
+                throw syntaxError("Expected the end of the document");
+            default:
+                throw new IllegalStateException("JsonReader is closed");
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '[':
+                return AwsJsonToken.BEGIN_ARRAY;
+            case '{':
+                return AwsJsonToken.BEGIN_OBJECT;
+            case '"':
+                return AwsJsonToken.VALUE_STRING;
+            case 't':
+            case 'f':
+                pos--;
+                return AwsJsonToken.VALUE_BOOLEAN;
+            case 'n':
+                pos--;
+                return AwsJsonToken.VALUE_NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return AwsJsonToken.VALUE_NUMBER;
+                }
+                throw syntaxError(c == -1 ? "End of input" : "Expected value");
+        }
+    }
+
+    /**
+     * @return the next byte which isn't whitespace, or -1 at the end of the
+     *         input.
+     */
+    private int nextNonWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            final int c = buffer[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads more bytes once the buffer is consumed.
+     *
+     * @return false at the end of the input.
+     */
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read == -1) {
+            return false;
+        }
+        offset += limit;
+        pos = 0;
+        limit = read;
+        return true;
+    }
+
+    private int nextByte(String context) throws IOException {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unterminated " + context);
+        }
+        return buffer[pos++] & 0xff;
+    }
+
+    /**
+     * Reads a field name, once its opening quote is consumed. Short ASCII
+     * names already in the buffer are taken from the cache.
+     */
+    private String readName() throws IOException {
+        final int start = pos;
+        final int end = Math.min(limit, start + MAX_CACHED_NAME_LENGTH + 1);
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            final int b = buffer[i];
+            if (b == '"') {
+                final int index = hash & (NAME_CACHE_SIZE - 1);
+                final String cached = nameCache[index];
+                if (cached != null && matches(cached, start, i - start)) {
+                    pos = i + 1;
+                    return cached;
+                }
+                final String name = readString();
+                nameCache[index] = name;
+                return name;
+            }
+            if (b < ' ' || b == '\\') {
+                break;
+            }
+            hash = hash * 31 + b;
+        }
+        return readString();
+    }
+
+    private boolean matches(String name, int start, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != buffer[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a string, once its opening quote is consumed.
+     */
+    private String readString() throws IOException {
+        int length = 0;
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            if (length + 2 > chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            final int b = buffer[pos++];
+            if (b == '"') {
+                return new String(chars, 0, length);
+            } else if (b == '\\') {
+                chars[length++] = readEscape();
+            } else if (b >= 0) {
+                chars[length++] = (char) b;
+            } else {
+                length = readMultiByte(b & 0xff, length);
+            }
+        }
+    }
+
+    /**
+     * Decodes the character of a multi byte UTF-8 sequence into the character
+     * buffer, which has room for two characters.
+     *
+     * @return the new length of the character buffer.
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    private int readMultiByte(int lead, int length) throws IOException {
+        final int continuations;
+        int codePoint;
+        if (lead >= 0xc2 && lead <= 0xdf) {
+            continuations = 1;
+            codePoint = lead & 0x1f;
+        } else if (lead >= 0xe0 && lead <= 0xef) {
+            continuations = 2;
+            codePoint = lead & 0x0f;
+        } else if (lead >= 0xf0 && lead <= 0xf4) {
+            continuations = 3;
+            codePoint = lead & 0x07;
+        } else {
+            chars[length] = REPLACEMENT_CHAR;
+            return length + 1;
+        }
+        for (int i = 0; i < continuations; i++) {
+            final int b = nextByte("string");
+            if ((b & 0xc0) != 0x80) {
+                // let the next iteration read the byte again
+                pos--;
+                chars[length] = REPLACEMENT_CHAR;
+                return length + 1;
+            }
+            codePoint = (codePoint << 6) | (b & 0x3f);
+        }
+        if ((continuations == 2 && (codePoint < 0x800
+                || (codePoint >= Character.MIN_SURROGATE
+                        && codePoint <= Character.MAX_SURROGATE)))
+                || (continuations == 3 && (codePoint < 0x10000
+                        || codePoint > Character.MAX_CODE_POINT))) {
+            chars[length] = REPLACEMENT_CHAR;
+            return length + 1;
+        }
+        return length + Character.toChars(codePoint, chars, length);
+    }
+
+    /**
+     * Reads an escape sequence, once its backslash is consumed.
+     */
+    private char readEscape() throws IOException {
+        final int c = nextByte("escape sequence");
+        switch (c) {
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < UNICODE_ESCAPE_LENGTH; i++) {
+                    final int digit = Character.digit(nextByte("escape sequence"), HEX_RADIX);
+                    if (digit == -1) {
+                        throw syntaxError("Malformed Unicode escape sequence");
+                    }
+                    value = value * HEX_RADIX + digit;
+                }
+                return (char) value;
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            final int b = nextByte("string");
+            if (b == '"') {
+                return;
+            } else if (b == '\\') {
+                readEscape();
+            }
+        }
+    }
+
+    /**
+     * Reads the bytes of a Base64 encoded string, once its opening quote is
+     * consumed, and decodes them. Carriage returns, line feeds and spaces are
+     * skipped like {@link Base64#decode(String)} does.
+     */
+    private byte[] readBase64() throws IOException {
+        if (blob == null) {
+            blob = new byte[BUFFER_SIZE];
+        }
+        int length = 0;
+        while (true) {
+            int b = nextByte("string");
+            if (b == '"') {
+                return Base64.decode(blob, length);
+            } else if (b == '\\') {
+                b = readEscape();
+            }
+            if (b == '\r' || b == '\n' || b == ' ') {
+                continue;
+            }
+            if (b > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid character found in Base64 string");
+            }
+            if (length == blob.length) {
+                blob = Arrays.copyOf(blob, length * 2);
+            }
+            blob[length++] = (byte) b;
+        }
+    }
+
+    private String readNumber() throws IOException {
+        int length = 0;
+        while (pos < limit || fill()) {
+            final int b = buffer[pos];
+            if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.'
+                    || b == 'e' || b == 'E') {
+                if (length == chars.length) {
+                    chars = Arrays.copyOf(chars, length * 2);
+                }
+                chars[length++] = (char) b;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    private boolean readBoolean() throws IOException {
+        if (buffer[pos] == 't') {
+            readLiteral("true");
+            return true;
+        }
+        readLiteral("false");
+        return false;
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (nextByte("literal") != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at offset " + (offset + pos));
+    }
+}
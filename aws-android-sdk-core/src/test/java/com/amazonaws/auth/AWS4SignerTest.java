@@ -28,6 +28,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
@@ -169,6 +170,96 @@ public class AWS4SignerTest {
         assertFalse(signer.needsSign("User-Agent"));
     }
 
+    @Test
+    public void testSigningKeyDependsOnCredentialsAndDate() throws Exception {
+        final AWSCredentials credentials = new BasicAWSCredentials("access", "secret");
+        final Calendar c = new GregorianCalendar();
+        c.set(1981, 1, 16, 6, 30, 0);
+        c.setTimeZone(TimeZone.getTimeZone("UTC"));
+        signer.overrideDate(c.getTime());
+        final String signature = sign(credentials);
+
+        // a cached signing key is reused for the same secret key and date
+        assertEquals(signature, sign(credentials));
+        assertEquals(signature, sign(new BasicAWSCredentials("other-access", "secret"))
+                .replace("other-access", "access"));
+        assertFalse(signature.equals(sign(new BasicAWSCredentials("access", "other-secret"))));
+
+        c.set(1981, 1, 17, 6, 30, 0);
+        signer.overrideDate(c.getTime());
+        final String nextDaySignature = sign(credentials);
+        assertFalse(signature.equals(nextDaySignature));
+        assertTrue(nextDaySignature.contains("/19810217/"));
+
+        c.set(1981, 1, 16, 6, 30, 0);
+        signer.overrideDate(c.getTime());
+        assertEquals(signature, sign(credentials));
+    }
+
+    @Test
+    public void testCanonicalizedHeaders() {
+        final Request<?> request = generateBasicRequest();
+        request.addHeader("Content-Type", "application/json");
+        request.addHeader("X-Amz-Meta", " a\t\tb \r\nc ");
+        request.addHeader("Date", null);
+
+        assertEquals("date:\n"
+                + "host:demo.us-east-1.amazonaws.com\n"
+                + "x-amz-archive-description:test test\n"
+                + "x-amz-meta: a b c \n",
+                signer.getCanonicalizedHeaderString(request));
+        assertEquals("date;host;x-amz-archive-description;x-amz-meta",
+                signer.getSignedHeadersString(request));
+    }
+
+    @Test
+    public void testStreamingPayloadSigning() throws Exception {
+        final byte[] content = new byte[300 * 1024];
+        final Request<?> request = generateBasicRequest();
+        request.setContent(new ByteArrayInputStream(content));
+        request.addHeader("Content-Length", String.valueOf(content.length));
+        final AWS4Signer streamingSigner = new AWS4Signer();
+        streamingSigner.setStreamingPayloadSigning(true);
+        streamingSigner.overrideDate(new Date(0));
+
+        streamingSigner.sign(request, new BasicAWSCredentials("access", "secret"));
+        assertEquals("STREAMING-AWS4-HMAC-SHA256-PAYLOAD",
+                request.getHeaders().get("x-amz-content-sha256"));
+        assertEquals("aws-chunked", request.getHeaders().get("Content-Encoding"));
+        assertEquals(String.valueOf(content.length),
+                request.getHeaders().get("x-amz-decoded-content-length"));
+        assertTrue(request.getHeaders().get("Authorization")
+                .contains("x-amz-content-sha256;x-amz-date;x-amz-decoded-content-length"));
+        assertTrue(request.getContent() instanceof AwsChunkedEncodingInputStream);
+
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = request.getContent().read(buffer)) != -1) {
+            encoded.write(buffer, 0, read);
+        }
+        assertEquals(Long.parseLong(request.getHeaders().get("Content-Length")), encoded.size());
+        assertTrue(new String(encoded.toByteArray(), 0, 30, StringUtils.UTF8)
+                .startsWith("20000;chunk-signature="));
+    }
+
+    @Test
+    public void testStreamingPayloadSigningNeedsContentLength() {
+        final Request<?> request = generateBasicRequest();
+        final AWS4Signer streamingSigner = new AWS4Signer();
+        streamingSigner.setStreamingPayloadSigning(true);
+
+        streamingSigner.sign(request, new BasicAWSCredentials("access", "secret"));
+        assertNull(request.getHeaders().get("x-amz-content-sha256"));
+        assertFalse(request.getContent() instanceof AwsChunkedEncodingInputStream);
+    }
+
+    private String sign(AWSCredentials credentials) {
+        final Request<?> request = generateBasicRequest();
+        signer.sign(request, credentials);
+        return request.getHeaders().get("Authorization");
+    }
+
     /**
      * Tests that if passed anonymous credentials, signer will not generate a
      * signature
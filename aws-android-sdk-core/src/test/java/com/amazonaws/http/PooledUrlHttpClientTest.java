@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.AWSRequestMetricsFullSupport;
+import com.amazonaws.util.StringUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.Collections;
+
+public class PooledUrlHttpClientTest {
+
+    private ClientConfiguration conf;
+    private MockPooledUrlHttpClient client;
+
+    @Before
+    public void setup() {
+        conf = new ClientConfiguration().withMaxConnections(1).withConnectionTimeout(50);
+        client = new MockPooledUrlHttpClient(conf);
+    }
+
+    @Test
+    public void testConnectionLeasedUntilContentClosed() throws Exception {
+        final HttpResponse response = client.execute(newRequest());
+        assertEquals(1, client.getLeasedConnectionCount());
+
+        try {
+            client.execute(newRequest());
+            fail("Expected a timeout waiting for a connection");
+        } catch (final IOException e) {
+            assertEquals("Timeout waiting for connection from pool", e.getMessage());
+        }
+
+        response.getRawContent().close();
+        assertEquals(0, client.getLeasedConnectionCount());
+        response.getRawContent().close();
+        assertEquals(0, client.getLeasedConnectionCount());
+
+        client.execute(newRequest()).getRawContent().close();
+        assertEquals(0, client.getLeasedConnectionCount());
+    }
+
+    @Test
+    public void testConnectionReleasedWithoutContent() throws Exception {
+        client.content = null;
+        final HttpResponse response = client.execute(newRequest());
+        assertNull(response.getRawContent());
+        assertEquals(0, client.getLeasedConnectionCount());
+    }
+
+    @Test
+    public void testUnreadContentDrainedOnClose() throws Exception {
+        final HttpResponse response = client.execute(newRequest());
+        assertEquals('C', response.getContent().read());
+        response.getRawContent().close();
+
+        assertEquals(0, client.content.available());
+        assertFalse(client.connection.disconnected);
+        assertEquals("200", response.getHeaders().get("Status"));
+    }
+
+    @Test
+    public void testLargeUnreadContentDisconnects() throws Exception {
+        client.content = new ByteArrayInputStream(
+                new byte[PooledUrlHttpClient.MAX_DRAIN_BYTES * 2]);
+        client.execute(newRequest()).getRawContent().close();
+
+        assertTrue(client.connection.disconnected);
+        assertEquals(0, client.getLeasedConnectionCount());
+    }
+
+    @Test
+    public void testConnectionMetrics() throws Exception {
+        client.openSocket = true;
+        client.execute(newRequest()).getRawContent().close();
+        final AWSRequestMetricsFullSupport missMetrics = new AWSRequestMetricsFullSupport();
+        client.captureConnectionMetrics(missMetrics);
+
+        assertEquals(1, missMetrics.getTimingInfo()
+                .getCounter(Field.HttpClientPoolMissCount.name()).intValue());
+        assertNull(missMetrics.getTimingInfo().getCounter(Field.HttpClientPoolHitCount.name()));
+        assertEquals(1, missMetrics.getTimingInfo()
+                .getCounter(Field.HttpClientPoolLeasedCount.name()).intValue());
+
+        client.openSocket = false;
+        client.execute(newRequest()).getRawContent().close();
+        final AWSRequestMetricsFullSupport hitMetrics = new AWSRequestMetricsFullSupport();
+        client.captureConnectionMetrics(hitMetrics);
+
+        assertEquals(1, hitMetrics.getTimingInfo()
+                .getCounter(Field.HttpClientPoolHitCount.name()).intValue());
+        assertNull(hitMetrics.getTimingInfo().getCounter(Field.HttpClientPoolMissCount.name()));
+        assertEquals(1, client.getPoolHitCount());
+        assertEquals(1, client.getPoolMissCount());
+    }
+
+    private HttpRequest newRequest() throws Exception {
+        return new HttpRequest("GET", new URI("https://www.amazon.com"));
+    }
+
+    private static final class MockPooledUrlHttpClient extends PooledUrlHttpClient {
+        private InputStream content = new ByteArrayInputStream(
+                "Content".getBytes(StringUtils.UTF8));
+        private boolean openSocket;
+        private DisconnectRecordingConnection connection;
+
+        MockPooledUrlHttpClient(ClientConfiguration config) {
+            super(config);
+        }
+
+        @Override
+        protected HttpURLConnection getUrlConnection(URL url) throws IOException {
+            connection = new DisconnectRecordingConnection(url, openSocket);
+            connection.setResponseCode(200);
+            connection.setResponseMessage("OK");
+            connection.setInputStream(content);
+            connection.setHeaderFields(Collections.singletonMap("Status",
+                    Collections.singletonList("200")));
+            return connection;
+        }
+    }
+
+    private static final class DisconnectRecordingConnection extends MockHttpURLConnection {
+        private final boolean openSocket;
+        private boolean disconnected;
+
+        DisconnectRecordingConnection(URL u, boolean openSocket) {
+            super(u);
+            this.openSocket = openSocket;
+        }
+
+        @Override
+        public int getResponseCode() {
+            if (openSocket) {
+                try {
+                    getSSLSocketFactory().createSocket().close();
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return super.getResponseCode();
+        }
+
+        @Override
+        public void disconnect() {
+            disconnected = true;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.retry;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.AmazonWebServiceResponse;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.http.AmazonHttpClient;
+import com.amazonaws.http.AsyncHttpClient;
+import com.amazonaws.http.ExecutionContext;
+import com.amazonaws.http.HttpRequest;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.http.HttpResponseHandler;
+import com.amazonaws.util.AWSRequestMetrics;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AmazonHttpClientAsyncRetryTest extends RetryPolicyTestBase {
+
+    private static final int EXPECTED_RETRY_COUNT = 3;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static final Executor CALLING_THREAD_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Before
+    public void resetContextData() {
+        retryCondition = new ContextDataCollectionRetryCondition();
+        backoffStrategy = new ContextDataCollectionBackoffStrategy();
+        clientConfiguration.setRetryPolicy(
+                new RetryPolicy(retryCondition,
+                        backoffStrategy,
+                        EXPECTED_RETRY_COUNT,
+                        false));
+    }
+
+    @Test
+    public void testServiceExceptionRetriedWithoutBlocking() throws Exception {
+        injectMockHttpClient(testedClient, new ReturnServiceErrorHttpClient(503, "Throttled"));
+        ExecutionContext context = new ExecutionContext(true);
+        final AtomicReference<Exception> handledException = new AtomicReference<Exception>();
+
+        Future<Response<String>> future = testedClient.executeAsync(
+                getSampleRequestWithRepeatableContent(originalRequest),
+                new StringResponseHandler(),
+                errorResponseHandler,
+                context,
+                null,
+                CALLING_THREAD_EXECUTOR,
+                new AsyncHandler<AmazonWebServiceRequest, Response<String>>() {
+                    @Override
+                    public void onError(Exception exception) {
+                        handledException.set(exception);
+                    }
+
+                    @Override
+                    public void onSuccess(AmazonWebServiceRequest request,
+                            Response<String> result) {
+                        Assert.fail("The request is expected to fail.");
+                    }
+                });
+
+        AmazonServiceException expectedServiceException = null;
+        try {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.fail("AmazonServiceException is expected.");
+        } catch (ExecutionException e) {
+            expectedServiceException = (AmazonServiceException) e.getCause();
+            Assert.assertEquals(503, expectedServiceException.getStatusCode());
+            Assert.assertEquals("Throttled", expectedServiceException.getErrorCode());
+        }
+        Assert.assertSame(expectedServiceException, handledException.get());
+
+        verifyExpectedContextData(retryCondition,
+                originalRequest,
+                expectedServiceException,
+                EXPECTED_RETRY_COUNT);
+        verifyExpectedContextData(backoffStrategy,
+                originalRequest,
+                expectedServiceException,
+                EXPECTED_RETRY_COUNT);
+        Assert.assertEquals(
+                EXPECTED_RETRY_COUNT + 1,
+                context.getAwsRequestMetrics()
+                        .getTimingInfo()
+                        .getCounter(AWSRequestMetrics.Field.RequestCount.toString()).intValue());
+    }
+
+    @Test
+    public void testAsyncHttpClientRetriedUntilSuccess() throws Exception {
+        CallbackHttpClient httpClient = new CallbackHttpClient(EXPECTED_RETRY_COUNT);
+        AmazonHttpClient client = new AmazonHttpClient(clientConfiguration, httpClient);
+        ExecutionContext context = new ExecutionContext(true);
+        Request<?> request = getSampleRequestWithRepeatableContent(originalRequest);
+
+        Response<String> response = client.executeAsync(request,
+                new StringResponseHandler(),
+                errorResponseHandler,
+                context,
+                null,
+                CALLING_THREAD_EXECUTOR,
+                null).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        Assert.assertEquals("result", response.getAwsResponse());
+        Assert.assertEquals(EXPECTED_RETRY_COUNT + 1, httpClient.requestCount.get());
+        Assert.assertEquals(EXPECTED_RETRY_COUNT, retryCondition.exceptions.size());
+        Assert.assertEquals(EXPECTED_RETRY_COUNT + "/0",
+                request.getHeaders().get("aws-sdk-retry"));
+        Assert.assertEquals(
+                EXPECTED_RETRY_COUNT + 1,
+                context.getAwsRequestMetrics()
+                        .getTimingInfo()
+                        .getCounter(AWSRequestMetrics.Field.RequestCount.toString()).intValue());
+    }
+
+    @Test
+    public void testThrowingHandlerDoesNotBlockFuture() throws Exception {
+        AmazonHttpClient client = new AmazonHttpClient(clientConfiguration,
+                new CallbackHttpClient(0));
+        final AtomicBoolean notified = new AtomicBoolean();
+
+        Future<Response<String>> future = client.executeAsync(
+                getSampleRequestWithRepeatableContent(originalRequest),
+                new StringResponseHandler(),
+                errorResponseHandler,
+                new ExecutionContext(true),
+                null,
+                CALLING_THREAD_EXECUTOR,
+                new AsyncHandler<AmazonWebServiceRequest, Response<String>>() {
+                    @Override
+                    public void onError(Exception exception) {
+                        Assert.fail("The request is expected to succeed.");
+                    }
+
+                    @Override
+                    public void onSuccess(AmazonWebServiceRequest request,
+                            Response<String> result) {
+                        notified.set(true);
+                        throw new IllegalStateException("handler failure");
+                    }
+                });
+
+        Assert.assertEquals("result",
+                future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getAwsResponse());
+        // the handler runs on the thread of the response after the future
+        // completes
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (!notified.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(notified.get());
+    }
+
+    @Test
+    public void testCancelledRequestDoesNotNotifyHandler() throws Exception {
+        PendingHttpClient httpClient = new PendingHttpClient();
+        AmazonHttpClient client = new AmazonHttpClient(clientConfiguration, httpClient);
+        final AtomicBoolean notified = new AtomicBoolean();
+
+        Future<Response<String>> future = client.executeAsync(
+                getSampleRequestWithRepeatableContent(originalRequest),
+                new StringResponseHandler(),
+                errorResponseHandler,
+                new ExecutionContext(true),
+                null,
+                CALLING_THREAD_EXECUTOR,
+                new AsyncHandler<AmazonWebServiceRequest, Response<String>>() {
+                    @Override
+                    public void onError(Exception exception) {
+                        notified.set(true);
+                    }
+
+                    @Override
+                    public void onSuccess(AmazonWebServiceRequest request,
+                            Response<String> result) {
+                        notified.set(true);
+                    }
+                });
+        Assert.assertTrue(future.cancel(true));
+        httpClient.callback.onResponse(HttpResponse.builder()
+                .statusCode(200)
+                .statusText("OK")
+                .build());
+
+        Assert.assertFalse(notified.get());
+        Assert.assertTrue(future.isCancelled());
+        Assert.assertTrue(future.isDone());
+        try {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.fail("CancellationException is expected.");
+        } catch (CancellationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRejectedResponseHandlingClosesContent() throws Exception {
+        PendingHttpClient httpClient = new PendingHttpClient();
+        AmazonHttpClient client = new AmazonHttpClient(clientConfiguration, httpClient);
+        final AtomicInteger dispatched = new AtomicInteger();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                // only the first attempt is accepted
+                if (dispatched.incrementAndGet() > 1) {
+                    throw new RejectedExecutionException("shut down");
+                }
+                command.run();
+            }
+        };
+
+        Future<Response<String>> future = client.executeAsync(
+                getSampleRequestWithRepeatableContent(originalRequest),
+                new StringResponseHandler(),
+                errorResponseHandler,
+                new ExecutionContext(true),
+                null,
+                executor,
+                null);
+        final AtomicBoolean closed = new AtomicBoolean();
+        httpClient.callback.onResponse(HttpResponse.builder()
+                .statusCode(200)
+                .statusText("OK")
+                .content(new ByteArrayInputStream(new byte[16]) {
+                    @Override
+                    public void close() throws IOException {
+                        closed.set(true);
+                        super.close();
+                    }
+                })
+                .build());
+
+        Assert.assertTrue(closed.get());
+        try {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.fail("AmazonClientException is expected.");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof AmazonClientException);
+            Assert.assertTrue(e.getCause().getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    /**
+     * A response handler which returns the same result for any response.
+     */
+    private static class StringResponseHandler implements
+            HttpResponseHandler<AmazonWebServiceResponse<String>> {
+
+        @Override
+        public AmazonWebServiceResponse<String> handle(HttpResponse response) {
+            AmazonWebServiceResponse<String> awsResponse = new AmazonWebServiceResponse<String>();
+            awsResponse.setResult("result");
+            return awsResponse;
+        }
+
+        @Override
+        public boolean needsConnectionLeftOpen() {
+            return false;
+        }
+    }
+
+    /**
+     * An AsyncHttpClient which fails the first requests from another thread,
+     * then returns an OK response.
+     */
+    private static class CallbackHttpClient implements AsyncHttpClient {
+
+        private final int failureCount;
+        private final AtomicInteger requestCount = new AtomicInteger();
+
+        CallbackHttpClient(int failureCount) {
+            this.failureCount = failureCount;
+        }
+
+        @Override
+        public void execute(HttpRequest request, final Callback callback) {
+            final int count = requestCount.incrementAndGet();
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    if (count <= failureCount) {
+                        callback.onFailure(new IOException("fake IOException"));
+                    } else {
+                        callback.onResponse(HttpResponse.builder()
+                                .statusCode(200)
+                                .statusText("OK")
+                                .build());
+                    }
+                }
+            }).start();
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void shutdown() {
+            // No op
+        }
+    }
+
+    /**
+     * An AsyncHttpClient which keeps the callback of the request, so that the
+     * test completes it.
+     */
+    private static class PendingHttpClient implements AsyncHttpClient {
+
+        private volatile Callback callback;
+
+        @Override
+        public void execute(HttpRequest request, Callback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void shutdown() {
+            // No op
+        }
+    }
+}
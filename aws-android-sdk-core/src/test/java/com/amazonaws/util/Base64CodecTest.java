@@ -18,10 +18,14 @@ package com.amazonaws.util;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Random;
 import java.util.UUID;
 
 public class Base64CodecTest
@@ -92,4 +96,24 @@ public class Base64CodecTest
             }
         }
     }
+
+    @Test
+    public void testEncodeByteBufferToWriter() throws IOException {
+        Random random = new Random(1);
+        // Lengths around the size of a chunk of written characters
+        int[] lengths = {0, 1, 2, 3, 3071, 3072, 3073, 3074, 10000};
+        for (int length : lengths) {
+            byte[] bytes = new byte[length + 2];
+            random.nextBytes(bytes);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, length);
+
+            StringWriter writer = new StringWriter();
+            Base64.encode(buffer, writer);
+
+            Assert.assertEquals(Base64.encodeAsString(Arrays.copyOfRange(bytes, 1, length + 1)),
+                    writer.toString());
+            Assert.assertEquals(1, buffer.position());
+            Assert.assertEquals(length, buffer.remaining());
+        }
+    }
 }
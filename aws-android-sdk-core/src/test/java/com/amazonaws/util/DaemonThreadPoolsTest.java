@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class DaemonThreadPoolsTest {
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    @Test
+    public void testThreadFactory() {
+        ThreadFactory factory = DaemonThreadPools.newThreadFactory("Test");
+
+        Thread first = factory.newThread(NOOP);
+        Thread second = factory.newThread(NOOP);
+
+        assertEquals("Test-1", first.getName());
+        assertEquals("Test-2", second.getName());
+        assertTrue(first.isDaemon());
+        assertTrue(second.isDaemon());
+    }
+
+    @Test
+    public void testFixedThreadPool() throws Exception {
+        ThreadPoolExecutor executor = DaemonThreadPools.newFixedThreadPool("TestPool", 2, 1);
+        try {
+            assertEquals(2, executor.getCorePoolSize());
+            assertEquals(2, executor.getMaximumPoolSize());
+            assertEquals(1, executor.getKeepAliveTime(TimeUnit.SECONDS));
+            assertTrue(executor.allowsCoreThreadTimeOut());
+
+            Thread thread = executor.submit(new Callable<Thread>() {
+                @Override
+                public Thread call() {
+                    return Thread.currentThread();
+                }
+            }).get();
+            assertEquals("TestPool-1", thread.getName());
+            assertTrue(thread.isDaemon());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSetPoolSize() {
+        ThreadPoolExecutor executor = DaemonThreadPools.newFixedThreadPool("TestPool", 2, 1);
+        try {
+            DaemonThreadPools.setPoolSize(executor, 5);
+            assertEquals(5, executor.getCorePoolSize());
+            assertEquals(5, executor.getMaximumPoolSize());
+
+            DaemonThreadPools.setPoolSize(executor, 1);
+            assertEquals(1, executor.getCorePoolSize());
+            assertEquals(1, executor.getMaximumPoolSize());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
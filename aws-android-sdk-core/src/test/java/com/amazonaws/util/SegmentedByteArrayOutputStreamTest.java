@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SegmentedByteArrayOutputStreamTest {
+
+    @Test
+    public void testEmpty() throws IOException {
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream();
+        InputStream in = out.toInputStream();
+
+        assertEquals(0, out.size());
+        assertEquals(-1, in.read());
+        assertEquals(-1, in.read(new byte[8], 0, 8));
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testReadBackAcrossSegments() throws IOException {
+        byte[] bytes = new byte[1024 * 1024 + 7];
+        new Random(1).nextBytes(bytes);
+
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream();
+        out.write(bytes[0]);
+        out.write(bytes, 1, 5000);
+        out.write(bytes, 5001, bytes.length - 5001);
+
+        assertEquals(bytes.length, out.size());
+        InputStream in = out.toInputStream();
+        assertEquals(bytes.length, in.available());
+        assertArrayEquals(bytes, IOUtils.toByteArray(in));
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testMarkAndReset() throws IOException {
+        byte[] bytes = new byte[100 * 1024];
+        new Random(2).nextBytes(bytes);
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream();
+        out.write(bytes, 0, bytes.length);
+
+        InputStream in = out.toInputStream();
+        assertTrue(in.markSupported());
+        in.mark(-1);
+        assertArrayEquals(bytes, IOUtils.toByteArray(in));
+        in.reset();
+        assertArrayEquals(bytes, IOUtils.toByteArray(in));
+
+        in.reset();
+        assertEquals(10000, in.skip(10000));
+        in.mark(-1);
+        assertEquals(bytes[10000] & 0xff, in.read());
+        in.reset();
+        byte[] rest = IOUtils.toByteArray(in);
+        assertArrayEquals(Arrays.copyOfRange(bytes, 10000, bytes.length), rest);
+        assertEquals(0, in.skip(1));
+    }
+}
@@ -24,6 +24,7 @@ import static org.junit.Assert.fail;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -277,6 +278,39 @@ public class JsonUtilsTest {
         out.getBuffer().setLength(0);
     }
 
+    @Test
+    public void testByteBuffersInObject() throws IOException {
+        ByteBuffer bb = generateByteBuffer(16);
+
+        StringWriter out = new StringWriter();
+        JsonUtils.getJsonWriter(out)
+                .beginObject()
+                .name("a").value(bb)
+                .name("b").beginArray().value(bb).value(bb).endArray()
+                .name("c").value("c")
+                .endObject()
+                .close();
+        String target = "\"AAECAwQFBgcICQoLDA0ODw==\"";
+        assertEquals("{\"a\":" + target + ",\"b\":[" + target + "," + target + "],\"c\":\"c\"}",
+                out.toString());
+        assertEquals(16, bb.remaining());
+    }
+
+    @Test
+    public void testNextByteBuffer() throws IOException {
+        String json = "[\"AAECAwQFBgcICQoLDA0ODw==\",null]";
+        AwsJsonReader[] readers = new AwsJsonReader[] {
+                JsonUtils.getJsonReader(new StringReader(json)),
+                JsonUtils.getJsonReader(new ByteArrayInputStream(json.getBytes("UTF-8")))
+        };
+        for (AwsJsonReader reader : readers) {
+            reader.beginArray();
+            assertEquals(generateByteBuffer(16), JsonUtils.nextByteBuffer(reader));
+            assertNull(JsonUtils.nextByteBuffer(reader));
+            reader.endArray();
+        }
+    }
+
     private ByteBuffer generateByteBuffer(int length) {
         byte[] bytes = new byte[length];
         for (int i = 0; i < length; i++) {
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.util.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.amazonaws.util.Base64;
+import com.amazonaws.util.StringUtils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class Utf8JsonReaderTest {
+
+    private static final String JSON_STRING = "{\"string\":\"string\","
+            + "\"long\":123,"
+            + "\"double\":-123.45e-6,"
+            + "\"null\":null,"
+            + "\"true\":true,"
+            + "\"false\":false,"
+            + "\"encoding\":\"Chloë, 中文, 😀\","
+            + "\"escapes\":\"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00e9\","
+            + "\"array\":[\"string\",123,123.45,null,true,false,[],{}],"
+            + "\"object\":{\"nested\":{\"a\":[{\"S\":\"1\"},{\"N\":\"2\"}]}}"
+            + "}";
+
+    @Test
+    public void testSameTokensAsGson() throws IOException {
+        assertSameTokens(JSON_STRING, new ByteArrayInputStream(utf8(JSON_STRING)));
+    }
+
+    @Test
+    public void testSameTokensAsGsonOneByteAtATime() throws IOException {
+        assertSameTokens(JSON_STRING, new OneByteInputStream(utf8(JSON_STRING)));
+    }
+
+    @Test
+    public void testLargeDocument() throws IOException {
+        StringBuilder sb = new StringBuilder("{\"Items\":[");
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":{\"N\":\"").append(i).append("\"},")
+                    .append("\"name\":{\"S\":\"name ").append(i).append(" é\"}}");
+        }
+        sb.append("],\"Count\":2000}");
+        String json = sb.toString();
+        assertSameTokens(json, new ByteArrayInputStream(utf8(json)));
+    }
+
+    @Test
+    public void testNamesAreCached() throws IOException {
+        AwsJsonReader reader = reader("[{\"Data\":1},{\"Data\":2}]");
+        reader.beginArray();
+        reader.beginObject();
+        String first = reader.nextName();
+        assertEquals("1", reader.nextString());
+        reader.endObject();
+        reader.beginObject();
+        assertSame(first, reader.nextName());
+        assertEquals("2", reader.nextString());
+        reader.endObject();
+        reader.endArray();
+        assertNull(reader.peek());
+    }
+
+    @Test
+    public void testNextByteBuffer() throws IOException {
+        byte[] bytes = new byte[20000];
+        new Random(1).nextBytes(bytes);
+        String encoded = Base64.encodeAsString(bytes);
+        String json = "{\"blob\":\"" + encoded + "\",\"escaped\":\"AQI\\/\",\"null\":null}";
+
+        Utf8JsonReader reader = new Utf8JsonReader(new OneByteInputStream(utf8(json)));
+        reader.beginObject();
+        assertEquals("blob", reader.nextName());
+        assertEquals(ByteBuffer.wrap(bytes), reader.nextByteBuffer());
+        assertEquals("escaped", reader.nextName());
+        assertEquals(ByteBuffer.wrap(Base64.decode("AQI/")), reader.nextByteBuffer());
+        assertEquals("null", reader.nextName());
+        assertNull(reader.nextByteBuffer());
+        reader.endObject();
+    }
+
+    @Test
+    public void testSkipValue() throws IOException {
+        AwsJsonReader reader = reader("{\"skip\":{\"a\":[1,\"\\\"\",{}]},\"keep\":true}");
+        reader.beginObject();
+        assertEquals("skip", reader.nextName());
+        reader.skipValue();
+        assertEquals("keep", reader.nextName());
+        assertEquals(AwsJsonToken.VALUE_BOOLEAN, reader.peek());
+        assertEquals("true", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endObject();
+    }
+
+    @Test
+    public void testMalformedUtf8IsReplaced() throws IOException {
+        byte[] bytes = new byte[] {
+                '"', 'a', (byte) 0xc3, 'b', (byte) 0xff, '"'
+        };
+        assertEquals("a\ufffdb\ufffd", new Utf8JsonReader(new ByteArrayInputStream(bytes))
+                .nextString());
+    }
+
+    @Test
+    public void testEmptyDocument() throws IOException {
+        AwsJsonReader reader = reader("  ");
+        assertNull(reader.peek());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testSyntaxErrors() throws IOException {
+        for (String json : new String[] {
+                "{\"a\" 1}", "[1 2]", "{\"a\":\"b", "[tru]", "{\"a\":1}}"
+        }) {
+            try {
+                AwsJsonReader reader = reader(json);
+                while (true) {
+                    AwsJsonToken token = reader.peek();
+                    if (token == null) {
+                        break;
+                    }
+                    consume(reader, token);
+                }
+                fail("Expected a syntax error for " + json);
+            } catch (IOException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testUnexpectedToken() throws IOException {
+        AwsJsonReader reader = reader("[1]");
+        try {
+            reader.beginObject();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            assertEquals("Expected BEGIN_OBJECT but was BEGIN_ARRAY", expected.getMessage());
+        }
+    }
+
+    private static void assertSameTokens(String json, InputStream in) throws IOException {
+        AwsJsonReader expected = JsonUtils.getJsonReader(new StringReader(json));
+        AwsJsonReader actual = new Utf8JsonReader(in);
+        while (true) {
+            AwsJsonToken token = expected.peek();
+            assertEquals(token, actual.peek());
+            if (token == null) {
+                break;
+            }
+            assertEquals(expected.hasNext(), actual.hasNext());
+            assertEquals(expected.isContainer(), actual.isContainer());
+            assertEquals(consume(expected, token), consume(actual, token));
+        }
+        actual.close();
+    }
+
+    private static String consume(AwsJsonReader reader, AwsJsonToken token) throws IOException {
+        switch (token) {
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                return "[";
+            case END_ARRAY:
+                reader.endArray();
+                return "]";
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                return "{";
+            case END_OBJECT:
+                reader.endObject();
+                return "}";
+            case FIELD_NAME:
+                return reader.nextName();
+            default:
+                return reader.nextString();
+        }
+    }
+
+    private static AwsJsonReader reader(String json) {
+        return JsonUtils.getJsonReader(new ByteArrayInputStream(utf8(json)));
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StringUtils.UTF8);
+    }
+
+    private static final class OneByteInputStream extends FilterInputStream {
+        OneByteInputStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(1, len));
+        }
+    }
+}
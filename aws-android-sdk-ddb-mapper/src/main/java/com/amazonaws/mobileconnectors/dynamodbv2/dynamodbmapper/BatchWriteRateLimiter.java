@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive limit on the BatchWriteItem requests of one batch write.
+ * <p>
+ * Both the number of requests in flight and the write rate, in capacity
+ * units per second, are increased additively while requests succeed and
+ * halved when DynamoDB throttles them, either with a throttling exception or
+ * by returning unprocessed items, at most once per second. The write rate is
+ * unlimited until the first throttling; it is then derived from the consumed
+ * capacity observed since the previous cut.
+ * When the service doesn't return the consumed capacity, each item is counted
+ * as one capacity unit.
+ * </p>
+ * This class is thread safe.
+ */
+final class BatchWriteRateLimiter {
+
+    /** The lowest write rate, in capacity units per second. */
+    static final double MIN_RATE = 1;
+
+    /** Capacity units per second added to the write rate after a success. */
+    static final double RATE_INCREASE = 5;
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Shortest period the write rate is measured over. Throttling within
+     * this period of a cut is ignored, it comes from requests sent before the
+     * cut. Provisioned capacity is per second.
+     */
+    private static final long MEASURE_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxInFlight;
+    private int inFlightLimit;
+    private double rate = Double.POSITIVE_INFINITY;
+    private double unitsPerItem = 1;
+
+    /** Capacity units that can be written without waiting, negative when in debt. */
+    private double availableUnits;
+    private long lastRefillNanos;
+
+    private long measureStartNanos;
+    private double measuredUnits;
+    private long lastCutNanos;
+    private boolean cut;
+
+    /**
+     * @param maxInFlight The max number of requests in flight.
+     */
+    BatchWriteRateLimiter(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.inFlightLimit = maxInFlight;
+        this.measureStartNanos = System.nanoTime();
+        this.lastRefillNanos = measureStartNanos;
+    }
+
+    /**
+     * @return the number of requests that may be in flight.
+     */
+    synchronized int getInFlightLimit() {
+        return inFlightLimit;
+    }
+
+    /**
+     * @return the write rate in capacity units per second, infinite while
+     *         requests haven't been throttled.
+     */
+    synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * Reserves the capacity for writing the items.
+     *
+     * @param itemCount the number of items about to be written.
+     * @return the number of milliseconds to wait before sending them.
+     */
+    synchronized long reserve(int itemCount) {
+        if (Double.isInfinite(rate)) {
+            return 0;
+        }
+        final long now = System.nanoTime();
+        availableUnits = Math.min(rate,
+                availableUnits + (now - lastRefillNanos) / NANOS_PER_SECOND * rate);
+        lastRefillNanos = now;
+        availableUnits -= itemCount * unitsPerItem;
+        if (availableUnits >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-availableUnits / rate * TimeUnit.SECONDS.toMillis(1));
+    }
+
+    /**
+     * Records a request whose items were all written.
+     *
+     * @param itemCount the number of items written.
+     * @param consumedUnits the consumed capacity, NaN if unknown.
+     */
+    synchronized void onSuccess(int itemCount, double consumedUnits) {
+        record(itemCount, consumedUnits);
+        inFlightLimit = Math.min(maxInFlight, inFlightLimit + 1);
+        if (!Double.isInfinite(rate)) {
+            rate += RATE_INCREASE;
+        }
+    }
+
+    /**
+     * Records a request that was throttled.
+     *
+     * @param itemCount the number of items written anyway.
+     * @param consumedUnits the consumed capacity, NaN if unknown.
+     */
+    synchronized void onThrottle(int itemCount, double consumedUnits) {
+        record(itemCount, consumedUnits);
+        final long now = System.nanoTime();
+        if (cut && now - lastCutNanos < MEASURE_PERIOD_NANOS) {
+            return;
+        }
+        cut = true;
+        lastCutNanos = now;
+        inFlightLimit = Math.max(1, inFlightLimit / 2);
+
+        final double observedRate = measuredUnits * NANOS_PER_SECOND
+                / Math.max(MEASURE_PERIOD_NANOS, now - measureStartNanos);
+        rate = Math.max(MIN_RATE, Math.min(rate, observedRate) / 2);
+        availableUnits = Math.min(availableUnits, 0);
+        lastRefillNanos = now;
+        measureStartNanos = now;
+        measuredUnits = 0;
+    }
+
+    private void record(int itemCount, double consumedUnits) {
+        if (Double.isNaN(consumedUnits)) {
+            measuredUnits += itemCount * unitsPerItem;
+        } else {
+            measuredUnits += consumedUnits;
+            if (itemCount > 0) {
+                unitsPerItem = Math.max(1, consumedUnits / itemCount);
+            }
+        }
+    }
+}
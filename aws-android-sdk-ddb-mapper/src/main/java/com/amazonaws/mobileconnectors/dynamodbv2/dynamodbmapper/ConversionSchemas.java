@@ -99,6 +99,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Pre-defined strategies for mapping between Java types and DynamoDB types.
@@ -203,6 +205,15 @@ public final class ConversionSchemas {
         private final DynamoDBReflector reflector;
         private final S3ClientCache s3cc;
 
+        /*
+         * The converted properties, by getter and by class, so that items of
+         * a class are converted without looking anything up again.
+         */
+        private final ConcurrentMap<Method, PropertyConverter> properties =
+                new ConcurrentHashMap<Method, PropertyConverter>();
+        private final ConcurrentMap<Class<?>, PropertyConverter[]> classProperties =
+                new ConcurrentHashMap<Class<?>, PropertyConverter[]>();
+
         public StandardItemConverter(
                 MarshallerSet marshallerSet,
                 UnmarshallerSet unmarshallerSet,
@@ -215,10 +226,76 @@ public final class ConversionSchemas {
             this.s3cc = s3cc;
         }
 
+        /**
+         * The conversion of one mapped property. The marshaller, setter and
+         * unmarshaller are resolved on first use, so that a property that
+         * can't be converted only fails when it is.
+         */
+        private final class PropertyConverter {
+            private final Method getter;
+            private final String attributeName;
+            private volatile ArgumentMarshaller marshaller;
+            private volatile Method setter;
+            private volatile ArgumentUnmarshaller unmarshaller;
+
+            PropertyConverter(Method getter) {
+                this.getter = getter;
+                this.attributeName = reflector.getAttributeName(getter);
+            }
+
+            ArgumentMarshaller getMarshaller() {
+                if (marshaller == null) {
+                    marshaller = StandardItemConverter.this.getMarshaller(getter);
+                }
+                return marshaller;
+            }
+
+            Method getSetter() {
+                if (setter == null) {
+                    setter = reflector.getSetter(getter);
+                }
+                return setter;
+            }
+
+            ArgumentUnmarshaller getUnmarshaller() {
+                if (unmarshaller == null) {
+                    unmarshaller = StandardItemConverter.this.getUnmarshaller(getter,
+                            getSetter());
+                }
+                return unmarshaller;
+            }
+        }
+
+        private PropertyConverter getProperty(Method getter) {
+            PropertyConverter property = properties.get(getter);
+            if (property == null) {
+                property = new PropertyConverter(getter);
+                final PropertyConverter existing = properties.putIfAbsent(getter, property);
+                if (existing != null) {
+                    property = existing;
+                }
+            }
+            return property;
+        }
+
+        private PropertyConverter[] getProperties(Class<?> clazz) {
+            PropertyConverter[] result = classProperties.get(clazz);
+            if (result == null) {
+                final List<PropertyConverter> list = new ArrayList<PropertyConverter>();
+                for (final Method getter : reflector.getRelevantGetters(clazz)) {
+                    list.add(getProperty(getter));
+                }
+                result = list.toArray(new PropertyConverter[list.size()]);
+                classProperties.putIfAbsent(clazz, result);
+            }
+            return result;
+        }
+
         @Override
         public DynamoDBMapperFieldModel getFieldModel(Method getter) {
-            final String attributeName = reflector.getAttributeName(getter);
-            final ArgumentMarshaller marshaller = getMarshaller(getter);
+            final PropertyConverter property = getProperty(getter);
+            final String attributeName = property.attributeName;
+            final ArgumentMarshaller marshaller = property.getMarshaller();
 
             DynamoDBAttributeType attributeType = null;
             if (marshaller instanceof StringAttributeMarshaller) {
@@ -254,8 +331,7 @@ public final class ConversionSchemas {
                 return null;
             }
 
-            final ArgumentMarshaller marshaller = getMarshaller(getter);
-            return marshaller.marshall(object);
+            return getProperty(getter).getMarshaller().marshall(object);
         }
 
         @Override
@@ -264,19 +340,19 @@ public final class ConversionSchemas {
                 return null;
             }
 
-            final Class<?> clazz = object.getClass();
+            final PropertyConverter[] classProperties = getProperties(object.getClass());
             final Map<String, AttributeValue> result =
                     new HashMap<String, AttributeValue>();
 
-            for (final Method getter : reflector.getRelevantGetters(clazz)) {
+            for (final PropertyConverter property : classProperties) {
                 final Object getterResult =
-                        ReflectionUtils.safeInvoke(getter, object);
+                        ReflectionUtils.safeInvoke(property.getter, object);
 
                 if (getterResult != null) {
-                    final AttributeValue value = convert(getter, getterResult);
+                    final AttributeValue value =
+                            property.getMarshaller().marshall(getterResult);
                     if (value != null) {
-                        final String name = reflector.getAttributeName(getter);
-                        result.put(name, value);
+                        result.put(property.attributeName, value);
                     }
                 }
             }
@@ -399,7 +475,10 @@ public final class ConversionSchemas {
                 Method setter,
                 AttributeValue value) {
 
-            final ArgumentUnmarshaller unmarshaller = getUnmarshaller(getter, setter);
+            final PropertyConverter property = getProperty(getter);
+            final ArgumentUnmarshaller unmarshaller = setter.equals(property.getSetter())
+                    ? property.getUnmarshaller()
+                    : getUnmarshaller(getter, setter);
             return unmarshall(unmarshaller, setter, value);
         }
 
@@ -413,30 +492,19 @@ public final class ConversionSchemas {
                 return result;
             }
 
-            for (final Method m : reflector.getRelevantGetters(clazz)) {
-                final String attributeName = reflector.getAttributeName(m);
-                final AttributeValue av = value.get(attributeName);
+            for (final PropertyConverter property : getProperties(clazz)) {
+                final AttributeValue av = value.get(property.attributeName);
                 if (av != null) {
-                    setValue(result, m, av);
+                    final Method setter = property.getSetter();
+                    final Object unmarshalled =
+                            unmarshall(property.getUnmarshaller(), setter, av);
+                    ReflectionUtils.safeInvoke(setter, result, unmarshalled);
                 }
             }
 
             return result;
         }
 
-        private void setValue(
-                Object target,
-                Method getter,
-                AttributeValue value) {
-
-            final Method setter = reflector.getSetter(getter);
-            final ArgumentUnmarshaller unmarshaller =
-                    getUnmarshaller(getter, setter);
-
-            final Object unmarshalled = unmarshall(unmarshaller, setter, value);
-            ReflectionUtils.safeInvoke(setter, target, unmarshalled);
-        }
-
         private ArgumentUnmarshaller getUnmarshaller(
                 Method getter,
                 Method setter) {
@@ -1263,11 +1331,11 @@ public final class ConversionSchemas {
 
     static class CachingMarshallerSet implements MarshallerSet {
 
-        private final Map<Method, ArgumentMarshaller> cache =
-                new HashMap<Method, ArgumentMarshaller>();
+        private final ConcurrentMap<Method, ArgumentMarshaller> cache =
+                new ConcurrentHashMap<Method, ArgumentMarshaller>();
 
-        private final Map<Type, ArgumentMarshaller> memberCache =
-                new HashMap<Type, ArgumentMarshaller>();
+        private final ConcurrentMap<Type, ArgumentMarshaller> memberCache =
+                new ConcurrentHashMap<Type, ArgumentMarshaller>();
 
         private final MarshallerSet wrapped;
 
@@ -1277,40 +1345,36 @@ public final class ConversionSchemas {
 
         @Override
         public ArgumentMarshaller getMarshaller(Method getter) {
-            synchronized (cache) {
-                ArgumentMarshaller marshaler = cache.get(getter);
-                if (marshaler != null) {
-                    return marshaler;
-                }
-
-                marshaler = wrapped.getMarshaller(getter);
-                cache.put(getter, marshaler);
+            ArgumentMarshaller marshaler = cache.get(getter);
+            if (marshaler != null) {
                 return marshaler;
             }
+
+            marshaler = wrapped.getMarshaller(getter);
+            final ArgumentMarshaller existing = cache.putIfAbsent(getter, marshaler);
+            return existing == null ? marshaler : existing;
         }
 
         @Override
         public ArgumentMarshaller getMemberMarshaller(Type memberType) {
-            synchronized (memberCache) {
-                ArgumentMarshaller marshaller = memberCache.get(memberType);
-                if (marshaller != null) {
-                    return marshaller;
-                }
-
-                marshaller = wrapped.getMemberMarshaller(memberType);
-                memberCache.put(memberType, marshaller);
+            ArgumentMarshaller marshaller = memberCache.get(memberType);
+            if (marshaller != null) {
                 return marshaller;
             }
+
+            marshaller = wrapped.getMemberMarshaller(memberType);
+            final ArgumentMarshaller existing = memberCache.putIfAbsent(memberType, marshaller);
+            return existing == null ? marshaller : existing;
         }
     }
 
     static class CachingUnmarshallerSet implements UnmarshallerSet {
 
-        private final Map<Method, ArgumentUnmarshaller> cache =
-                new HashMap<Method, ArgumentUnmarshaller>();
+        private final ConcurrentMap<Method, ArgumentUnmarshaller> cache =
+                new ConcurrentHashMap<Method, ArgumentUnmarshaller>();
 
-        private final Map<Type, ArgumentUnmarshaller> memberCache =
-                new HashMap<Type, ArgumentUnmarshaller>();
+        private final ConcurrentMap<Type, ArgumentUnmarshaller> memberCache =
+                new ConcurrentHashMap<Type, ArgumentUnmarshaller>();
 
         private final UnmarshallerSet wrapped;
 
@@ -1323,30 +1387,27 @@ public final class ConversionSchemas {
                 Method getter,
                 Method setter) {
 
-            synchronized (cache) {
-                ArgumentUnmarshaller unmarshaler = cache.get(getter);
-                if (unmarshaler != null) {
-                    return unmarshaler;
-                }
-
-                unmarshaler = wrapped.getUnmarshaller(getter, setter);
-                cache.put(getter, unmarshaler);
+            ArgumentUnmarshaller unmarshaler = cache.get(getter);
+            if (unmarshaler != null) {
                 return unmarshaler;
             }
+
+            unmarshaler = wrapped.getUnmarshaller(getter, setter);
+            final ArgumentUnmarshaller existing = cache.putIfAbsent(getter, unmarshaler);
+            return existing == null ? unmarshaler : existing;
         }
 
         @Override
         public ArgumentUnmarshaller getMemberUnmarshaller(Type memberType) {
-            synchronized (memberCache) {
-                ArgumentUnmarshaller unmarshaller = memberCache.get(memberType);
-                if (unmarshaller != null) {
-                    return unmarshaller;
-                }
-
-                unmarshaller = wrapped.getMemberUnmarshaller(memberType);
-                memberCache.put(memberType, unmarshaller);
+            ArgumentUnmarshaller unmarshaller = memberCache.get(memberType);
+            if (unmarshaller != null) {
                 return unmarshaller;
             }
+
+            unmarshaller = wrapped.getMemberUnmarshaller(memberType);
+            final ArgumentUnmarshaller existing =
+                    memberCache.putIfAbsent(memberType, unmarshaller);
+            return existing == null ? unmarshaller : existing;
         }
     }
 
@@ -37,6 +37,7 @@ import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
 import com.amazonaws.services.dynamodbv2.model.Condition;
 import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import com.amazonaws.services.dynamodbv2.model.ConditionalOperator;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
 import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
 import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
 import com.amazonaws.services.dynamodbv2.model.DeleteRequest;
@@ -49,6 +50,7 @@ import com.amazonaws.services.dynamodbv2.model.PutItemResult;
 import com.amazonaws.services.dynamodbv2.model.PutRequest;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
 import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
 import com.amazonaws.services.dynamodbv2.model.ReturnValue;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanResult;
@@ -57,6 +59,7 @@ import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
 import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
 import com.amazonaws.services.dynamodbv2.model.WriteRequest;
 import com.amazonaws.services.s3.model.Region;
+import com.amazonaws.util.DaemonThreadPools;
 import com.amazonaws.util.VersionInfoUtils;
 
 import com.amazonaws.logging.Log;
@@ -71,13 +74,25 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Object mapper for domain-object interaction with DynamoDB.
@@ -179,6 +194,8 @@ public class DynamoDBMapper {
     private final AmazonDynamoDB db;
     private final DynamoDBMapperConfig config;
     private final DynamoDBReflector reflector = new DynamoDBReflector();
+    private final ConcurrentMap<ConversionSchema, ItemConverter> converters =
+            new ConcurrentHashMap<ConversionSchema, ItemConverter>();
     private final DynamoDBTableSchemaParser schemaParser = new DynamoDBTableSchemaParser();
     private final VersionIncrementor incrementor = new VersionIncrementor();
 
@@ -187,11 +204,21 @@ public class DynamoDBMapper {
     /** The max back off time for batch write */
     static final long MAX_BACKOFF_IN_MILLISECONDS = 1000 * 3;
 
-    private static final long THREAD_SLEEP_TWO_SECONDS = 1000 * 2;
-
     /** The max number of items allowed in a BatchWrite request */
     static final int MAX_ITEMS_PER_BATCH = 25;
 
+    /** The max number of BatchWrite requests in flight for one batch write */
+    static final int MAX_BATCH_WRITES_IN_FLIGHT = 4;
+
+    /** The number of threads of the executor shared by the batch operations */
+    private static final int BATCH_THREAD_COUNT = Math.max(MAX_BATCH_WRITES_IN_FLIGHT,
+            Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final long BATCH_THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    /** Sends the requests of the batch operations of all the mappers */
+    private static ExecutorService batchExecutor;
+
     private static final int MAX_BATCH_GET_COUNT = 100;
     /**
      * This retry count is applicable only when every batch get item request
@@ -1782,98 +1809,252 @@ public class DynamoDBMapper {
                     new WriteRequest().withDeleteRequest(new DeleteRequest().withKey(key)));
         }
 
-        // Break into chunks of 25 items and make service requests to DynamoDB
-        while (!requestItems.isEmpty()) {
-
-            final HashMap<String, List<WriteRequest>> batch =
-                    new HashMap<String, List<WriteRequest>>();
-
-            int i = 0;
+        totalFailedBatches.addAll(writeBatches(requestItems));
 
-            final Iterator<Entry<String, List<WriteRequest>>> tableIter = requestItems.entrySet()
-                    .iterator();
-            while (tableIter.hasNext() && i < MAX_ITEMS_PER_BATCH) {
-
-                final Entry<String, List<WriteRequest>> tableRequest = tableIter.next();
+        // Once the entire batch is processed, update assigned keys in memory
+        for (final ValueUpdate update : inMemoryUpdates) {
+            update.apply();
+        }
 
-                batch.put(tableRequest.getKey(), new LinkedList<WriteRequest>());
-                final Iterator<WriteRequest> writeRequestIter = tableRequest.getValue().iterator();
+        return totalFailedBatches;
+    }
 
-                while (writeRequestIter.hasNext() && i++ < MAX_ITEMS_PER_BATCH) {
-                    final WriteRequest writeRequest = writeRequestIter.next();
-                    batch.get(tableRequest.getKey()).add(writeRequest);
-                    writeRequestIter.remove();
+    /**
+     * Writes the requests in batches of up to 25 items, keeping several
+     * BatchWrite requests in flight. Unprocessed items are put back at the
+     * head of the queue, and the pace of the requests is set by a
+     * {@link BatchWriteRateLimiter}. A batch is divided if the request is too
+     * large (the total size of the request is beyond 1M).
+     *
+     * @param requestItems the write requests by table name.
+     * @return the failed batches.
+     */
+    List<FailedBatch> writeBatches(Map<String, List<WriteRequest>> requestItems) {
+        final List<FailedBatch> failedBatches = new LinkedList<FailedBatch>();
+        final Map<String, LinkedList<WriteRequest>> pending =
+                new LinkedHashMap<String, LinkedList<WriteRequest>>();
+        for (final Entry<String, List<WriteRequest>> tableRequests : requestItems.entrySet()) {
+            if (!tableRequests.getValue().isEmpty()) {
+                pending.put(tableRequests.getKey(),
+                        new LinkedList<WriteRequest>(tableRequests.getValue()));
+            }
+        }
+        // Halves of batches that were too large, written before the pending requests
+        final LinkedList<Map<String, List<WriteRequest>>> dividedBatches =
+                new LinkedList<Map<String, List<WriteRequest>>>();
+
+        final BatchWriteRateLimiter rateLimiter =
+                new BatchWriteRateLimiter(MAX_BATCH_WRITES_IN_FLIGHT);
+        final CompletionService<BatchWriteOutcome> completionService =
+                new ExecutorCompletionService<BatchWriteOutcome>(getBatchExecutor());
+        final List<Future<BatchWriteOutcome>> submitted =
+                new ArrayList<Future<BatchWriteOutcome>>();
+        int inFlight = 0;
+        try {
+            while (true) {
+                while (inFlight < rateLimiter.getInFlightLimit()
+                        && (!dividedBatches.isEmpty() || !pending.isEmpty())) {
+                    final Map<String, List<WriteRequest>> batch = dividedBatches.isEmpty()
+                            ? nextWriteBatch(pending)
+                            : dividedBatches.removeFirst();
+                    final long delay = rateLimiter.reserve(countItems(batch));
+                    if (delay > 0) {
+                        Thread.sleep(delay);
+                    }
+                    submitted.add(completionService.submit(new Callable<BatchWriteOutcome>() {
+                        @Override
+                        public BatchWriteOutcome call() {
+                            return writeBatchOnce(batch);
+                        }
+                    }));
+                    inFlight++;
                 }
-
-                // If we've processed all the write requests for this table,
-                // remove it from the parent iterator.
-                if (!writeRequestIter.hasNext()) {
-                    tableIter.remove();
+                if (inFlight == 0) {
+                    break;
                 }
-            }
 
-            final List<FailedBatch> failedBatches = writeOneBatch(batch);
-            if (failedBatches != null) {
-                totalFailedBatches.addAll(failedBatches);
-
-                // If contains throttling exception, we do a backoff
-                if (containsThrottlingException(failedBatches)) {
-                    try {
-                        Thread.sleep(THREAD_SLEEP_TWO_SECONDS);
-                    } catch (final InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new AmazonClientException(e.getMessage(), e);
+                final BatchWriteOutcome outcome = completionService.take().get();
+                inFlight--;
+                if (outcome.exception != null) {
+                    final FailedBatch failedBatch = new FailedBatch();
+                    failedBatch.setUnprocessedItems(outcome.batch);
+                    failedBatch.setException(outcome.exception);
+                    if (outcome.exception instanceof AmazonServiceException
+                            && RetryUtils.isRequestEntityTooLargeException(
+                                    (AmazonServiceException) outcome.exception)
+                            && computeFailedBatchSize(failedBatch) > 1) {
+                        final Map<String, List<WriteRequest>> firstHalfBatch =
+                                new HashMap<String, List<WriteRequest>>();
+                        final Map<String, List<WriteRequest>> secondHalfBatch =
+                                new HashMap<String, List<WriteRequest>>();
+                        divideBatch(outcome.batch, firstHalfBatch, secondHalfBatch);
+                        addIfNotEmpty(dividedBatches, secondHalfBatch);
+                        addIfNotEmpty(dividedBatches, firstHalfBatch);
+                    } else {
+                        // A single item that is too large exceeds the item
+                        // size limit and can't be divided further.
+                        if (containsThrottlingException(Collections.singletonList(failedBatch))) {
+                            rateLimiter.onThrottle(0, Double.NaN);
+                        }
+                        failedBatches.add(failedBatch);
+                    }
+                } else {
+                    final Map<String, List<WriteRequest>> unprocessedItems =
+                            outcome.result.getUnprocessedItems();
+                    final double consumedUnits =
+                            sumCapacityUnits(outcome.result.getConsumedCapacity());
+                    final int unprocessedCount = countItems(unprocessedItems);
+                    final int writtenCount = countItems(outcome.batch) - unprocessedCount;
+                    if (unprocessedCount > 0) {
+                        rateLimiter.onThrottle(writtenCount, consumedUnits);
+                        requeueUnprocessedItems(pending, unprocessedItems);
+                    } else {
+                        rateLimiter.onSuccess(writtenCount, consumedUnits);
                     }
                 }
             }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException(e.getMessage(), e);
+        } catch (final ExecutionException e) {
+            throw new AmazonClientException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            // the requests still in flight if the write failed
+            for (final Future<BatchWriteOutcome> future : submitted) {
+                future.cancel(true);
+            }
         }
+        return failedBatches;
+    }
 
-        // Once the entire batch is processed, update assigned keys in memory
-        for (final ValueUpdate update : inMemoryUpdates) {
-            update.apply();
+    /**
+     * Returns the executor shared by the batch operations of all the mappers.
+     * The number of requests in flight for each operation is bounded by the
+     * operation itself.
+     */
+    private static synchronized ExecutorService getBatchExecutor() {
+        if (batchExecutor == null) {
+            batchExecutor = DaemonThreadPools.newFixedThreadPool("DynamoDBMapperBatch",
+                    BATCH_THREAD_COUNT, BATCH_THREAD_KEEP_ALIVE_SECONDS);
         }
-
-        return totalFailedBatches;
+        return batchExecutor;
     }
 
     /**
-     * Process one batch of requests(max 25). It will divide the batch if
-     * receives request too large exception(the total size of the request is
-     * beyond 1M).
+     * Removes up to 25 write requests from the pending requests.
      */
-    List<FailedBatch> writeOneBatch(Map<String, List<WriteRequest>> batch) {
-
-        final List<FailedBatch> failedBatches = new LinkedList<FailedBatch>();
-        final Map<String, List<WriteRequest>> firstHalfBatch = new HashMap<String, List<WriteRequest>>();
-        final Map<String, List<WriteRequest>> secondHalfBatch = new HashMap<String, List<WriteRequest>>();
-        final FailedBatch failedBatch = callUntilCompletion(batch);
+    private Map<String, List<WriteRequest>> nextWriteBatch(
+            Map<String, LinkedList<WriteRequest>> pending) {
+        final Map<String, List<WriteRequest>> batch = new HashMap<String, List<WriteRequest>>();
+        int i = 0;
+        final Iterator<Entry<String, LinkedList<WriteRequest>>> tableIter =
+                pending.entrySet().iterator();
+        while (tableIter.hasNext() && i < MAX_ITEMS_PER_BATCH) {
+            final Entry<String, LinkedList<WriteRequest>> tableRequests = tableIter.next();
+            final List<WriteRequest> batchRequests = new LinkedList<WriteRequest>();
+            final LinkedList<WriteRequest> requests = tableRequests.getValue();
+            while (!requests.isEmpty() && i < MAX_ITEMS_PER_BATCH) {
+                batchRequests.add(requests.removeFirst());
+                i++;
+            }
+            batch.put(tableRequests.getKey(), batchRequests);
 
-        if (failedBatch != null) {
-            // If the exception is request entity too large, we divide the batch
-            // into smaller parts.
+            // If we've processed all the write requests for this table,
+            // remove it from the pending requests.
+            if (requests.isEmpty()) {
+                tableIter.remove();
+            }
+        }
+        return batch;
+    }
 
-            if (failedBatch.getException() instanceof AmazonServiceException
-                    && RetryUtils
-                            .isRequestEntityTooLargeException((AmazonServiceException) failedBatch
-                                    .getException())) {
+    /**
+     * Puts the unprocessed items back at the head of the pending requests of
+     * their table, so that they go out with the next batch.
+     */
+    private void requeueUnprocessedItems(Map<String, LinkedList<WriteRequest>> pending,
+            Map<String, List<WriteRequest>> unprocessedItems) {
+        for (final Entry<String, List<WriteRequest>> tableRequests : unprocessedItems.entrySet()) {
+            if (tableRequests.getValue() == null || tableRequests.getValue().isEmpty()) {
+                continue;
+            }
+            LinkedList<WriteRequest> requests = pending.get(tableRequests.getKey());
+            if (requests == null) {
+                requests = new LinkedList<WriteRequest>();
+                pending.put(tableRequests.getKey(), requests);
+            }
+            requests.addAll(0, tableRequests.getValue());
+        }
+    }
 
-                // If only one item left, the item size must beyond 64k, which
-                // exceedes the limit.
+    private static void addIfNotEmpty(LinkedList<Map<String, List<WriteRequest>>> batches,
+            Map<String, List<WriteRequest>> batch) {
+        final Iterator<List<WriteRequest>> iter = batch.values().iterator();
+        while (iter.hasNext()) {
+            if (iter.next().isEmpty()) {
+                iter.remove();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.addFirst(batch);
+        }
+    }
 
-                if (computeFailedBatchSize(failedBatch) == 1) {
-                    failedBatches.add(failedBatch);
-                } else {
-                    divideBatch(batch, firstHalfBatch, secondHalfBatch);
-                    failedBatches.addAll(writeOneBatch(firstHalfBatch));
-                    failedBatches.addAll(writeOneBatch(secondHalfBatch));
-                }
+    private static int countItems(Map<String, List<WriteRequest>> batch) {
+        int count = 0;
+        if (batch != null) {
+            for (final List<WriteRequest> requests : batch.values()) {
+                count += requests == null ? 0 : requests.size();
+            }
+        }
+        return count;
+    }
 
-            } else {
-                failedBatches.add(failedBatch);
+    /**
+     * Total capacity units consumed, NaN if the service didn't report it.
+     */
+    private static double sumCapacityUnits(List<ConsumedCapacity> consumedCapacity) {
+        if (consumedCapacity == null || consumedCapacity.isEmpty()) {
+            return Double.NaN;
+        }
+        double units = 0;
+        for (final ConsumedCapacity capacity : consumedCapacity) {
+            if (capacity.getCapacityUnits() != null) {
+                units += capacity.getCapacityUnits();
             }
+        }
+        return units;
+    }
 
+    /**
+     * Sends one BatchWrite request. Never throws; the exception is returned in
+     * the outcome.
+     */
+    private BatchWriteOutcome writeBatchOnce(Map<String, List<WriteRequest>> batch) {
+        try {
+            return new BatchWriteOutcome(batch, db.batchWriteItem(applyBatchOperationUserAgent(
+                    new BatchWriteItemRequest()
+                            .withRequestItems(batch)
+                            .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL))), null);
+        } catch (final Exception e) {
+            return new BatchWriteOutcome(batch, null, e);
+        }
+    }
+
+    /**
+     * The result of one BatchWrite request, or the exception it failed with.
+     */
+    private static final class BatchWriteOutcome {
+        private final Map<String, List<WriteRequest>> batch;
+        private final BatchWriteItemResult result;
+        private final Exception exception;
+
+        BatchWriteOutcome(Map<String, List<WriteRequest>> batch, BatchWriteItemResult result,
+                Exception exception) {
+            this.batch = batch;
+            this.result = result;
+            this.exception = exception;
         }
-        return failedBatches;
     }
 
     /**
@@ -1928,36 +2109,6 @@ public class DynamoDBMapper {
         return count;
     }
 
-    /**
-     * Continue trying to process the batch until it finishes or an exception
-     * occurs.
-     */
-
-    private FailedBatch callUntilCompletion(Map<String, List<WriteRequest>> batch) {
-        BatchWriteItemResult result = null;
-        int retries = 0;
-        FailedBatch failedBatch = null;
-        while (true) {
-            try {
-                result = db.batchWriteItem(applyBatchOperationUserAgent(
-                        new BatchWriteItemRequest().withRequestItems(batch)));
-            } catch (final Exception e) {
-                failedBatch = new FailedBatch();
-                failedBatch.setUnprocessedItems(batch);
-                failedBatch.setException(e);
-                return failedBatch;
-            }
-            retries++;
-            batch = result.getUnprocessedItems();
-            if (batch.size() > 0) {
-                pauseExponentially(retries);
-            } else {
-                break;
-            }
-        }
-        return failedBatch;
-    }
-
     /**
      * Retrieves multiple items from multiple tables using their primary keys.
      *
@@ -1988,17 +2139,54 @@ public class DynamoDBMapper {
      *         mapping that table.
      */
     public Map<String, List<Object>> batchLoad(List<Object> itemsToGet, DynamoDBMapperConfig config) {
+        final Map<String, List<Object>> resultSet = new HashMap<String, List<Object>>();
+        batchLoad(itemsToGet, config, new BatchLoadCallback() {
+            @Override
+            public void onItemsLoaded(String tableName, List<Object> items) {
+                List<Object> objects = resultSet.get(tableName);
+                if (objects == null) {
+                    objects = new LinkedList<Object>();
+                    resultSet.put(tableName, objects);
+                }
+                objects.addAll(items);
+            }
+        });
+        return resultSet;
+    }
+
+    /**
+     * Retrieves multiple items from multiple tables using their primary keys,
+     * handing them to the callback as each BatchGetItem response arrives.
+     * <p>
+     * Duplicate keys are requested once. The keys are sent in requests of up
+     * to 100 keys, {@link DynamoDBMapperConfig#getBatchLoadConcurrency()} of
+     * which are in flight at a time, and unprocessed keys are merged into the
+     * following requests. The callback is invoked on the calling thread, and
+     * this method returns once all the items have been handed to it.
+     * </p>
+     *
+     * @param itemsToGet Key objects, corresponding to the class to fetch, with
+     *            their primary key values set.
+     * @param config Only {@link DynamoDBMapperConfig#getTableNameOverride()},
+     *            {@link DynamoDBMapperConfig#getConsistentReads()} and
+     *            {@link DynamoDBMapperConfig#getBatchLoadConcurrency()} are
+     *            considered.
+     * @param callback receives the loaded objects. All objects for each table
+     *            can be cast to the associated user defined type that is
+     *            annotated as mapping that table.
+     */
+    public void batchLoad(List<Object> itemsToGet, DynamoDBMapperConfig config,
+            BatchLoadCallback callback) {
         config = mergeConfig(config);
         final boolean consistentReads = (config.getConsistentReads() == ConsistentReads.CONSISTENT);
 
         if (itemsToGet == null || itemsToGet.isEmpty()) {
-            return new HashMap<String, List<Object>>();
+            return;
         }
 
-        final Map<String, KeysAndAttributes> requestItems = new HashMap<String, KeysAndAttributes>();
+        final Map<String, Set<Map<String, AttributeValue>>> uniqueKeys =
+                new LinkedHashMap<String, Set<Map<String, AttributeValue>>>();
         final Map<String, Class<?>> classesByTableName = new HashMap<String, Class<?>>();
-        final Map<String, List<Object>> resultSet = new HashMap<String, List<Object>>();
-        int count = 0;
 
         final ItemConverter converter = getConverter(config);
 
@@ -2008,32 +2196,21 @@ public class DynamoDBMapper {
             final String tableName = getTableName(clazz, keyObject, config);
             classesByTableName.put(tableName, clazz);
 
-            if (!requestItems.containsKey(tableName)) {
-
-                requestItems.put(
-                        tableName,
-                        new KeysAndAttributes().withConsistentRead(consistentReads).withKeys(
-                                new LinkedList<Map<String, AttributeValue>>()));
-            }
-
-            requestItems.get(tableName).getKeys().add(
-                    getKey(converter, keyObject));
-
-            // Reach the maximum number which can be handled in a single
-            // batchGet
-            if (++count == MAX_BATCH_GET_COUNT) {
-                processBatchGetRequest(classesByTableName, requestItems, resultSet, config,
-                        converter);
-                requestItems.clear();
-                count = 0;
+            if (!uniqueKeys.containsKey(tableName)) {
+                uniqueKeys.put(tableName, new LinkedHashSet<Map<String, AttributeValue>>());
             }
+            uniqueKeys.get(tableName).add(getKey(converter, keyObject));
         }
 
-        if (count > 0) {
-            processBatchGetRequest(classesByTableName, requestItems, resultSet, config, converter);
+        final Map<String, LinkedList<Map<String, AttributeValue>>> pending =
+                new LinkedHashMap<String, LinkedList<Map<String, AttributeValue>>>();
+        for (final Entry<String, Set<Map<String, AttributeValue>>> tableKeys : uniqueKeys
+                .entrySet()) {
+            pending.put(tableKeys.getKey(),
+                    new LinkedList<Map<String, AttributeValue>>(tableKeys.getValue()));
         }
 
-        return resultSet;
+        loadBatches(pending, classesByTableName, consistentReads, config, converter, callback);
     }
 
     /**
@@ -2089,64 +2266,275 @@ public class DynamoDBMapper {
     }
 
     /**
+     * Sends the pending keys in BatchGetItem requests of up to 100 keys,
+     * keeping several requests in flight, and hands the objects of each
+     * response to the callback. The unprocessed keys of a response are sent
+     * again in their own request after an exponential backoff delay, which
+     * grows each time they come back unprocessed. Other requests are sent and
+     * collected meanwhile.
+     *
      * @param config never null
      */
-    private void processBatchGetRequest(
+    private void loadBatches(
+            final Map<String, LinkedList<Map<String, AttributeValue>>> pending,
             final Map<String, Class<?>> classesByTableName,
-            final Map<String, KeysAndAttributes> requestItems,
-            final Map<String, List<Object>> resultSet,
+            final boolean consistentReads,
             final DynamoDBMapperConfig config,
-            final ItemConverter converter) {
-
-        BatchGetItemResult batchGetItemResult = null;
-        final BatchGetItemRequest batchGetItemRequest = new BatchGetItemRequest()
-                .withRequestMetricCollector(config.getRequestMetricCollector());
-        batchGetItemRequest.setRequestItems(requestItems);
-
-        int retries = 0;
+            final ItemConverter converter,
+            final BatchLoadCallback callback) {
+
+        final Integer configuredConcurrency = config.getBatchLoadConcurrency();
+        final int concurrency = configuredConcurrency == null
+                ? DynamoDBMapperConfig.DEFAULT_BATCH_LOAD_CONCURRENCY
+                : Math.max(1, configuredConcurrency);
+        final CompletionService<BatchGetOutcome> completionService =
+                new ExecutorCompletionService<BatchGetOutcome>(getBatchExecutor());
+        final List<Future<BatchGetOutcome>> submitted = new ArrayList<Future<BatchGetOutcome>>();
+        // Unprocessed keys waiting for their backoff delay, the earliest first
+        final PriorityQueue<GetBatch> delayed = new PriorityQueue<GetBatch>();
+        int inFlight = 0;
+        try {
+            while (true) {
+                while (inFlight < concurrency) {
+                    final GetBatch batch;
+                    if (!delayed.isEmpty() && delayed.peek().isReady()) {
+                        batch = delayed.poll();
+                    } else if (!pending.isEmpty()) {
+                        batch = new GetBatch(nextGetBatch(pending, consistentReads));
+                    } else {
+                        break;
+                    }
+                    submitted.add(completionService.submit(new Callable<BatchGetOutcome>() {
+                        @Override
+                        public BatchGetOutcome call() {
+                            return getBatchOnce(batch, classesByTableName, config, converter);
+                        }
+                    }));
+                    inFlight++;
+                }
+                if (inFlight == 0 && delayed.isEmpty()) {
+                    break;
+                }
 
-        do {
-            if (batchGetItemResult != null) {
-                retries++;
+                final Future<BatchGetOutcome> done;
+                if (delayed.isEmpty() || inFlight == concurrency) {
+                    done = completionService.take();
+                } else {
+                    // wait for a response, at most until the next delayed keys are due
+                    done = completionService.poll(delayed.peek().getDelayNanos(),
+                            TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        continue;
+                    }
+                }
+                final BatchGetOutcome outcome = done.get();
+                inFlight--;
+                if (outcome.exception != null) {
+                    throw outcome.exception;
+                }
+                for (final Entry<String, List<Object>> tableObjects : outcome.objects.entrySet()) {
+                    callback.onItemsLoaded(tableObjects.getKey(), tableObjects.getValue());
+                }
 
-                pauseExponentially(retries);
-                if (retries > BATCH_GET_MAX_RETRY_COUNT_ALL_KEYS) {
+                final Map<String, KeysAndAttributes> unprocessedKeys =
+                        outcome.result.getUnprocessedKeys();
+                if (unprocessedKeys == null || countKeys(unprocessedKeys) == 0) {
+                    continue;
+                }
+                final GetBatch retry = outcome.batch.retry(
+                        unprocessedKeys(unprocessedKeys, consistentReads),
+                        outcome.objects.isEmpty()
+                                && countKeys(unprocessedKeys) == countKeys(
+                                        outcome.batch.requestItems));
+                if (retry.noProgressRetries > BATCH_GET_MAX_RETRY_COUNT_ALL_KEYS) {
                     throw new AmazonClientException(
                             "Batch Get Item request to server hasn't received any data. "
                                     + "Please try again later.");
                 }
+                delayed.add(retry);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException(e.getMessage(), e);
+        } catch (final ExecutionException e) {
+            throw new AmazonClientException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            // the requests still in flight if the load failed
+            for (final Future<BatchGetOutcome> future : submitted) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Removes up to 100 keys from the pending keys.
+     */
+    private Map<String, KeysAndAttributes> nextGetBatch(
+            Map<String, LinkedList<Map<String, AttributeValue>>> pending,
+            boolean consistentReads) {
+        final Map<String, KeysAndAttributes> requestItems =
+                new HashMap<String, KeysAndAttributes>();
+        int count = 0;
+        final Iterator<Entry<String, LinkedList<Map<String, AttributeValue>>>> tableIter =
+                pending.entrySet().iterator();
+        while (tableIter.hasNext() && count < MAX_BATCH_GET_COUNT) {
+            final Entry<String, LinkedList<Map<String, AttributeValue>>> tableKeys =
+                    tableIter.next();
+            final List<Map<String, AttributeValue>> batchKeys =
+                    new LinkedList<Map<String, AttributeValue>>();
+            final LinkedList<Map<String, AttributeValue>> keys = tableKeys.getValue();
+            while (!keys.isEmpty() && count < MAX_BATCH_GET_COUNT) {
+                batchKeys.add(keys.removeFirst());
+                count++;
+            }
+            requestItems.put(tableKeys.getKey(), new KeysAndAttributes()
+                    .withConsistentRead(consistentReads).withKeys(batchKeys));
 
-                batchGetItemRequest.setRequestItems(
-                        batchGetItemResult.getUnprocessedKeys());
+            if (keys.isEmpty()) {
+                tableIter.remove();
             }
+        }
+        return requestItems;
+    }
 
-            batchGetItemResult = db.batchGetItem(
+    /**
+     * Returns the request items reading the unprocessed keys of a response
+     * again.
+     */
+    private static Map<String, KeysAndAttributes> unprocessedKeys(
+            Map<String, KeysAndAttributes> unprocessedKeys, boolean consistentReads) {
+        final Map<String, KeysAndAttributes> requestItems =
+                new HashMap<String, KeysAndAttributes>();
+        for (final Entry<String, KeysAndAttributes> tableKeys : unprocessedKeys.entrySet()) {
+            final List<Map<String, AttributeValue>> keys = tableKeys.getValue().getKeys();
+            if (keys != null && !keys.isEmpty()) {
+                requestItems.put(tableKeys.getKey(), new KeysAndAttributes()
+                        .withConsistentRead(consistentReads).withKeys(keys));
+            }
+        }
+        return requestItems;
+    }
+
+    private static int countKeys(Map<String, KeysAndAttributes> requestItems) {
+        int count = 0;
+        for (final KeysAndAttributes keysAndAttributes : requestItems.values()) {
+            if (keysAndAttributes.getKeys() != null) {
+                count += keysAndAttributes.getKeys().size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sends one BatchGetItem request and unmarshalls the items it returned.
+     * Never throws; the exception is returned in the outcome.
+     */
+    private BatchGetOutcome getBatchOnce(
+            GetBatch batch,
+            Map<String, Class<?>> classesByTableName,
+            DynamoDBMapperConfig config,
+            ItemConverter converter) {
+        try {
+            final BatchGetItemRequest batchGetItemRequest = new BatchGetItemRequest()
+                    .withRequestMetricCollector(config.getRequestMetricCollector());
+            batchGetItemRequest.setRequestItems(batch.requestItems);
+            final BatchGetItemResult batchGetItemResult = db.batchGetItem(
                     applyBatchOperationUserAgent(batchGetItemRequest));
 
+            final Map<String, List<Object>> objects = new HashMap<String, List<Object>>();
             final Map<String, List<Map<String, AttributeValue>>> responses = batchGetItemResult
                     .getResponses();
-            for (final String tableName : responses.keySet()) {
-                List<Object> objects = null;
-                if (resultSet.get(tableName) != null) {
-                    objects = resultSet.get(tableName);
-                } else {
-                    objects = new LinkedList<Object>();
+            if (responses != null) {
+                for (final Entry<String, List<Map<String, AttributeValue>>> tableItems : responses
+                        .entrySet()) {
+                    if (tableItems.getValue() == null || tableItems.getValue().isEmpty()) {
+                        continue;
+                    }
+                    final String tableName = tableItems.getKey();
+                    final Class<?> clazz = classesByTableName.get(tableName);
+                    final List<Object> tableObjects = new ArrayList<Object>();
+                    for (final Map<String, AttributeValue> item : tableItems.getValue()) {
+                        final AttributeTransformer.Parameters<?> parameters =
+                                toParameters(item, clazz, tableName, config);
+                        tableObjects.add(privateMarshallIntoObject(converter, parameters));
+                    }
+                    objects.put(tableName, tableObjects);
                 }
+            }
+            return new BatchGetOutcome(batch, batchGetItemResult, objects, null);
+        } catch (final RuntimeException e) {
+            return new BatchGetOutcome(batch, null, null, e);
+        }
+    }
 
-                final Class<?> clazz = classesByTableName.get(tableName);
+    /**
+     * The request items of one BatchGetItem request. For unprocessed keys
+     * sent again, the number of times they came back unprocessed, and when
+     * they may be sent.
+     */
+    private static final class GetBatch implements Comparable<GetBatch> {
+        private final Map<String, KeysAndAttributes> requestItems;
+        private final int retries;
+        /** Consecutive responses that had no items and returned every key unprocessed */
+        private final int noProgressRetries;
+        private final long readyNanos;
 
-                for (final Map<String, AttributeValue> item : responses.get(tableName)) {
-                    final AttributeTransformer.Parameters<?> parameters =
-                            toParameters(item, clazz, tableName, config);
-                    objects.add(privateMarshallIntoObject(converter, parameters));
-                }
+        GetBatch(Map<String, KeysAndAttributes> requestItems) {
+            this(requestItems, 0, 0, System.nanoTime());
+        }
 
-                resultSet.put(tableName, objects);
-            }
-            // To see whether there are unprocessed keys.
-        } while (batchGetItemResult.getUnprocessedKeys() != null
-                && batchGetItemResult.getUnprocessedKeys().size() > 0);
+        private GetBatch(Map<String, KeysAndAttributes> requestItems, int retries,
+                int noProgressRetries, long readyNanos) {
+            this.requestItems = requestItems;
+            this.retries = retries;
+            this.noProgressRetries = noProgressRetries;
+            this.readyNanos = readyNanos;
+        }
+
+        /**
+         * Returns the batch sending the unprocessed keys of this batch again
+         * after the backoff delay.
+         */
+        GetBatch retry(Map<String, KeysAndAttributes> unprocessedKeys, boolean noProgress) {
+            final int nextRetries = retries + 1;
+            return new GetBatch(unprocessedKeys, nextRetries,
+                    noProgress ? noProgressRetries + 1 : 0,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+                            exponentialBackoffDelay(nextRetries)));
+        }
+
+        boolean isReady() {
+            return getDelayNanos() == 0;
+        }
+
+        long getDelayNanos() {
+            return Math.max(0, readyNanos - System.nanoTime());
+        }
+
+        @Override
+        public int compareTo(GetBatch other) {
+            final long diff = readyNanos - other.readyNanos;
+            return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * The result of one BatchGetItem request with its unmarshalled objects by
+     * table name, or the exception it failed with.
+     */
+    private static final class BatchGetOutcome {
+        private final GetBatch batch;
+        private final BatchGetItemResult result;
+        private final Map<String, List<Object>> objects;
+        private final RuntimeException exception;
 
+        BatchGetOutcome(GetBatch batch, BatchGetItemResult result,
+                Map<String, List<Object>> objects, RuntimeException exception) {
+            this.batch = batch;
+            this.result = result;
+            this.objects = objects;
+            this.exception = exception;
+        }
     }
 
     private final class ValueUpdate {
@@ -2286,9 +2674,10 @@ public class DynamoDBMapper {
 
     /**
      * Scans through an Amazon DynamoDB table on logically partitioned segments
-     * in parallel. This method will create a thread pool of the specified size,
-     * and each thread will issue scan requests for its assigned segment,
-     * following the returned continuation token, until the end of its segment.
+     * in parallel. The segments are scanned on the executor of the config, or
+     * on a bounded executor shared by all the scans, and scan requests are
+     * issued for each segment, following the returned continuation token,
+     * until the end of the segment.
      * Callers should be responsible for setting the appropriate number of total
      * segments. More scan segments would result in better performance but more
      * consumed capacity of the table. The results are returned in one
@@ -2327,7 +2716,8 @@ public class DynamoDBMapper {
         // segment number.
         final List<ScanRequest> parallelScanRequests = createParallelScanRequestsFromExpression(clazz,
                 scanExpression, totalSegments, config);
-        final ParallelScanTask parallelScanTask = new ParallelScanTask(this, db, parallelScanRequests);
+        final ParallelScanTask parallelScanTask = new ParallelScanTask(db, parallelScanRequests,
+                config.getParallelScanExecutor());
 
         return new PaginatedParallelScanList<T>(this, clazz, db, parallelScanTask,
                 config.getPaginationLoadingStrategy(), config);
@@ -3185,31 +3575,39 @@ public class DynamoDBMapper {
     ItemConverter getConverter(DynamoDBMapperConfig config) {
         final ConversionSchema schema = config.getConversionSchema();
 
+        // The standard converters are thread safe and cache what they look
+        // up, so they are kept for the life of the mapper.
+        final boolean standard = schema instanceof ConversionSchemas.StandardConversionSchema;
+        if (standard) {
+            final ItemConverter converter = converters.get(schema);
+            if (converter != null) {
+                return converter;
+            }
+        }
+
         final ConversionSchema.Dependencies params = new ConversionSchema.Dependencies()
                 .with(DynamoDBReflector.class, reflector)
                 .with(S3ClientCache.class, s3cc);
 
-        return schema.getConverter(params);
-    }
-
-    private void pauseExponentially(int retries) {
-        if (retries == 0) {
-            return;
+        final ItemConverter converter = schema.getConverter(params);
+        if (standard) {
+            final ItemConverter existing = converters.putIfAbsent(schema, converter);
+            if (existing != null) {
+                return existing;
+            }
         }
+        return converter;
+    }
 
+    /**
+     * @return the delay in milliseconds before the given retry.
+     */
+    private static long exponentialBackoffDelay(int retries) {
         final Random random = new Random();
-        long delay = 0;
         final long scaleFactor = EXPONENTIAL_BACKOFF_OFFSET
                 + random.nextInt(EXPONENTIAL_BACKOFF_RANDOMIZATION_OFFSET);
-        delay = (long) (Math.pow(2, retries) * scaleFactor);
-        delay = Math.min(delay, MAX_BACKOFF_IN_MILLISECONDS);
-
-        try {
-            Thread.sleep(delay);
-        } catch (final InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new AmazonClientException(e.getMessage(), e);
-        }
+        final long delay = (long) (Math.pow(2, retries) * scaleFactor);
+        return Math.min(delay, MAX_BACKOFF_IN_MILLISECONDS);
     }
 
     /**
@@ -3281,6 +3679,22 @@ public class DynamoDBMapper {
         return request;
     }
 
+    /**
+     * Receives the objects loaded by
+     * {@link DynamoDBMapper#batchLoad(List, DynamoDBMapperConfig, BatchLoadCallback)}
+     * as the responses arrive.
+     */
+    public interface BatchLoadCallback {
+
+        /**
+         * Called with the objects of one response for one table.
+         *
+         * @param tableName the name of the table the objects were loaded from.
+         * @param items the loaded objects.
+         */
+        void onItemsLoaded(String tableName, List<Object> items);
+    }
+
     /**
      * The return type of batchWrite, batchDelete and batchSave. It contains the
      * information about the unprocessed items and the exception causing the
@@ -17,6 +17,8 @@ package com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper;
 
 import com.amazonaws.metrics.RequestMetricCollector;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * Immutable configuration object for service call behavior. An instance of this
  * configuration is supplied to every {@link DynamoDBMapper} at construction; if
@@ -52,6 +54,8 @@ public class DynamoDBMapperConfig {
         private PaginationLoadingStrategy paginationLoadingStrategy;
         private RequestMetricCollector requestMetricCollector;
         private ConversionSchema conversionSchema;
+        private Integer batchLoadConcurrency;
+        private ExecutorService parallelScanExecutor;
 
         /**
          * Creates a new builder initialized with the {@link #DEFAULT} values.
@@ -65,6 +69,8 @@ public class DynamoDBMapperConfig {
             paginationLoadingStrategy = DEFAULT.getPaginationLoadingStrategy();
             requestMetricCollector = DEFAULT.getRequestMetricCollector();
             conversionSchema = DEFAULT.getConversionSchema();
+            batchLoadConcurrency = DEFAULT.getBatchLoadConcurrency();
+            parallelScanExecutor = DEFAULT.getParallelScanExecutor();
         }
 
         /**
@@ -255,6 +261,53 @@ public class DynamoDBMapperConfig {
             return this;
         }
 
+        /**
+         * @return the currently-configured number of concurrent batch get
+         *         requests
+         */
+        public Integer getBatchLoadConcurrency() {
+            return batchLoadConcurrency;
+        }
+
+        /**
+         * @param value the new number of concurrent batch get requests
+         */
+        public void setBatchLoadConcurrency(Integer value) {
+            batchLoadConcurrency = value;
+        }
+
+        /**
+         * @param value the new number of concurrent batch get requests
+         * @return this builder
+         */
+        public Builder withBatchLoadConcurrency(Integer value) {
+            setBatchLoadConcurrency(value);
+            return this;
+        }
+
+        /**
+         * @return the currently-configured executor for parallel scans
+         */
+        public ExecutorService getParallelScanExecutor() {
+            return parallelScanExecutor;
+        }
+
+        /**
+         * @param value the new executor for parallel scans
+         */
+        public void setParallelScanExecutor(ExecutorService value) {
+            parallelScanExecutor = value;
+        }
+
+        /**
+         * @param value the new executor for parallel scans
+         * @return this builder
+         */
+        public Builder withParallelScanExecutor(ExecutorService value) {
+            setParallelScanExecutor(value);
+            return this;
+        }
+
         /**
          * Builds a new {@code DynamoDBMapperConfig} object.
          *
@@ -269,7 +322,9 @@ public class DynamoDBMapperConfig {
                     objectTableNameResolver,
                     paginationLoadingStrategy,
                     requestMetricCollector,
-                    conversionSchema);
+                    conversionSchema,
+                    batchLoadConcurrency,
+                    parallelScanExecutor);
         }
     }
 
@@ -366,7 +421,16 @@ public class DynamoDBMapperConfig {
          * Paginated list will eagerly load all the paginated results from
          * DynamoDB as soon as the list is initialized.
          */
-        EAGER_LOADING
+        EAGER_LOADING,
+
+        /**
+         * Paginated list is loaded like with LAZY_LOADING, but the next pages
+         * are fetched on a background thread while the loaded results are
+         * consumed, so that iterating a long result set overlaps the requests
+         * with the processing of the results. At most a couple of pages, and
+         * about a thousand items, are fetched ahead.
+         */
+        PREFETCH_LOADING
     }
 
     /**
@@ -528,6 +592,8 @@ public class DynamoDBMapperConfig {
     private final PaginationLoadingStrategy paginationLoadingStrategy;
     private final RequestMetricCollector requestMetricCollector;
     private final ConversionSchema conversionSchema;
+    private final Integer batchLoadConcurrency;
+    private final ExecutorService parallelScanExecutor;
 
     /**
      * Legacy constructor, using default PaginationLoadingStrategy
@@ -598,7 +664,9 @@ public class DynamoDBMapperConfig {
                 null,
                 paginationLoadingStrategy,
                 requestMetricCollector,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT,
+                null,
+                null);
     }
 
     private DynamoDBMapperConfig(
@@ -609,7 +677,9 @@ public class DynamoDBMapperConfig {
             ObjectTableNameResolver objectTableNameResolver,
             PaginationLoadingStrategy paginationLoadingStrategy,
             RequestMetricCollector requestMetricCollector,
-            ConversionSchema conversionSchema) {
+            ConversionSchema conversionSchema,
+            Integer batchLoadConcurrency,
+            ExecutorService parallelScanExecutor) {
 
         this.saveBehavior = saveBehavior;
         this.consistentReads = consistentReads;
@@ -619,6 +689,8 @@ public class DynamoDBMapperConfig {
         this.paginationLoadingStrategy = paginationLoadingStrategy;
         this.requestMetricCollector = requestMetricCollector;
         this.conversionSchema = conversionSchema;
+        this.batchLoadConcurrency = batchLoadConcurrency;
+        this.parallelScanExecutor = parallelScanExecutor;
     }
 
     /**
@@ -628,7 +700,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(SaveBehavior saveBehavior) {
         this(saveBehavior, null, null, null, null, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null, null);
     }
 
     /**
@@ -639,7 +711,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(ConsistentReads consistentReads) {
         this(null, consistentReads, null, null, null, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null, null);
     }
 
     /**
@@ -649,7 +721,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(TableNameOverride tableNameOverride) {
         this(null, null, tableNameOverride, null, null, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null, null);
     }
 
     /**
@@ -660,7 +732,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(TableNameResolver tableNameResolver) {
         this(null, null, null, tableNameResolver, null, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null, null);
     }
 
     /**
@@ -671,7 +743,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(ObjectTableNameResolver objectTableNameResolver) {
         this(null, null, null, null, objectTableNameResolver, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null, null);
     }
 
     /**
@@ -684,7 +756,7 @@ public class DynamoDBMapperConfig {
     public DynamoDBMapperConfig(TableNameResolver tableNameResolver,
             ObjectTableNameResolver objectTableNameResolver) {
         this(null, null, null, tableNameResolver, objectTableNameResolver, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null, null);
     }
 
     /**
@@ -697,7 +769,7 @@ public class DynamoDBMapperConfig {
             PaginationLoadingStrategy paginationLoadingStrategy) {
 
         this(null, null, null, null, null, paginationLoadingStrategy, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null, null);
     }
 
     /**
@@ -706,7 +778,7 @@ public class DynamoDBMapperConfig {
      * @param conversionSchema the dynamodb {@link ConversionSchema}
      */
     public DynamoDBMapperConfig(ConversionSchema conversionSchema) {
-        this(null, null, null, null, null, null, null, conversionSchema);
+        this(null, null, null, null, null, null, null, conversionSchema, null, null);
     }
 
     /**
@@ -736,6 +808,8 @@ public class DynamoDBMapperConfig {
                     defaults.getPaginationLoadingStrategy();
             this.requestMetricCollector = defaults.getRequestMetricCollector();
             this.conversionSchema = defaults.getConversionSchema();
+            this.batchLoadConcurrency = defaults.getBatchLoadConcurrency();
+            this.parallelScanExecutor = defaults.getParallelScanExecutor();
 
         } else {
 
@@ -773,6 +847,14 @@ public class DynamoDBMapperConfig {
                     ? defaults.getConversionSchema()
                     : overrides.getConversionSchema();
 
+            this.batchLoadConcurrency = (overrides.getBatchLoadConcurrency() == null)
+                    ? defaults.getBatchLoadConcurrency()
+                    : overrides.getBatchLoadConcurrency();
+
+            this.parallelScanExecutor = (overrides.getParallelScanExecutor() == null)
+                    ? defaults.getParallelScanExecutor()
+                    : overrides.getParallelScanExecutor();
+
         }
     }
 
@@ -860,6 +942,32 @@ public class DynamoDBMapperConfig {
         return conversionSchema;
     }
 
+    /**
+     * Returns the number of BatchGetItem requests that
+     * {@link DynamoDBMapper#batchLoad(java.util.List, DynamoDBMapperConfig)}
+     * keeps in flight, or null if not specified.
+     *
+     * @return the batch load concurrency
+     */
+    public Integer getBatchLoadConcurrency() {
+        return batchLoadConcurrency;
+    }
+
+    /**
+     * Returns the executor that runs the scans of
+     * {@link DynamoDBMapper#parallelScan(Class, DynamoDBScanExpression, int, DynamoDBMapperConfig)},
+     * or null to use a bounded executor shared by all the mappers. The mapper
+     * never shuts it down.
+     *
+     * @return the parallel scan executor
+     */
+    public ExecutorService getParallelScanExecutor() {
+        return parallelScanExecutor;
+    }
+
+    /** The default number of BatchGetItem requests in flight for one batch load. */
+    public static final int DEFAULT_BATCH_LOAD_CONCURRENCY = 4;
+
     /**
      * Default configuration uses UPDATE behavior for saves and EVENTUALly
      * consistent reads, with no table name override and lazy-loading strategy.
@@ -872,5 +980,7 @@ public class DynamoDBMapperConfig {
             null, // ObjectTableNameResolver
             PaginationLoadingStrategy.LAZY_LOADING,
             null, // RequestMetricCollector
-            ConversionSchemas.DEFAULT);
+            ConversionSchemas.DEFAULT,
+            DEFAULT_BATCH_LOAD_CONCURRENCY,
+            null); // ParallelScanExecutor
 }
@@ -17,54 +17,69 @@ package com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Reflection assistant for {@link DynamoDBMapper}
  */
 class DynamoDBReflector {
 
+    /**
+     * Cached for classes without a range key, since the caches can't hold
+     * null values.
+     */
+    private static final Method NO_RANGE_KEY_GETTER;
+
+    static {
+        try {
+            NO_RANGE_KEY_GETTER = Object.class.getMethod("toString");
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /*
      * Several caches for performance. Collectively, they can make this class
-     * over twice as fast.
+     * over twice as fast. They are read without locking; a value computed
+     * concurrently by two threads is the same either way.
      */
-    private final Map<Class<?>, Collection<Method>> getterCache = new HashMap<Class<?>, Collection<Method>>();
-    private final Map<Class<?>, Method> primaryHashKeyGetterCache = new HashMap<Class<?>, Method>();
-    private final Map<Class<?>, Method> primaryRangeKeyGetterCache = new HashMap<Class<?>, Method>();
+    private final ConcurrentMap<Class<?>, Collection<Method>> getterCache =
+            new ConcurrentHashMap<Class<?>, Collection<Method>>();
+    private final ConcurrentMap<Class<?>, Method> primaryHashKeyGetterCache =
+            new ConcurrentHashMap<Class<?>, Method>();
+    private final ConcurrentMap<Class<?>, Method> primaryRangeKeyGetterCache =
+            new ConcurrentHashMap<Class<?>, Method>();
 
     /*
      * All caches keyed by a Method use the getter for a particular mapped
      * property
      */
-    private final Map<Method, Method> setterCache = new HashMap<Method, Method>();
+    private final ConcurrentMap<Method, Method> setterCache =
+            new ConcurrentHashMap<Method, Method>();
 
-    private final Map<Method, String> attributeNameCache = new HashMap<Method, String>();
+    private final ConcurrentMap<Method, String> attributeNameCache =
+            new ConcurrentHashMap<Method, String>();
 
-    private final Map<Method, Boolean> versionAttributeGetterCache = new HashMap<Method, Boolean>();
-    private final Map<Method, Boolean> autoGeneratedKeyGetterCache = new HashMap<Method, Boolean>();
-
-    private final ReentrantReadWriteLock readWriteLockAttrName = new ReentrantReadWriteLock();
-    private final ReadLock readLockAttrName = readWriteLockAttrName.readLock();
-    private final WriteLock writeLockAttrName = readWriteLockAttrName.writeLock();
+    private final ConcurrentMap<Method, Boolean> versionAttributeGetterCache =
+            new ConcurrentHashMap<Method, Boolean>();
+    private final ConcurrentMap<Method, Boolean> autoGeneratedKeyGetterCache =
+            new ConcurrentHashMap<Method, Boolean>();
 
     /**
      * Returns the set of getter methods which are relevant when marshalling or
      * unmarshalling an object.
      */
     Collection<Method> getRelevantGetters(Class<?> clazz) {
-        synchronized (getterCache) {
-            if (!getterCache.containsKey(clazz)) {
-                List<Method> relevantGetters = findRelevantGetters(clazz);
-                getterCache.put(clazz, relevantGetters);
-            }
-            return getterCache.get(clazz);
+        Collection<Method> relevantGetters = getterCache.get(clazz);
+        if (relevantGetters == null) {
+            relevantGetters = Collections.unmodifiableList(findRelevantGetters(clazz));
+            getterCache.putIfAbsent(clazz, relevantGetters);
         }
+        return relevantGetters;
     }
 
     static List<Method> findRelevantGetters(Class<?> clazz) {
@@ -100,21 +115,20 @@ class DynamoDBReflector {
      * given, or null if the class doesn't have one.
      */
     <T> Method getPrimaryRangeKeyGetter(Class<T> clazz) {
-        synchronized (primaryRangeKeyGetterCache) {
-            if (!primaryRangeKeyGetterCache.containsKey(clazz)) {
-                Method rangeKeyMethod = null;
-                for (Method method : getRelevantGetters(clazz)) {
-                    if (method.getParameterTypes().length == 0
-                            && ReflectionUtils.getterOrFieldHasAnnotation(method,
-                                    DynamoDBRangeKey.class)) {
-                        rangeKeyMethod = method;
-                        break;
-                    }
+        Method rangeKeyMethod = primaryRangeKeyGetterCache.get(clazz);
+        if (rangeKeyMethod == null) {
+            rangeKeyMethod = NO_RANGE_KEY_GETTER;
+            for (Method method : getRelevantGetters(clazz)) {
+                if (method.getParameterTypes().length == 0
+                        && ReflectionUtils.getterOrFieldHasAnnotation(method,
+                                DynamoDBRangeKey.class)) {
+                    rangeKeyMethod = method;
+                    break;
                 }
-                primaryRangeKeyGetterCache.put(clazz, rangeKeyMethod);
             }
-            return primaryRangeKeyGetterCache.get(clazz);
+            primaryRangeKeyGetterCache.putIfAbsent(clazz, rangeKeyMethod);
         }
+        return rangeKeyMethod == NO_RANGE_KEY_GETTER ? null : rangeKeyMethod;
     }
 
     /**
@@ -139,19 +153,17 @@ class DynamoDBReflector {
      * throwing an exception if there isn't one.
      */
     <T> Method getPrimaryHashKeyGetter(Class<T> clazz) {
-        Method hashKeyMethod;
-        synchronized (primaryHashKeyGetterCache) {
-            if (!primaryHashKeyGetterCache.containsKey(clazz)) {
-                for (Method method : getRelevantGetters(clazz)) {
-                    if (method.getParameterTypes().length == 0
-                            && ReflectionUtils.getterOrFieldHasAnnotation(method,
-                                    DynamoDBHashKey.class)) {
-                        primaryHashKeyGetterCache.put(clazz, method);
-                        break;
-                    }
+        Method hashKeyMethod = primaryHashKeyGetterCache.get(clazz);
+        if (hashKeyMethod == null) {
+            for (Method method : getRelevantGetters(clazz)) {
+                if (method.getParameterTypes().length == 0
+                        && ReflectionUtils.getterOrFieldHasAnnotation(method,
+                                DynamoDBHashKey.class)) {
+                    hashKeyMethod = method;
+                    primaryHashKeyGetterCache.putIfAbsent(clazz, method);
+                    break;
                 }
             }
-            hashKeyMethod = primaryHashKeyGetterCache.get(clazz);
         }
 
         if (hashKeyMethod == null) {
@@ -178,13 +190,7 @@ class DynamoDBReflector {
      * Returns the attribute name corresponding to the given getter method.
      */
     String getAttributeName(Method getter) {
-        String attributeName;
-        readLockAttrName.lock();
-        try {
-            attributeName = attributeNameCache.get(getter);
-        } finally {
-            readLockAttrName.unlock();
-        }
+        String attributeName = attributeNameCache.get(getter);
         if (attributeName != null)
             return attributeName;
         DynamoDBHashKey hashKeyAnnotation = ReflectionUtils.getAnnotationFromGetterOrField(getter,
@@ -236,12 +242,7 @@ class DynamoDBReflector {
     }
 
     private String cacheAttributeName(Method getter, String attributeName) {
-        writeLockAttrName.lock();
-        try {
-            attributeNameCache.put(getter, attributeName);
-        } finally {
-            writeLockAttrName.unlock();
-        }
+        attributeNameCache.putIfAbsent(getter, attributeName);
         return attributeName;
     }
 
@@ -250,27 +251,25 @@ class DynamoDBReflector {
      * setter exists.
      */
     Method getSetter(Method getter) {
-        synchronized (setterCache) {
-            if (!setterCache.containsKey(getter)) {
-                String fieldName = ReflectionUtils.getFieldNameByGetter(getter, false);
-                String setterName = "set" + fieldName;
-                Method setter = null;
-                try {
-                    setter = getter.getDeclaringClass().getMethod(setterName,
-                            getter.getReturnType());
-                } catch (NoSuchMethodException e) {
-                    throw new DynamoDBMappingException(
-                            "Expected a public, one-argument method called " + setterName
-                                    + " on class " + getter.getDeclaringClass(), e);
-                } catch (SecurityException e) {
-                    throw new DynamoDBMappingException(
-                            "No access to public, one-argument method called " + setterName
-                                    + " on class " + getter.getDeclaringClass(), e);
-                }
-                setterCache.put(getter, setter);
+        Method setter = setterCache.get(getter);
+        if (setter == null) {
+            String fieldName = ReflectionUtils.getFieldNameByGetter(getter, false);
+            String setterName = "set" + fieldName;
+            try {
+                setter = getter.getDeclaringClass().getMethod(setterName,
+                        getter.getReturnType());
+            } catch (NoSuchMethodException e) {
+                throw new DynamoDBMappingException(
+                        "Expected a public, one-argument method called " + setterName
+                                + " on class " + getter.getDeclaringClass(), e);
+            } catch (SecurityException e) {
+                throw new DynamoDBMappingException(
+                        "No access to public, one-argument method called " + setterName
+                                + " on class " + getter.getDeclaringClass(), e);
             }
-            return setterCache.get(getter);
+            setterCache.putIfAbsent(getter, setter);
         }
+        return setter;
     }
 
     /**
@@ -278,36 +277,32 @@ class DynamoDBReflector {
      * version attribute.
      */
     boolean isVersionAttributeGetter(Method getter) {
-        synchronized (versionAttributeGetterCache) {
-            if (!versionAttributeGetterCache.containsKey(getter)) {
-                versionAttributeGetterCache.put(
-                        getter,
-                        getter.getName().startsWith("get")
-                                && getter.getParameterTypes().length == 0
-                                && ReflectionUtils.getterOrFieldHasAnnotation(getter,
-                                        DynamoDBVersionAttribute.class));
-            }
-            return versionAttributeGetterCache.get(getter);
+        Boolean versionAttributeGetter = versionAttributeGetterCache.get(getter);
+        if (versionAttributeGetter == null) {
+            versionAttributeGetter = getter.getName().startsWith("get")
+                    && getter.getParameterTypes().length == 0
+                    && ReflectionUtils.getterOrFieldHasAnnotation(getter,
+                            DynamoDBVersionAttribute.class);
+            versionAttributeGetterCache.putIfAbsent(getter, versionAttributeGetter);
         }
+        return versionAttributeGetter;
     }
 
     /**
      * Returns whether the method given is an assignable key getter.
      */
     boolean isAssignableKey(Method getter) {
-        synchronized (autoGeneratedKeyGetterCache) {
-            if (!autoGeneratedKeyGetterCache.containsKey(getter)) {
-                autoGeneratedKeyGetterCache.put(
-                        getter,
-                        ReflectionUtils.getterOrFieldHasAnnotation(getter,
-                                DynamoDBAutoGeneratedKey.class)
-                                && (ReflectionUtils.getterOrFieldHasAnnotation(getter,
-                                        DynamoDBHashKey.class) ||
-                                ReflectionUtils.getterOrFieldHasAnnotation(getter,
-                                        DynamoDBRangeKey.class)));
-            }
-            return autoGeneratedKeyGetterCache.get(getter);
+        Boolean assignableKey = autoGeneratedKeyGetterCache.get(getter);
+        if (assignableKey == null) {
+            assignableKey = ReflectionUtils.getterOrFieldHasAnnotation(getter,
+                    DynamoDBAutoGeneratedKey.class)
+                    && (ReflectionUtils.getterOrFieldHasAnnotation(getter,
+                            DynamoDBHashKey.class) ||
+                    ReflectionUtils.getterOrFieldHasAnnotation(getter,
+                            DynamoDBRangeKey.class));
+            autoGeneratedKeyGetterCache.putIfAbsent(getter, assignableKey);
         }
+        return assignableKey;
     }
 
     /**
@@ -15,8 +15,10 @@
 
 package com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper.DynamoDBMapperConfig.PaginationLoadingStrategy;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.util.DaemonThreadPools;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -26,11 +28,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Unmodifiable list supporting paginated result sets from Amazon DynamoDB.
  * <p>
- * Pages of results are fetched lazily from DynamoDB as they are needed. Some
+ * Pages of results are fetched lazily from DynamoDB as they are needed, or
+ * ahead of time in the background with PREFETCH_LOADING. Some
  * methods, such as {@link PaginatedList#size()} and
  * {@link PaginatedList#toArray()}, require fetching the entire result set
  * eagerly. See the javadoc of individual methods for details on which are lazy.
@@ -43,6 +47,22 @@ public abstract class PaginatedList<T> implements List<T> {
 
     private static final String ITERATION_ONLY_UNSUPPORTED_OPERATION_MESSAGE = " is not supported when using ITERATION_ONLY configuration.";
 
+    /** The max number of pages fetched ahead in PREFETCH_LOADING mode. */
+    static final int PREFETCH_PAGE_COUNT = 2;
+
+    /**
+     * Pages are no longer fetched ahead once this many items are waiting to
+     * be consumed in PREFETCH_LOADING mode.
+     */
+    static final int MAX_PREFETCHED_ITEMS = 1000;
+
+    /** The max number of threads fetching pages ahead, shared by all lists. */
+    private static final int PREFETCH_THREAD_COUNT = 4;
+
+    private static final long PREFETCH_THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    private static ExecutorService prefetchExecutor;
+
     /**
      * Reference to the DynamoDB mapper for marshalling DynamoDB attributes back
      * into objects
@@ -80,6 +100,15 @@ public abstract class PaginatedList<T> implements List<T> {
      */
     private boolean iterationStarted = false;
 
+    /*
+     * Pages fetched ahead in PREFETCH_LOADING mode, guarded by this list. The
+     * pages are fetched in order by one task at a time.
+     */
+    private final LinkedList<List<T>> prefetchedPages = new LinkedList<List<T>>();
+    private int prefetchedItems = 0;
+    private boolean prefetching = false;
+    private RuntimeException prefetchFailure;
+
     /**
      * Constructs a PaginatedList instance using the default
      * PaginationLoadingStrategy
@@ -160,6 +189,10 @@ public abstract class PaginatedList<T> implements List<T> {
      * return value of true guarantees that nextResults had items added to it.
      */
     private synchronized boolean loadNextResults() {
+        if (paginationLoadingStrategy == PaginationLoadingStrategy.PREFETCH_LOADING) {
+            return loadPrefetchedResults();
+        }
+
         if (atEndOfResults()) {
             return false;
         }
@@ -171,6 +204,99 @@ public abstract class PaginatedList<T> implements List<T> {
         return !nextResults.isEmpty();
     }
 
+    /**
+     * Moves the pages fetched ahead into the nextResults buffer, waiting for
+     * the next one if none has arrived yet, and starts fetching the following
+     * pages. Rethrows the exception a page failed with.
+     */
+    private synchronized boolean loadPrefetchedResults() {
+        while (true) {
+            while (!prefetchedPages.isEmpty()) {
+                final List<T> page = prefetchedPages.removeFirst();
+                prefetchedItems -= page.size();
+                nextResults.addAll(page);
+            }
+            if (!nextResults.isEmpty()) {
+                startPrefetch();
+                return true;
+            }
+            if (prefetchFailure != null) {
+                final RuntimeException failure = prefetchFailure;
+                prefetchFailure = null;
+                throw failure;
+            }
+            if (!prefetching) {
+                if (atEndOfResults()) {
+                    return false;
+                }
+                startPrefetch();
+            }
+            try {
+                wait();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AmazonClientException("Interrupted while waiting for the next page", e);
+            }
+        }
+    }
+
+    /**
+     * Starts fetching pages ahead in the background, unless that is already
+     * under way or enough results are waiting.
+     */
+    private synchronized void startPrefetch() {
+        if (prefetching || prefetchFailure != null || !needsPrefetch()) {
+            return;
+        }
+        prefetching = true;
+        getPrefetchExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                prefetchPages();
+            }
+        });
+    }
+
+    private boolean needsPrefetch() {
+        return !atEndOfResults()
+                && prefetchedPages.size() < PREFETCH_PAGE_COUNT
+                && prefetchedItems < MAX_PREFETCHED_ITEMS;
+    }
+
+    private void prefetchPages() {
+        while (true) {
+            List<T> page = null;
+            RuntimeException failure = null;
+            try {
+                page = fetchNextPage();
+            } catch (final RuntimeException e) {
+                failure = e;
+            }
+            synchronized (this) {
+                if (failure != null) {
+                    prefetchFailure = failure;
+                } else {
+                    prefetchedPages.addLast(page);
+                    prefetchedItems += page.size();
+                }
+                if (failure != null || !needsPrefetch()) {
+                    prefetching = false;
+                    notifyAll();
+                    return;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = DaemonThreadPools.newFixedThreadPool("DynamoDBMapperPrefetch",
+                    PREFETCH_THREAD_COUNT, PREFETCH_THREAD_KEEP_ALIVE_SECONDS);
+        }
+        return prefetchExecutor;
+    }
+
     /**
      * Moves the contents of the nextResults buffer into allResults and resets
      * the buffer.
@@ -208,6 +334,9 @@ public abstract class PaginatedList<T> implements List<T> {
      */
     @Override
     public Iterator<T> iterator() {
+        if (paginationLoadingStrategy == PaginationLoadingStrategy.PREFETCH_LOADING) {
+            startPrefetch();
+        }
         return new PaginatedListIterator(
                 paginationLoadingStrategy == PaginationLoadingStrategy.ITERATION_ONLY);
     }
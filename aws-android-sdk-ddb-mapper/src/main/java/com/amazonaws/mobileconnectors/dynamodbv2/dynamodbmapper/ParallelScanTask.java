@@ -19,22 +19,36 @@ import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.util.DaemonThreadPools;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 /**
  * A task thats runs DynamoDB scan operations in parallel.
+ * <p>
+ * The segments are scanned by a few workers on an executor shared with other
+ * scans. Each worker takes the next segment that has a page to scan, scans
+ * it and puts the segment back, so that workers don't wait for slow
+ * segments. Workers stop when {@link #MAX_BUFFERED_PAGES} pages are waiting
+ * to be consumed, and are started again as the pages are consumed.
+ * </p>
  */
 public class ParallelScanTask {
 
+    /** The max number of pages scanned but not consumed yet, for each scan. */
+    static final int MAX_BUFFERED_PAGES = 16;
+
+    private static final int DEFAULT_THREAD_COUNT =
+            Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    private static ExecutorService defaultExecutor;
+
     /**
      * The list of hard copies of ScanRequest with different segment number.
      */
@@ -42,12 +56,6 @@ public class ParallelScanTask {
 
     private final int totalSegments;
 
-    /**
-     * Cache all the future tasks, so that we can extract the exception when we
-     * see failed segment scan.
-     */
-    private final List<Future<ScanResult>> segmentScanFutureTasks;
-
     /**
      * Cache all the most recent ScanResult on each segment.
      */
@@ -55,10 +63,26 @@ public class ParallelScanTask {
 
     /**
      * The current state of the scan on each segment. Used as the monitor for
-     * synchronization.
+     * synchronization of all the fields below.
      */
     private final List<SegmentScanState> segmentScanStates;
 
+    /** The segments that have a page to scan, in the order they'll be scanned. */
+    private final LinkedList<Integer> pendingSegments = new LinkedList<Integer>();
+
+    /** The pages scanned but not returned yet. */
+    private final LinkedList<ScanResult> bufferedResults = new LinkedList<ScanResult>();
+
+    private int segmentsInFlight;
+
+    private int activeWorkers;
+
+    private final int maxWorkers;
+
+    private Exception failure;
+
+    private int failedSegment;
+
     private final ExecutorService executorService;
 
     private final AmazonDynamoDB dynamo;
@@ -71,15 +95,23 @@ public class ParallelScanTask {
     }
 
     ParallelScanTask(AmazonDynamoDB dynamo, List<ScanRequest> parallelScanRequests) {
+        this(dynamo, parallelScanRequests, null);
+    }
+
+    /**
+     * @param executorService the executor to scan on, or null to use one
+     *            shared by all the scans.
+     */
+    ParallelScanTask(AmazonDynamoDB dynamo, List<ScanRequest> parallelScanRequests,
+            ExecutorService executorService) {
         this.dynamo = dynamo;
         this.parallelScanRequests = parallelScanRequests;
         this.totalSegments = parallelScanRequests.size();
-        executorService = Executors.newCachedThreadPool();
+        this.maxWorkers = Math.min(totalSegments, MAX_BUFFERED_PAGES);
+        this.executorService = executorService == null ? getDefaultExecutor() : executorService;
 
         // Create synchronized views of the list to guarantee any changes are
         // visible across all threads.
-        segmentScanFutureTasks = Collections.synchronizedList(new ArrayList<Future<ScanResult>>(
-                totalSegments));
         segmentScanResults = Collections.synchronizedList(new ArrayList<ScanResult>(totalSegments));
         segmentScanStates = Collections.synchronizedList(new ArrayList<SegmentScanState>(
                 totalSegments));
@@ -103,28 +135,21 @@ public class ParallelScanTask {
                     return false;
                 }
             }
-            // Shut down if all data have been scanned and loaded.
-            executorService.shutdown();
-            return true;
+            return bufferedResults.isEmpty();
         }
     }
 
     /**
-     * Gets the next batch of scan results.
+     * Gets the next batch of scan results: the pages scanned since the last
+     * call, waiting for at least one if none is available yet.
      * 
      * @return list of {@link ScanResult}
      */
     public List<ScanResult> getNextBatchOfScanResults() {
-        /**
-         * Kick-off all the parallel scan tasks.
-         */
-        startScanNextPages();
-        /**
-         * Wait till all the tasks have finished.
-         */
         synchronized (segmentScanStates) {
-            while (segmentScanStates.contains(SegmentScanState.Waiting)
-                    || segmentScanStates.contains(SegmentScanState.Scanning)) {
+            startWorkers();
+            while (bufferedResults.isEmpty() && failure == null
+                    && (segmentsInFlight > 0 || !pendingSegments.isEmpty())) {
                 try {
                     segmentScanStates.wait();
                 } catch (final InterruptedException ie) {
@@ -132,115 +157,98 @@ public class ParallelScanTask {
                             ie);
                 }
             }
-            /**
-             * Keep the lock on segmentScanStates until all the cached results
-             * are marshaled and returned.
-             */
-            return marshalParallelScanResults();
-        }
+            if (failure != null) {
+                throw scanFailure();
+            }
 
+            final List<ScanResult> scanResults = new LinkedList<ScanResult>(bufferedResults);
+            bufferedResults.clear();
+            startWorkers();
+            return scanResults;
+        }
     }
 
-    private void startScanNextPages() {
-        for (int segment = 0; segment < totalSegments; segment++) {
-            final int currentSegment = segment;
-            final SegmentScanState currentSegmentState = segmentScanStates.get(currentSegment);
-            /**
-             * Assert: Should never see any task in state of "Scanning" when
-             * starting a new batch.
-             */
-            if (currentSegmentState == SegmentScanState.Scanning) {
-                throw new AmazonClientException(
-                        "Should never see a 'Scanning' state when starting parallel scans.");
-            }
-            /**
-             * Skip any failed or completed segment, and clear the corresponding
-             * cached result.
-             */
-            else if (currentSegmentState == SegmentScanState.Failed
-                    || currentSegmentState == SegmentScanState.SegmentScanCompleted) {
-                segmentScanResults.set(currentSegment, null);
-                continue;
-            }
-            /**
-             * Otherwise, submit a new future task and save it in
-             * segmentScanFutureTasks.
-             */
-            else {
-                // Update the state to "Scanning" and notify any waiting thread.
-                synchronized (segmentScanStates) {
-                    segmentScanStates.set(currentSegment, SegmentScanState.Scanning);
-                    segmentScanStates.notifyAll();
+    /**
+     * Starts workers until there are enough for the pending segments, unless
+     * the buffer is full or a segment failed. Must hold segmentScanStates.
+     */
+    private void startWorkers() {
+        while (activeWorkers < maxWorkers && activeWorkers < pendingSegments.size()
+                && hasRoomForPage()) {
+            activeWorkers++;
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    scanSegments();
                 }
-                final Future<ScanResult> futureTask = executorService.submit(new Callable<ScanResult>() {
-                    @Override
-                    public ScanResult call() throws Exception {
-                        try {
-                            if (currentSegmentState == SegmentScanState.HasNextPage) {
-                                return scanNextPageOfSegment(currentSegment, true);
-                            }
-                            else if (currentSegmentState == SegmentScanState.Waiting) {
-                                return scanNextPageOfSegment(currentSegment, false);
-                            }
-                            else {
-                                throw new AmazonClientException(
-                                        "Should not start a new future task");
-                            }
-                        } catch (final Exception e) {
-                            synchronized (segmentScanStates) {
-                                segmentScanStates.set(currentSegment, SegmentScanState.Failed);
-                                segmentScanStates.notifyAll();
-                            }
-                            throw e;
-                        }
-                    }
-                });
-                // Cache the future task (for getting the Exceptions in the
-                // working thread).
-                segmentScanFutureTasks.set(currentSegment, futureTask);
-            }
+            });
         }
     }
 
-    private List<ScanResult> marshalParallelScanResults() {
-        final List<ScanResult> scanResults = new LinkedList<ScanResult>();
-        for (int segment = 0; segment < totalSegments; segment++) {
-            final SegmentScanState currentSegmentState = segmentScanStates.get(segment);
+    private boolean hasRoomForPage() {
+        return failure == null
+                && bufferedResults.size() + segmentsInFlight < MAX_BUFFERED_PAGES;
+    }
+
+    /**
+     * Scans pages of the pending segments until there are none left or the
+     * buffer is full.
+     */
+    private void scanSegments() {
+        while (true) {
+            final int segment;
+            final boolean checkLastEvaluatedKey;
+            synchronized (segmentScanStates) {
+                if (pendingSegments.isEmpty() || !hasRoomForPage()) {
+                    activeWorkers--;
+                    return;
+                }
+                segment = pendingSegments.removeFirst();
+                checkLastEvaluatedKey =
+                        segmentScanStates.get(segment) == SegmentScanState.HasNextPage;
+                segmentScanStates.set(segment, SegmentScanState.Scanning);
+                segmentsInFlight++;
+            }
+
+            ScanResult scanResult = null;
+            Exception exception = null;
+            try {
+                scanResult = scanNextPageOfSegment(segment, checkLastEvaluatedKey);
+            } catch (final Exception e) {
+                exception = e;
+            }
+
             /**
-             * Rethrow the exception from any failed segment scan.
+             * Update the state and notify any waiting thread.
              */
-            if (currentSegmentState == SegmentScanState.Failed) {
-                try {
-                    segmentScanFutureTasks.get(segment).get();
-                    throw new AmazonClientException("No Exception found in the failed scan task.");
-                } catch (final ExecutionException ee) {
-                    if (ee.getCause() instanceof AmazonClientException) {
-                        throw (AmazonClientException) (ee.getCause());
+            synchronized (segmentScanStates) {
+                segmentsInFlight--;
+                if (exception != null) {
+                    segmentScanStates.set(segment, SegmentScanState.Failed);
+                    if (failure == null) {
+                        failure = exception;
+                        failedSegment = segment;
+                    }
+                } else {
+                    bufferedResults.add(scanResult);
+                    if (null == scanResult.getLastEvaluatedKey()) {
+                        segmentScanStates.set(segment, SegmentScanState.SegmentScanCompleted);
                     } else {
-                        throw new AmazonClientException(
-                                "Internal error during the scan on segment #" + segment + ".",
-                                ee.getCause());
+                        segmentScanStates.set(segment, SegmentScanState.HasNextPage);
+                        pendingSegments.add(segment);
                     }
-                } catch (final Exception e) {
-                    throw new AmazonClientException("Error during the scan on segment #" + segment
-                            + ".", e);
                 }
-            }
-            /**
-             * Get the ScanResult from cache if the segment scan has finished.
-             */
-            else if (currentSegmentState == SegmentScanState.HasNextPage
-                    || currentSegmentState == SegmentScanState.SegmentScanCompleted) {
-                final ScanResult scanResult = segmentScanResults.get(segment);
-                scanResults.add(scanResult);
-            }
-            else if (currentSegmentState == SegmentScanState.Waiting
-                    || currentSegmentState == SegmentScanState.Scanning) {
-                throw new AmazonClientException(
-                        "Should never see a 'Scanning' or 'Waiting' state when marshalling parallel scan results.");
+                segmentScanStates.notifyAll();
             }
         }
-        return scanResults;
+    }
+
+    private AmazonClientException scanFailure() {
+        if (failure instanceof AmazonClientException) {
+            return (AmazonClientException) failure;
+        }
+        return new AmazonClientException(
+                "Internal error during the scan on segment #" + failedSegment + ".", failure);
     }
 
     ScanResult scanNextPageOfSegment(int currentSegment, boolean checkLastEvaluatedKey) {
@@ -254,31 +262,27 @@ public class ParallelScanTask {
         final ScanResult scanResult = dynamo.scan(DynamoDBMapper.applyUserAgent(segmentScanRequest));
 
         /**
-         * Cache the scan result in segmentScanResults. We should never try to
-         * get these scan results by calling get() on the cached future tasks.
+         * Cache the scan result in segmentScanResults, for the exclusive start
+         * key of the next page.
          */
         segmentScanResults.set(currentSegment, scanResult);
-
-        /**
-         * Update the state and notify any waiting thread.
-         */
-        synchronized (segmentScanStates) {
-            if (null == scanResult.getLastEvaluatedKey()) {
-                segmentScanStates.set(currentSegment, SegmentScanState.SegmentScanCompleted);
-            } else {
-                segmentScanStates.set(currentSegment, SegmentScanState.HasNextPage);
-            }
-            segmentScanStates.notifyAll();
-        }
         return scanResult;
     }
 
     private void initSegmentScanStates() {
         for (int segment = 0; segment < totalSegments; segment++) {
-            segmentScanFutureTasks.add(null);
             segmentScanResults.add(null);
             segmentScanStates.add(SegmentScanState.Waiting);
+            pendingSegments.add(segment);
+        }
+    }
+
+    private static synchronized ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            defaultExecutor = DaemonThreadPools.newFixedThreadPool("DynamoDBMapperParallelScan",
+                    DEFAULT_THREAD_COUNT, THREAD_KEEP_ALIVE_SECONDS);
         }
+        return defaultExecutor;
     }
 
     /**
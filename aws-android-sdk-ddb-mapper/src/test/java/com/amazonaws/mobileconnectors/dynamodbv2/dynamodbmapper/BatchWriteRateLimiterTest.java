@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BatchWriteRateLimiterTest {
+
+    @Test
+    public void testUnlimitedUntilThrottled() {
+        BatchWriteRateLimiter limiter = new BatchWriteRateLimiter(4);
+        assertEquals(4, limiter.getInFlightLimit());
+        assertTrue(Double.isInfinite(limiter.getRate()));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.reserve(25));
+            limiter.onSuccess(25, 25);
+        }
+        assertEquals(4, limiter.getInFlightLimit());
+    }
+
+    @Test
+    public void testThrottlingHalvesAndSuccessIncreases() {
+        BatchWriteRateLimiter limiter = new BatchWriteRateLimiter(4);
+        limiter.onThrottle(10, 10);
+        assertEquals(2, limiter.getInFlightLimit());
+        double rate = limiter.getRate();
+        assertTrue(rate >= BatchWriteRateLimiter.MIN_RATE && rate <= 50);
+
+        // throttling right after a cut comes from requests sent before it
+        limiter.onThrottle(0, Double.NaN);
+        assertEquals(2, limiter.getInFlightLimit());
+        assertEquals(rate, limiter.getRate(), 0.001);
+
+        limiter.onSuccess(25, 25);
+        assertEquals(3, limiter.getInFlightLimit());
+        assertEquals(rate + BatchWriteRateLimiter.RATE_INCREASE, limiter.getRate(), 0.001);
+        for (int i = 0; i < 10; i++) {
+            limiter.onSuccess(25, 25);
+        }
+        assertEquals(4, limiter.getInFlightLimit());
+    }
+
+    @Test
+    public void testReserveWaitsForCapacity() {
+        BatchWriteRateLimiter limiter = new BatchWriteRateLimiter(4);
+        // brings the rate down to the minimum
+        limiter.onThrottle(0, 0);
+        assertEquals(BatchWriteRateLimiter.MIN_RATE, limiter.getRate(), 0.001);
+
+        // 25 items at one unit per second
+        long delay = limiter.reserve(25);
+        assertTrue("delay " + delay, delay > 20000 && delay <= 25000);
+        // the next batch waits behind the first one
+        assertTrue(limiter.reserve(1) > delay);
+    }
+}
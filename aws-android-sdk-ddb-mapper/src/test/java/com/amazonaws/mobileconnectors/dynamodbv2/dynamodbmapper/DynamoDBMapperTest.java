@@ -39,6 +39,7 @@ import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
 import com.amazonaws.services.dynamodbv2.model.Condition;
 import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
 import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.WriteRequest;
 import com.amazonaws.util.StringUtils;
@@ -46,13 +47,17 @@ import com.amazonaws.util.StringUtils;
 import org.easymock.Capture;
 import org.easymock.CaptureType;
 import org.easymock.EasyMock;
+import org.easymock.IAnswer;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class DynamoDBMapperTest {
 
@@ -147,6 +152,7 @@ public class DynamoDBMapperTest {
         EasyMock.reset(mockResult);
         EasyMock.expect(mockResult.getUnprocessedItems()).andReturn(
                 new HashMap<String, List<WriteRequest>>()).times(2);
+        EasyMock.expect(mockResult.getConsumedCapacity()).andReturn(null).anyTimes();
         // Will cause batches to be split and re-tried
         EasyMock.expect(mockClient.batchWriteItem(anyObject(BatchWriteItemRequest.class)))
                 .andThrow(ase);
@@ -156,11 +162,63 @@ public class DynamoDBMapperTest {
                 .andReturn(mockResult);
         EasyMock.replay(mockClient, mockResult);
 
-        List<FailedBatch> result = mapper.writeOneBatch(batchMap);
+        List<FailedBatch> result = mapper.writeBatches(batchMap);
         assertEquals(result.size(), 0);
         EasyMock.verify(mockClient);
     }
 
+    @Test
+    public void testWriteBatchesRequeuesUnprocessedItems() {
+        Map<String, List<WriteRequest>> batchMap = new HashMap<String, List<WriteRequest>>();
+        List<WriteRequest> batchList = new ArrayList<WriteRequest>();
+        for (int i = 0; i < 30; i++) {
+            batchList.add(new WriteRequest().withPutRequest(new PutRequest().withItem(
+                    Collections.singletonMap("id", new AttributeValue().withS("id" + i)))));
+        }
+        batchMap.put("testTable", batchList);
+        final WriteRequest unprocessed = batchList.get(0);
+
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<WriteRequest> written = Collections.synchronizedList(new ArrayList<WriteRequest>());
+        EasyMock.reset(mockClient);
+        EasyMock.expect(mockClient.batchWriteItem(anyObject(BatchWriteItemRequest.class)))
+                .andAnswer(new IAnswer<BatchWriteItemResult>() {
+                    private boolean throttled;
+
+                    @Override
+                    public BatchWriteItemResult answer() {
+                        BatchWriteItemRequest request =
+                                (BatchWriteItemRequest) EasyMock.getCurrentArguments()[0];
+                        List<WriteRequest> requests = request.getRequestItems().get("testTable");
+                        batchSizes.add(requests.size());
+                        BatchWriteItemResult result = new BatchWriteItemResult()
+                                .withUnprocessedItems(new HashMap<String, List<WriteRequest>>());
+                        synchronized (this) {
+                            if (!throttled && requests.contains(unprocessed)) {
+                                // the first item isn't written the first time
+                                throttled = true;
+                                result.getUnprocessedItems().put("testTable",
+                                        Collections.singletonList(unprocessed));
+                                written.addAll(requests.subList(1, requests.size()));
+                                return result;
+                            }
+                        }
+                        written.addAll(requests);
+                        return result;
+                    }
+                }).times(3);
+        EasyMock.replay(mockClient);
+
+        List<FailedBatch> result = mapper.writeBatches(batchMap);
+        assertEquals(0, result.size());
+        assertEquals(30, written.size());
+        assertTrue(written.containsAll(batchList));
+        for (int size : batchSizes) {
+            assertTrue(size <= DynamoDBMapper.MAX_ITEMS_PER_BATCH);
+        }
+        EasyMock.verify(mockClient);
+    }
+
     @Test
     public void testBatchLoadRetiresForUnprocessedItems() {
         List<Object> itemsToGet = new ArrayList<Object>();
@@ -352,6 +410,49 @@ public class DynamoDBMapperTest {
         assertEquals(result.keySet().size(), 0);
     }
 
+    @Test
+    public void testBatchLoadDeduplicatesKeys() {
+        List<Object> itemsToGet = new ArrayList<Object>();
+        for (int i = 0; i < 250; i++) {
+            itemsToGet.add(new MockDifferentTableName("id" + (i % 200), null));
+        }
+        final String tableName = "aws-android-sdk-dynamodbmapper-test-different-table";
+
+        final Set<Map<String, AttributeValue>> requestedKeys = Collections
+                .synchronizedSet(new HashSet<Map<String, AttributeValue>>());
+        EasyMock.reset(mockClient);
+        EasyMock.expect(mockClient.batchGetItem(anyObject(BatchGetItemRequest.class)))
+                .andAnswer(new IAnswer<BatchGetItemResult>() {
+                    @Override
+                    public BatchGetItemResult answer() {
+                        BatchGetItemRequest request =
+                                (BatchGetItemRequest) EasyMock.getCurrentArguments()[0];
+                        List<Map<String, AttributeValue>> keys =
+                                request.getRequestItems().get(tableName).getKeys();
+                        assertEquals(100, keys.size());
+                        for (Map<String, AttributeValue> key : keys) {
+                            assertTrue(requestedKeys.add(key));
+                        }
+                        return new BatchGetItemResult().withResponses(
+                                Collections.singletonMap(tableName, keys));
+                    }
+                }).times(2);
+        EasyMock.replay(mockClient);
+
+        final List<Object> loaded = new ArrayList<Object>();
+        mapper.batchLoad(itemsToGet, null, new DynamoDBMapper.BatchLoadCallback() {
+            @Override
+            public void onItemsLoaded(String table, List<Object> items) {
+                assertEquals(tableName, table);
+                loaded.addAll(items);
+            }
+        });
+
+        EasyMock.verify(mockClient);
+        assertEquals(200, requestedKeys.size());
+        assertEquals(200, loaded.size());
+    }
+
     @Test
     public void testCreateScanRequestFromExpression() {
 
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper.DynamoDBMapperConfig.PaginationLoadingStrategy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PaginatedListTest {
+
+    @Test
+    public void testPrefetchLoadingReturnsPagesInOrder() {
+        final PagedList list = new PagedList(PaginationLoadingStrategy.PREFETCH_LOADING, 10, 7);
+        int expected = 0;
+        for (final Integer item : list) {
+            assertEquals(expected++, item.intValue());
+        }
+        assertEquals(70, expected);
+        assertEquals(70, list.size());
+        assertEquals(69, list.get(69).intValue());
+    }
+
+    @Test
+    public void testPrefetchLoadingFetchesAheadOfConsumer() throws InterruptedException {
+        final PagedList list = new PagedList(PaginationLoadingStrategy.PREFETCH_LOADING, 20, 1);
+        list.iterator();
+
+        // Pages are fetched without being asked for, up to the limit
+        assertTrue(list.fetched.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1 + PaginatedList.PREFETCH_PAGE_COUNT, list.pagesFetched());
+
+        final PagedList lazyList = new PagedList(PaginationLoadingStrategy.LAZY_LOADING, 20, 1);
+        lazyList.iterator();
+        Thread.sleep(100);
+        assertEquals(1, lazyList.pagesFetched());
+    }
+
+    @Test
+    public void testPrefetchLoadingRethrowsFailure() {
+        final PagedList list = new PagedList(PaginationLoadingStrategy.PREFETCH_LOADING, 5, 2);
+        list.failAtPage = 3;
+        int count = 0;
+        try {
+            for (final Integer item : list) {
+                count++;
+            }
+            fail("expected failure");
+        } catch (final IllegalStateException e) {
+            assertEquals(6, count);
+        }
+
+        // The failed page is fetched again
+        list.failAtPage = -1;
+        assertEquals(10, list.size());
+    }
+
+    /**
+     * A list of consecutive integers served in pages.
+     */
+    private static final class PagedList extends PaginatedList<Integer> {
+        private final int pageCount;
+        private final int pageSize;
+        private final CountDownLatch fetched;
+        private int nextPage = 1;
+        volatile int failAtPage = -1;
+
+        PagedList(PaginationLoadingStrategy strategy, int pageCount, int pageSize) {
+            super(null, Integer.class, null, strategy);
+            this.pageCount = pageCount;
+            this.pageSize = pageSize;
+            this.fetched = new CountDownLatch(PaginatedList.PREFETCH_PAGE_COUNT);
+            allResults.addAll(page(0));
+        }
+
+        synchronized int pagesFetched() {
+            return nextPage;
+        }
+
+        @Override
+        protected synchronized boolean atEndOfResults() {
+            return nextPage == pageCount;
+        }
+
+        @Override
+        protected synchronized List<Integer> fetchNextPage() {
+            if (nextPage == failAtPage) {
+                throw new IllegalStateException("page " + nextPage);
+            }
+            fetched.countDown();
+            return page(nextPage++);
+        }
+
+        private List<Integer> page(int page) {
+            final List<Integer> items = new ArrayList<Integer>();
+            for (int i = 0; i < pageSize; i++) {
+                items.add(page * pageSize + i);
+            }
+            return items;
+        }
+    }
+}
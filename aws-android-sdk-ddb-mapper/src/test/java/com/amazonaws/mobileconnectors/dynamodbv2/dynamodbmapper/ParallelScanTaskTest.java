@@ -16,6 +16,7 @@
 package com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -149,30 +150,25 @@ public class ParallelScanTaskTest {
 
         ParallelScanTask testTask = new ParallelScanTask(mockClient, list);
 
-        EasyMock.expect(mockClient.scan(scan1)).andReturn(resultWithMoreData);
+        EasyMock.expect(mockClient.scan(scan1)).andReturn(resultWithMoreData)
+                .andReturn(result2NoMoreData);
         EasyMock.expect(mockClient.scan(scan2)).andReturn(result2NoMoreData);
         EasyMock.replay(mockClient);
 
-        List<ScanResult> firstBatch = testTask.getNextBatchOfScanResults();
-        EasyMock.verify(mockClient);
-        assertEquals(firstBatch.size(), 2);
-        assertTrue(firstBatch.contains(resultWithMoreData));
-        assertTrue(firstBatch.contains(result2NoMoreData));
-
-        EasyMock.reset(mockClient);
-        EasyMock.expect(mockClient.scan(scan1)).andReturn(result2NoMoreData);
-        EasyMock.replay(mockClient);
-
-        List<ScanResult> secondBatch = testTask.getNextBatchOfScanResults();
+        // Segments are not scanned in lockstep, a batch holds the pages
+        // scanned since the previous one
+        List<ScanResult> allResults = new ArrayList<ScanResult>();
+        while (!testTask.isAllSegmentScanFinished()) {
+            List<ScanResult> batch = testTask.getNextBatchOfScanResults();
+            assertFalse(batch.isEmpty());
+            allResults.addAll(batch);
+        }
 
         EasyMock.verify(mockClient);
-
-        // Odd behavior that it doesn't just returna list of size one. But the
-        // existing code just returns the same size list with null entries for
-        // completed results
-        assertEquals(secondBatch.size(), 2);
-        assertEquals(secondBatch.get(0), result2NoMoreData);
-        assertNull(secondBatch.get(1));
+        assertEquals(allResults.size(), 3);
+        assertTrue(allResults.contains(resultWithMoreData));
+        assertTrue(allResults.contains(result2NoMoreData));
+        assertTrue(testTask.getNextBatchOfScanResults().isEmpty());
     }
 
     @Test
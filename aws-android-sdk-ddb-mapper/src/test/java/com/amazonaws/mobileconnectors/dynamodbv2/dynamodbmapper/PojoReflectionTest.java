@@ -16,6 +16,8 @@
 package com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -415,6 +417,29 @@ public class PojoReflectionTest {
                 reflector.getPrimaryRangeKeyName(TablePojoSubclass.class));
     }
 
+    @Test
+    public void testHashKeyOnlyProperties() {
+        for (int i = 0; i < 2; i++) {
+            assertNull(reflector.getPrimaryRangeKeyGetter(HashKeyOnlyPojo.class));
+            assertFalse(reflector.hasPrimaryRangeKey(HashKeyOnlyPojo.class));
+            assertEquals("hashKey", reflector.getPrimaryHashKeyName(HashKeyOnlyPojo.class));
+        }
+    }
+
+    @DynamoDBTable(tableName = "table")
+    private static class HashKeyOnlyPojo {
+        private String hashKey;
+
+        @DynamoDBHashKey
+        public String getHashKey() {
+            return hashKey;
+        }
+
+        public void setHashKey(String hashKey) {
+            this.hashKey = hashKey;
+        }
+    }
+
     @DynamoDBTable(tableName = "table")
     private static class BaseTablePojo {
         @DynamoDBHashKey
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.dynamodbv2.dynamodbmapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class StandardItemConverterTest {
+
+    private final ItemConverter converter = ConversionSchemas.V2
+            .getConverter(new ConversionSchema.Dependencies());
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            final Item item = new Item();
+            item.setId("id" + i);
+            item.setCount(i);
+
+            final Map<String, AttributeValue> values = converter.convert(item);
+            assertEquals(3, values.size());
+            assertEquals("id" + i, values.get("id").getS());
+            assertEquals(String.valueOf(i), values.get("count").getN());
+            assertEquals("id" + i + "-" + i, values.get("summary").getS());
+
+            // summary is read only
+            values.remove("summary");
+            final Item copy = converter.unconvert(Item.class, values);
+            assertEquals(item.getId(), copy.getId());
+            assertEquals(item.getCount(), copy.getCount());
+        }
+
+        assertEquals(new AttributeValue().withN("5"),
+                converter.convert(Item.class.getMethod("getCount"), 5));
+        assertEquals(5, converter.unconvert(Item.class.getMethod("getCount"),
+                Item.class.getMethod("setCount", int.class), new AttributeValue().withN("5")));
+        assertSame(converter.getFieldModel(Item.class.getMethod("getCount")).getDynamoDBAttributeType(),
+                DynamoDBMapperFieldModel.DynamoDBAttributeType.N);
+    }
+
+    @Test
+    public void testPropertyWithoutSetterOnlyFailsWhenUnconverted() {
+        final Map<String, AttributeValue> values = new HashMap<String, AttributeValue>();
+        values.put("id", new AttributeValue("id"));
+        values.put("count", new AttributeValue().withN("1"));
+
+        final Item item = converter.unconvert(Item.class, values);
+        assertEquals("id", item.getId());
+        assertNull(item.getStoredSummary());
+
+        values.put("summary", new AttributeValue("summary"));
+        try {
+            converter.unconvert(Item.class, values);
+            fail("expected DynamoDBMappingException");
+        } catch (final DynamoDBMappingException e) {
+            // expected, there is no setSummary
+        }
+    }
+
+    @DynamoDBTable(tableName = "table")
+    public static class Item {
+        private String id;
+        private int count;
+
+        @DynamoDBHashKey
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getSummary() {
+            return id + "-" + count;
+        }
+
+        @DynamoDBIgnore
+        public String getStoredSummary() {
+            return null;
+        }
+    }
+}
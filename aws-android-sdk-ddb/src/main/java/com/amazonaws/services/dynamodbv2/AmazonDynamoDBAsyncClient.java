@@ -27,8 +27,11 @@ import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.http.AsyncHttpClient;
+import com.amazonaws.http.HttpClient;
 
 import com.amazonaws.services.dynamodbv2.model.*;
+import com.amazonaws.services.dynamodbv2.model.transform.*;
 
 /**
  * Interface for accessing Amazon DynamoDB asynchronously. <fullname>Amazon
@@ -55,6 +58,12 @@ import com.amazonaws.services.dynamodbv2.model.*;
  * across multiple Availability Zones in an AWS region, providing built-in high
  * availability and data durability.
  * </p>
+ * <p>
+ * The item, query, scan and batch operations don't hold a thread of the
+ * executor service while they wait before a retry, and, with an
+ * {@link AsyncHttpClient}, while they are on the wire. The other operations
+ * run on a thread of the executor service until they complete.
+ * </p>
  **/
 public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements AmazonDynamoDBAsync {
 
@@ -251,6 +260,31 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
         this.executorService = executorService;
     }
 
+    /**
+     * Constructs a new asynchronous client to invoke service methods on Amazon
+     * DynamoDB using the specified AWS account credentials provider, client
+     * configuration options, HTTP client and executor service.
+     * <p>
+     * All calls made using this new client object are non-blocking, and will
+     * immediately return a Java Future object that the caller can later check
+     * to see if the service call has actually completed.
+     *
+     * @param awsCredentialsProvider The AWS credentials provider which will
+     *            provide credentials to authenticate requests with AWS
+     *            services.
+     * @param clientConfiguration Client configuration options (ex: max retry
+     *            limit, proxy settings, etc).
+     * @param httpClient A http client
+     * @param executorService The executor service by which all asynchronous
+     *            requests will be executed.
+     */
+    public AmazonDynamoDBAsyncClient(AWSCredentialsProvider awsCredentialsProvider,
+            ClientConfiguration clientConfiguration, HttpClient httpClient,
+            ExecutorService executorService) {
+        super(awsCredentialsProvider, clientConfiguration, httpClient);
+        this.executorService = executorService;
+    }
+
     /**
      * Returns the executor service used by this async client to execute
      * requests.
@@ -375,11 +409,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public Future<BatchGetItemResult> batchGetItemAsync(
             final BatchGetItemRequest batchGetItemRequest) throws AmazonServiceException,
             AmazonClientException {
-        return executorService.submit(new Callable<BatchGetItemResult>() {
-            public BatchGetItemResult call() throws Exception {
-                return batchGetItem(batchGetItemRequest);
-            }
-        });
+        return invokeAsync(batchGetItemRequest, new BatchGetItemRequestMarshaller(),
+                new BatchGetItemResultJsonUnmarshaller(), executorService, null);
     }
 
     /**
@@ -483,19 +514,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
             final BatchGetItemRequest batchGetItemRequest,
             final AsyncHandler<BatchGetItemRequest, BatchGetItemResult> asyncHandler)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<BatchGetItemResult>() {
-            public BatchGetItemResult call() throws Exception {
-                BatchGetItemResult result = null;
-                try {
-                    result = batchGetItem(batchGetItemRequest);
-                } catch (Exception ex) {
-                    asyncHandler.onError(ex);
-                    throw ex;
-                }
-                asyncHandler.onSuccess(batchGetItemRequest, result);
-                return result;
-            }
-        });
+        return invokeAsync(batchGetItemRequest, new BatchGetItemRequestMarshaller(),
+                new BatchGetItemResultJsonUnmarshaller(), executorService, asyncHandler);
     }
 
     /**
@@ -641,11 +661,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public Future<BatchWriteItemResult> batchWriteItemAsync(
             final BatchWriteItemRequest batchWriteItemRequest) throws AmazonServiceException,
             AmazonClientException {
-        return executorService.submit(new Callable<BatchWriteItemResult>() {
-            public BatchWriteItemResult call() throws Exception {
-                return batchWriteItem(batchWriteItemRequest);
-            }
-        });
+        return invokeAsync(batchWriteItemRequest, new BatchWriteItemRequestMarshaller(),
+                new BatchWriteItemResultJsonUnmarshaller(), executorService, null);
     }
 
     /**
@@ -792,19 +809,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
             final BatchWriteItemRequest batchWriteItemRequest,
             final AsyncHandler<BatchWriteItemRequest, BatchWriteItemResult> asyncHandler)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<BatchWriteItemResult>() {
-            public BatchWriteItemResult call() throws Exception {
-                BatchWriteItemResult result = null;
-                try {
-                    result = batchWriteItem(batchWriteItemRequest);
-                } catch (Exception ex) {
-                    asyncHandler.onError(ex);
-                    throw ex;
-                }
-                asyncHandler.onSuccess(batchWriteItemRequest, result);
-                return result;
-            }
-        });
+        return invokeAsync(batchWriteItemRequest, new BatchWriteItemRequestMarshaller(),
+                new BatchWriteItemResultJsonUnmarshaller(), executorService, asyncHandler);
     }
 
     /**
@@ -1405,11 +1411,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
      */
     public Future<DeleteItemResult> deleteItemAsync(final DeleteItemRequest deleteItemRequest)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<DeleteItemResult>() {
-            public DeleteItemResult call() throws Exception {
-                return deleteItem(deleteItemRequest);
-            }
-        });
+        return invokeAsync(deleteItemRequest, new DeleteItemRequestMarshaller(),
+                new DeleteItemResultJsonUnmarshaller(), executorService, null);
     }
 
     /**
@@ -1455,19 +1458,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public Future<DeleteItemResult> deleteItemAsync(final DeleteItemRequest deleteItemRequest,
             final AsyncHandler<DeleteItemRequest, DeleteItemResult> asyncHandler)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<DeleteItemResult>() {
-            public DeleteItemResult call() throws Exception {
-                DeleteItemResult result = null;
-                try {
-                    result = deleteItem(deleteItemRequest);
-                } catch (Exception ex) {
-                    asyncHandler.onError(ex);
-                    throw ex;
-                }
-                asyncHandler.onSuccess(deleteItemRequest, result);
-                return result;
-            }
-        });
+        return invokeAsync(deleteItemRequest, new DeleteItemRequestMarshaller(),
+                new DeleteItemResultJsonUnmarshaller(), executorService, asyncHandler);
     }
 
     /**
@@ -2426,11 +2418,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
      */
     public Future<GetItemResult> getItemAsync(final GetItemRequest getItemRequest)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<GetItemResult>() {
-            public GetItemResult call() throws Exception {
-                return getItem(getItemRequest);
-            }
-        });
+        return invokeAsync(getItemRequest, new GetItemRequestMarshaller(),
+                new GetItemResultJsonUnmarshaller(), executorService, null);
     }
 
     /**
@@ -2467,19 +2456,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public Future<GetItemResult> getItemAsync(final GetItemRequest getItemRequest,
             final AsyncHandler<GetItemRequest, GetItemResult> asyncHandler)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<GetItemResult>() {
-            public GetItemResult call() throws Exception {
-                GetItemResult result = null;
-                try {
-                    result = getItem(getItemRequest);
-                } catch (Exception ex) {
-                    asyncHandler.onError(ex);
-                    throw ex;
-                }
-                asyncHandler.onSuccess(getItemRequest, result);
-                return result;
-            }
-        });
+        return invokeAsync(getItemRequest, new GetItemRequestMarshaller(),
+                new GetItemResultJsonUnmarshaller(), executorService, asyncHandler);
     }
 
     /**
@@ -2906,11 +2884,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
      */
     public Future<PutItemResult> putItemAsync(final PutItemRequest putItemRequest)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<PutItemResult>() {
-            public PutItemResult call() throws Exception {
-                return putItem(putItemRequest);
-            }
-        });
+        return invokeAsync(putItemRequest, new PutItemRequestMarshaller(),
+                new PutItemResultJsonUnmarshaller(), executorService, null);
     }
 
     /**
@@ -3042,19 +3017,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public Future<PutItemResult> putItemAsync(final PutItemRequest putItemRequest,
             final AsyncHandler<PutItemRequest, PutItemResult> asyncHandler)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<PutItemResult>() {
-            public PutItemResult call() throws Exception {
-                PutItemResult result = null;
-                try {
-                    result = putItem(putItemRequest);
-                } catch (Exception ex) {
-                    asyncHandler.onError(ex);
-                    throw ex;
-                }
-                asyncHandler.onSuccess(putItemRequest, result);
-                return result;
-            }
-        });
+        return invokeAsync(putItemRequest, new PutItemRequestMarshaller(),
+                new PutItemResultJsonUnmarshaller(), executorService, asyncHandler);
     }
 
     /**
@@ -3150,11 +3114,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
      */
     public Future<QueryResult> queryAsync(final QueryRequest queryRequest)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<QueryResult>() {
-            public QueryResult call() throws Exception {
-                return query(queryRequest);
-            }
-        });
+        return invokeAsync(queryRequest, new QueryRequestMarshaller(),
+                new QueryResultJsonUnmarshaller(), executorService, null);
     }
 
     /**
@@ -3251,19 +3212,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public Future<QueryResult> queryAsync(final QueryRequest queryRequest,
             final AsyncHandler<QueryRequest, QueryResult> asyncHandler)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<QueryResult>() {
-            public QueryResult call() throws Exception {
-                QueryResult result = null;
-                try {
-                    result = query(queryRequest);
-                } catch (Exception ex) {
-                    asyncHandler.onError(ex);
-                    throw ex;
-                }
-                asyncHandler.onSuccess(queryRequest, result);
-                return result;
-            }
-        });
+        return invokeAsync(queryRequest, new QueryRequestMarshaller(),
+                new QueryResultJsonUnmarshaller(), executorService, asyncHandler);
     }
 
     /**
@@ -3721,11 +3671,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
      */
     public Future<ScanResult> scanAsync(final ScanRequest scanRequest)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<ScanResult>() {
-            public ScanResult call() throws Exception {
-                return scan(scanRequest);
-            }
-        });
+        return invokeAsync(scanRequest, new ScanRequestMarshaller(),
+                new ScanResultJsonUnmarshaller(), executorService, null);
     }
 
     /**
@@ -3790,19 +3737,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public Future<ScanResult> scanAsync(final ScanRequest scanRequest,
             final AsyncHandler<ScanRequest, ScanResult> asyncHandler)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<ScanResult>() {
-            public ScanResult call() throws Exception {
-                ScanResult result = null;
-                try {
-                    result = scan(scanRequest);
-                } catch (Exception ex) {
-                    asyncHandler.onError(ex);
-                    throw ex;
-                }
-                asyncHandler.onSuccess(scanRequest, result);
-                return result;
-            }
-        });
+        return invokeAsync(scanRequest, new ScanRequestMarshaller(),
+                new ScanResultJsonUnmarshaller(), executorService, asyncHandler);
     }
 
     /**
@@ -4320,11 +4256,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
      */
     public Future<UpdateItemResult> updateItemAsync(final UpdateItemRequest updateItemRequest)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<UpdateItemResult>() {
-            public UpdateItemResult call() throws Exception {
-                return updateItem(updateItemRequest);
-            }
-        });
+        return invokeAsync(updateItemRequest, new UpdateItemRequestMarshaller(),
+                new UpdateItemResultJsonUnmarshaller(), executorService, null);
     }
 
     /**
@@ -4362,19 +4295,8 @@ public class AmazonDynamoDBAsyncClient extends AmazonDynamoDBClient implements A
     public Future<UpdateItemResult> updateItemAsync(final UpdateItemRequest updateItemRequest,
             final AsyncHandler<UpdateItemRequest, UpdateItemResult> asyncHandler)
             throws AmazonServiceException, AmazonClientException {
-        return executorService.submit(new Callable<UpdateItemResult>() {
-            public UpdateItemResult call() throws Exception {
-                UpdateItemResult result = null;
-                try {
-                    result = updateItem(updateItemRequest);
-                } catch (Exception ex) {
-                    asyncHandler.onError(ex);
-                    throw ex;
-                }
-                asyncHandler.onSuccess(updateItemRequest, result);
-                return result;
-            }
-        });
+        return invokeAsync(updateItemRequest, new UpdateItemRequestMarshaller(),
+                new UpdateItemResultJsonUnmarshaller(), executorService, asyncHandler);
     }
 
     /**
@@ -16,6 +16,11 @@
 package com.amazonaws.services.dynamodbv2;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.amazonaws.*;
 import com.amazonaws.auth.*;
@@ -5258,4 +5263,116 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
                 errorResponseHandler, executionContext);
         return result;
     }
+
+    /**
+     * Sends the request with
+     * {@link AmazonHttpClient#executeAsync(Request, HttpResponseHandler, HttpResponseHandler, ExecutionContext, AWSCredentialsProvider, Executor, AsyncHandler)}
+     * . The request is marshalled on the calling thread; the credentials are
+     * retrieved and the request sent on the executor.
+     */
+    <X, Y extends AmazonWebServiceRequest> Future<X> invokeAsync(final Y originalRequest,
+            Marshaller<Request<Y>, Y> marshaller,
+            Unmarshaller<X, JsonUnmarshallerContext> unmarshaller,
+            Executor executor, final AsyncHandler<Y, X> asyncHandler) {
+        ExecutionContext executionContext = createExecutionContext(originalRequest);
+        final AWSRequestMetrics awsRequestMetrics = executionContext.getAwsRequestMetrics();
+        awsRequestMetrics.startEvent(Field.ClientExecuteTime);
+        Request<Y> request = null;
+        boolean sent = false;
+        try {
+            awsRequestMetrics.startEvent(Field.RequestMarshallTime);
+            try {
+                request = marshaller.marshall(originalRequest);
+                // Binds the request metrics to the current request.
+                request.setAWSRequestMetrics(awsRequestMetrics);
+            } catch (AmazonClientException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new AmazonClientException("Unable to marshall request: "
+                        + e.getMessage(), e);
+            } finally {
+                awsRequestMetrics.endEvent(Field.RequestMarshallTime);
+            }
+            request.setEndpoint(endpoint);
+            request.setTimeOffset(timeOffset);
+
+            AWSCredentialsProvider credentialsProvider = awsCredentialsProvider;
+            if (originalRequest.getRequestCredentials() != null) {
+                executionContext.setCredentials(originalRequest.getRequestCredentials());
+                credentialsProvider = null;
+            }
+            final Request<Y> sentRequest = request;
+            Future<Response<X>> future = client.executeAsync(request,
+                    new JsonResponseHandler<X>(unmarshaller),
+                    new JsonErrorResponseHandler(jsonErrorUnmarshallers),
+                    executionContext, credentialsProvider, executor,
+                    new AsyncHandler<AmazonWebServiceRequest, Response<X>>() {
+                        @Override
+                        public void onError(Exception exception) {
+                            endClientExecution(awsRequestMetrics, sentRequest, null,
+                                    LOGGING_AWS_REQUEST_METRIC);
+                            if (asyncHandler != null) {
+                                asyncHandler.onError(exception);
+                            }
+                        }
+
+                        @Override
+                        public void onSuccess(AmazonWebServiceRequest request,
+                                Response<X> response) {
+                            endClientExecution(awsRequestMetrics, sentRequest, response,
+                                    LOGGING_AWS_REQUEST_METRIC);
+                            if (asyncHandler != null) {
+                                asyncHandler.onSuccess(originalRequest,
+                                        response.getAwsResponse());
+                            }
+                        }
+                    });
+            sent = true;
+            return new ResultFuture<X>(future);
+        } finally {
+            if (!sent) {
+                awsRequestMetrics.endEvent(Field.ClientExecuteTime);
+                endClientExecution(awsRequestMetrics, request, null, LOGGING_AWS_REQUEST_METRIC);
+            }
+        }
+    }
+
+    /**
+     * The future of the result of a request sent by invokeAsync.
+     *
+     * @param <X> the result type.
+     */
+    private static final class ResultFuture<X> implements Future<X> {
+        private final Future<Response<X>> responseFuture;
+
+        ResultFuture(Future<Response<X>> responseFuture) {
+            this.responseFuture = responseFuture;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return responseFuture.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return responseFuture.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return responseFuture.isDone();
+        }
+
+        @Override
+        public X get() throws InterruptedException, ExecutionException {
+            return responseFuture.get().getAwsResponse();
+        }
+
+        @Override
+        public X get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            return responseFuture.get(timeout, unit).getAwsResponse();
+        }
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.dynamodbv2;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.http.HttpClient;
+import com.amazonaws.http.HttpRequest;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.regions.Region;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AmazonDynamoDBAsyncClientTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final String ITEM =
+            "{\"Item\":{\"id\":{\"S\":\"1\"},\"name\":{\"S\":\"item\"}}}";
+    private static final String THROTTLED = "{\"__type\":"
+            + "\"com.amazonaws.dynamodb.v20120810#ProvisionedThroughputExceededException\","
+            + "\"message\":\"throttled\"}";
+    private static final String INVALID = "{\"__type\":"
+            + "\"com.amazon.coral.validate#ValidationException\","
+            + "\"message\":\"invalid key\"}";
+
+    private ExecutorService executor;
+    private QueuedHttpClient httpClient;
+    private RecordingCredentialsProvider credentialsProvider;
+    private AmazonDynamoDBAsyncClient client;
+
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                final Thread thread = new Thread(r, "DynamoDBAsyncTest");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        httpClient = new QueuedHttpClient();
+        credentialsProvider = new RecordingCredentialsProvider();
+        client = new AmazonDynamoDBAsyncClient(credentialsProvider, new ClientConfiguration(),
+                httpClient, executor);
+        client.setRegion(Region.getRegion(Regions.US_EAST_1));
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGetItemRetriedOnExecutor() throws Exception {
+        httpClient.responses.add(response(400, THROTTLED));
+        httpClient.responses.add(response(200, ITEM));
+        final AtomicReference<GetItemResult> handledResult = new AtomicReference<GetItemResult>();
+        final GetItemRequest request = newGetItemRequest();
+
+        final Future<GetItemResult> future = client.getItemAsync(request,
+                new AsyncHandler<GetItemRequest, GetItemResult>() {
+                    @Override
+                    public void onError(Exception exception) {
+                        fail("The request is expected to succeed.");
+                    }
+
+                    @Override
+                    public void onSuccess(GetItemRequest handledRequest, GetItemResult result) {
+                        assertSame(request, handledRequest);
+                        handledResult.set(result);
+                    }
+                });
+        final GetItemResult result = future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals("item", result.getItem().get("name").getS());
+        assertEquals(2, httpClient.requestCount);
+        assertEquals("DynamoDB_20120810.GetItem", httpClient.target);
+        assertTrue(httpClient.authorization.startsWith("AWS4-HMAC-SHA256 Credential=accessKey/"));
+        // the credentials are retrieved on the executor, not by the caller
+        assertEquals(1, credentialsProvider.callCount);
+        assertNotSame(Thread.currentThread(), credentialsProvider.thread);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertSame(result, handledResult.get());
+    }
+
+    @Test
+    public void testGetItemFailure() throws Exception {
+        httpClient.responses.add(response(400, INVALID));
+        final AtomicReference<Exception> handledException = new AtomicReference<Exception>();
+
+        final Future<GetItemResult> future = client.getItemAsync(newGetItemRequest(),
+                new AsyncHandler<GetItemRequest, GetItemResult>() {
+                    @Override
+                    public void onError(Exception exception) {
+                        handledException.set(exception);
+                    }
+
+                    @Override
+                    public void onSuccess(GetItemRequest request, GetItemResult result) {
+                        fail("The request is expected to fail.");
+                    }
+                });
+        try {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("AmazonServiceException is expected.");
+        } catch (final ExecutionException e) {
+            final AmazonServiceException ase = (AmazonServiceException) e.getCause();
+            assertEquals("ValidationException", ase.getErrorCode());
+            assertEquals(400, ase.getStatusCode());
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertSame(ase, handledException.get());
+        }
+        assertEquals(1, httpClient.requestCount);
+    }
+
+    private static GetItemRequest newGetItemRequest() {
+        return new GetItemRequest("table",
+                Collections.singletonMap("id", new AttributeValue("1")));
+    }
+
+    private static HttpResponse response(int statusCode, String body) {
+        return HttpResponse.builder()
+                .statusCode(statusCode)
+                .statusText(statusCode == 200 ? "OK" : "Bad Request")
+                .header("Content-Type", "application/x-amz-json-1.0")
+                .content(new ByteArrayInputStream(body.getBytes()))
+                .build();
+    }
+
+    /**
+     * An HttpClient which returns the queued responses in order.
+     */
+    private static class QueuedHttpClient implements HttpClient {
+        private final Queue<HttpResponse> responses = new LinkedList<HttpResponse>();
+        private volatile int requestCount;
+        private volatile String target;
+        private volatile String authorization;
+
+        @Override
+        public synchronized HttpResponse execute(HttpRequest request) {
+            requestCount++;
+            target = request.getHeaders().get("X-Amz-Target");
+            authorization = request.getHeaders().get("Authorization");
+            return responses.remove();
+        }
+
+        @Override
+        public void shutdown() {
+            // No op
+        }
+    }
+
+    /**
+     * A credentials provider which records the thread it's called on.
+     */
+    private static class RecordingCredentialsProvider implements AWSCredentialsProvider {
+        private volatile int callCount;
+        private volatile Thread thread;
+
+        @Override
+        public synchronized AWSCredentials getCredentials() {
+            callCount++;
+            thread = Thread.currentThread();
+            return new BasicAWSCredentials("accessKey", "secretKey");
+        }
+
+        @Override
+        public void refresh() {
+            // No op
+        }
+    }
+}
@@ -41,16 +41,24 @@ import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 
+import java.io.File;
+import java.io.IOException;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.UnrecoverableKeyException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.Map;
 
 import javax.net.SocketFactory;
@@ -86,6 +94,8 @@ public class AWSIotMqttManager {
     public static final Integer DEFAULT_OFFLINE_PUBLISH_QUEUE_BOUND = 100;
     /** Constant for milliseconds between queue publishes. */
     private static final Long DEFAULT_MILLIS_BETWEEN_QUEUE_PUBLISHES = 250L;
+    /** Failed publishes of a queued message in the draining window before it is dropped. */
+    private static final int MAX_QUEUED_MESSAGE_PUBLISH_FAILURES = 3;
     /** Default value for "connection established" hysteresis timer. */
     private static final Integer DEFAULT_CONNECTION_STABILITY_TIME_SECONDS = 10;
 
@@ -120,10 +130,14 @@ public class AWSIotMqttManager {
      */
     private AWSIotMqttClientStatusCallback userStatusCallback;
     /**
-     * MQTT subscriptions. Used when resubscribing after a reconnect. Also used
-     * to proved per-topic message arrived callbacks.
+     * MQTT subscriptions. Used when resubscribing after a reconnect.
      */
     private final Map<String, AWSIotMqttTopic> topicListeners;
+    /**
+     * MQTT subscriptions indexed by topic filter. Used to provide per-topic
+     * message arrived callbacks.
+     */
+    private final AWSIotMqttTopicIndex topicIndex;
     /**
      * Queue for messages attempted to publish while MQTT client was offline.
      * Republished upon reconnect.
@@ -156,8 +170,34 @@ public class AWSIotMqttManager {
     private Integer offlinePublishQueueBound;
     /** Full queue behavior (keep oldest or keep newest)? */
     private boolean fullQueueKeepsOldest;
+    /** Offline publish queue bound in bytes of topics and payloads, null if unbounded. */
+    private Long offlinePublishQueueByteBound;
+    /** Bytes of topics and payloads in the offline publish queue. */
+    private long offlinePublishQueueBytes;
+    /** Directory of the persistent offline publish queue, null if kept in memory only. */
+    private File offlinePublishQueueDirectory;
+    /** Disk copy of the offline publish queue, null if kept in memory only. */
+    private AWSIotMqttOfflineQueueStore offlinePublishQueueStore;
+    /** Directories whose persisted messages were loaded into the offline publish queue. */
+    private final Set<File> loadedOfflinePublishQueueDirectories = new HashSet<File>();
     /** Milliseconds between publishes when publishing queued messages (draining interval). */
     private long drainingInterval;
+    /**
+     * Max queued messages in flight when publishing queued messages (draining window).
+     * 0 publishes one message per draining interval.
+     */
+    private int drainingWindow;
+    /** Queued messages published and not yet completed while draining. */
+    private final AtomicInteger drainingInFlight = new AtomicInteger();
+    /** Held while publishing queued messages in the draining window. */
+    private final Object drainingLock = new Object();
+    /**
+     * Incremented when the draining window is reset on connecting, so that
+     * completions of messages published before are told apart.
+     */
+    private int drainingGeneration;
+    /** Is publishing queued messages again after a failure already scheduled? */
+    private final AtomicBoolean drainingRetryScheduled = new AtomicBoolean();
     /** Was this disconnect requested by the user? */
     private boolean userDisconnect;
     /** Do we need to resubscribe upon reconnecting? */
@@ -502,6 +542,95 @@ public class AWSIotMqttManager {
         offlinePublishQueueBound = bound;
     }
 
+    /**
+     * Get the current value of the offline message queue bound in bytes.
+     *
+     * @return max number of topic and payload bytes stored in the message
+     *         queue, null if unbounded.
+     */
+    public Long getOfflinePublishQueueByteBound() {
+        return offlinePublishQueueByteBound;
+    }
+
+    /**
+     * Set the bound for the bytes of topics and payloads queued while offline.
+     * Applies together with the bound on the number of messages. When full the
+     * queue sheds oldest or newest messages like it does for the message
+     * bound.
+     *
+     * @param bound max number of bytes to queue while offline, null for no
+     *            byte bound.
+     */
+    public void setOfflinePublishQueueByteBound(Long bound) {
+        if (bound != null && bound <= 0) {
+            throw new IllegalArgumentException("Offline queue byte bound must be > 0");
+        }
+        offlinePublishQueueByteBound = bound;
+    }
+
+    /**
+     * Get the directory of the persistent offline publish queue.
+     *
+     * @return the directory, or null if the queue is kept in memory only.
+     */
+    public File getOfflinePublishQueueDirectory() {
+        return offlinePublishQueueDirectory;
+    }
+
+    /**
+     * Keep the offline publish queue in a directory so that queued messages
+     * survive the application process. Messages queued by a previous process
+     * are loaded into the queue and published on the next connection, without
+     * delivery callbacks. The queue is no longer cleared when connecting.
+     * The directory must only be used by this client.
+     *
+     * @param directory directory for the queue, null to keep the queue in
+     *            memory only.
+     */
+    public void setOfflinePublishQueueDirectory(File directory) {
+        synchronized (mqttMessageQueue) {
+            if (directory != null && directory.equals(offlinePublishQueueDirectory)
+                    && offlinePublishQueueStore != null) {
+                // the disk copy is already in step with the queue
+                return;
+            }
+            offlinePublishQueueStore = null;
+            offlinePublishQueueDirectory = null;
+            if (directory == null) {
+                return;
+            }
+            final List<AWSIotMqttQueueMessage> queued =
+                    new ArrayList<AWSIotMqttQueueMessage>(mqttMessageQueue);
+            final File loadedDirectory = directory.getAbsoluteFile();
+            try {
+                final AWSIotMqttOfflineQueueStore store = new AWSIotMqttOfflineQueueStore(directory);
+                final List<AWSIotMqttQueueMessage> loaded = store.load();
+                if (loadedOfflinePublishQueueDirectories.contains(loadedDirectory)) {
+                    // the queue already holds the messages of this directory,
+                    // whose disk copy may have fallen behind: write it again
+                    loaded.clear();
+                    store.clear();
+                }
+                for (final AWSIotMqttQueueMessage message : queued) {
+                    store.append(message);
+                }
+                mqttMessageQueue.clear();
+                offlinePublishQueueBytes = 0;
+                loaded.addAll(queued);
+                for (final AWSIotMqttQueueMessage message : loaded) {
+                    mqttMessageQueue.add(message);
+                    offlinePublishQueueBytes += getQueuedSize(message);
+                }
+                offlinePublishQueueStore = store;
+                offlinePublishQueueDirectory = directory;
+                loadedOfflinePublishQueueDirectories.add(loadedDirectory);
+            } catch (final IOException e) {
+                throw new AmazonClientException("Failed to open the offline publish queue in "
+                        + directory, e);
+            }
+        }
+    }
+
     /**
      * Get the "draining interval" (the time between publish messages are sent from the offline queue when reconnected).
      * @return long containing the number of milliseconds between publishes.
@@ -518,6 +647,32 @@ public class AWSIotMqttManager {
         drainingInterval = interval;
     }
 
+    /**
+     * Get the "draining window" (the max number of messages from the offline
+     * queue in flight when reconnected).
+     * @return int containing the draining window, 0 if draining one message
+     *         per draining interval.
+     */
+    public int getDrainingWindow() {
+        return drainingWindow;
+    }
+
+    /**
+     * Set the "draining window" (the max number of messages from the offline
+     * queue in flight when reconnected). A value above 0 publishes queued
+     * messages as soon as earlier ones complete instead of one per draining
+     * interval. Messages stay queued until they are acknowledged. A message
+     * whose publish fails is published again after the draining interval, and
+     * is dropped with a failed delivery status after 3 failures. Default is 0.
+     * @param window max queued messages in flight, 0 to use the draining interval.
+     */
+    public void setDrainingWindow(int window) {
+        if (window < 0) {
+            throw new IllegalArgumentException("Draining window must be >= 0");
+        }
+        drainingWindow = window;
+    }
+
     /**
      * Keep the oldest messages when publish queue is full?
      * @return boolean true if set to keep oldest messages, false if set to keep newest.
@@ -686,6 +841,7 @@ public class AWSIotMqttManager {
         }
 
         this.topicListeners = new ConcurrentHashMap<String, AWSIotMqttTopic>();
+        this.topicIndex = new AWSIotMqttTopicIndex();
         this.mqttMessageQueue = new ConcurrentLinkedQueue<AWSIotMqttQueueMessage>();
         this.mqttClientId = mqttClientId;
         this.endpoint = endpoint;
@@ -721,6 +877,7 @@ public class AWSIotMqttManager {
         }
 
         this.topicListeners = new ConcurrentHashMap<String, AWSIotMqttTopic>();
+        this.topicIndex = new AWSIotMqttTopicIndex();
         this.mqttMessageQueue = new ConcurrentLinkedQueue<AWSIotMqttQueueMessage>();
 
         this.accountEndpointPrefix = accountEndpointPrefix;
@@ -759,6 +916,7 @@ public class AWSIotMqttManager {
         }
 
         this.topicListeners = new ConcurrentHashMap<String, AWSIotMqttTopic>();
+        this.topicIndex = new AWSIotMqttTopicIndex();
         this.mqttMessageQueue = new ConcurrentLinkedQueue<AWSIotMqttQueueMessage>();
         this.endpoint = endpoint;
         this.mqttClientId = mqttClientId;
@@ -1140,6 +1298,9 @@ public class AWSIotMqttManager {
 
         options.setCleanSession(cleanSession);
         options.setKeepAliveInterval(userKeepAlive);
+        if (drainingWindow > options.getMaxInflight()) {
+            options.setMaxInflight(drainingWindow);
+        }
 
         // Setup userName if metrics are enabled. We use the connection username as metadata for metrics calculation.
         if (isMetricsEnabled() && !AuthenticationMode.USERNAME_PASSWORD.equals(authMode)) {
@@ -1150,7 +1311,11 @@ public class AWSIotMqttManager {
             ", username: " + options.getUserName());
 
         topicListeners.clear();
-        mqttMessageQueue.clear();
+        topicIndex.clear();
+        // a persistent queue holds messages from earlier sessions on purpose
+        if (offlinePublishQueueStore == null) {
+            clearQueuedMessages();
+        }
 
         resetReconnect();
         userDisconnect = false;
@@ -1168,6 +1333,7 @@ public class AWSIotMqttManager {
                     connectionState = MqttManagerConnectionState.Connected;
                     lastConnackTime = getSystemTimeMs();
                     sessionPresent = asyncActionToken.getSessionPresent();
+                    resetDraining();
                     if (mqttMessageQueue.size() > 0) {
                         publishMessagesFromQueue();
                     }
@@ -1264,6 +1430,7 @@ public class AWSIotMqttManager {
         userDisconnect = true;
         reset();
         topicListeners.clear();
+        topicIndex.clear();
         connectionState = MqttManagerConnectionState.Disconnected;
         userConnectionCallback();
         return true;
@@ -1299,6 +1466,9 @@ public class AWSIotMqttManager {
 
             options.setCleanSession(cleanSession);
             options.setKeepAliveInterval(userKeepAlive);
+            if (drainingWindow > options.getMaxInflight()) {
+                options.setMaxInflight(drainingWindow);
+            }
 
             if (mqttLWT != null) {
                 options.setWill(mqttLWT.getTopic(), mqttLWT.getMessage().getBytes(),
@@ -1338,6 +1508,7 @@ public class AWSIotMqttManager {
                         if (needResubscribe) {
                             resubscribeToTopics();
                         }
+                        resetDraining();
                         if (mqttMessageQueue.size() > 0) {
                             publishMessagesFromQueue();
                         }
@@ -1503,6 +1674,7 @@ public class AWSIotMqttManager {
             }
             final AWSIotMqttTopic topicModel = new AWSIotMqttTopic(topic, qos, callback);
             topicListeners.put(topic, topicModel);
+            topicIndex.put(topicModel);
         }
     }
 
@@ -1524,6 +1696,7 @@ public class AWSIotMqttManager {
                 throw new AmazonClientException("Client error while unsubscribing.", e);
             }
             topicListeners.remove(topic);
+            topicIndex.remove(topic);
         }
     }
 
@@ -1717,19 +1890,101 @@ public class AWSIotMqttManager {
     void putMessageInQueueAndNotify(byte[] data, String topic, AWSIotMqttQos qos,
                                     PublishMessageUserData publishMessageUserData) {
         final AWSIotMqttQueueMessage message = new AWSIotMqttQueueMessage(topic, data, qos, publishMessageUserData);
+        final long size = getQueuedSize(message);
 
-        if (mqttMessageQueue.size() >= offlinePublishQueueBound) {
-            if (fullQueueKeepsOldest) {
-                notifyPublishResult(publishMessageUserData.getUserCallback(), AWSIotMqttMessageDeliveryCallback.MessageDeliveryStatus.Fail,
-                        publishMessageUserData.getUserData(),
-                        new AmazonClientException("Failed to publish the message. Queue is full and set to hold onto the oldest messages."));
-                return;
-            } else {
-                mqttMessageQueue.remove();
+        if (offlinePublishQueueByteBound != null && size > offlinePublishQueueByteBound) {
+            notifyPublishResult(publishMessageUserData.getUserCallback(), AWSIotMqttMessageDeliveryCallback.MessageDeliveryStatus.Fail,
+                    publishMessageUserData.getUserData(),
+                    new AmazonClientException("Failed to publish the message. Message is larger than the queue byte bound."));
+            return;
+        }
+
+        synchronized (mqttMessageQueue) {
+            while (mqttMessageQueue.size() >= offlinePublishQueueBound
+                    || (offlinePublishQueueByteBound != null
+                        && offlinePublishQueueBytes + size > offlinePublishQueueByteBound)) {
+                if (fullQueueKeepsOldest) {
+                    notifyPublishResult(publishMessageUserData.getUserCallback(), AWSIotMqttMessageDeliveryCallback.MessageDeliveryStatus.Fail,
+                            publishMessageUserData.getUserData(),
+                            new AmazonClientException("Failed to publish the message. Queue is full and set to hold onto the oldest messages."));
+                    return;
+                } else if (pollQueuedMessages(1).isEmpty()) {
+                    break;
+                }
+            }
+
+            mqttMessageQueue.add(message);
+            offlinePublishQueueBytes += size;
+            if (offlinePublishQueueStore != null) {
+                try {
+                    offlinePublishQueueStore.append(message);
+                } catch (final IOException e) {
+                    disableOfflinePublishQueueStore(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove messages from the head of the publishing queue.
+     *
+     * @param max max number of messages to remove.
+     * @return the removed messages, oldest first.
+     */
+    private List<AWSIotMqttQueueMessage> pollQueuedMessages(int max) {
+        final List<AWSIotMqttQueueMessage> messages = new ArrayList<AWSIotMqttQueueMessage>();
+        synchronized (mqttMessageQueue) {
+            while (messages.size() < max) {
+                final AWSIotMqttQueueMessage message = mqttMessageQueue.poll();
+                if (message == null) {
+                    break;
+                }
+                messages.add(message);
+                offlinePublishQueueBytes -= getQueuedSize(message);
+            }
+            if (offlinePublishQueueStore != null && !messages.isEmpty()) {
+                try {
+                    offlinePublishQueueStore.removeFirst(messages.size());
+                } catch (final IOException e) {
+                    disableOfflinePublishQueueStore(e);
+                }
             }
         }
+        return messages;
+    }
 
-        mqttMessageQueue.add(message);
+    /**
+     * Remove all the messages from the publishing queue.
+     */
+    private void clearQueuedMessages() {
+        synchronized (mqttMessageQueue) {
+            mqttMessageQueue.clear();
+            offlinePublishQueueBytes = 0;
+            if (offlinePublishQueueStore != null) {
+                try {
+                    offlinePublishQueueStore.clear();
+                } catch (final IOException e) {
+                    disableOfflinePublishQueueStore(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keep the publishing queue in memory only once its disk copy can no
+     * longer be kept in step.
+     */
+    private void disableOfflinePublishQueueStore(IOException e) {
+        LOGGER.error("Failed to update the offline publish queue in " + offlinePublishQueueDirectory
+                + ", the queue is now kept in memory only.", e);
+        offlinePublishQueueStore = null;
+    }
+
+    /**
+     * Size of a queued message counted against the queue byte bound.
+     */
+    private static long getQueuedSize(AWSIotMqttQueueMessage message) {
+        return message.getTopic().getBytes(StringUtils.UTF8).length + message.getMessage().length;
     }
 
     /**
@@ -1737,10 +1992,15 @@ public class AWSIotMqttManager {
      * Called to handle publishing messages accumulated in the message queue when the client was unable to publish.
      */
     void publishMessagesFromQueue() {
+        if (drainingWindow > 0) {
+            publishMessagesFromQueueInWindow();
+            return;
+        }
         if (connectionState == MqttManagerConnectionState.Connected &&
             mqttMessageQueue != null &&
             !mqttMessageQueue.isEmpty()) {
-            final AWSIotMqttQueueMessage message = mqttMessageQueue.poll();
+            final List<AWSIotMqttQueueMessage> polled = pollQueuedMessages(1);
+            final AWSIotMqttQueueMessage message = polled.isEmpty() ? null : polled.get(0);
             if (message != null) {
                 try {
                     if (message.getUserData() != null && message.getUserData().getUserCallback() != null) {
@@ -1781,6 +2041,220 @@ public class AWSIotMqttManager {
         }
     }
 
+    /**
+     * Publish messages from the message queue until the draining window is
+     * full. Called again whenever a queued message completes, so the queue
+     * drains as fast as the broker acknowledges the messages. Messages stay
+     * in the queue, and in its disk copy, until they are acknowledged.
+     */
+    private void publishMessagesFromQueueInWindow() {
+        synchronized (drainingLock) {
+            while (connectionState == MqttManagerConnectionState.Connected) {
+                // reserve a free slot before taking a message off the queue
+                int inFlight;
+                do {
+                    inFlight = drainingInFlight.get();
+                    if (inFlight >= drainingWindow) {
+                        return;
+                    }
+                } while (!drainingInFlight.compareAndSet(inFlight, inFlight + 1));
+
+                final AWSIotMqttQueueMessage message;
+                final int generation;
+                synchronized (mqttMessageQueue) {
+                    message = nextQueuedMessage();
+                    if (message != null) {
+                        message.setInFlight(true);
+                    }
+                    generation = drainingGeneration;
+                }
+                if (message == null) {
+                    releaseDrainingSlot();
+                    return;
+                }
+                try {
+                    mqttClient.publish(message.getTopic(), message.getMessage(),
+                            message.getQos().asInt(), false, message.getUserData(),
+                            new DrainingListener(message, generation));
+                } catch (final MqttException e) {
+                    releaseDrainingSlot();
+                    // Too many publishes in flight only delays the message,
+                    // other errors count against it.
+                    final boolean dropped;
+                    if (e.getReasonCode() == MqttException.REASON_CODE_MAX_INFLIGHT) {
+                        synchronized (mqttMessageQueue) {
+                            message.setInFlight(false);
+                        }
+                        dropped = false;
+                    } else {
+                        dropped = failQueuedMessage(message, e);
+                    }
+                    if (!dropped) {
+                        LOGGER.warn("Failed to publish a queued message, retrying.", e);
+                        scheduleDrainingRetry();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the first queued message that is neither in flight nor completed.
+     * Called with the queue lock held.
+     */
+    private AWSIotMqttQueueMessage nextQueuedMessage() {
+        for (final AWSIotMqttQueueMessage message : mqttMessageQueue) {
+            if (!message.isInFlight() && !message.isCompleted()) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Count a failed publish of a queued message, which is published again
+     * later. After {@link #MAX_QUEUED_MESSAGE_PUBLISH_FAILURES} failures the
+     * message is dropped from the queue and its callback notified instead.
+     *
+     * @return true if the message was dropped.
+     */
+    private boolean failQueuedMessage(AWSIotMqttQueueMessage message, Throwable e) {
+        synchronized (mqttMessageQueue) {
+            message.setInFlight(false);
+            if (message.isCompleted()
+                    || message.incrementPublishFailures() < MAX_QUEUED_MESSAGE_PUBLISH_FAILURES) {
+                return false;
+            }
+            message.setCompleted();
+            removeCompletedQueuedMessages();
+        }
+        LOGGER.error("Dropping a queued message after " + MAX_QUEUED_MESSAGE_PUBLISH_FAILURES
+                + " failed publishes.", e);
+        final PublishMessageUserData pmud = message.getUserData();
+        if (pmud != null && pmud.getUserCallback() != null) {
+            notifyPublishResult(pmud.getUserCallback(),
+                    AWSIotMqttMessageDeliveryCallback.MessageDeliveryStatus.Fail,
+                    pmud.getUserData(), null);
+        }
+        return true;
+    }
+
+    /**
+     * Remove the completed messages from the head of the publishing queue.
+     * A completed message behind one still in flight stays until that one
+     * completes, as the disk copy is removed from its head. Called with the
+     * queue lock held.
+     */
+    private void removeCompletedQueuedMessages() {
+        int completed = 0;
+        for (final AWSIotMqttQueueMessage message : mqttMessageQueue) {
+            if (!message.isCompleted()) {
+                break;
+            }
+            completed++;
+        }
+        if (completed > 0) {
+            pollQueuedMessages(completed);
+        }
+    }
+
+    /**
+     * Publish messages from the message queue again after the draining
+     * interval, once a queued message failed, unless that is already
+     * scheduled.
+     */
+    private void scheduleDrainingRetry() {
+        if (!drainingRetryScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        (new Handler(Looper.getMainLooper())).postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                drainingRetryScheduled.set(false);
+                if (!mqttMessageQueue.isEmpty()
+                        && connectionState == MqttManagerConnectionState.Connected) {
+                    publishMessagesFromQueue();
+                }
+            }
+        }, drainingInterval);
+    }
+
+    /**
+     * Empty the draining window on connecting. Messages that were in flight
+     * are published again, and the failures of their earlier publishes are
+     * ignored.
+     */
+    private void resetDraining() {
+        synchronized (mqttMessageQueue) {
+            drainingGeneration++;
+            for (final AWSIotMqttQueueMessage message : mqttMessageQueue) {
+                message.setInFlight(false);
+            }
+        }
+        drainingInFlight.set(0);
+    }
+
+    /**
+     * Release a slot of the draining window. Completions of messages
+     * published before a reconnect can't take the count below zero.
+     */
+    private void releaseDrainingSlot() {
+        int inFlight;
+        do {
+            inFlight = drainingInFlight.get();
+            if (inFlight == 0) {
+                return;
+            }
+        } while (!drainingInFlight.compareAndSet(inFlight, inFlight - 1));
+    }
+
+    /**
+     * Removes a queued message from the queue and its disk copy once it is
+     * acknowledged, or counts the failure and publishes it again later.
+     * Releases the slot of the draining window either way.
+     */
+    private final class DrainingListener implements IMqttActionListener {
+        private final AWSIotMqttQueueMessage message;
+        private final int generation;
+
+        private DrainingListener(AWSIotMqttQueueMessage message, int generation) {
+            this.message = message;
+            this.generation = generation;
+        }
+
+        @Override
+        public void onSuccess(IMqttToken asyncActionToken) {
+            final boolean current;
+            synchronized (mqttMessageQueue) {
+                current = generation == drainingGeneration;
+                message.setCompleted();
+                removeCompletedQueuedMessages();
+            }
+            if (current) {
+                releaseDrainingSlot();
+            }
+            publishMessagesFromQueue();
+        }
+
+        @Override
+        public void onFailure(IMqttToken asyncActionToken, Throwable e) {
+            synchronized (mqttMessageQueue) {
+                if (generation != drainingGeneration) {
+                    // the message was published again after reconnecting
+                    return;
+                }
+            }
+            releaseDrainingSlot();
+            if (failQueuedMessage(message, e)) {
+                publishMessagesFromQueue();
+            } else {
+                LOGGER.warn("Failed to publish a queued message, retrying.", e);
+                scheduleDrainingRetry();
+            }
+        }
+    }
+
     /**
      * Setup the MQTT client calbacks. The Paho MQTT client exposes callbacks
      * for connection status, publish status and incoming messages. The Android
@@ -1811,21 +2285,16 @@ public class AWSIotMqttManager {
                 LOGGER.info("message arrived on topic: " + topic);
                 final byte[] data = mqttMessage.getPayload();
 
-                for (final String topicKey : topicListeners.keySet()) {
-                    if (isTopicMatch(topicKey, topic)) {
-                        final AWSIotMqttTopic topicModel = topicListeners.get(topicKey);
-                        if (topicModel != null) {
-                            if (topicModel.getCallback() != null) {
-                                topicModel.getCallback().onMessageArrived(topic, data);
-                            }
-                        }
-                    }
-                }
+                topicIndex.deliver(topic, data);
             }
 
             @Override
             public void deliveryComplete(IMqttDeliveryToken token) {
                 LOGGER.info("delivery is complete");
+                if (drainingWindow > 0 && !mqttMessageQueue.isEmpty()) {
+                    // resume draining paused by a failed publish
+                    publishMessagesFromQueue();
+                }
                 if (token != null) {
                     final Object o = token.getUserContext();
                     if (o instanceof PublishMessageUserData) {
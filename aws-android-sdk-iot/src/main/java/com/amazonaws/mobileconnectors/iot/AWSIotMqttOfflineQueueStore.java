@@ -0,0 +1,332 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.iot;
+
+import com.amazonaws.util.StringUtils;
+
+import com.amazonaws.logging.Log;
+import com.amazonaws.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the offline publish queue on disk so that queued messages survive the
+ * process. Messages are appended to a log file, and removing messages from
+ * the head of the queue only moves an offset stored in a small head file. The
+ * log is rewritten without the removed messages once they make up most of it.
+ * <p>
+ * The head file holds the generation of the log file and the offset of the
+ * first message; it is replaced atomically, so a crash leaves either the old
+ * or the new state. Delivery callbacks and user data aren't persisted:
+ * messages loaded from disk are published without a callback.
+ * </p>
+ * This class is not thread safe, the caller keeps it in step with the
+ * in-memory queue.
+ */
+class AWSIotMqttOfflineQueueStore {
+    private static final Log LOGGER = LogFactory.getLog(AWSIotMqttOfflineQueueStore.class);
+
+    private static final String LOG_FILE_PREFIX = "offline_publish_queue.";
+    private static final String LOG_FILE_SUFFIX = ".log";
+    private static final String HEAD_FILE_NAME = "offline_publish_queue.head";
+    /** topic length, qos and payload length. */
+    private static final int RECORD_HEADER_SIZE = 12;
+    /** Removed bytes at the head of the log before it is compacted. */
+    private static final long COMPACTION_THRESHOLD_BYTES = 64 * 1024;
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final File directory;
+    private long generation;
+    private long headOffset;
+    private long logLength;
+    /** Length of each message in the log after the head, in queue order. */
+    private final ArrayDeque<Integer> recordLengths = new ArrayDeque<Integer>();
+    private OutputStream logStream;
+
+    /**
+     * Opens the store in the directory, creating the directory if needed.
+     *
+     * @param directory directory used only by this store.
+     * @throws IOException if the directory or the files can't be used.
+     */
+    AWSIotMqttOfflineQueueStore(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create directory " + directory);
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the queued messages. A message that was only partially written
+     * is dropped, and log files left by an interrupted compaction are
+     * deleted.
+     *
+     * @return the queued messages, oldest first.
+     * @throws IOException if the log can't be read.
+     */
+    List<AWSIotMqttQueueMessage> load() throws IOException {
+        closeLogStream();
+        readHead();
+        deleteStaleLogs();
+        recordLengths.clear();
+
+        final List<AWSIotMqttQueueMessage> messages = new ArrayList<AWSIotMqttQueueMessage>();
+        final File logFile = getLogFile(generation);
+        if (!logFile.isFile()) {
+            headOffset = 0;
+            logLength = 0;
+            return messages;
+        }
+        final long length = logFile.length();
+        long offset = Math.min(headOffset, length);
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(logFile), BUFFER_SIZE));
+        try {
+            skipFully(in, offset);
+            while (offset + RECORD_HEADER_SIZE <= length) {
+                final int topicLength = in.readInt();
+                final int qos = in.readInt();
+                final int payloadLength = in.readInt();
+                final long recordLength = (long) RECORD_HEADER_SIZE + topicLength + payloadLength;
+                if (topicLength <= 0 || payloadLength < 0 || (qos != 0 && qos != 1)
+                        || offset + recordLength > length) {
+                    break;
+                }
+                final byte[] topic = new byte[topicLength];
+                final byte[] payload = new byte[payloadLength];
+                in.readFully(topic);
+                in.readFully(payload);
+                messages.add(new AWSIotMqttQueueMessage(new String(topic, StringUtils.UTF8),
+                        payload, qos == 0 ? AWSIotMqttQos.QOS0 : AWSIotMqttQos.QOS1,
+                        new PublishMessageUserData(null, null)));
+                recordLengths.add((int) recordLength);
+                offset += recordLength;
+            }
+        } finally {
+            in.close();
+        }
+        if (offset < length) {
+            LOGGER.warn("Dropping partially written messages from the offline publish queue.");
+            final RandomAccessFile raf = new RandomAccessFile(logFile, "rw");
+            try {
+                raf.setLength(offset);
+            } finally {
+                raf.close();
+            }
+        }
+        logLength = offset;
+        headOffset = Math.min(headOffset, offset);
+        return messages;
+    }
+
+    /**
+     * Appends a message at the tail of the queue.
+     *
+     * @param message the message.
+     * @throws IOException if the message can't be written.
+     */
+    void append(AWSIotMqttQueueMessage message) throws IOException {
+        final byte[] topic = message.getTopic().getBytes(StringUtils.UTF8);
+        final byte[] payload = message.getMessage();
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + topic.length
+                + payload.length);
+        record.putInt(topic.length);
+        record.putInt(message.getQos().asInt());
+        record.putInt(payload.length);
+        record.put(topic);
+        record.put(payload);
+        if (logStream == null) {
+            logStream = new FileOutputStream(getLogFile(generation), true);
+        }
+        logStream.write(record.array());
+        logStream.flush();
+        logLength += record.capacity();
+        recordLengths.add(record.capacity());
+    }
+
+    /**
+     * Removes messages from the head of the queue.
+     *
+     * @param count number of messages to remove.
+     * @throws IOException if the head can't be written.
+     */
+    void removeFirst(int count) throws IOException {
+        long offset = headOffset;
+        for (int i = 0; i < count && !recordLengths.isEmpty(); i++) {
+            offset += recordLengths.poll();
+        }
+        if (offset == headOffset) {
+            return;
+        }
+        if (recordLengths.isEmpty()) {
+            clear();
+        } else if (offset >= COMPACTION_THRESHOLD_BYTES && offset * 2 >= logLength) {
+            compact(offset);
+        } else {
+            writeHead(generation, offset);
+        }
+    }
+
+    /**
+     * Removes all the messages.
+     *
+     * @throws IOException if the head can't be written.
+     */
+    void clear() throws IOException {
+        closeLogStream();
+        final long oldGeneration = generation;
+        writeHead(generation + 1, 0);
+        deleteFile(getLogFile(oldGeneration));
+        logLength = 0;
+        recordLengths.clear();
+    }
+
+    /**
+     * Copies the messages after offset to the log of the next generation and
+     * switches to it.
+     */
+    private void compact(long offset) throws IOException {
+        closeLogStream();
+        final File oldLog = getLogFile(generation);
+        final File newLog = getLogFile(generation + 1);
+        final InputStream in = new FileInputStream(oldLog);
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(newLog),
+                BUFFER_SIZE);
+        try {
+            skipFully(in, offset);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+            out.close();
+        }
+        writeHead(generation + 1, 0);
+        deleteFile(oldLog);
+        logLength -= offset;
+    }
+
+    private void readHead() {
+        generation = 0;
+        headOffset = 0;
+        final File headFile = new File(directory, HEAD_FILE_NAME);
+        if (!headFile.isFile()) {
+            return;
+        }
+        try {
+            final DataInputStream in = new DataInputStream(new FileInputStream(headFile));
+            try {
+                generation = in.readLong();
+                headOffset = in.readLong();
+            } finally {
+                in.close();
+            }
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to read the head of the offline publish queue.", e);
+        }
+    }
+
+    /**
+     * Replaces the head file through a temporary file.
+     */
+    private void writeHead(long newGeneration, long newOffset) throws IOException {
+        final File headFile = new File(directory, HEAD_FILE_NAME);
+        final File tempFile = new File(directory, HEAD_FILE_NAME + ".tmp");
+        final DataOutputStream out = new DataOutputStream(new FileOutputStream(tempFile));
+        try {
+            out.writeLong(newGeneration);
+            out.writeLong(newOffset);
+        } finally {
+            out.close();
+        }
+        if (!tempFile.renameTo(headFile)) {
+            deleteFile(headFile);
+            if (!tempFile.renameTo(headFile)) {
+                throw new IOException("Failed to write the head of the offline publish queue");
+            }
+        }
+        generation = newGeneration;
+        headOffset = newOffset;
+    }
+
+    private void deleteStaleLogs() {
+        final File current = getLogFile(generation);
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (final File file : files) {
+            final String name = file.getName();
+            if (name.startsWith(LOG_FILE_PREFIX) && name.endsWith(LOG_FILE_SUFFIX)
+                    && !file.equals(current)) {
+                deleteFile(file);
+            }
+        }
+    }
+
+    private File getLogFile(long logGeneration) {
+        return new File(directory, LOG_FILE_PREFIX + logGeneration + LOG_FILE_SUFFIX);
+    }
+
+    private void closeLogStream() {
+        if (logStream != null) {
+            try {
+                logStream.close();
+            } catch (final IOException e) {
+                LOGGER.warn("Failed to close the offline publish queue.", e);
+            }
+            logStream = null;
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            LOGGER.warn("Failed to delete " + file.getName());
+        }
+    }
+
+    private static void skipFully(InputStream in, long n) throws IOException {
+        long remaining = n;
+        while (remaining > 0) {
+            final long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new EOFException();
+                }
+                remaining--;
+            } else {
+                remaining -= skipped;
+            }
+        }
+    }
+}
@@ -29,6 +29,12 @@ class AWSIotMqttQueueMessage {
     private AWSIotMqttQos qos;
     /** Message delivery user data. */
     private PublishMessageUserData userData;
+    /** Is the message published and waiting for its completion while draining? */
+    private boolean inFlight;
+    /** Was the message delivered or dropped while draining? */
+    private boolean completed;
+    /** Failed publishes of the message while draining. */
+    private int publishFailures;
 
     /**
      * Create a new AWSIotMqttQueueMessage.
@@ -80,4 +86,48 @@ class AWSIotMqttQueueMessage {
     PublishMessageUserData getUserData() {
         return userData;
     }
+
+    /**
+     * Is the message published and waiting for its completion?
+     *
+     * @return true if the message is in flight.
+     */
+    boolean isInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Set whether the message is published and waiting for its completion.
+     *
+     * @param inFlight true if the message is in flight.
+     */
+    void setInFlight(boolean inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * Was the message delivered or dropped?
+     *
+     * @return true if the message can be removed from the queue.
+     */
+    boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Mark the message delivered or dropped.
+     */
+    void setCompleted() {
+        this.completed = true;
+        this.inFlight = false;
+    }
+
+    /**
+     * Count a failed publish of the message.
+     *
+     * @return failed publishes so far.
+     */
+    int incrementPublishFailures() {
+        return ++publishFailures;
+    }
 }
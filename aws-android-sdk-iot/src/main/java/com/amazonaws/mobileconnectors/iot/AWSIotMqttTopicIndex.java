@@ -0,0 +1,395 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.iot;
+
+import java.util.Arrays;
+
+/**
+ * Index of subscriptions by topic filter, used to find the subscriptions
+ * matching the topic of an arrived message. The topic filters are kept in a
+ * trie with one level per node, where the + and # wildcards are children of
+ * their own. Delivering a message walks the trie along the levels of the
+ * topic, so its cost depends on the depth of the topic rather than on the
+ * number of subscriptions, and it doesn't allocate.
+ * <p>
+ * A topic matches a filter exactly when
+ * {@link AWSIotMqttManager#isTopicMatch(String, String)} says so. Nodes are
+ * never modified once built: subscribing and unsubscribing copy the path to
+ * the changed node and publish a new root, so delivery doesn't lock and
+ * callbacks may subscribe or unsubscribe.
+ * </p>
+ */
+class AWSIotMqttTopicIndex {
+    private static final char LEVEL_SEPARATOR = '/';
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    /** Root of the trie, matches topics without levels. */
+    private volatile Node root = new Node("");
+
+    /**
+     * Adds a subscription, replacing the one with the same topic filter.
+     *
+     * @param subscription the subscription.
+     */
+    synchronized void put(AWSIotMqttTopic subscription) {
+        root = put(root, splitLevels(subscription.getTopic()), 0, subscription);
+    }
+
+    /**
+     * Removes the subscription of the topic filter.
+     *
+     * @param topicFilter topic filter of the subscription.
+     */
+    synchronized void remove(String topicFilter) {
+        final Node newRoot = remove(root, splitLevels(topicFilter), 0, topicFilter);
+        root = newRoot == null ? new Node("") : newRoot;
+    }
+
+    /**
+     * Removes all the subscriptions.
+     */
+    synchronized void clear() {
+        root = new Node("");
+    }
+
+    /**
+     * Calls the callback of each subscription whose topic filter matches the
+     * topic.
+     *
+     * @param topic the topic (no wildcards) on which the message was
+     *            published.
+     * @param data the message payload.
+     * @return the number of matching subscriptions.
+     */
+    int deliver(String topic, byte[] data) {
+        return deliver(root, topic, 0, 0, countLevels(topic), data);
+    }
+
+    /**
+     * Splits a topic filter into levels the same way isTopicMatch does.
+     */
+    private static String[] splitLevels(String topicFilter) {
+        return topicFilter.split(String.valueOf(LEVEL_SEPARATOR));
+    }
+
+    /**
+     * Counts the levels of a topic without allocating, matching the length of
+     * the array returned by String.split("/"): trailing empty levels are not
+     * counted, except for the empty topic which has one empty level.
+     */
+    static int countLevels(String topic) {
+        int end = topic.length();
+        while (end > 0 && topic.charAt(end - 1) == LEVEL_SEPARATOR) {
+            end--;
+        }
+        if (end == 0) {
+            return topic.isEmpty() ? 1 : 0;
+        }
+        int levels = 1;
+        for (int i = 0; i < end; i++) {
+            if (topic.charAt(i) == LEVEL_SEPARATOR) {
+                levels++;
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Delivers a message to the subscriptions under the node.
+     *
+     * @param node node that matched the first depth levels of the topic.
+     * @param start index in the topic of the level at depth.
+     */
+    private static int deliver(Node node, String topic, int start, int depth, int levels,
+            byte[] data) {
+        if (depth == levels) {
+            return notifySubscriptions(node, topic, data);
+        }
+        int count = 0;
+        if (node.multiLevel != null) {
+            count += deliverToAll(node.multiLevel, depth + 1, levels, topic, data);
+        }
+        int end = topic.indexOf(LEVEL_SEPARATOR, start);
+        if (end < 0) {
+            end = topic.length();
+        }
+        if (node.singleLevel != null) {
+            count += deliver(node.singleLevel, topic, end + 1, depth + 1, levels, data);
+        }
+        final Node child = node.findChild(topic, start, end);
+        if (child != null) {
+            count += deliver(child, topic, end + 1, depth + 1, levels, data);
+        }
+        return count;
+    }
+
+    /**
+     * Delivers a message to the subscriptions under a # wildcard. Like
+     * isTopicMatch, a filter matches if it has no more levels than the topic.
+     *
+     * @param node the node.
+     * @param filterLevels number of levels of the filters ending at the node.
+     */
+    private static int deliverToAll(Node node, int filterLevels, int levels, String topic,
+            byte[] data) {
+        if (filterLevels > levels) {
+            return 0;
+        }
+        int count = notifySubscriptions(node, topic, data);
+        for (final Node child : node.children) {
+            count += deliverToAll(child, filterLevels + 1, levels, topic, data);
+        }
+        if (node.singleLevel != null) {
+            count += deliverToAll(node.singleLevel, filterLevels + 1, levels, topic, data);
+        }
+        if (node.multiLevel != null) {
+            count += deliverToAll(node.multiLevel, filterLevels + 1, levels, topic, data);
+        }
+        return count;
+    }
+
+    private static int notifySubscriptions(Node node, String topic, byte[] data) {
+        for (final AWSIotMqttTopic subscription : node.subscriptions) {
+            if (subscription.getCallback() != null) {
+                subscription.getCallback().onMessageArrived(topic, data);
+            }
+        }
+        return node.subscriptions.length;
+    }
+
+    private static Node put(Node node, String[] levels, int depth, AWSIotMqttTopic subscription) {
+        if (depth == levels.length) {
+            return node.withSubscription(subscription);
+        }
+        Node child = node.getChild(levels[depth]);
+        if (child == null) {
+            child = new Node(levels[depth]);
+        }
+        return node.withChild(put(child, levels, depth + 1, subscription));
+    }
+
+    /**
+     * Removes the subscription under the node.
+     *
+     * @return the new node, or null if the node is left empty.
+     */
+    private static Node remove(Node node, String[] levels, int depth, String topicFilter) {
+        final Node newNode;
+        if (depth == levels.length) {
+            newNode = node.withoutSubscription(topicFilter);
+        } else {
+            final Node child = node.getChild(levels[depth]);
+            if (child == null) {
+                return node;
+            }
+            final Node newChild = remove(child, levels, depth + 1, topicFilter);
+            if (newChild == child) {
+                return node;
+            }
+            newNode = newChild == null ? node.withoutChild(child.level) : node.withChild(newChild);
+        }
+        return newNode.isEmpty() ? null : newNode;
+    }
+
+    /**
+     * Computes the hash code of a region of a string, equal to the hash code
+     * of the corresponding substring.
+     */
+    private static int regionHashCode(String s, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + s.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * A level of the trie. Children other than wildcards are sorted by the
+     * hash code of their level, so they can be found by binary search on a
+     * region of the topic.
+     */
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final int[] NO_HASHES = new int[0];
+        private static final AWSIotMqttTopic[] NO_SUBSCRIPTIONS = new AWSIotMqttTopic[0];
+
+        private final String level;
+        private final Node[] children;
+        private final int[] childHashes;
+        private final Node singleLevel;
+        private final Node multiLevel;
+        /** Subscriptions whose filter ends at this node. */
+        private final AWSIotMqttTopic[] subscriptions;
+
+        private Node(String level) {
+            this(level, NO_CHILDREN, NO_HASHES, null, null, NO_SUBSCRIPTIONS);
+        }
+
+        private Node(String level, Node[] children, int[] childHashes, Node singleLevel,
+                Node multiLevel, AWSIotMqttTopic[] subscriptions) {
+            this.level = level;
+            this.children = children;
+            this.childHashes = childHashes;
+            this.singleLevel = singleLevel;
+            this.multiLevel = multiLevel;
+            this.subscriptions = subscriptions;
+        }
+
+        private boolean isEmpty() {
+            return children.length == 0 && singleLevel == null && multiLevel == null
+                    && subscriptions.length == 0;
+        }
+
+        private Node findChild(String topic, int start, int end) {
+            final int length = end - start;
+            final int hash = regionHashCode(topic, start, end);
+            int i = Arrays.binarySearch(childHashes, hash);
+            if (i < 0) {
+                return null;
+            }
+            while (i > 0 && childHashes[i - 1] == hash) {
+                i--;
+            }
+            for (; i < children.length && childHashes[i] == hash; i++) {
+                final String childLevel = children[i].level;
+                if (childLevel.length() == length
+                        && topic.regionMatches(start, childLevel, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node getChild(String childLevel) {
+            if (SINGLE_LEVEL_WILDCARD.equals(childLevel)) {
+                return singleLevel;
+            }
+            if (MULTI_LEVEL_WILDCARD.equals(childLevel)) {
+                return multiLevel;
+            }
+            return findChild(childLevel, 0, childLevel.length());
+        }
+
+        private Node withChild(Node child) {
+            if (SINGLE_LEVEL_WILDCARD.equals(child.level)) {
+                return new Node(level, children, childHashes, child, multiLevel, subscriptions);
+            }
+            if (MULTI_LEVEL_WILDCARD.equals(child.level)) {
+                return new Node(level, children, childHashes, singleLevel, child, subscriptions);
+            }
+            final Node[] newChildren;
+            final int[] newHashes;
+            final int index = indexOfChild(child.level);
+            if (index >= 0) {
+                newChildren = children.clone();
+                newChildren[index] = child;
+                newHashes = childHashes;
+            } else {
+                final int hash = child.level.hashCode();
+                int insertion = Arrays.binarySearch(childHashes, hash);
+                if (insertion < 0) {
+                    insertion = -insertion - 1;
+                }
+                newChildren = new Node[children.length + 1];
+                newHashes = new int[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, insertion);
+                System.arraycopy(childHashes, 0, newHashes, 0, insertion);
+                newChildren[insertion] = child;
+                newHashes[insertion] = hash;
+                System.arraycopy(children, insertion, newChildren, insertion + 1,
+                        children.length - insertion);
+                System.arraycopy(childHashes, insertion, newHashes, insertion + 1,
+                        children.length - insertion);
+            }
+            return new Node(level, newChildren, newHashes, singleLevel, multiLevel, subscriptions);
+        }
+
+        private Node withoutChild(String childLevel) {
+            if (SINGLE_LEVEL_WILDCARD.equals(childLevel)) {
+                return new Node(level, children, childHashes, null, multiLevel, subscriptions);
+            }
+            if (MULTI_LEVEL_WILDCARD.equals(childLevel)) {
+                return new Node(level, children, childHashes, singleLevel, null, subscriptions);
+            }
+            final int index = indexOfChild(childLevel);
+            if (index < 0) {
+                return this;
+            }
+            final Node[] newChildren = new Node[children.length - 1];
+            final int[] newHashes = new int[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(childHashes, 0, newHashes, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, newChildren.length - index);
+            System.arraycopy(childHashes, index + 1, newHashes, index, newHashes.length - index);
+            return new Node(level, newChildren, newHashes, singleLevel, multiLevel, subscriptions);
+        }
+
+        private int indexOfChild(String childLevel) {
+            final Node child = findChild(childLevel, 0, childLevel.length());
+            if (child == null) {
+                return -1;
+            }
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private Node withSubscription(AWSIotMqttTopic subscription) {
+            final int index = indexOfSubscription(subscription.getTopic());
+            final AWSIotMqttTopic[] newSubscriptions;
+            if (index >= 0) {
+                newSubscriptions = subscriptions.clone();
+                newSubscriptions[index] = subscription;
+            } else {
+                newSubscriptions = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+                newSubscriptions[subscriptions.length] = subscription;
+            }
+            return new Node(level, children, childHashes, singleLevel, multiLevel,
+                    newSubscriptions);
+        }
+
+        private Node withoutSubscription(String topicFilter) {
+            final int index = indexOfSubscription(topicFilter);
+            if (index < 0) {
+                return this;
+            }
+            final AWSIotMqttTopic[] newSubscriptions =
+                    new AWSIotMqttTopic[subscriptions.length - 1];
+            System.arraycopy(subscriptions, 0, newSubscriptions, 0, index);
+            System.arraycopy(subscriptions, index + 1, newSubscriptions, index,
+                    newSubscriptions.length - index);
+            return new Node(level, children, childHashes, singleLevel, multiLevel,
+                    newSubscriptions);
+        }
+
+        /**
+         * Filters that differ only by trailing separators end at the same
+         * node, so subscriptions are told apart by their whole filter.
+         */
+        private int indexOfSubscription(String topicFilter) {
+            for (int i = 0; i < subscriptions.length; i++) {
+                if (subscriptions[i].getTopic().equals(topicFilter)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import java.security.KeyStore;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
@@ -2401,6 +2402,299 @@ public class AWSIotMqttManagerTest {
         checkOfflinePublishingQueue(testClient, 1);
     }
 
+    @Test
+    public void testOfflinePublishQueueByteBound() throws Exception {
+        MockMqttClient mockClient = new MockMqttClient();
+
+        AWSIotMqttManager testClient = new AWSIotMqttManager("test-client",
+                Region.getRegion(Regions.US_EAST_1), TEST_ENDPOINT_PREFIX);
+        testClient.setMqttClient(mockClient);
+        // "test/topic" and "test payload N" take 24 bytes per message
+        testClient.setOfflinePublishQueueByteBound(100L);
+
+        TestClientStatusCallback csb = new TestClientStatusCallback();
+
+        KeyStore testKeystore = AWSIotKeystoreHelper.getIotKeystore(CERT_ID, KEYSTORE_PATH,
+                KEYSTORE_NAME, KEYSTORE_PASSWORD);
+        testClient.connect(testKeystore, csb);
+        mockClient.mockConnectSuccess();
+        mockClient.mockDisconnect();
+        assertEquals(MqttManagerConnectionState.Reconnecting, testClient.getConnectionState());
+
+        for (int i = 0; i <= 5; i++) {
+            testClient.publishString("test payload " + i, "test/topic", AWSIotMqttQos.QOS0);
+        }
+
+        // queue keeps the newest messages that fit in 100 bytes
+        assertEquals(4, testClient.getMqttMessageQueue().size());
+        checkOfflinePublishingQueue(testClient, 2);
+    }
+
+    @Test
+    public void testOfflinePublishQueueDrainingWindow() throws Exception {
+        MockMqttClient mockClient = new MockMqttClient();
+
+        AWSIotMqttManager testClient = new AWSIotMqttManager("test-client",
+                Region.getRegion(Regions.US_EAST_1), TEST_ENDPOINT_PREFIX);
+        testClient.setMqttClient(mockClient);
+        testClient.setDrainingWindow(2);
+
+        TestClientStatusCallback csb = new TestClientStatusCallback();
+        TestMessageDeliveryCallback mdcb = new TestMessageDeliveryCallback();
+
+        KeyStore testKeystore = AWSIotKeystoreHelper.getIotKeystore(CERT_ID, KEYSTORE_PATH,
+                KEYSTORE_NAME, KEYSTORE_PASSWORD);
+        testClient.connect(testKeystore, csb);
+        mockClient.mockConnectSuccess();
+        mockClient.mockDisconnect();
+        assertEquals(MqttManagerConnectionState.Reconnecting, testClient.getConnectionState());
+
+        for (int i = 0; i < 5; i++) {
+            testClient.publishString("test payload " + i, "test/topic", AWSIotMqttQos.QOS1,
+                    mdcb, "TEST_TOKEN_" + i);
+        }
+        assertEquals(5, testClient.getMqttMessageQueue().size());
+
+        // cause reconnect attempt
+        Robolectric.getForegroundThreadScheduler().advanceBy(4100, TimeUnit.MILLISECONDS);
+        mockClient.mockConnectSuccess();
+
+        // the window is filled right away, the messages stay queued until acknowledged
+        assertEquals(2, mockClient.publishCalls);
+        assertEquals(5, testClient.getMqttMessageQueue().size());
+
+        // time alone doesn't publish more messages
+        Robolectric.getForegroundThreadScheduler().advanceBy(1000, TimeUnit.MILLISECONDS);
+        assertEquals(2, mockClient.publishCalls);
+
+        // each completion publishes the next queued message, acknowledged
+        // messages are removed once the ones before them are
+        mockClient.publishCallbacks.get(1).onSuccess(mockClient.testDeliveryToken);
+        assertEquals(3, mockClient.publishCalls);
+        assertEquals("test payload 2", new String(mockClient.mostRecentPublishPayload,
+                StringUtils.UTF8));
+        assertEquals(5, testClient.getMqttMessageQueue().size());
+        mockClient.publishCallbacks.get(0).onSuccess(mockClient.testDeliveryToken);
+        assertEquals(4, mockClient.publishCalls);
+        assertEquals(3, testClient.getMqttMessageQueue().size());
+
+        // a failed message is published again after the draining interval
+        mockClient.publishCallbacks.get(2).onFailure(mockClient.testDeliveryToken,
+                new Exception("fail"));
+        assertEquals(4, mockClient.publishCalls);
+        assertEquals(0, mdcb.statuses.size());
+        Robolectric.getForegroundThreadScheduler().advanceBy(300, TimeUnit.MILLISECONDS);
+        assertEquals(5, mockClient.publishCalls);
+        assertEquals("test payload 2", new String(mockClient.mostRecentPublishPayload,
+                StringUtils.UTF8));
+
+        mockClient.publishCallbacks.get(3).onSuccess(mockClient.testDeliveryToken);
+        mockClient.publishCallbacks.get(4).onSuccess(mockClient.testDeliveryToken);
+        assertEquals(6, mockClient.publishCalls);
+        assertEquals("test payload 4", new String(mockClient.mostRecentPublishPayload,
+                StringUtils.UTF8));
+        mockClient.publishCallbacks.get(5).onSuccess(mockClient.testDeliveryToken);
+        assertEquals(0, testClient.getMqttMessageQueue().size());
+    }
+
+    @Test
+    public void testOfflinePublishQueueDrainingRetriesFailedPublishes() throws Exception {
+        MockMqttClient mockClient = new MockMqttClient();
+
+        AWSIotMqttManager testClient = new AWSIotMqttManager("test-client",
+                Region.getRegion(Regions.US_EAST_1), TEST_ENDPOINT_PREFIX);
+        testClient.setMqttClient(mockClient);
+        testClient.setDrainingWindow(2);
+
+        TestClientStatusCallback csb = new TestClientStatusCallback();
+        TestMessageDeliveryCallback mdcb = new TestMessageDeliveryCallback();
+
+        KeyStore testKeystore = AWSIotKeystoreHelper.getIotKeystore(CERT_ID, KEYSTORE_PATH,
+                KEYSTORE_NAME, KEYSTORE_PASSWORD);
+        testClient.connect(testKeystore, csb);
+        mockClient.mockConnectSuccess();
+        mockClient.mockDisconnect();
+
+        for (int i = 0; i < 3; i++) {
+            testClient.publishString("test payload " + i, "test/topic", AWSIotMqttQos.QOS1,
+                    mdcb, "TEST_TOKEN_" + i);
+        }
+        assertEquals(3, testClient.getMqttMessageQueue().size());
+
+        // too many publishes in flight doesn't count against the message
+        mockClient.throwsExceptionOnPublish = true;
+        mockClient.publishExceptionReasonCode = MqttException.REASON_CODE_MAX_INFLIGHT;
+        Robolectric.getForegroundThreadScheduler().advanceBy(4100, TimeUnit.MILLISECONDS);
+        mockClient.mockConnectSuccess();
+        for (int i = 0; i < 5; i++) {
+            Robolectric.getForegroundThreadScheduler().advanceBy(250, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(3, testClient.getMqttMessageQueue().size());
+        assertEquals(0, mdcb.statuses.size());
+        checkOfflinePublishingQueue(testClient);
+
+        // other errors are retried after the draining interval, and the
+        // message is dropped after 3 failures
+        mockClient.publishExceptionReasonCode = MqttException.REASON_CODE_CLIENT_EXCEPTION;
+        Robolectric.getForegroundThreadScheduler().advanceBy(250, TimeUnit.MILLISECONDS);
+        Robolectric.getForegroundThreadScheduler().advanceBy(250, TimeUnit.MILLISECONDS);
+        assertEquals(3, testClient.getMqttMessageQueue().size());
+        assertEquals(0, mdcb.statuses.size());
+        Robolectric.getForegroundThreadScheduler().advanceBy(250, TimeUnit.MILLISECONDS);
+        assertEquals(2, testClient.getMqttMessageQueue().size());
+        assertEquals(1, mdcb.statuses.size());
+        assertEquals(AWSIotMqttMessageDeliveryCallback.MessageDeliveryStatus.Fail, mdcb.statuses.get(0));
+        assertEquals("TEST_TOKEN_0", mdcb.userDatas.get(0));
+        checkOfflinePublishingQueue(testClient, 1);
+
+        // draining goes on with the next messages once publishes succeed
+        mockClient.throwsExceptionOnPublish = false;
+        Robolectric.getForegroundThreadScheduler().advanceBy(250, TimeUnit.MILLISECONDS);
+        assertEquals(2, mockClient.publishCalls);
+        assertEquals("test payload 2", new String(mockClient.mostRecentPublishPayload,
+                StringUtils.UTF8));
+        assertEquals(2, testClient.getMqttMessageQueue().size());
+    }
+
+    @Test
+    public void testOfflinePublishQueueDirectoryKeepsUnacknowledgedMessages() throws Exception {
+        File directory = new File("AWSIotMqttManagerTestQueueUnacknowledged");
+        try {
+            MockMqttClient mockClient = new MockMqttClient();
+
+            AWSIotMqttManager testClient = new AWSIotMqttManager("test-client",
+                    Region.getRegion(Regions.US_EAST_1), TEST_ENDPOINT_PREFIX);
+            testClient.setMqttClient(mockClient);
+            testClient.setOfflinePublishQueueDirectory(directory);
+            testClient.setDrainingWindow(2);
+
+            TestClientStatusCallback csb = new TestClientStatusCallback();
+
+            KeyStore testKeystore = AWSIotKeystoreHelper.getIotKeystore(CERT_ID, KEYSTORE_PATH,
+                    KEYSTORE_NAME, KEYSTORE_PASSWORD);
+            testClient.connect(testKeystore, csb);
+            mockClient.mockConnectSuccess();
+            mockClient.mockDisconnect();
+
+            for (int i = 0; i < 3; i++) {
+                testClient.publishString("test payload " + i, "test/topic", AWSIotMqttQos.QOS1);
+            }
+
+            Robolectric.getForegroundThreadScheduler().advanceBy(4100, TimeUnit.MILLISECONDS);
+            mockClient.mockConnectSuccess();
+            assertEquals(2, mockClient.publishCalls);
+
+            // published messages stay on disk until acknowledged
+            assertEquals(3, loadQueue(directory).size());
+            mockClient.publishCallbacks.get(0).onSuccess(mockClient.testDeliveryToken);
+            assertEquals(2, loadQueue(directory).size());
+            assertEquals("test payload 1", new String(loadQueue(directory).get(0).getMessage(),
+                    StringUtils.UTF8));
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    private List<AWSIotMqttQueueMessage> loadQueue(File directory) throws Exception {
+        return new AWSIotMqttOfflineQueueStore(directory).load();
+    }
+
+    @Test
+    public void testOfflinePublishQueueDirectorySetTwice() throws Exception {
+        File directory = new File("AWSIotMqttManagerTestQueueTwice");
+        try {
+            MockMqttClient mockClient = new MockMqttClient();
+
+            AWSIotMqttManager testClient = new AWSIotMqttManager("test-client",
+                    Region.getRegion(Regions.US_EAST_1), TEST_ENDPOINT_PREFIX);
+            testClient.setMqttClient(mockClient);
+            testClient.setOfflinePublishQueueDirectory(directory);
+
+            TestClientStatusCallback csb = new TestClientStatusCallback();
+
+            KeyStore testKeystore = AWSIotKeystoreHelper.getIotKeystore(CERT_ID, KEYSTORE_PATH,
+                    KEYSTORE_NAME, KEYSTORE_PASSWORD);
+            testClient.connect(testKeystore, csb);
+            mockClient.mockConnectSuccess();
+            mockClient.mockDisconnect();
+
+            for (int i = 0; i < 3; i++) {
+                testClient.publishString("test payload " + i, "test/topic", AWSIotMqttQos.QOS0);
+            }
+
+            // setting the same directory again, or after keeping the queue in
+            // memory only, doesn't duplicate the messages
+            testClient.setOfflinePublishQueueDirectory(directory);
+            assertEquals(3, testClient.getMqttMessageQueue().size());
+            testClient.setOfflinePublishQueueDirectory(null);
+            testClient.setOfflinePublishQueueDirectory(directory);
+            assertEquals(3, testClient.getMqttMessageQueue().size());
+            checkOfflinePublishingQueue(testClient);
+
+            AWSIotMqttManager restartedClient = new AWSIotMqttManager("test-client",
+                    Region.getRegion(Regions.US_EAST_1), TEST_ENDPOINT_PREFIX);
+            restartedClient.setMqttClient(new MockMqttClient());
+            restartedClient.setOfflinePublishQueueDirectory(directory);
+            assertEquals(3, restartedClient.getMqttMessageQueue().size());
+            checkOfflinePublishingQueue(restartedClient);
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void testOfflinePublishQueueDirectory() throws Exception {
+        File directory = new File("AWSIotMqttManagerTestQueue");
+        try {
+            MockMqttClient mockClient = new MockMqttClient();
+
+            AWSIotMqttManager testClient = new AWSIotMqttManager("test-client",
+                    Region.getRegion(Regions.US_EAST_1), TEST_ENDPOINT_PREFIX);
+            testClient.setMqttClient(mockClient);
+            testClient.setOfflinePublishQueueDirectory(directory);
+
+            TestClientStatusCallback csb = new TestClientStatusCallback();
+
+            KeyStore testKeystore = AWSIotKeystoreHelper.getIotKeystore(CERT_ID, KEYSTORE_PATH,
+                    KEYSTORE_NAME, KEYSTORE_PASSWORD);
+            testClient.connect(testKeystore, csb);
+            mockClient.mockConnectSuccess();
+            mockClient.mockDisconnect();
+            assertEquals(MqttManagerConnectionState.Reconnecting, testClient.getConnectionState());
+
+            for (int i = 0; i < 3; i++) {
+                testClient.publishString("test payload " + i, "test/topic", AWSIotMqttQos.QOS0);
+            }
+
+            // a new client, as after the process restarts, loads the queued messages
+            MockMqttClient restartedMockClient = new MockMqttClient();
+            AWSIotMqttManager restartedClient = new AWSIotMqttManager("test-client",
+                    Region.getRegion(Regions.US_EAST_1), TEST_ENDPOINT_PREFIX);
+            restartedClient.setMqttClient(restartedMockClient);
+            restartedClient.setOfflinePublishQueueDirectory(directory);
+            assertEquals(3, restartedClient.getMqttMessageQueue().size());
+            checkOfflinePublishingQueue(restartedClient);
+
+            restartedClient.connect(testKeystore, csb);
+            assertEquals(3, restartedClient.getMqttMessageQueue().size());
+            restartedMockClient.mockConnectSuccess();
+            Robolectric.getForegroundThreadScheduler().advanceBy(1000, TimeUnit.MILLISECONDS);
+            assertEquals(3, restartedMockClient.publishCalls);
+            assertEquals(0, restartedClient.getMqttMessageQueue().size());
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
     @Test
     public void testOfflinePublishQueueLimitOldest() throws Exception {
         MockMqttClient mockClient = new MockMqttClient();
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.iot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.amazonaws.util.StringUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+public class AWSIotMqttOfflineQueueStoreTest {
+
+    private static final File TEST_DIRECTORY = new File("AWSIotMqttOfflineQueueStoreTest");
+
+    @Before
+    public void setUp() {
+        delete(TEST_DIRECTORY);
+    }
+
+    @After
+    public void tearDown() {
+        delete(TEST_DIRECTORY);
+    }
+
+    private void delete(File f) {
+        if (f.isDirectory()) {
+            for (File subFile : f.listFiles()) {
+                delete(subFile);
+            }
+        }
+        f.delete();
+    }
+
+    private static AWSIotMqttQueueMessage message(int i) {
+        return new AWSIotMqttQueueMessage("test/topic/" + i,
+                ("test payload " + i).getBytes(StringUtils.UTF8),
+                i % 2 == 0 ? AWSIotMqttQos.QOS0 : AWSIotMqttQos.QOS1,
+                new PublishMessageUserData(null, null));
+    }
+
+    private static void assertMessages(List<AWSIotMqttQueueMessage> messages, int first, int last) {
+        assertEquals(last - first + 1, messages.size());
+        for (int i = first; i <= last; i++) {
+            AWSIotMqttQueueMessage expected = message(i);
+            AWSIotMqttQueueMessage actual = messages.get(i - first);
+            assertEquals(expected.getTopic(), actual.getTopic());
+            assertEquals(new String(expected.getMessage(), StringUtils.UTF8),
+                    new String(actual.getMessage(), StringUtils.UTF8));
+            assertEquals(expected.getQos(), actual.getQos());
+            assertNull(actual.getUserData().getUserCallback());
+        }
+    }
+
+    @Test
+    public void testAppendAndLoad() throws IOException {
+        AWSIotMqttOfflineQueueStore store = new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY);
+        assertEquals(0, store.load().size());
+        for (int i = 0; i < 5; i++) {
+            store.append(message(i));
+        }
+
+        assertMessages(new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY).load(), 0, 4);
+    }
+
+    @Test
+    public void testRemoveFirst() throws IOException {
+        AWSIotMqttOfflineQueueStore store = new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY);
+        store.load();
+        for (int i = 0; i < 5; i++) {
+            store.append(message(i));
+        }
+        store.removeFirst(2);
+        store.append(message(5));
+
+        AWSIotMqttOfflineQueueStore reopened = new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY);
+        assertMessages(reopened.load(), 2, 5);
+
+        // removing more messages than queued empties the queue
+        reopened.removeFirst(10);
+        assertEquals(0, new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY).load().size());
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        AWSIotMqttOfflineQueueStore store = new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY);
+        store.load();
+        for (int i = 0; i < 5; i++) {
+            store.append(message(i));
+        }
+        store.clear();
+        store.append(message(5));
+
+        assertMessages(new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY).load(), 5, 5);
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        AWSIotMqttOfflineQueueStore store = new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY);
+        store.load();
+        for (int i = 0; i < 4000; i++) {
+            store.append(message(i));
+        }
+        long logSize = logSize();
+        for (int i = 0; i < 3990; i += 10) {
+            store.removeFirst(10);
+        }
+        assertTrue("removed messages are compacted away", logSize() < logSize / 2);
+        store.append(message(4000));
+
+        assertMessages(new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY).load(), 3990, 4000);
+    }
+
+    @Test
+    public void testPartiallyWrittenMessageIsDropped() throws IOException {
+        AWSIotMqttOfflineQueueStore store = new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY);
+        store.load();
+        store.append(message(0));
+        store.append(message(1));
+
+        // simulate a crash in the middle of writing the second message
+        File log = logFiles()[0];
+        RandomAccessFile raf = new RandomAccessFile(log, "rw");
+        raf.setLength(log.length() - 3);
+        raf.close();
+
+        AWSIotMqttOfflineQueueStore reopened = new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY);
+        assertMessages(reopened.load(), 0, 0);
+        reopened.append(message(2));
+        List<AWSIotMqttQueueMessage> loaded = new AWSIotMqttOfflineQueueStore(TEST_DIRECTORY).load();
+        assertEquals(2, loaded.size());
+        assertEquals("test/topic/2", loaded.get(1).getTopic());
+    }
+
+    private File[] logFiles() {
+        File[] files = TEST_DIRECTORY.listFiles();
+        int count = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(".log")) {
+                files[count++] = file;
+            }
+        }
+        File[] logs = new File[count];
+        System.arraycopy(files, 0, logs, 0, count);
+        return logs;
+    }
+
+    private long logSize() {
+        long size = 0;
+        for (File log : logFiles()) {
+            size += log.length();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.iot;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class AWSIotMqttTopicIndexTest {
+
+    private static final String[] FILTERS = {
+            "test", "test/1", "test/1/2", "#", "+", "test/+", "test/+/1", "test/+/+/+/+",
+            "+/1", "+/1/+", "test/#", "test/1/#", "+/#", "a//b", "a/+/b", "/a", "+/a", "a/b/",
+            "", "/", "a/#/c", "Aa", "BB"
+    };
+
+    private static final String[] TOPICS = {
+            "test", "test/1", "test/1/2", "test/1/2/3", "test/1/2/3/4", "test/1/2/3/4/5",
+            "nottest/1", "test/12", "test/1/test", "A/1/B", "test/test/test", "not/1",
+            "a//b", "a/x/b", "a/b", "a/b/", "/a", "a", "", "/", "a/x/c", "a/x", "Aa", "BB"
+    };
+
+    private AWSIotMqttTopicIndex index;
+    private Set<String> delivered;
+
+    @Before
+    public void setUp() {
+        index = new AWSIotMqttTopicIndex();
+        delivered = new HashSet<String>();
+    }
+
+    private AWSIotMqttTopic subscription(final String topicFilter) {
+        return new AWSIotMqttTopic(topicFilter, AWSIotMqttQos.QOS0,
+                new AWSIotMqttNewMessageCallback() {
+                    @Override
+                    public void onMessageArrived(String topic, byte[] data) {
+                        delivered.add(topicFilter);
+                    }
+                });
+    }
+
+    private Set<String> expectedMatches(Iterable<String> topicFilters, String topic) {
+        Set<String> expected = new HashSet<String>();
+        for (String topicFilter : topicFilters) {
+            if (AWSIotMqttManager.isTopicMatch(topicFilter, topic)) {
+                expected.add(topicFilter);
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    public void testDeliverMatchesIsTopicMatch() {
+        List<String> subscribed = new ArrayList<String>();
+        for (String topicFilter : FILTERS) {
+            index.put(subscription(topicFilter));
+            subscribed.add(topicFilter);
+        }
+        for (String topic : TOPICS) {
+            delivered.clear();
+            int count = index.deliver(topic, new byte[0]);
+            Set<String> expected = expectedMatches(subscribed, topic);
+            assertEquals("topic " + topic, expected, delivered);
+            assertEquals("topic " + topic, expected.size(), count);
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        List<String> subscribed = new ArrayList<String>();
+        for (String topicFilter : FILTERS) {
+            index.put(subscription(topicFilter));
+            subscribed.add(topicFilter);
+        }
+        for (int i = 0; i < FILTERS.length; i += 2) {
+            index.remove(FILTERS[i]);
+            subscribed.remove(FILTERS[i]);
+        }
+        index.remove("not/subscribed");
+        for (String topic : TOPICS) {
+            delivered.clear();
+            index.deliver(topic, new byte[0]);
+            assertEquals("topic " + topic, expectedMatches(subscribed, topic), delivered);
+        }
+
+        for (String topicFilter : subscribed) {
+            index.remove(topicFilter);
+        }
+        for (String topic : TOPICS) {
+            assertEquals("topic " + topic, 0, index.deliver(topic, new byte[0]));
+        }
+    }
+
+    @Test
+    public void testPutReplacesSubscriptionWithSameFilter() {
+        final List<String> calls = new ArrayList<String>();
+        index.put(new AWSIotMqttTopic("test/+", AWSIotMqttQos.QOS0,
+                new AWSIotMqttNewMessageCallback() {
+                    @Override
+                    public void onMessageArrived(String topic, byte[] data) {
+                        calls.add("first");
+                    }
+                }));
+        index.put(new AWSIotMqttTopic("test/+", AWSIotMqttQos.QOS1,
+                new AWSIotMqttNewMessageCallback() {
+                    @Override
+                    public void onMessageArrived(String topic, byte[] data) {
+                        calls.add("second");
+                    }
+                }));
+        assertEquals(1, index.deliver("test/1", new byte[0]));
+        assertEquals("second", calls.get(0));
+    }
+
+    @Test
+    public void testClear() {
+        for (String topicFilter : FILTERS) {
+            index.put(subscription(topicFilter));
+        }
+        index.clear();
+        for (String topic : TOPICS) {
+            assertEquals("topic " + topic, 0, index.deliver(topic, new byte[0]));
+        }
+    }
+
+    @Test
+    public void testCountLevelsMatchesSplit() {
+        for (String topic : TOPICS) {
+            assertEquals("topic " + topic, topic.split("/").length,
+                    AWSIotMqttTopicIndex.countLevels(topic));
+        }
+        assertEquals("//".split("/").length, AWSIotMqttTopicIndex.countLevels("//"));
+        assertEquals("a//".split("/").length, AWSIotMqttTopicIndex.countLevels("a//"));
+    }
+}
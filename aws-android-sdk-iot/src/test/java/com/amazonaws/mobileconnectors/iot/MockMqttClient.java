@@ -3,7 +3,9 @@ package com.amazonaws.mobileconnectors.iot;
 
 import org.eclipse.paho.client.mqttv3.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 public class MockMqttClient extends MqttAsyncClient {
     public int connectCalls = 0;
@@ -18,6 +20,7 @@ public class MockMqttClient extends MqttAsyncClient {
     public boolean mostRecentPublishRetained;
     public Object mostRecentPublishUserContext;
     public IMqttActionListener mostRecentPublishCallback;
+    public List<IMqttActionListener> publishCallbacks = new ArrayList<IMqttActionListener>();
     public boolean isConnected;
     public MqttCallback mockCallback;
     public IMqttActionListener mockConnectionStatusCallback;
@@ -25,6 +28,7 @@ public class MockMqttClient extends MqttAsyncClient {
     public boolean throwsExceptionOnConnect;
     public MqttException connectException;
     public boolean throwsExceptionOnPublish;
+    public int publishExceptionReasonCode = MqttException.REASON_CODE_CLIENT_EXCEPTION;
     public boolean throwsExceptionOnSubscribe;
     public boolean throwsExceptionOnUnsubscribe;
     public boolean throwsExceptionOnDisconnect;
@@ -82,7 +86,7 @@ public class MockMqttClient extends MqttAsyncClient {
             Object userContext, IMqttActionListener callback)
             throws MqttException {
         if (throwsExceptionOnPublish) {
-            throw new MqttException(MqttException.REASON_CODE_CLIENT_EXCEPTION);
+            throw new MqttException(publishExceptionReasonCode);
         }
         ++publishCalls;
         mostRecentPublishTopic = topic;
@@ -91,6 +95,7 @@ public class MockMqttClient extends MqttAsyncClient {
         mostRecentPublishRetained = retained;
         mostRecentPublishUserContext = userContext;
         mostRecentPublishCallback = callback;
+        publishCallbacks.add(callback);
         return testDeliveryToken;
     }
 
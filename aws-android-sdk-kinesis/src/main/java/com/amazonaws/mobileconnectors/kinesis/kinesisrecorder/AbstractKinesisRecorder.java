@@ -17,7 +17,10 @@ package com.amazonaws.mobileconnectors.kinesis.kinesisrecorder;
 
 
 import com.amazonaws.AmazonClientException;
-import com.amazonaws.mobileconnectors.kinesis.kinesisrecorder.FileRecordStore.RecordIterator;
+import com.amazonaws.mobileconnectors.kinesis.kinesisrecorder.SegmentedRecordStore.Position;
+import com.amazonaws.mobileconnectors.kinesis.kinesisrecorder.SegmentedRecordStore.Record;
+import com.amazonaws.mobileconnectors.kinesis.kinesisrecorder.SegmentedRecordStore.RecordIterator;
+import com.amazonaws.util.DaemonThreadPools;
 import com.amazonaws.util.StringUtils;
 
 import com.amazonaws.logging.Log;
@@ -25,7 +28,14 @@ import com.amazonaws.logging.LogFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * An abstract class for Amazon Kinesis recorders. It manages local file store
@@ -45,13 +55,22 @@ public abstract class AbstractKinesisRecorder {
      * Maximum size in bytes of records in PutRecordBatch.
      */
     private static final int MAX_BATCH_RECORDS_SIZE_BYTES = 512 * 1024;
+    /**
+     * Time that idle threads sending batches are kept alive.
+     */
+    private static final long SUBMIT_THREAD_KEEP_ALIVE_SECONDS = 60;
 
     /**
      * The configurable options for Kinesis Recorder, includes the
      * ClientConfiguration of the low level client.
      */
     protected KinesisRecorderConfig config;
-    protected FileRecordStore recordStore;
+    protected SegmentedRecordStore recordStore;
+
+    /**
+     * Sends batches for submitAllRecords(), created on first use.
+     */
+    private ThreadPoolExecutor submitExecutor;
 
     /**
      * Gets the sender to send saved records.
@@ -66,7 +85,7 @@ public abstract class AbstractKinesisRecorder {
      * @param recordStore local file store that keeps Kinesis records
      * @param config configuration
      */
-    protected AbstractKinesisRecorder(FileRecordStore recordStore, KinesisRecorderConfig config) {
+    protected AbstractKinesisRecorder(SegmentedRecordStore recordStore, KinesisRecorderConfig config) {
         if (recordStore == null) {
             throw new IllegalArgumentException("Record store can't be null");
         }
@@ -97,7 +116,7 @@ public abstract class AbstractKinesisRecorder {
      */
     public void saveRecord(byte[] data, String streamName) {
         try {
-            recordStore.put(FileRecordParser.asString(streamName, data));
+            recordStore.put(streamName, data);
         } catch (final IOException e) {
             throw new AmazonClientException("Error saving record", e);
         }
@@ -111,6 +130,14 @@ public abstract class AbstractKinesisRecorder {
      * invalid) will be deleted. Note: Since KinesisRecorder uses synchronous
      * methods to make calls to Amazon Kinesis, do not call submitAll() on the
      * main thread of your application.
+     * <p>
+     * Batches are sent concurrently, up to
+     * {@link KinesisRecorderConfig#getMaxInFlightRequests()} at once, while
+     * the next batch is read from the device. Batches of the same stream may
+     * complete in any order, as records that partially fail are already saved
+     * again and sent after the records saved later. This method returns when
+     * no more requests are in flight.
+     * </p>
      *
      * @throws AmazonClientException Thrown if there was an unrecoverable error
      *             during submission. Note: If the request appears to be
@@ -120,92 +147,95 @@ public abstract class AbstractKinesisRecorder {
     public synchronized void submitAllRecords() {
         final RecordSender sender = getRecordSender();
         final RecordIterator iterator = recordStore.iterator();
-        final List<byte[]> data = new ArrayList<byte[]>(MAX_RECORDS_PER_BATCH);
+        final int maxInFlight = config.getMaxInFlightRequests();
+        final CompletionService<Batch> completionService = new ExecutorCompletionService<Batch>(
+                getSubmitExecutor(maxInFlight));
+        // batches sent but not removed from the record store, in the order they were read
+        final LinkedList<Batch> uncommitted = new LinkedList<Batch>();
+        final AtomicBoolean unknownErrorRetried = new AtomicBoolean(false);
+        RuntimeException error = null;
+        int inFlight = 0;
         int retry = 0;
         int count = 0;
-        boolean unknownErrorRetried = false;
         try {
-            while (iterator.hasNext() && retry < MAX_RETRY_COUNT) {
-                final String streamName = nextBatch(iterator, data, MAX_RECORDS_PER_BATCH,
-                        MAX_BATCH_RECORDS_SIZE_BYTES);
-                if (streamName == null || data.isEmpty()) {
+            while (true) {
+                // read ahead and send batches while there is room
+                while (error == null && retry < MAX_RETRY_COUNT && inFlight < maxInFlight) {
+                    final Batch next = readBatch(iterator);
+                    if (next == null) {
+                        break;
+                    }
+                    uncommitted.add(next);
+                    completionService.submit(new SendBatchTask(sender, next, unknownErrorRetried));
+                    inFlight++;
+                }
+                if (inFlight == 0) {
                     break;
                 }
 
-                try {
-
-                    List<byte[]> failures = null;
-                    try {
-                        failures = sender.sendBatch(streamName, data);
-                    } catch (AmazonClientException ace) {
-                        if (!unknownErrorRetried
-                                && ace.getMessage() != null
-                                && ace.getMessage().contains("Unable to unmarshall error response")) {
-                            // Retry once for unforeseen error, possible kinesis error without shape
-                            unknownErrorRetried = true;
-                            failures = data;
-                        } else {
-                            throw ace;
-                        }
-                    }
+                final Batch batch = takeCompletedBatch(completionService);
+                inFlight--;
 
-                    final int successCount = data.size() - failures.size();
+                if (batch.error == null) {
+                    final int successCount = batch.data.size() - batch.failures.size();
                     count += successCount;
 
                     /**
                      * We hold off on removing records until we are sure that we
                      * have successfully made the request. We would prefer to
-                     * send duplicates than to lose records. This is still not a
-                     * perfect solution as there is a chance for loss between
-                     * removing the read records and re-saving the failed
-                     * records.
+                     * send duplicates than to lose records, so the failed
+                     * records are saved again before the read records are
+                     * removed.
                      * https://github.com/aws/aws-sdk-android/issues/225 If this
                      * errors it will throw an IOException. We don't wrap it so
                      * it's handled separately from network errors which will be
                      * wrapped by an AmazonClientException.
                      */
-                    iterator.removeReadRecords();
+                    for (final byte[] bytes : batch.failures) {
+                        saveRecord(bytes, batch.streamName);
+                    }
+                    batch.committable = true;
+                    removeCommittedBatches(iterator, uncommitted);
 
                     if (successCount == 0) {
                         // no record went through, increase retry count.
                         retry++;
                     }
-                    if (!failures.isEmpty()) {
-                        for (final byte[] bytes : failures) {
-                            saveRecord(bytes, streamName);
-                        }
+                } else if (batch.error instanceof AmazonClientException
+                        && !sender.isRecoverable((AmazonClientException) batch.error)) {
+                    // Data is dead and should be added to dead letter queue
+                    try {
+                        this.config.getDeadLetterListener().onRecordsDropped(batch.streamName,
+                                batch.data);
+                    } catch (Exception e) {
+                        LOGGER.error("DeadLetterListener onRecordsDropped has thrown an exception (user code)", e);
                     }
-
-                } catch (final AmazonClientException ace) {
-                    if (sender.isRecoverable(ace)) {
-                        LOGGER.error(
-                                "ServiceException in submit all, the values of the data inside the requests appears valid.  The request will be kept",
-                                ace);
-                    } else {
-
-                        // Data is dead and should be added to dead letter queue
-                        try {
-                            this.config.getDeadLetterListener().onRecordsDropped(streamName, data);
-                        } catch (Exception e) {
-                            LOGGER.error("DeadLetterListener onRecordsDropped has thrown an exception (user code)", e);
-                        }
-
-                        try {
-                            iterator.removeReadRecords();
-                        } catch (final IOException e) {
-                            throw new AmazonClientException("Failed to drop bad records.", e);
-                        }
-                        // We have reason to believe the values in the request
-                        // is invalid and cannot be sent or recovered.
-                        LOGGER.error(
-                                "ServiceException in submit all, the last request is presumed to be the cause and will be dropped",
-                                ace);
+                    batch.committable = true;
+                    try {
+                        removeCommittedBatches(iterator, uncommitted);
+                    } catch (final IOException e) {
+                        throw new AmazonClientException("Failed to drop bad records.", e);
+                    }
+                    // We have reason to believe the values in the request
+                    // is invalid and cannot be sent or recovered.
+                    LOGGER.error(
+                            "ServiceException in submit all, the last request is presumed to be the cause and will be dropped",
+                            batch.error);
+                    if (error == null) {
+                        error = batch.error;
+                    }
+                } else {
+                    LOGGER.error(
+                            "ServiceException in submit all, the values of the data inside the requests appears valid.  The request will be kept",
+                            batch.error);
+                    if (error == null) {
+                        error = batch.error;
                     }
-                    throw ace;
-                } catch (final IOException e) {
-                    throw new AmazonClientException("Failed to remove read records", e);
                 }
             }
+            removeSentBatches(iterator, uncommitted);
+        } catch (final IOException e) {
+            throw new AmazonClientException("Failed to remove read records", e);
         } finally {
             LOGGER.debug(String.format("submitAllRecords sent %d records", count));
             try {
@@ -214,6 +244,157 @@ public abstract class AbstractKinesisRecorder {
                 throw new AmazonClientException("Failed to close record file", e);
             }
         }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Removes the records of the batches at the head of the list that are
+     * committable. A batch that completes before an earlier one is kept until
+     * the earlier one completes, so that records of a batch which has to be
+     * resent are never removed.
+     */
+    private void removeCommittedBatches(RecordIterator iterator, LinkedList<Batch> uncommitted)
+            throws IOException {
+        Position position = null;
+        while (!uncommitted.isEmpty() && uncommitted.getFirst().committable) {
+            position = uncommitted.removeFirst().end;
+        }
+        if (position != null) {
+            iterator.removeRecordsBefore(position);
+        }
+    }
+
+    /**
+     * Removes the records of every batch up to the last committable one once
+     * no batch is in flight. The records of a batch before it that has to be
+     * resent are saved again first, so that the batches which went through
+     * after it are not sent again by the next call. If the record store is
+     * full, the records from that batch on are kept where they are instead.
+     */
+    private void removeSentBatches(RecordIterator iterator, LinkedList<Batch> uncommitted)
+            throws IOException {
+        int last = -1;
+        for (int i = 0; i < uncommitted.size(); i++) {
+            if (uncommitted.get(i).committable) {
+                last = i;
+            }
+        }
+        Position position = null;
+        for (int i = 0; i <= last; i++) {
+            final Batch batch = uncommitted.getFirst();
+            if (!batch.committable && !resaveRecords(batch)) {
+                break;
+            }
+            position = uncommitted.removeFirst().end;
+        }
+        if (position != null) {
+            iterator.removeRecordsBefore(position);
+        }
+    }
+
+    private boolean resaveRecords(Batch batch) throws IOException {
+        for (final byte[] bytes : batch.data) {
+            if (!recordStore.put(batch.streamName, bytes)) {
+                LOGGER.warn("Record store is full, keeping the records of a failed batch in place");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Batch readBatch(RecordIterator iterator) {
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        final List<byte[]> data = new ArrayList<byte[]>(MAX_RECORDS_PER_BATCH);
+        final String streamName = nextBatch(iterator, data, MAX_RECORDS_PER_BATCH,
+                MAX_BATCH_RECORDS_SIZE_BYTES);
+        if (streamName == null || data.isEmpty()) {
+            return null;
+        }
+        return new Batch(streamName, data, iterator.getReadPosition());
+    }
+
+    private static Batch takeCompletedBatch(CompletionService<Batch> completionService) {
+        try {
+            return completionService.take().get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException("Interrupted while submitting records", e);
+        } catch (final ExecutionException e) {
+            // SendBatchTask doesn't throw
+            throw new AmazonClientException("Failed to submit records", e.getCause());
+        }
+    }
+
+    private ThreadPoolExecutor getSubmitExecutor(int maxInFlight) {
+        if (submitExecutor == null) {
+            submitExecutor = DaemonThreadPools.newFixedThreadPool("KinesisRecorderSubmit",
+                    maxInFlight, SUBMIT_THREAD_KEEP_ALIVE_SECONDS);
+        } else {
+            DaemonThreadPools.setPoolSize(submitExecutor, maxInFlight);
+        }
+        return submitExecutor;
+    }
+
+    /**
+     * A batch of records of one stream and the position after its last
+     * record in the record store.
+     */
+    private static final class Batch {
+        private final String streamName;
+        private final List<byte[]> data;
+        private final Position end;
+        private List<byte[]> failures;
+        private RuntimeException error;
+        /** Whether the records can be removed from the record store. **/
+        private boolean committable;
+
+        private Batch(String streamName, List<byte[]> data, Position end) {
+            this.streamName = streamName;
+            this.data = data;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Sends a batch and keeps the records that failed, or the error, in the
+     * batch.
+     */
+    private static final class SendBatchTask implements Callable<Batch> {
+        private final RecordSender sender;
+        private final Batch batch;
+        private final AtomicBoolean unknownErrorRetried;
+
+        private SendBatchTask(RecordSender sender, Batch batch,
+                AtomicBoolean unknownErrorRetried) {
+            this.sender = sender;
+            this.batch = batch;
+            this.unknownErrorRetried = unknownErrorRetried;
+        }
+
+        @Override
+        public Batch call() {
+            try {
+                try {
+                    batch.failures = sender.sendBatch(batch.streamName, batch.data);
+                } catch (AmazonClientException ace) {
+                    if (ace.getMessage() != null
+                            && ace.getMessage().contains("Unable to unmarshall error response")
+                            && unknownErrorRetried.compareAndSet(false, true)) {
+                        // Retry once for unforeseen error, possible kinesis error without shape
+                        batch.failures = batch.data;
+                    } else {
+                        throw ace;
+                    }
+                }
+            } catch (final RuntimeException e) {
+                batch.error = e;
+            }
+            return batch;
+        }
     }
 
     /**
@@ -234,29 +415,16 @@ public abstract class AbstractKinesisRecorder {
         String lastStreamName = null;
         int size = 0;
         int count = 0;
-        final FileRecordParser frp = new FileRecordParser();
         while (iterator.hasNext() && count < maxCount && size < maxSize) {
-            final String line = iterator.peek();
-            if (line == null || line.isEmpty()) {
-                iterator.next();
-                continue;
-            }
-            // parse a line. Skip in case of corrupted data
-            try {
-                frp.parse(line);
-            } catch (final Exception e) {
-                LOGGER.warn("Failed to read line. Skip.", e);
-                iterator.next();
-                continue;
-            }
+            final Record record = iterator.peek();
 
             // check whether it belongs to previous batch
-            if (lastStreamName == null || lastStreamName.equals(frp.streamName)) {
-                data.add(frp.bytes);
+            if (lastStreamName == null || lastStreamName.equals(record.streamName)) {
+                data.add(record.data);
                 // update counter
                 count++;
-                size += frp.bytes.length;
-                lastStreamName = frp.streamName;
+                size += record.data.length;
+                lastStreamName = record.streamName;
                 iterator.next();
             } else {
                 break;
@@ -143,7 +143,7 @@ public class KinesisRecorder extends AbstractKinesisRecorder {
      */
     public KinesisRecorder(File directory, Regions region,
             AWSCredentialsProvider credentialsProvider, KinesisRecorderConfig config) {
-        super(new FileRecordStore(directory, RECORD_FILE_NAME,
+        super(new SegmentedRecordStore(directory, RECORD_FILE_NAME,
                 config.getMaxStorageSize()), config);
 
         if (directory == null || credentialsProvider == null || region == null || config == null) {
@@ -167,7 +167,7 @@ public class KinesisRecorder extends AbstractKinesisRecorder {
      * @param recordStore record store
      * @param config configuration
      */
-    KinesisRecorder(KinesisStreamRecordSender sender, FileRecordStore recordStore,
+    KinesisRecorder(KinesisStreamRecordSender sender, SegmentedRecordStore recordStore,
             KinesisRecorderConfig config) {
         super(recordStore, config);
         this.sender = sender;
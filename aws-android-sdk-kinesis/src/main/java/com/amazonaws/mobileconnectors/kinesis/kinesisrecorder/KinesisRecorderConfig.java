@@ -24,7 +24,9 @@ import com.amazonaws.ClientConfiguration;
 public class KinesisRecorderConfig {
 
     private static final long DEFAUT_MAX_STORAGE_SIZE = 1024 * 1024 * 5L;
+    private static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 4;
     private long maxStorageSize = DEFAUT_MAX_STORAGE_SIZE;
+    private int maxInFlightRequests = DEFAULT_MAX_IN_FLIGHT_REQUESTS;
     private final ClientConfiguration clientConfiguration;
     private String partitionKey;
     private DeadLetterListener mDeadLetterListener;
@@ -59,6 +61,7 @@ public class KinesisRecorderConfig {
      */
     public KinesisRecorderConfig(KinesisRecorderConfig other) {
         this.maxStorageSize = other.getMaxStorageSize();
+        this.maxInFlightRequests = other.getMaxInFlightRequests();
         this.clientConfiguration = new ClientConfiguration(other.getClientConfiguration());
         this.partitionKey = other.partitionKey;
     }
@@ -94,6 +97,31 @@ public class KinesisRecorderConfig {
         return this.maxStorageSize;
     }
 
+    /**
+     * Sets the maximum number of batch requests that submitAllRecords() keeps
+     * in flight at once, whether they belong to the same stream or not. The
+     * default is 4.
+     *
+     * @param maxInFlightRequests the maximum number of requests in flight,
+     *            at least 1.
+     * @return This class for chaining
+     */
+    public KinesisRecorderConfig withMaxInFlightRequests(int maxInFlightRequests) {
+        if (maxInFlightRequests < 1) {
+            throw new IllegalArgumentException("maxInFlightRequests must be at least 1");
+        }
+        this.maxInFlightRequests = maxInFlightRequests;
+        return this;
+    }
+
+    /**
+     * @return The maximum number of batch requests that submitAllRecords()
+     *         keeps in flight at once.
+     */
+    public int getMaxInFlightRequests() {
+        return this.maxInFlightRequests;
+    }
+
     /**
      * Returns the {@link DeadLetterListener} that will respond to records being dropped.
      * @return the {@link DeadLetterListener} that will respond to records being dropped.
@@ -0,0 +1,657 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.kinesis.kinesisrecorder;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.util.StringUtils;
+
+import com.amazonaws.logging.Log;
+import com.amazonaws.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The SegmentedRecordStore is responsible for recording Kinesis records to the
+ * Android disk. Records are appended in a length-prefixed binary format to
+ * segment files that roll over at a fixed size:
+ *
+ * <pre>
+ * int streamNameLength | int dataLength | streamName (UTF-8) | data
+ * </pre>
+ *
+ * Removing read records only moves a checkpoint, stored next to the segments,
+ * and deletes segments that are entirely read; the unread records are never
+ * rewritten. Records written by {@link FileRecordStore} in the text format
+ * under the same name are migrated when the store is created.
+ */
+class SegmentedRecordStore {
+    private static final Log LOGGER = LogFactory.getLog(SegmentedRecordStore.class);
+
+    /** Size in bytes at which the active segment rolls over. **/
+    static final long DEFAULT_SEGMENT_SIZE = 512 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_STREAM_NAME_BYTES = 1024;
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final ReentrantLock accessLock = new ReentrantLock(true);
+
+    /** The FileManager used for interacting with the FS. **/
+    private final FileManager fileManager;
+
+    private final String recordFileName;
+    private final long maxStorageSize;
+    private final long segmentSize;
+
+    /** Segment files by sequence number, the last one is the active one. **/
+    private final TreeMap<Long, File> segments = new TreeMap<Long, File>();
+
+    /** Total length in bytes of all the segments. **/
+    private long segmentsLength;
+
+    /** Position of the first unread record. **/
+    private long checkpointSegment;
+    private long checkpointOffset;
+
+    private OutputStream activeStream;
+
+    /**
+     * Creates the SegmentedRecordStore.
+     *
+     * @param workDirectory The directory (which the record store is only used
+     *            for the KinesisRecorder) to use to store records in
+     * @param recordFileName Name prefix of the segment files
+     * @param maxStorageSize Maximum size in bytes of unread records
+     */
+    public SegmentedRecordStore(File workDirectory, String recordFileName, long maxStorageSize) {
+        this(workDirectory, recordFileName, maxStorageSize, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates the SegmentedRecordStore with the given segment size.
+     *
+     * @param workDirectory The directory to use to store records in
+     * @param recordFileName Name prefix of the segment files
+     * @param maxStorageSize Maximum size in bytes of unread records
+     * @param segmentSize Size in bytes at which a segment rolls over
+     */
+    SegmentedRecordStore(File workDirectory, String recordFileName, long maxStorageSize,
+            long segmentSize) {
+        this.fileManager = new FileManager(workDirectory);
+        this.recordFileName = recordFileName;
+        this.maxStorageSize = maxStorageSize;
+        this.segmentSize = segmentSize;
+        try {
+            openSegments();
+            migrateLegacyRecords(workDirectory);
+        } catch (final IOException ioe) {
+            throw new AmazonClientException("Failed to create file store", ioe);
+        }
+    }
+
+    /**
+     * Appends a record to the store.
+     *
+     * @param streamName the stream the record is sent to
+     * @param data the data of the record
+     * @return true if the record was saved, false if the store is full
+     * @throws IOException if the record can't be written
+     */
+    public boolean put(final String streamName, final byte[] data) throws IOException {
+        if (streamName == null || streamName.isEmpty() || data == null) {
+            throw new IllegalArgumentException("Stream name and data can't be null");
+        }
+        final byte[] record = encode(streamName, data);
+        accessLock.lock();
+        try {
+            if (getUnreadLength() + record.length > maxStorageSize) {
+                return false;
+            }
+            if (activeStream == null) {
+                openActiveSegment();
+            }
+            if (segments.lastEntry().getValue().length() >= segmentSize) {
+                rollSegment();
+            }
+            activeStream.write(record);
+            activeStream.flush();
+            segmentsLength += record.length;
+            return true;
+        } finally {
+            accessLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the size in bytes of the unread records.
+     *
+     * @return size in bytes
+     */
+    public long getFileSize() {
+        accessLock.lock();
+        try {
+            return getUnreadLength();
+        } finally {
+            accessLock.unlock();
+        }
+    }
+
+    public RecordIterator iterator() {
+        return new RecordIterator();
+    }
+
+    private long getUnreadLength() {
+        return segmentsLength - checkpointOffset;
+    }
+
+    private static byte[] encode(String streamName, byte[] data) {
+        final byte[] name = streamName.getBytes(StringUtils.UTF8);
+        final ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + name.length + data.length);
+        buffer.putInt(name.length);
+        buffer.putInt(data.length);
+        buffer.put(name);
+        buffer.put(data);
+        return buffer.array();
+    }
+
+    private File getRecordsDirectory() throws IOException {
+        final File recordsDir = fileManager.createDirectory(Constants.RECORDS_DIRECTORY);
+        if (recordsDir == null) {
+            throw new IOException("Failed to create records directory");
+        }
+        return recordsDir;
+    }
+
+    private File getSegmentFile(long sequence) throws IOException {
+        return new File(getRecordsDirectory(), recordFileName + "." + sequence + SEGMENT_SUFFIX);
+    }
+
+    private File getCheckpointFile() throws IOException {
+        return new File(getRecordsDirectory(), recordFileName + CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * Loads the segments and the checkpoint left by a previous instance,
+     * deletes segments before the checkpoint and truncates a record that was
+     * only partially written to the last segment.
+     */
+    private void openSegments() throws IOException {
+        final String prefix = recordFileName + ".";
+        for (final File file : fileManager.listFilesInDirectory(getRecordsDirectory())) {
+            final String name = file.getName();
+            if (!name.startsWith(prefix) || !name.endsWith(SEGMENT_SUFFIX)) {
+                continue;
+            }
+            try {
+                final long sequence = Long.parseLong(name.substring(prefix.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(sequence, file);
+            } catch (final NumberFormatException e) {
+                LOGGER.warn("Ignoring unknown file in records directory: " + name);
+            }
+        }
+        readCheckpoint();
+
+        while (!segments.isEmpty() && segments.firstKey() < checkpointSegment) {
+            fileManager.deleteFile(segments.pollFirstEntry().getValue());
+        }
+        if (segments.isEmpty() || segments.firstKey() != checkpointSegment) {
+            checkpointSegment = segments.isEmpty() ? checkpointSegment : segments.firstKey();
+            checkpointOffset = 0;
+        }
+        if (!segments.isEmpty()) {
+            truncatePartialRecord(segments.lastEntry().getValue());
+        }
+        for (final File segment : segments.values()) {
+            segmentsLength += segment.length();
+        }
+        if (!segments.isEmpty()) {
+            checkpointOffset = Math.min(checkpointOffset, segments.firstEntry().getValue().length());
+        }
+    }
+
+    private void truncatePartialRecord(File segment) throws IOException {
+        final long length = segment.length();
+        long offset = 0;
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(
+                fileManager.newInputStream(segment), READ_BUFFER_SIZE));
+        try {
+            while (offset + RECORD_HEADER_SIZE <= length) {
+                final int nameLength = in.readInt();
+                final int dataLength = in.readInt();
+                final long recordLength = (long) RECORD_HEADER_SIZE + nameLength + dataLength;
+                if (!isValidHeader(nameLength, dataLength) || offset + recordLength > length) {
+                    break;
+                }
+                skipFully(in, nameLength + dataLength);
+                offset += recordLength;
+            }
+        } finally {
+            in.close();
+        }
+        if (offset < length) {
+            LOGGER.warn("Truncating partially written record in " + segment.getName());
+            final RandomAccessFile raf = new RandomAccessFile(segment, "rw");
+            try {
+                raf.setLength(offset);
+            } finally {
+                raf.close();
+            }
+        }
+    }
+
+    private boolean isValidHeader(int nameLength, int dataLength) {
+        return nameLength > 0 && nameLength <= MAX_STREAM_NAME_BYTES
+                && dataLength >= 0 && dataLength <= maxStorageSize;
+    }
+
+    /**
+     * Moves records saved by {@link FileRecordStore} in the text format under
+     * the same file name into the segments, and deletes the text file.
+     */
+    private void migrateLegacyRecords(File workDirectory) throws IOException {
+        final File legacyFile = new File(getRecordsDirectory(), recordFileName);
+        if (!legacyFile.isFile()) {
+            return;
+        }
+        final FileRecordStore legacyStore = new FileRecordStore(workDirectory, recordFileName,
+                Long.MAX_VALUE);
+        final FileRecordStore.RecordIterator iterator = legacyStore.iterator();
+        final FileRecordParser frp = new FileRecordParser();
+        int count = 0;
+        try {
+            while (iterator.hasNext()) {
+                final String line = iterator.next();
+                if (line == null || line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    frp.parse(line);
+                } catch (final Exception e) {
+                    LOGGER.warn("Failed to read line. Skip.", e);
+                    continue;
+                }
+                if (put(frp.streamName, frp.bytes)) {
+                    count++;
+                }
+            }
+        } finally {
+            iterator.close();
+        }
+        LOGGER.debug(String.format("Migrated %d records to segments", count));
+        if (!legacyFile.delete()) {
+            LOGGER.error("Failed to delete migrated records file");
+        }
+    }
+
+    private void openActiveSegment() throws IOException {
+        if (segments.isEmpty()) {
+            rollSegment();
+        } else {
+            activeStream = fileManager.newOutputStream(segments.lastEntry().getValue(), true);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        closeActiveStream();
+        final long sequence = segments.isEmpty() ? checkpointSegment : segments.lastKey() + 1;
+        final File segment = fileManager.createFile(getSegmentFile(sequence));
+        if (segment == null) {
+            throw new IOException("Failed to create segment file");
+        }
+        segments.put(sequence, segment);
+        activeStream = fileManager.newOutputStream(segment, true);
+    }
+
+    private void closeActiveStream() {
+        if (activeStream != null) {
+            try {
+                activeStream.close();
+            } catch (final IOException e) {
+                LOGGER.error("failed to close segment", e);
+            }
+            activeStream = null;
+        }
+    }
+
+    private void readCheckpoint() throws IOException {
+        final File checkpointFile = getCheckpointFile();
+        if (!checkpointFile.isFile()) {
+            return;
+        }
+        final DataInputStream in = new DataInputStream(fileManager.newInputStream(checkpointFile));
+        try {
+            checkpointSegment = in.readLong();
+            checkpointOffset = in.readLong();
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to read checkpoint, reading from the first segment", e);
+            checkpointSegment = 0;
+            checkpointOffset = 0;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Persists the checkpoint through a temporary file so that a crash never
+     * leaves a partially written checkpoint.
+     */
+    private void writeCheckpoint(long segment, long offset) throws IOException {
+        final File checkpointFile = getCheckpointFile();
+        final File tempFile = new File(checkpointFile.getPath() + ".tmp");
+        final DataOutputStream out = new DataOutputStream(
+                fileManager.newOutputStream(tempFile, false));
+        try {
+            out.writeLong(segment);
+            out.writeLong(offset);
+        } finally {
+            out.close();
+        }
+        if (!tempFile.renameTo(checkpointFile)) {
+            fileManager.deleteFile(checkpointFile);
+            if (!tempFile.renameTo(checkpointFile)) {
+                throw new IOException("Failed to persist checkpoint");
+            }
+        }
+        checkpointSegment = segment;
+        checkpointOffset = offset;
+    }
+
+    /**
+     * Moves the checkpoint to the given position and deletes the segments
+     * before it. When every record has been read, all the segments are
+     * deleted and the next record starts a new segment.
+     */
+    private void deleteReadRecords(long segment, long offset) throws IOException {
+        if (segments.isEmpty() || segment < checkpointSegment
+                || (segment == checkpointSegment && offset <= checkpointOffset)) {
+            return;
+        }
+        final File lastFile = segments.lastEntry().getValue();
+        if (segment >= segments.lastKey() && offset >= lastFile.length()) {
+            deleteSegments(segments.lastKey() + 1);
+            return;
+        }
+        writeCheckpoint(segment, offset);
+        while (!segments.isEmpty() && segments.firstKey() < segment) {
+            final File file = segments.pollFirstEntry().getValue();
+            segmentsLength -= file.length();
+            fileManager.deleteFile(file);
+        }
+    }
+
+    private void deleteSegments(long nextSegment) throws IOException {
+        closeActiveStream();
+        for (final File file : segments.values()) {
+            fileManager.deleteFile(file);
+        }
+        segments.clear();
+        segmentsLength = 0;
+        writeCheckpoint(nextSegment, 0);
+    }
+
+    private static void skipFully(InputStream in, long n) throws IOException {
+        long remaining = n;
+        while (remaining > 0) {
+            final long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new EOFException();
+                }
+                remaining--;
+            } else {
+                remaining -= skipped;
+            }
+        }
+    }
+
+    /**
+     * A record read from the store.
+     */
+    static final class Record {
+        final String streamName;
+        final byte[] data;
+
+        Record(String streamName, byte[] data) {
+            this.streamName = streamName;
+            this.data = data;
+        }
+    }
+
+    /**
+     * A position in the store, after a record returned by the iterator.
+     */
+    static final class Position {
+        private final long segment;
+        private final long offset;
+
+        private Position(long segment, long offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Iterates the unread records from the checkpoint. Read records are
+     * removed with {@link #removeReadRecords()}, or up to a position taken
+     * earlier with {@link #removeRecordsBefore(Position)}. Removing records
+     * doesn't rewind the iterator, and records put after the iterator reached
+     * the end are returned by a later call to {@link #hasNext()}.
+     */
+    public class RecordIterator implements java.util.Iterator<Record> {
+        /** Position after the last record returned by next(). **/
+        private long readSegment = checkpointSegment;
+        private long readOffset = checkpointOffset;
+
+        /** Position after the last record read from the file. **/
+        private long readerSegment = checkpointSegment;
+        private long readerOffset = checkpointOffset;
+
+        private Record nextBuffer = null;
+        private DataInputStream reader = null;
+
+        private boolean tryOpenReader() throws IOException {
+            if (reader != null) {
+                return true;
+            }
+            final Map.Entry<Long, File> entry = segments.ceilingEntry(readerSegment);
+            if (entry == null) {
+                return false;
+            }
+            if (entry.getKey() != readerSegment) {
+                readerSegment = entry.getKey();
+                readerOffset = 0;
+            }
+            reader = new DataInputStream(new BufferedInputStream(
+                    fileManager.newInputStream(entry.getValue()), READ_BUFFER_SIZE));
+            skipFully(reader, readerOffset);
+            return true;
+        }
+
+        private void tryCloseReader() throws IOException {
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+        }
+
+        /**
+         * Reads the record at the reader position, moving to the next segment
+         * at the end of a segment. At the end of the last segment the reader
+         * stays open, so that records appended later can still be read.
+         * Records are appended whole under the access lock, so the reader
+         * never sees a partial record.
+         */
+        private Record readRecord() throws IOException {
+            while (tryOpenReader()) {
+                try {
+                    final int nameLength = reader.readInt();
+                    final int dataLength = reader.readInt();
+                    if (isValidHeader(nameLength, dataLength)) {
+                        final byte[] name = new byte[nameLength];
+                        final byte[] data = new byte[dataLength];
+                        reader.readFully(name);
+                        reader.readFully(data);
+                        readerOffset += RECORD_HEADER_SIZE + nameLength + dataLength;
+                        return new Record(new String(name, StringUtils.UTF8), data);
+                    }
+                    LOGGER.warn("Corrupted record in segment " + readerSegment + ". Skip segment.");
+                    final File segment = segments.get(readerSegment);
+                    readerOffset = segment == null ? 0 : segment.length();
+                    tryCloseReader();
+                } catch (final EOFException e) {
+                    // end of the segment
+                }
+                final Long following = segments.higherKey(readerSegment);
+                if (following == null) {
+                    return null;
+                }
+                tryCloseReader();
+                readerSegment = following;
+                readerOffset = 0;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            accessLock.lock();
+            try {
+                if (nextBuffer == null) {
+                    nextBuffer = readRecord();
+                }
+                return nextBuffer != null;
+            } catch (final IOException ioe) {
+                throw new AmazonClientException("IO Error", ioe);
+            } finally {
+                accessLock.unlock();
+            }
+        }
+
+        @Override
+        public Record next() {
+            accessLock.lock();
+            try {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Record next = nextBuffer;
+                nextBuffer = null;
+                readSegment = readerSegment;
+                readOffset = readerOffset;
+                return next;
+            } finally {
+                accessLock.unlock();
+            }
+        }
+
+        public Record peek() {
+            accessLock.lock();
+            try {
+                hasNext();
+                return nextBuffer;
+            } finally {
+                accessLock.unlock();
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "The remove() operation is not supported for this iterator");
+        }
+
+        /**
+         * Returns the position after the last record returned by
+         * {@link #next()}.
+         *
+         * @return the read position
+         */
+        public Position getReadPosition() {
+            accessLock.lock();
+            try {
+                return new Position(readSegment, readOffset);
+            } finally {
+                accessLock.unlock();
+            }
+        }
+
+        /**
+         * Removes the records returned by {@link #next()}.
+         *
+         * @throws IOException if the checkpoint can't be written
+         */
+        public void removeReadRecords() throws IOException {
+            removeRecordsBefore(getReadPosition());
+        }
+
+        /**
+         * Removes the records before the given position. Positions before the
+         * records already removed are ignored.
+         *
+         * @param position a position returned by {@link #getReadPosition()}
+         * @throws IOException if the checkpoint can't be written
+         */
+        public void removeRecordsBefore(Position position) throws IOException {
+            accessLock.lock();
+            try {
+                deleteReadRecords(position.segment, position.offset);
+            } finally {
+                accessLock.unlock();
+            }
+        }
+
+        public void removeAllRecords() throws IOException {
+            accessLock.lock();
+            try {
+                deleteSegments(segments.isEmpty() ? checkpointSegment : segments.lastKey() + 1);
+                resetReader();
+            } finally {
+                accessLock.unlock();
+            }
+        }
+
+        private void resetReader() throws IOException {
+            tryCloseReader();
+            readSegment = checkpointSegment;
+            readOffset = checkpointOffset;
+            readerSegment = checkpointSegment;
+            readerOffset = checkpointOffset;
+            nextBuffer = null;
+        }
+
+        public void close() throws IOException {
+            tryCloseReader();
+        }
+    }
+}
@@ -24,7 +24,7 @@ import static org.junit.Assert.fail;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
-import com.amazonaws.mobileconnectors.kinesis.kinesisrecorder.FileRecordStore.RecordIterator;
+import com.amazonaws.mobileconnectors.kinesis.kinesisrecorder.SegmentedRecordStore.RecordIterator;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -39,9 +39,14 @@ import org.robolectric.annotation.Config;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(manifest = Config.NONE)
@@ -59,7 +64,7 @@ public class AbstractKinesisRecorderTest {
     static class MockAbstractKinesisRecorder extends AbstractKinesisRecorder {
         private RecordSender sender;
 
-        protected MockAbstractKinesisRecorder(FileRecordStore recordStore,
+        protected MockAbstractKinesisRecorder(SegmentedRecordStore recordStore,
                 KinesisRecorderConfig config) {
             super(recordStore, config);
         }
@@ -80,7 +85,7 @@ public class AbstractKinesisRecorderTest {
         deadLetterListener = Mockito.mock(DeadLetterListener.class);
         KinesisRecorderConfig config = new KinesisRecorderConfig()
                 .withDeadLetterListener(deadLetterListener);
-        FileRecordStore recordStore = new FileRecordStore(temp.newFolder(), RECORD_FILE_NAME,
+        SegmentedRecordStore recordStore = new SegmentedRecordStore(temp.newFolder(), RECORD_FILE_NAME,
                 config.getMaxStorageSize());
         MockAbstractKinesisRecorder mockRecorder = new MockAbstractKinesisRecorder(recordStore,
                 config);
@@ -317,6 +322,140 @@ public class AbstractKinesisRecorderTest {
         assertTrue("records not removed", recorder.getDiskBytesUsed() > 0);
     }
 
+    @Test
+    public void testSubmitAllRecordsSendsBatchesOfAStreamConcurrently() {
+        final List<byte[]> saved = new ArrayList<byte[]>();
+        for (int i = 0; i < 600; i++) {
+            byte[] bytes = randomBytes(1024);
+            saved.add(bytes);
+            recorder.saveRecord(bytes, STREAM_NAME);
+        }
+
+        final List<byte[]> sent = Collections.synchronizedList(new ArrayList<byte[]>());
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        ((MockAbstractKinesisRecorder) recorder).setRecordSender(new RecordSender() {
+            @Override
+            public List<byte[]> sendBatch(String streamName, List<byte[]> data) {
+                int current = inFlight.incrementAndGet();
+                while (current > maxInFlight.get()) {
+                    maxInFlight.compareAndSet(maxInFlight.get(), current);
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                sent.addAll(data);
+                inFlight.decrementAndGet();
+                return new ArrayList<byte[]>();
+            }
+
+            @Override
+            public boolean isRecoverable(AmazonClientException ace) {
+                return true;
+            }
+        });
+
+        recorder.submitAllRecords();
+
+        assertEquals("no records after submitAllRecords", 0, recorder.getDiskBytesUsed());
+        assertTrue("batches are sent concurrently", maxInFlight.get() > 1);
+        assertSentOnce(saved, sent);
+    }
+
+    @Test
+    public void testSubmitAllRecordsDoesNotResendBatchesAfterMidRunFailure() {
+        final List<byte[]> saved = new ArrayList<byte[]>();
+        for (int i = 0; i < 500; i++) {
+            byte[] bytes = randomBytes(1024);
+            saved.add(bytes);
+            recorder.saveRecord(bytes, STREAM_NAME);
+        }
+        // the second batch fails the first time it is sent
+        final byte[] failingRecord = saved.get(128);
+        final AmazonServiceException ase = new AmazonServiceException("offline");
+        final AtomicBoolean failed = new AtomicBoolean();
+        final List<byte[]> sent = Collections.synchronizedList(new ArrayList<byte[]>());
+        ((MockAbstractKinesisRecorder) recorder).setRecordSender(new RecordSender() {
+            @Override
+            public List<byte[]> sendBatch(String streamName, List<byte[]> data) {
+                if (Arrays.equals(data.get(0), failingRecord)) {
+                    if (failed.compareAndSet(false, true)) {
+                        throw ase;
+                    }
+                }
+                sent.addAll(data);
+                return new ArrayList<byte[]>();
+            }
+
+            @Override
+            public boolean isRecoverable(AmazonClientException ace) {
+                return true;
+            }
+        });
+
+        try {
+            recorder.submitAllRecords();
+            fail("Should throw exception");
+        } catch (AmazonClientException ace) {
+            assertSame("same exception", ase, ace);
+        }
+        assertTrue("failed batch kept", recorder.getDiskBytesUsed() > 0);
+        assertTrue("failed batch kept once",
+                recorder.getDiskBytesUsed() <= (saved.size() - sent.size()) * (1024 + 8 + STREAM_NAME.length()));
+
+        recorder.submitAllRecords();
+
+        assertEquals("no records after submitAllRecords", 0, recorder.getDiskBytesUsed());
+        assertSentOnce(saved, sent);
+    }
+
+    @Test
+    public void testSubmitAllRecordsKeepsRecordsAfterRecoverableFailureWithOtherStreams() {
+        final String anotherStream = "another_stream";
+        for (int i = 0; i < 10; i++) {
+            recorder.saveRecord(randomBytes(1024), STREAM_NAME);
+        }
+        long size = recorder.getDiskBytesUsed();
+        for (int i = 0; i < 10; i++) {
+            recorder.saveRecord(randomBytes(1024), anotherStream);
+        }
+        AmazonServiceException ase = new AmazonServiceException("offline");
+        Mockito.when(sender.sendBatch(Mockito.eq(STREAM_NAME), Mockito.anyListOf(byte[].class)))
+                .thenThrow(ase);
+        Mockito.when(sender.sendBatch(Mockito.eq(anotherStream), Mockito.anyListOf(byte[].class)))
+                .thenReturn(new ArrayList<byte[]>());
+        Mockito.when(sender.isRecoverable(ase)).thenReturn(true);
+        try {
+            recorder.submitAllRecords();
+            fail("Should throw exception");
+        } catch (AmazonClientException ace) {
+            assertSame("same exception", ase, ace);
+        }
+        // the failed batch is saved again, the batch of the other stream is removed
+        assertEquals("records of the failed batch kept", size, recorder.getDiskBytesUsed());
+
+        Mockito.reset(sender);
+        Mockito.when(sender.sendBatch(Mockito.anyString(), Mockito.anyListOf(byte[].class)))
+                .thenReturn(new ArrayList<byte[]>());
+        recorder.submitAllRecords();
+        Mockito.verify(sender).sendBatch(Mockito.eq(STREAM_NAME), Mockito.anyListOf(byte[].class));
+        Mockito.verify(sender, Mockito.never())
+                .sendBatch(Mockito.eq(anotherStream), Mockito.anyListOf(byte[].class));
+    }
+
+    private static void assertSentOnce(List<byte[]> saved, List<byte[]> sent) {
+        assertEquals("all records sent once", saved.size(), sent.size());
+        Set<String> expected = new HashSet<String>();
+        for (byte[] bytes : saved) {
+            expected.add(Arrays.toString(bytes));
+        }
+        for (byte[] bytes : sent) {
+            assertTrue("record sent once", expected.remove(Arrays.toString(bytes)));
+        }
+    }
+
     private byte[] randomBytes(int length) {
         byte[] data = new byte[length];
         new Random().nextBytes(data);
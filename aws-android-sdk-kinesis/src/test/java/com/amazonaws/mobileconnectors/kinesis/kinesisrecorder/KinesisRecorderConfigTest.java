@@ -58,11 +58,14 @@ public class KinesisRecorderConfigTest {
     public void copyConstructor() {
         KinesisRecorderConfig kConfig = new KinesisRecorderConfig();
         kConfig.withMaxStorageSize(5);
+        kConfig.withMaxInFlightRequests(8);
 
         KinesisRecorderConfig copiedConfig = new KinesisRecorderConfig(kConfig);
 
         assertEquals(kConfig.getMaxStorageSize(),
                 copiedConfig.getMaxStorageSize());
+        assertEquals(kConfig.getMaxInFlightRequests(),
+                copiedConfig.getMaxInFlightRequests());
 
     }
 
@@ -72,6 +75,13 @@ public class KinesisRecorderConfigTest {
         KinesisRecorderConfig kConfig = new KinesisRecorderConfig();
         kConfig.withMaxStorageSize(100);
         assertEquals(kConfig.getMaxStorageSize(), 100);
+        kConfig.withMaxInFlightRequests(2);
+        assertEquals(kConfig.getMaxInFlightRequests(), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxInFlightRequestsMustBePositive() {
+        new KinesisRecorderConfig().withMaxInFlightRequests(0);
     }
 
 }
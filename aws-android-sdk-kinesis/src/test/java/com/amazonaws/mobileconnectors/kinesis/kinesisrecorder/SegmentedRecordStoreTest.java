@@ -0,0 +1,282 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.kinesis.kinesisrecorder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.amazonaws.mobileconnectors.kinesis.kinesisrecorder.SegmentedRecordStore.Record;
+import com.amazonaws.mobileconnectors.kinesis.kinesisrecorder.SegmentedRecordStore.RecordIterator;
+import com.amazonaws.util.StringUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.NoSuchElementException;
+
+public class SegmentedRecordStoreTest {
+
+    private static final File TEST_DIRECTORY = new File("SegmentedRecordStoreTest");
+    private static final String RECORDER_FILE_NAME = "segmented_records";
+    private static final String STREAM_NAME = "stream";
+    private static final long MAX_STORAGE_SIZE = 1024 * 1024 * 5L;
+
+    @Before
+    public void setup() {
+        TEST_DIRECTORY.mkdir();
+    }
+
+    @After
+    public void teardown() {
+        delete(TEST_DIRECTORY);
+    }
+
+    private void delete(File f) {
+        if (f.isDirectory()) {
+            for (File subFile : f.listFiles()) {
+                delete(subFile);
+            }
+        }
+        f.delete();
+    }
+
+    @Test
+    public void testPutIterateAndRemove() throws IOException {
+        SegmentedRecordStore recordStore = new SegmentedRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, MAX_STORAGE_SIZE);
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(recordStore.put(STREAM_NAME, bytes(i)));
+        }
+
+        int counter = 0;
+        RecordIterator iter = recordStore.iterator();
+        while (iter.hasNext()) {
+            counter++;
+            Record record = iter.next();
+            assertEquals(STREAM_NAME, record.streamName);
+            assertArrayEquals(bytes(counter), record.data);
+            if (counter % 5 == 0) {
+                iter.removeReadRecords();
+            }
+        }
+        assertEquals(10, counter);
+        assertEquals(0, recordStore.getFileSize());
+        iter.close();
+
+        iter = recordStore.iterator();
+        assertFalse(iter.hasNext());
+        try {
+            iter.next();
+            assertTrue("next() on an empty store should throw", false);
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+
+        recordStore.put(STREAM_NAME, bytes(11));
+        iter = recordStore.iterator();
+        assertArrayEquals(bytes(11), iter.peek().data);
+        assertArrayEquals(bytes(11), iter.peek().data);
+        assertArrayEquals(bytes(11), iter.next().data);
+        assertFalse(iter.hasNext());
+        iter.close();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRemoveIsUnsupported() {
+        SegmentedRecordStore recordStore = new SegmentedRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, MAX_STORAGE_SIZE);
+        recordStore.iterator().remove();
+    }
+
+    @Test
+    public void testWhenWritingExceedsMaxStorageSize_noMoreRecordsWritten() throws IOException {
+        // each record takes 8 header bytes, 6 bytes of stream name and 6 bytes of data
+        SegmentedRecordStore recordStore = new SegmentedRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, 100L);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(recordStore.put(STREAM_NAME, "012345".getBytes(StringUtils.UTF8)));
+        }
+        assertEquals(100L, recordStore.getFileSize());
+        assertFalse(recordStore.put(STREAM_NAME, "012345".getBytes(StringUtils.UTF8)));
+        assertEquals(100L, recordStore.getFileSize());
+
+        // reading and removing records frees up space
+        RecordIterator iter = recordStore.iterator();
+        iter.next();
+        iter.removeReadRecords();
+        assertEquals(80L, recordStore.getFileSize());
+        assertTrue(recordStore.put(STREAM_NAME, "012345".getBytes(StringUtils.UTF8)));
+        iter.close();
+    }
+
+    @Test
+    public void testSegmentsRollOverAndAreDeletedOnceRead() throws IOException {
+        SegmentedRecordStore recordStore = new SegmentedRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, MAX_STORAGE_SIZE, 64L);
+        for (int i = 0; i < 20; i++) {
+            recordStore.put(STREAM_NAME, new byte[32]);
+        }
+        int segments = countSegments();
+        assertTrue("records span several segments", segments > 1);
+
+        RecordIterator iter = recordStore.iterator();
+        for (int i = 0; i < 10; i++) {
+            iter.next();
+        }
+        iter.removeReadRecords();
+        assertTrue("read segments are deleted", countSegments() < segments);
+        assertEquals(10 * (8 + STREAM_NAME.length() + 32), recordStore.getFileSize());
+
+        int remaining = 0;
+        while (iter.hasNext()) {
+            iter.next();
+            remaining++;
+        }
+        assertEquals(10, remaining);
+        iter.removeReadRecords();
+        assertEquals(0, countSegments());
+        iter.close();
+    }
+
+    @Test
+    public void testReopenResumesFromCheckpoint() throws IOException {
+        SegmentedRecordStore recordStore = new SegmentedRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, MAX_STORAGE_SIZE, 64L);
+        for (int i = 1; i <= 10; i++) {
+            recordStore.put(STREAM_NAME, bytes(i));
+        }
+        RecordIterator iter = recordStore.iterator();
+        for (int i = 0; i < 4; i++) {
+            iter.next();
+        }
+        iter.removeReadRecords();
+        iter.close();
+
+        SegmentedRecordStore reopened = new SegmentedRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, MAX_STORAGE_SIZE, 64L);
+        assertEquals(recordStore.getFileSize(), reopened.getFileSize());
+        reopened.put(STREAM_NAME, bytes(11));
+        iter = reopened.iterator();
+        for (int i = 5; i <= 11; i++) {
+            assertArrayEquals(bytes(i), iter.next().data);
+        }
+        assertFalse(iter.hasNext());
+        iter.close();
+    }
+
+    @Test
+    public void testRemoveRecordsBeforePositionKeepsReading() throws IOException {
+        SegmentedRecordStore recordStore = new SegmentedRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, MAX_STORAGE_SIZE, 64L);
+        for (int i = 1; i <= 6; i++) {
+            recordStore.put(STREAM_NAME, bytes(i));
+        }
+        RecordIterator iter = recordStore.iterator();
+        iter.next();
+        iter.next();
+        SegmentedRecordStore.Position position = iter.getReadPosition();
+        iter.next();
+        iter.next();
+
+        // removing up to an earlier position doesn't rewind the iterator
+        iter.removeRecordsBefore(position);
+        assertArrayEquals(bytes(5), iter.next().data);
+        assertArrayEquals(bytes(6), iter.next().data);
+        assertFalse(iter.hasNext());
+
+        // records put after reaching the end are still returned
+        recordStore.put(STREAM_NAME, bytes(7));
+        assertArrayEquals(bytes(7), iter.next().data);
+        iter.close();
+
+        iter = recordStore.iterator();
+        assertArrayEquals(bytes(3), iter.next().data);
+        iter.close();
+    }
+
+    @Test
+    public void testPartiallyWrittenRecordIsTruncated() throws IOException {
+        SegmentedRecordStore recordStore = new SegmentedRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, MAX_STORAGE_SIZE);
+        recordStore.put(STREAM_NAME, bytes(1));
+        recordStore.put(STREAM_NAME, bytes(2));
+
+        // simulate a crash in the middle of writing the second record
+        File segment = getSegments()[0];
+        RandomAccessFile raf = new RandomAccessFile(segment, "rw");
+        raf.setLength(segment.length() - 2);
+        raf.close();
+
+        SegmentedRecordStore reopened = new SegmentedRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, MAX_STORAGE_SIZE);
+        reopened.put(STREAM_NAME, bytes(3));
+        RecordIterator iter = reopened.iterator();
+        assertArrayEquals(bytes(1), iter.next().data);
+        assertArrayEquals(bytes(3), iter.next().data);
+        assertFalse(iter.hasNext());
+        iter.close();
+    }
+
+    @Test
+    public void testMigratesLegacyTextRecords() throws IOException {
+        FileRecordStore legacyStore = new FileRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, MAX_STORAGE_SIZE);
+        for (int i = 1; i <= 5; i++) {
+            legacyStore.put(FileRecordParser.asString(STREAM_NAME, bytes(i)));
+        }
+
+        SegmentedRecordStore recordStore = new SegmentedRecordStore(TEST_DIRECTORY,
+                RECORDER_FILE_NAME, MAX_STORAGE_SIZE);
+        File legacyFile = new File(new File(TEST_DIRECTORY, Constants.RECORDS_DIRECTORY),
+                RECORDER_FILE_NAME);
+        assertFalse("legacy file is deleted", legacyFile.exists());
+
+        RecordIterator iter = recordStore.iterator();
+        for (int i = 1; i <= 5; i++) {
+            Record record = iter.next();
+            assertEquals(STREAM_NAME, record.streamName);
+            assertArrayEquals(bytes(i), record.data);
+        }
+        assertFalse(iter.hasNext());
+        iter.close();
+    }
+
+    private static byte[] bytes(int i) {
+        return String.valueOf(i).getBytes(StringUtils.UTF8);
+    }
+
+    private File[] getSegments() {
+        File recordsDirectory = new File(TEST_DIRECTORY, Constants.RECORDS_DIRECTORY);
+        File[] segments = recordsDirectory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(RECORDER_FILE_NAME + ".") && name.endsWith(".seg");
+            }
+        });
+        return segments == null ? new File[0] : segments;
+    }
+
+    private int countSegments() {
+        return getSegments().length;
+    }
+}
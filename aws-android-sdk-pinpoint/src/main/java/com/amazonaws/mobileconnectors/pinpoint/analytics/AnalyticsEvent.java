@@ -15,6 +15,8 @@
 
 package com.amazonaws.mobileconnectors.pinpoint.analytics;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -26,6 +28,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import com.amazonaws.logging.Log;
 import com.amazonaws.logging.LogFactory;
+import com.amazonaws.util.json.AwsJsonReader;
+import com.amazonaws.util.json.AwsJsonToken;
+import com.amazonaws.util.json.JsonUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
 import com.amazonaws.mobileconnectors.pinpoint.internal.core.PinpointContext;
@@ -262,6 +267,133 @@ public class AnalyticsEvent implements JSONSerializable {
                                           sessionDuration, timestamp, uniqueId, appDetails, deviceDetails);
     }
 
+    /**
+     * Transforms an event stored as JSON text into an event. Reads the text
+     * in a single pass instead of building a JSONObject first, with the same
+     * required fields and defaults as {@link #translateToEvent(JSONObject)}.
+     *
+     * @param source The event as JSON text
+     * @return An AnalyticsEvent
+     * @throws JSONException if the text is not a valid event
+     */
+    public static AnalyticsEvent translateToEvent(final String source) throws JSONException {
+        final Map<String, String> values = new HashMap<String, String>();
+        final Map<String, String> attributes = new HashMap<String, String>();
+        final Map<String, Double> metrics = new HashMap<String, Double>();
+        Map<String, String> sessionValues = null;
+
+        final AwsJsonReader reader = JsonUtils.getJsonReader(new StringReader(source));
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if ("session".equals(name)) {
+                    sessionValues = new HashMap<String, String>();
+                    readStringValues(reader, sessionValues);
+                } else if ("attributes".equals(name) && reader.peek() == AwsJsonToken.BEGIN_OBJECT) {
+                    readStringValues(reader, attributes);
+                } else if ("metrics".equals(name) && reader.peek() == AwsJsonToken.BEGIN_OBJECT) {
+                    final Map<String, String> metricValues = new HashMap<String, String>();
+                    readStringValues(reader, metricValues);
+                    for (final Entry<String, String> entry : metricValues.entrySet()) {
+                        try {
+                            metrics.put(entry.getKey(), Double.parseDouble(entry.getValue()));
+                        } catch (final RuntimeException e) {
+                            // Do not log e due to potentially sensitive information
+                            log.error("Failed to convert metric back to double from JSON value.");
+                        }
+                    }
+                } else if (reader.isContainer()) {
+                    reader.skipValue();
+                } else {
+                    values.put(name, reader.nextString());
+                }
+            }
+            reader.endObject();
+        } catch (final IOException e) {
+            throw new JSONException("Stored event is not valid JSON: " + e.getMessage());
+        } catch (final RuntimeException e) {
+            throw new JSONException("Stored event is not valid JSON: " + e.getMessage());
+        } finally {
+            try {
+                reader.close();
+            } catch (final IOException e) {
+                log.debug("Failed to close the JSON reader.");
+            }
+        }
+        if (sessionValues == null) {
+            throw new JSONException("No value for session");
+        }
+
+        final AndroidAppDetails appDetails = new AndroidAppDetails(optString(values, "app_package_name"),
+                                                                   optString(values, "app_version_code"),
+                                                                   optString(values, "app_version_name"),
+                                                                   optString(values, "app_title"),
+                                                                   optString(values, ClientContext.APP_ID_KEY));
+        final SDKInfo sdkInfo = new SDKInfo(optString(values, "sdk_name"), optString(values, "sdk_version"));
+        final AndroidDeviceDetails deviceDetails = new AndroidDeviceDetails(optString(values, "carrier"));
+
+        return AnalyticsEvent.newInstance(getString(values, "event_id"), getString(values, "event_type"),
+                                          attributes, metrics, sdkInfo,
+                                          getString(sessionValues, "id"),
+                                          getLong(sessionValues, "startTimestamp"),
+                                          optLong(sessionValues, "stopTimestamp"),
+                                          optLong(sessionValues, "duration"),
+                                          getLong(values, "timestamp"),
+                                          getString(values, "unique_id"), appDetails, deviceDetails);
+    }
+
+    private static void readStringValues(final AwsJsonReader reader, final Map<String, String> values)
+        throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (reader.isContainer()) {
+                reader.skipValue();
+            } else {
+                final String value = reader.nextString();
+                if (value != null) {
+                    values.put(name, value);
+                }
+            }
+        }
+        reader.endObject();
+    }
+
+    private static String optString(final Map<String, String> values, final String key) {
+        final String value = values.get(key);
+        return value == null ? "" : value;
+    }
+
+    private static String getString(final Map<String, String> values, final String key) throws JSONException {
+        final String value = values.get(key);
+        if (value == null) {
+            throw new JSONException("No value for " + key);
+        }
+        return value;
+    }
+
+    private static long getLong(final Map<String, String> values, final String key) throws JSONException {
+        final String value = getString(values, key);
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(value);
+            } catch (final NumberFormatException ex) {
+                throw new JSONException("Value for " + key + " is not a number");
+            }
+        }
+    }
+
+    private static long optLong(final Map<String, String> values, final String key) {
+        try {
+            return values.containsKey(key) ? getLong(values, key) : 0L;
+        } catch (final JSONException e) {
+            return 0L;
+        }
+    }
+
     /**
      * Returns the eventId
      *
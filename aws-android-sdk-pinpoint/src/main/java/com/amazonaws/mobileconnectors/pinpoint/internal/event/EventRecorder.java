@@ -16,6 +16,7 @@
 package com.amazonaws.mobileconnectors.pinpoint.internal.event;
 
 import android.database.Cursor;
+import android.database.SQLException;
 import android.net.Uri;
 
 import java.net.SocketException;
@@ -26,10 +27,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
@@ -57,10 +63,10 @@ import com.amazonaws.services.pinpoint.model.PutEventsRequest;
 import com.amazonaws.services.pinpoint.model.PutEventsResult;
 import com.amazonaws.services.pinpoint.model.Session;
 
+import com.amazonaws.util.DaemonThreadPools;
 import com.amazonaws.util.DateUtils;
 import com.amazonaws.util.VersionInfoUtils;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -78,6 +84,11 @@ public class EventRecorder {
     static final String KEY_MAX_SUBMISSIONS_ALLOWED = "maxSubmissionAllowed";
     static final int DEFAULT_MAX_SUBMISSIONS_ALLOWED = 3;
     static final int SERVICE_DEFINED_MAX_EVENTS_PER_BATCH = 100;
+    /** PutEvents requests slower than this shrink the next batches. */
+    static final long TARGET_SUBMISSION_LATENCY_MILLIS = 5000;
+    static final int MIN_BATCH_SIZE_PERCENT = 10;
+    static final int BATCH_SIZE_PERCENT_INCREMENT = 10;
+    private static final long SUBMISSION_THREAD_KEEP_ALIVE_SECONDS = 30;
     private static final String USER_AGENT = PinpointManager.class.getName() + "/" + VersionInfoUtils.getVersion();
     private static int clippedEventLength = 10;
     private final static int MAX_EVENT_OPERATIONS = 1000;
@@ -86,6 +97,14 @@ public class EventRecorder {
     private final PinpointDBUtil dbUtil;
     private final ExecutorService submissionRunnableQueue;
     private final PinpointContext pinpointContext;
+    /** Set while a submission is queued and has not started yet. */
+    private final AtomicBoolean submissionPending = new AtomicBoolean(false);
+    /**
+     * Size of the next batches, as a percentage of the maximum number of
+     * events and of KEY_MAX_SUBMISSION_SIZE. Only used by processEvents.
+     */
+    private int batchSizePercent = 100;
+    private ThreadPoolExecutor batchSubmissionExecutor;
 
     EventRecorder(final PinpointContext pinpointContext,
                   final PinpointDBUtil dbUtil,
@@ -161,11 +180,17 @@ public class EventRecorder {
                 Cursor cursor = null;
                 try {
                     cursor = this.dbUtil.queryOldestEvents(5);
-                    while (this.dbUtil.getTotalSize() > maxPendingSize && cursor.moveToNext()) {
-                        this.dbUtil.deleteEvent(
-                                cursor.getInt(EventTable.COLUMN_INDEX.ID.getValue()),
-                                cursor.getInt(EventTable.COLUMN_INDEX.SIZE.getValue()));
+                    final HashMap<Integer, Integer> idsAndSizeToDelete = new HashMap<Integer, Integer>();
+                    long sizeAfterDelete = this.dbUtil.getTotalSize();
+                    while (sizeAfterDelete > maxPendingSize && cursor.moveToNext()) {
+                        final int size = cursor.getInt(EventTable.COLUMN_INDEX.SIZE.getValue());
+                        idsAndSizeToDelete.put(cursor.getInt(EventTable.COLUMN_INDEX.ID.getValue()), size);
+                        sizeAfterDelete -= size;
+                    }
+                    if (idsAndSizeToDelete.isEmpty()) {
+                        break;
                     }
+                    this.dbUtil.deleteEvents(idsAndSizeToDelete);
                 } finally {
                     if (cursor != null) {
                         cursor.close();
@@ -241,46 +266,140 @@ public class EventRecorder {
         return null;
     }
 
+    /**
+     * Submits the events in the local database in the background. Calls made
+     * while a submission is waiting to start are coalesced into it, the
+     * submission sends every event recorded before it starts.
+     */
     public void submitEvents() {
+        if (!submissionPending.compareAndSet(false, true)) {
+            log.debug("Event submission already pending.");
+            return;
+        }
         submissionRunnableQueue.execute(new Runnable() {
             @Override
             public void run() {
+                submissionPending.set(false);
                 processEvents();
             }
         });
     }
 
+    /**
+     * Events read from the local database for one PutEvents request.
+     */
+    static final class EventsBatchToSubmit {
+        /** Request payload of each valid event, by event id. */
+        final Map<String, Event> events = new HashMap<String, Event>();
+        /** Database id of each valid event, by event id. */
+        final Map<String, Integer> databaseIds = new HashMap<String, Integer>();
+        /**
+         * Database id and size of every row read, valid or not. Rows still
+         * in this map after the submission are deleted.
+         */
+        final HashMap<Integer, Integer> idsAndSizeToDelete = new HashMap<Integer, Integer>();
+        /** Rows read from the cursor. */
+        int rowCount;
+        /** Duration of the PutEvents request in milliseconds. */
+        long latencyMillis;
+        /** Whether the events were kept because the request may succeed later. */
+        boolean retryableFailure;
+    }
+
+    /**
+     * Reads the event at the cursor straight into the request payload of the
+     * batch, without building a JSONObject for it.
+     *
+     * @param cursor the cursor to the database to read the event from
+     * @param batch the batch to add the event to
+     * @return the length of the stored event.
+     */
+    long readEventIntoBatch(final Cursor cursor, final EventsBatchToSubmit batch) {
+        Integer rowId = null;
+        Integer size = null;
+        long length = 0;
+        batch.rowCount++;
+        try {
+            if (cursor.isNull(ID_COLUMN_INDEX)) {
+                log.error("Column 'ID' for event was NULL.");
+                return length;
+            } else {
+                rowId = cursor.getInt(ID_COLUMN_INDEX);
+            }
+
+            if (cursor.isNull(SIZE_COLUMN_INDEX)) {
+                log.error("Column 'SIZE' for event was NULL.");
+            } else {
+                size = cursor.getInt(SIZE_COLUMN_INDEX);
+            }
+
+            if (cursor.isNull(JSON_COLUMN_INDEX)) {
+                log.error(String.format(Locale.US,
+                        "Event from DB with ID=%d and SiZE=%d contained a NULL message.", rowId, size));
+            } else {
+                final String message = cursor.getString(JSON_COLUMN_INDEX);
+                length = message.length();
+                try {
+                    final AnalyticsEvent internalEvent = AnalyticsEvent.translateToEvent(message);
+                    final Event event = new Event();
+                    buildEventPayload(internalEvent, event);
+                    batch.events.put(internalEvent.getEventId(), event);
+                    batch.databaseIds.put(internalEvent.getEventId(), rowId);
+                } catch (final JSONException e) {
+                    // Do not log JSONException due to potentially sensitive information
+                    log.error(String.format(Locale.US,
+                            "Unable to deserialize event JSON for event with ID=%d.", rowId));
+                }
+
+                if (size != null && message.length() != size) {
+                    log.warn(String.format(Locale.US,
+                            "Message with ID=%d has a size mismatch. DBMsgSize=%d DBSizeCol=%d",
+                            rowId, message.length(), size));
+                    // The total size will end up recalculated from the remaining items in the
+                    // database after this item is removed.
+                    size = null;
+                }
+            }
+        } catch (final Exception ex) {
+            log.error("Failed accessing cursor to get next event.", ex);
+        } finally {
+            // the row is deleted from the database regardless of whether the message was valid
+            // json or not, since we don't want to leave a corrupted item in the DB.
+            if (rowId != null) {
+                batch.idsAndSizeToDelete.put(rowId, size);
+            }
+        }
+        return length;
+    }
+
     /**
      * Reads events of maximum of KEY_MAX_SUBMISSION_SIZE size.
-     * The default max request size is DEFAULT_MAX_SUBMISSION_SIZE.
+     * The default max request size is DEFAULT_MAX_SUBMISSION_SIZE. Both the
+     * size and the number of events are scaled down while PutEvents requests
+     * are slow, see {@link #adaptBatchSize(EventsBatchToSubmit)}.
      *
      * @param cursor the cursor to the database to read events from
-     * @param idsAndSizeToDelete map of id and size of the event
-     * @return an array of the events.
+     * @return the batch of events.
      */
-    JSONArray getBatchOfEvents(final Cursor cursor,
-                                       final HashMap<Integer, Integer> idsAndSizeToDelete) {
-        final JSONArray eventArray = new JSONArray();
+    EventsBatchToSubmit getBatchOfEvents(final Cursor cursor) {
+        final EventsBatchToSubmit batch = new EventsBatchToSubmit();
         long currentRequestSize = 0;
-        long eventLength;
         final long maxRequestSize = pinpointContext
                 .getConfiguration()
-                .optLong(KEY_MAX_SUBMISSION_SIZE, DEFAULT_MAX_SUBMISSION_SIZE);
+                .optLong(KEY_MAX_SUBMISSION_SIZE, DEFAULT_MAX_SUBMISSION_SIZE)
+                * batchSizePercent / 100;
+        final int maxEvents = Math.max(1,
+                SERVICE_DEFINED_MAX_EVENTS_PER_BATCH * batchSizePercent / 100);
 
         do {
-            JSONObject json = readEventFromCursor(cursor, idsAndSizeToDelete);
-            if (json != null) {
-                eventLength = json.length();
-                currentRequestSize += eventLength;
-                eventArray.put(json);
-            }
+            currentRequestSize += readEventIntoBatch(cursor, batch);
             if (currentRequestSize > maxRequestSize
-                    || eventArray.length() >= SERVICE_DEFINED_MAX_EVENTS_PER_BATCH) {
+                    || batch.rowCount >= maxEvents) {
                 break;
             }
         } while (cursor.moveToNext());
 
-        return eventArray;
+        return batch;
     }
 
     public List<JSONObject> getAllEvents() {
@@ -302,6 +421,11 @@ public class EventRecorder {
         return events;
     }
 
+    /**
+     * Sends the events in the local database. Up to KEY_MAX_SUBMISSIONS_ALLOWED
+     * batches are in flight at once, and batches keep being sent until every
+     * event read has been submitted or a batch fails with a recoverable error.
+     */
     void processEvents() {
         final long start = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
 
@@ -316,42 +440,78 @@ public class EventRecorder {
                 return;
             }
 
-            int submissions = 0;
-            final long maxSubmissionsAllowed = pinpointContext
+            final int maxSubmissionsInFlight = Math.max(1, pinpointContext
                     .getConfiguration()
-                    .optInt(KEY_MAX_SUBMISSIONS_ALLOWED, DEFAULT_MAX_SUBMISSIONS_ALLOWED);
-
-            do {
-                final HashMap<Integer, Integer> batchIdsAndSizeToDelete = new HashMap<Integer, Integer>();
-                final JSONArray events = this.getBatchOfEvents(cursor, batchIdsAndSizeToDelete);
-
-                // submitEventsAndEndpoint will submit the events and add the successfully submitted events
-                // into the SUCCESSFUL_EVENT_IDS and the failed events into the FAILED_EVENT_IDS map
-                // respectively.
-                // submitEventsAndEndpoint mutates the batchIdsAndSizeToDelete map. In cases where we
-                // want to keep the events in the local database, batchIdsAndSizeToDelete is cleared
-                // so we do not delete them.
-                if (batchIdsAndSizeToDelete.size() > 0) {
-                    submitEventsAndEndpoint(events, batchIdsAndSizeToDelete);
-                    submissions++;
+                    .optInt(KEY_MAX_SUBMISSIONS_ALLOWED, DEFAULT_MAX_SUBMISSIONS_ALLOWED));
+            final CompletionService<EventsBatchToSubmit> completionService =
+                    new ExecutorCompletionService<EventsBatchToSubmit>(
+                            getBatchSubmissionExecutor(maxSubmissionsInFlight));
+            int submissionsInFlight = 0;
+            int submissions = 0;
+            boolean hasMoreEvents = true;
+            boolean keepSubmitting = true;
+            boolean interrupted = false;
+
+            while (true) {
+                while (keepSubmitting && hasMoreEvents
+                        && submissionsInFlight < maxSubmissionsInFlight) {
+                    final EventsBatchToSubmit batch = this.getBatchOfEvents(cursor);
+                    hasMoreEvents = cursor.moveToNext();
+                    if (batch.idsAndSizeToDelete.size() > 0) {
+                        final EndpointProfile endpoint = pinpointContext.getTargetingClient().currentEndpoint();
+                        completionService.submit(new Callable<EventsBatchToSubmit>() {
+                            @Override
+                            public EventsBatchToSubmit call() {
+                                submitBatch(batch, endpoint);
+                                return batch;
+                            }
+                        });
+                        submissionsInFlight++;
+                        submissions++;
+                    }
+                }
+                if (submissionsInFlight == 0) {
+                    break;
+                }
+
+                final EventsBatchToSubmit batch;
+                try {
+                    batch = completionService.take().get();
+                } catch (final InterruptedException e) {
+                    // Stop submitting, but wait for the batches still in flight so that
+                    // their submitted events are deleted rather than sent again.
+                    log.warn("Interrupted while submitting events.");
+                    interrupted = true;
+                    keepSubmitting = false;
+                    continue;
+                } catch (final ExecutionException e) {
+                    log.error("Failed to submit events.", e.getCause());
+                    submissionsInFlight--;
+                    keepSubmitting = false;
+                    continue;
+                }
+                submissionsInFlight--;
+                adaptBatchSize(batch);
+                if (batch.retryableFailure) {
+                    keepSubmitting = false;
                 }
 
-                // Delete events from the local database. At this point batchIdsAndSizeToDelete
-                // reflects the set of events that can be deleted from the local database.
-                for (Integer id : batchIdsAndSizeToDelete.keySet()) {
+                // Delete events from the local database in a single transaction. At this point
+                // batch.idsAndSizeToDelete reflects the set of events that can be deleted.
+                if (batch.idsAndSizeToDelete.size() > 0) {
                     try {
-                        dbUtil.deleteEvent(id, batchIdsAndSizeToDelete.get(id));
-                    } catch (final IllegalArgumentException exc) {
-                        log.error("Failed to delete event: " + id, exc);
+                        dbUtil.deleteEvents(batch.idsAndSizeToDelete);
+                    } catch (final SQLException exc) {
+                        log.error("Failed to delete events: " + batch.idsAndSizeToDelete.keySet(), exc);
                     }
                 }
-                if (submissions >= maxSubmissionsAllowed) {
-                    break;
-                }
-            } while (cursor.moveToNext());
+            }
 
-            log.info(String.format(Locale.US, "Time of attemptDelivery: %d",
-                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime()) - start));
+            log.info(String.format(Locale.US, "Time of attemptDelivery: %d, submissions: %d",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime()) - start, submissions));
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         } finally {
             if (cursor != null) {
                 cursor.close();
@@ -359,36 +519,82 @@ public class EventRecorder {
         }
     }
 
-    private void submitEventsAndEndpoint(final JSONArray eventArray,
-                                         final HashMap<Integer, Integer> batchIdsAndSizeToProcess) {
-        submitEventsAndEndpoint(eventArray,
-                batchIdsAndSizeToProcess,
-                pinpointContext.getTargetingClient().currentEndpoint());
+    /**
+     * Shrinks the batches multiplicatively after a slow request, such as one
+     * that timed out, and grows them back additively after a fast request that
+     * was limited by the batch size.
+     *
+     * @param batch the submitted batch
+     */
+    void adaptBatchSize(final EventsBatchToSubmit batch) {
+        if (batch.latencyMillis > TARGET_SUBMISSION_LATENCY_MILLIS) {
+            batchSizePercent = Math.max(MIN_BATCH_SIZE_PERCENT, batchSizePercent / 2);
+        } else if (!batch.retryableFailure && batchSizePercent < 100
+                && batch.rowCount >= SERVICE_DEFINED_MAX_EVENTS_PER_BATCH * batchSizePercent / 100) {
+            batchSizePercent = Math.min(100, batchSizePercent + BATCH_SIZE_PERCENT_INCREMENT);
+        }
+    }
+
+    int getBatchSizePercent() {
+        return batchSizePercent;
+    }
+
+    /**
+     * Submits the batch and never throws, so that the events of a batch which
+     * failed unexpectedly are kept instead of being deleted.
+     */
+    private void submitBatch(final EventsBatchToSubmit batch, final EndpointProfile endpoint) {
+        try {
+            submitEventsAndEndpoint(batch, endpoint);
+        } catch (final RuntimeException e) {
+            log.error("Unexpected error while submitting events.", e);
+            batch.idsAndSizeToDelete.clear();
+            batch.retryableFailure = true;
+        }
     }
 
-    private void submitEventsAndEndpoint(final JSONArray eventArray,
-                                         final HashMap<Integer, Integer> batchIdsAndSizeToDelete,
+    /**
+     * @param threads the max number of batches in flight
+     * @return the executor sending the batches, with up to the given number
+     *         of threads
+     */
+    private synchronized ExecutorService getBatchSubmissionExecutor(final int threads) {
+        if (batchSubmissionExecutor == null) {
+            batchSubmissionExecutor = DaemonThreadPools.newFixedThreadPool(
+                    "PinpointEventSubmission", threads, SUBMISSION_THREAD_KEEP_ALIVE_SECONDS);
+        } else {
+            // the configuration changed
+            DaemonThreadPools.setPoolSize(batchSubmissionExecutor, threads);
+        }
+        return batchSubmissionExecutor;
+    }
+
+    private void submitEventsAndEndpoint(final EventsBatchToSubmit batch,
                                          EndpointProfile endpoint) {
+        final HashMap<Integer, Integer> batchIdsAndSizeToDelete = batch.idsAndSizeToDelete;
 
         if (endpoint == null) {
             log.warn("Endpoint profile is null, failed to submit events.");
             batchIdsAndSizeToDelete.clear();
+            batch.retryableFailure = true;
             return;
         }
 
         // package them into an putEvents request
-        PutEventsRequest request = this.createRecordEventsRequest(eventArray, endpoint);
+        PutEventsRequest request = this.createRecordEventsRequest(batch.events, endpoint);
         request.getRequestClientOptions().appendUserAgent(USER_AGENT);
 
+        final long requestStart = System.nanoTime();
         try {
             //making putEvents request
             PutEventsResult resultResponse = pinpointContext.getPinpointServiceClient().putEvents(request);
+            batch.latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestStart);
 
             //process endpoint response.
             processEndpointResponse(endpoint, resultResponse);
 
             //request accepted, checking each event item in the response.
-            processEventsResponse(eventArray, endpoint, resultResponse, batchIdsAndSizeToDelete);
+            processEventsResponse(batch, endpoint, resultResponse);
 
             log.info(String.format(Locale.getDefault(), "Successful submission of %d events.",
                     batchIdsAndSizeToDelete.size()));
@@ -396,6 +602,7 @@ public class EventRecorder {
             // This is service level exception, we also have item level exception.
             log.error("AmazonServiceException occurred during send of put event ", amazonServiceException);
             final String errorCode = amazonServiceException.getErrorCode();
+            batch.latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestStart);
 
             // If the error is not a retryable error, delete the events from the local database.
             // Else if the error is a retryable error, keep the events in the local database.
@@ -407,6 +614,7 @@ public class EventRecorder {
                                 amazonServiceException.getStatusCode(), amazonServiceException.getErrorCode()),
                         amazonServiceException);
                 batchIdsAndSizeToDelete.clear();
+                batch.retryableFailure = true;
             } else {
                 log.error(
                         String.format(Locale.getDefault(), "Failed to submit events to EventService: statusCode: " +
@@ -414,10 +622,11 @@ public class EventRecorder {
                         amazonServiceException);
                 log.error(
                         String.format(Locale.getDefault(), "Failed submission of %d events, events will be " +
-                                "removed from the local database. ", eventArray.length()),
+                                "removed from the local database. ", batch.events.size()),
                         amazonServiceException);
             }
         } catch (final AmazonClientException amazonClientException) {
+            batch.latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestStart);
             // When the AmazonClientException is retryable, keep the events
             // in the local database.
             // For all other client exceptions occurred during submit events,
@@ -427,10 +636,11 @@ public class EventRecorder {
                         "Events will be saved, error likely recoverable." +
                         amazonClientException.getMessage(), amazonClientException);
                 batchIdsAndSizeToDelete.clear();
+                batch.retryableFailure = true;
             } else {
                 log.error(
                         String.format(Locale.getDefault(), "AmazonClientException: Failed submission of %d events, events will be " +
-                        "removed from the local database. ", eventArray.length()),
+                        "removed from the local database. ", batch.events.size()),
                         amazonClientException);
             }
         }
@@ -466,40 +676,35 @@ public class EventRecorder {
         }
     }
 
-    private void processEventsResponse(final JSONArray eventArray,
+    private void processEventsResponse(final EventsBatchToSubmit batch,
                                        EndpointProfile endpointProfile,
-                                       final PutEventsResult resultResponse,
-                                       final Map<Integer, Integer> batchIdsAndSizeToDelete) {
+                                       final PutEventsResult resultResponse) {
         String eventId;
         EventItemResponse responseMessage;
 
-        for(int i = 0; i < eventArray.length(); i++) {
-            try {
-                eventId = eventArray.getJSONObject(i).getString(EVENT_ID);
-                responseMessage = resultResponse
-                        .getEventsResponse()
-                        .getResults()
-                        .get(endpointProfile.getEndpointId())
-                        .getEventsItemResponse()
-                        .get(eventId);
-                // If the event is Accepted by Pinpoint OR if a retryable error occurred
-                // while submitting, remove the event from batchIdsAndSizeToDelete
-                // so the event does not get deleted from the local database.
-                if (responseMessage.getMessage().equalsIgnoreCase("Accepted")) {
-                    log.info(String.format("Successful submit event with event id %s", eventId));
-                } else if (isRetryable(responseMessage.getMessage())) {
-                    log.warn(String.format("Unable to successfully deliver event to server. " +
-                            "Event will be saved. Event id %s", eventId));
-                    batchIdsAndSizeToDelete.remove(eventArray.getJSONObject(i).getInt(DATABASE_ID_KEY));
-                } else {
-                    // Item level exception, not retryable, so the event will be removed
-                    // from the local database.
-                    log.error(
-                            String.format("Failed to submitEvents to EventService: statusCode: %s Status Message: %s",
-                                    responseMessage.getStatusCode(), responseMessage.getMessage()));
-                }
-            } catch (JSONException e) {
-                log.error("Failed to get event id while processing event item response.", e);
+        for (final Map.Entry<String, Integer> databaseId : batch.databaseIds.entrySet()) {
+            eventId = databaseId.getKey();
+            responseMessage = resultResponse
+                    .getEventsResponse()
+                    .getResults()
+                    .get(endpointProfile.getEndpointId())
+                    .getEventsItemResponse()
+                    .get(eventId);
+            // If the event is Accepted by Pinpoint OR if a retryable error occurred
+            // while submitting, remove the event from batchIdsAndSizeToDelete
+            // so the event does not get deleted from the local database.
+            if (responseMessage.getMessage().equalsIgnoreCase("Accepted")) {
+                log.info(String.format("Successful submit event with event id %s", eventId));
+            } else if (isRetryable(responseMessage.getMessage())) {
+                log.warn(String.format("Unable to successfully deliver event to server. " +
+                        "Event will be saved. Event id %s", eventId));
+                batch.idsAndSizeToDelete.remove(databaseId.getValue());
+            } else {
+                // Item level exception, not retryable, so the event will be removed
+                // from the local database.
+                log.error(
+                        String.format("Failed to submitEvents to EventService: statusCode: %s Status Message: %s",
+                                responseMessage.getStatusCode(), responseMessage.getMessage()));
             }
         }
     }
@@ -520,12 +725,12 @@ public class EventRecorder {
     }
 
     /**
-     * @param events array of events
+     * @param eventsMap request payload of the events, by event id
      * @param endpointProfile endpoint profile for the device endpoint
      *
      * @return the request to put event
      */
-    private PutEventsRequest createRecordEventsRequest(final JSONArray events,
+    private PutEventsRequest createRecordEventsRequest(final Map<String, Event> eventsMap,
                                                        final EndpointProfile endpointProfile) {
 
         final PutEventsRequest putRequest = new PutEventsRequest().withApplicationId(endpointProfile.getApplicationId());
@@ -533,29 +738,10 @@ public class EventRecorder {
         final Map<String, EventsBatch> eventsBatchMap = new HashMap<String, EventsBatch>();
         final EventsBatch eventsBatch = new EventsBatch();
         final PublicEndpoint endpoint = new PublicEndpoint();
-        final Map<String,Event> eventsMap = new HashMap<String, Event>();
 
         // build endpoint payload
         buildEndpointPayload(endpointProfile, endpoint);
 
-        for (int i = 0; i < events.length(); i++) {
-            JSONObject eventJSON = null;
-            AnalyticsEvent internalEvent = null;
-            try {
-                eventJSON = events.getJSONObject(i);
-                internalEvent = AnalyticsEvent.translateToEvent(eventJSON);
-            } catch (final JSONException jsonException) {
-                // Do not log JSONException due to potentially sensitive information
-                log.error("Stored event was invalid JSON.", jsonException);
-                continue;
-            }
-
-            // build event payload
-            final Event event = new Event();
-            buildEventPayload(internalEvent, event);
-            eventsMap.put(internalEvent.getEventId(), event);
-        }
-
         // build request payload, could also build with only endpoint payload
         buildRequestPayload(putRequest, endpointId, eventsBatchMap, eventsBatch, endpoint, eventsMap);
 
@@ -24,6 +24,8 @@ import android.database.sqlite.SQLiteQueryBuilder;
 import android.net.Uri;
 import android.text.TextUtils;
 
+import java.util.Collection;
+
 import static com.amazonaws.mobileconnectors.pinpoint.internal.event.EventTable.COLUMN_SIZE;
 import static com.amazonaws.mobileconnectors.pinpoint.internal.event.EventTable.TABLE_EVENT;
 
@@ -35,6 +37,8 @@ public class PinpointDBBase {
     private static final int EVENTS = 10;
     private static final int EVENT_ID = 20;
     private static final String BASE_PATH = "events";
+    /** Max ids in one delete statement, below the SQLite limit on host parameters. */
+    private static final int MAX_IDS_PER_DELETE = 500;
     private final Context context;
     private final Uri contentUri;
     private final UriMatcher uriMatcher;
@@ -235,4 +239,45 @@ public class PinpointDBBase {
         }
         return rowsDeleted;
     }
+
+    /**
+     * Deletes the records with the given ids in a single transaction.
+     *
+     * @param ids       Ids of the records.
+     * @param knownSize Known total size of the records (If known).
+     * @return Number of rows deleted.
+     */
+    public int deleteByIds(final Collection<Integer> ids, final Long knownSize) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        final SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        final long size = getTotalSize();
+        int rowsDeleted = 0;
+        db.beginTransaction();
+        try {
+            final StringBuilder whereClause = new StringBuilder();
+            int idsInClause = 0;
+            int idsLeft = ids.size();
+            for (final Integer id : ids) {
+                whereClause.append(idsInClause == 0 ? EventTable.COLUMN_ID + " IN (" : ",").append(id.intValue());
+                idsInClause++;
+                idsLeft--;
+                if (idsInClause == MAX_IDS_PER_DELETE || idsLeft == 0) {
+                    rowsDeleted += db.delete(TABLE_EVENT, whereClause.append(')').toString(), null);
+                    whereClause.setLength(0);
+                    idsInClause = 0;
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        if (knownSize != null && rowsDeleted == ids.size()) {
+            totalSize = size - knownSize;
+        } else {
+            totalSize = -1;
+        }
+        return rowsDeleted;
+    }
 }
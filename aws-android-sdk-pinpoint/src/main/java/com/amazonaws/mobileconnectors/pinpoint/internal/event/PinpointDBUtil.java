@@ -21,6 +21,8 @@ import android.content.Context;
 import android.database.Cursor;
 import android.net.Uri;
 
+import java.util.Map;
+
 import static com.amazonaws.mobileconnectors.pinpoint.internal.event.EventTable.COLUMN_ID;
 import static com.amazonaws.mobileconnectors.pinpoint.internal.event.EventTable.COLUMN_SIZE;
 
@@ -112,6 +114,25 @@ public class PinpointDBUtil {
         return pinpointDBBase.delete(getEventUri(id), null, null, size);
     }
 
+    /**
+     * Deletes the events with the given ids in a single transaction.
+     *
+     * @param idsAndSize Ids of the events to be deleted, mapped to their known
+     *                   sizes, or to null if unknown.
+     * @return Number of rows deleted.
+     */
+    public int deleteEvents(final Map<Integer, Integer> idsAndSize) {
+        Long knownSize = 0L;
+        for (final Integer size : idsAndSize.values()) {
+            if (size == null) {
+                knownSize = null;
+                break;
+            }
+            knownSize += size;
+        }
+        return pinpointDBBase.deleteByIds(idsAndSize.keySet(), knownSize);
+    }
+
     /**
      * Gets the Uri of the event table.
      *
@@ -22,12 +22,11 @@ import com.amazonaws.http.HttpMethodName;
 import com.amazonaws.services.pinpointanalytics.model.Event;
 import com.amazonaws.services.pinpointanalytics.model.PutEventsRequest;
 import com.amazonaws.transform.Marshaller;
+import com.amazonaws.util.SegmentedByteArrayOutputStream;
 import com.amazonaws.util.StringUtils;
 import com.amazonaws.util.json.AwsJsonWriter;
 import com.amazonaws.util.json.JsonUtils;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.zip.GZIPOutputStream;
@@ -59,8 +58,9 @@ public class PutEventsRequestMarshaller implements
         final String uriResourcePath = "/2014-06-05/events";
         request.setResourcePath(uriResourcePath);
         try {
-            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            final GZIPOutputStream gos = new GZIPOutputStream(baos, 8192);
+            final SegmentedByteArrayOutputStream content =
+                    new SegmentedByteArrayOutputStream();
+            final GZIPOutputStream gos = new GZIPOutputStream(content, 8192);
             final Writer writer = new OutputStreamWriter(gos, StringUtils.UTF8);
             final AwsJsonWriter jsonWriter = JsonUtils.getJsonWriter(writer);
             jsonWriter.beginObject();
@@ -82,9 +82,8 @@ public class PutEventsRequestMarshaller implements
             gos.finish();
             writer.close();
 
-            final byte[] content = baos.toByteArray();
-            request.setContent(new ByteArrayInputStream(content));
-            request.addHeader("Content-Length", Integer.toString(content.length));
+            request.setContent(content.toInputStream());
+            request.addHeader("Content-Length", Long.toString(content.size()));
             request.addHeader("Content-Encoding", "gzip");
         } catch (final Throwable t) {
             throw new AmazonClientException(
@@ -252,6 +252,39 @@ public class AnalyticsEventTest extends MobileAnalyticsTestBase {
         assertEquals(2, metrics.getInt("metric2"));
     }
 
+    @Test
+    public void translate_stored_json_matches_json_object_test() throws JSONException {
+        target.addAttribute("attr1", "value1");
+        target.addAttribute("attr2", "value2");
+        target.addMetric("metric1", 1.0);
+        target.addMetric("metric2", 2.5);
+
+        final String stored = target.toJSONObject().toString();
+        final AnalyticsEvent expected = AnalyticsEvent.translateToEvent(new JSONObject(stored));
+        final AnalyticsEvent actual = AnalyticsEvent.translateToEvent(stored);
+
+        assertEquals(expected.toJSONObject().toString(), actual.toJSONObject().toString());
+        assertEquals(target.getEventId(), actual.getEventId());
+        assertEquals(TIME_STAMP, actual.getEventTimestamp());
+        assertEquals(SESSION_ID, actual.getSession().getSessionId());
+        assertEquals(Long.valueOf(SESSION_START), actual.getSession().getSessionStart());
+        assertEquals(Long.valueOf(SESSION_DURATION), actual.getSession().getSessionDuration());
+        assertEquals("value2", actual.getAttribute("attr2"));
+        assertEquals(Double.valueOf(2.5), actual.getMetric("metric2"));
+    }
+
+    @Test(expected = JSONException.class)
+    public void translate_stored_json_without_session_test() throws JSONException {
+        final JSONObject stored = target.toJSONObject();
+        stored.remove("session");
+        AnalyticsEvent.translateToEvent(stored.toString());
+    }
+
+    @Test(expected = JSONException.class)
+    public void translate_invalid_stored_json_test() throws JSONException {
+        AnalyticsEvent.translateToEvent("{\"event_id\": ");
+    }
+
     @Test
     public void valid_json_locale_from_event_test() throws JSONException {
         testDeviceDetails.setLocale(Locale.CANADA_FRENCH);
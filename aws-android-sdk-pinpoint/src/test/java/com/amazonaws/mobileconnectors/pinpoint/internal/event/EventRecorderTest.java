@@ -26,13 +26,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -40,6 +40,7 @@ import org.mockito.stubbing.OngoingStubbing;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.logging.Log;
 import com.amazonaws.mobileconnectors.pinpoint.analytics.AnalyticsEvent;
 import com.amazonaws.mobileconnectors.pinpoint.analytics.utils.AnalyticsContextBuilder;
@@ -231,7 +232,7 @@ public class EventRecorderTest {
         Integer[] sizeArray = new Integer[numberOfEvents];
         Arrays.fill(sizeArray, size);
         String[] jsonStringArray = new String[numberOfEvents];
-        String json = "{}";
+        String json = analyticsEvent.toJSONObject().toString();
         Arrays.fill(jsonStringArray, json);
 
         when(cursor.isNull(EventTable.COLUMN_INDEX.ID.getValue())).thenReturn(false, falseArray);
@@ -246,8 +247,104 @@ public class EventRecorderTest {
         // Allows looping for next batch submit
         when(cursor.moveToNext()).thenReturn(true).thenReturn(true).thenReturn(true);
 
-        JSONArray readArray = eventRecorder.getBatchOfEvents(cursor, new HashMap<Integer, Integer>());
-        assertEquals(EventRecorder.SERVICE_DEFINED_MAX_EVENTS_PER_BATCH, readArray.length());
+        EventRecorder.EventsBatchToSubmit batch = eventRecorder.getBatchOfEvents(cursor);
+        assertEquals(EventRecorder.SERVICE_DEFINED_MAX_EVENTS_PER_BATCH, batch.rowCount);
+        // every row holds the same event
+        assertEquals(1, batch.events.size());
+        assertEquals(Integer.valueOf(sharedIdForAllEvents), batch.databaseIds.get(analyticsEvent.getEventId()));
+    }
+
+    @Test
+    public void testProcessEventsSubmitsWholeBacklog() {
+        BadRequestException badRequestException = new BadRequestException("BadRequestException");
+        badRequestException.setErrorCode("BadRequestException");
+        for (int i = 0; i < 5; i++) {
+            eventRecorder.recordEvent(analyticsEvent);
+        }
+        // the mocked configuration limits batches to a single event
+        when(mockContext.getConfiguration().optInt(EventRecorder.KEY_MAX_SUBMISSIONS_ALLOWED,
+                EventRecorder.DEFAULT_MAX_SUBMISSIONS_ALLOWED)).thenReturn(2);
+        when(mockContext.getTargetingClient().currentEndpoint()).thenReturn(endpointProfile);
+        when(mockContext.getPinpointServiceClient().putEvents(any(PutEventsRequest.class))).thenThrow(badRequestException);
+        eventRecorder.processEvents();
+        verify(mockContext.getPinpointServiceClient(), times(5)).putEvents(any(PutEventsRequest.class));
+        //not retryable, every batch removed from db.
+        assertEquals(0, dbUtil.queryAllEvents().getCount());
+    }
+
+    @Test
+    public void testProcessEventsWaitsForBatchesInFlightWhenInterrupted() {
+        BadRequestException badRequestException = new BadRequestException("BadRequestException");
+        badRequestException.setErrorCode("BadRequestException");
+        for (int i = 0; i < 5; i++) {
+            eventRecorder.recordEvent(analyticsEvent);
+        }
+        // the mocked configuration limits batches to a single event
+        when(mockContext.getConfiguration().optInt(EventRecorder.KEY_MAX_SUBMISSIONS_ALLOWED,
+                EventRecorder.DEFAULT_MAX_SUBMISSIONS_ALLOWED)).thenReturn(2);
+        when(mockContext.getTargetingClient().currentEndpoint()).thenReturn(endpointProfile);
+        when(mockContext.getPinpointServiceClient().putEvents(any(PutEventsRequest.class))).thenThrow(badRequestException);
+
+        Thread.currentThread().interrupt();
+        eventRecorder.processEvents();
+
+        assertTrue(Thread.interrupted());
+        // no more batches are sent, but the events of the two batches in
+        // flight are removed from the db.
+        verify(mockContext.getPinpointServiceClient(), times(2)).putEvents(any(PutEventsRequest.class));
+        assertEquals(3, dbUtil.queryAllEvents().getCount());
+    }
+
+    @Test
+    public void testProcessEventsStopsOnRetryableError() {
+        AmazonServiceException serviceException = new AmazonServiceException("InternalServerErrorException");
+        serviceException.setErrorCode("InternalServerErrorException");
+        for (int i = 0; i < 5; i++) {
+            eventRecorder.recordEvent(analyticsEvent);
+        }
+        when(mockContext.getTargetingClient().currentEndpoint()).thenReturn(endpointProfile);
+        when(mockContext.getPinpointServiceClient().putEvents(any(PutEventsRequest.class))).thenThrow(serviceException);
+        eventRecorder.processEvents();
+        verify(mockContext.getPinpointServiceClient(), times(1)).putEvents(any(PutEventsRequest.class));
+        assertEquals(5, dbUtil.queryAllEvents().getCount());
+    }
+
+    @Test
+    public void testSubmitEventsCoalescesPendingSubmissions() {
+        eventRecorder.submitEvents();
+        eventRecorder.submitEvents();
+        eventRecorder.submitEvents();
+        ArgumentCaptor<Runnable> runnable = ArgumentCaptor.forClass(Runnable.class);
+        verify(submissionRunnable, times(1)).execute(runnable.capture());
+
+        // once the pending submission starts, a new one can be queued
+        runnable.getValue().run();
+        eventRecorder.submitEvents();
+        verify(submissionRunnable, times(2)).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void testAdaptBatchSize() {
+        EventRecorder.EventsBatchToSubmit slowBatch = new EventRecorder.EventsBatchToSubmit();
+        slowBatch.latencyMillis = EventRecorder.TARGET_SUBMISSION_LATENCY_MILLIS + 1;
+        eventRecorder.adaptBatchSize(slowBatch);
+        assertEquals(50, eventRecorder.getBatchSizePercent());
+        for (int i = 0; i < 10; i++) {
+            eventRecorder.adaptBatchSize(slowBatch);
+        }
+        assertEquals(EventRecorder.MIN_BATCH_SIZE_PERCENT, eventRecorder.getBatchSizePercent());
+
+        // a fast batch only grows the batches when it was full
+        EventRecorder.EventsBatchToSubmit fastBatch = new EventRecorder.EventsBatchToSubmit();
+        fastBatch.latencyMillis = 100;
+        fastBatch.rowCount = 5;
+        eventRecorder.adaptBatchSize(fastBatch);
+        assertEquals(EventRecorder.MIN_BATCH_SIZE_PERCENT, eventRecorder.getBatchSizePercent());
+        fastBatch.rowCount = EventRecorder.SERVICE_DEFINED_MAX_EVENTS_PER_BATCH;
+        for (int i = 0; i < 20; i++) {
+            eventRecorder.adaptBatchSize(fastBatch);
+        }
+        assertEquals(100, eventRecorder.getBatchSizePercent());
     }
 
     @Test
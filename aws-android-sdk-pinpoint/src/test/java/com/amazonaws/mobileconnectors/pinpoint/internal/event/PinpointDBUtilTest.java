@@ -30,6 +30,9 @@ import com.amazonaws.mobileconnectors.pinpoint.internal.core.system.MockDeviceDe
 import android.database.Cursor;
 import android.net.Uri;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
@@ -156,4 +159,36 @@ public class PinpointDBUtilTest {
         assertEquals(c2.getCount(), 0);
         c2.close();
     }
+
+    @Test
+    public void testDeleteEvents() {
+        AnalyticsEvent analyticsEvent = AnalyticsEvent.newInstance(mockContext,
+                                                                          SESSION_ID,
+                                                                          SESSION_START,
+                                                                          SESSION_END,
+                                                                          SESSION_DURATION,
+                                                                          TIME_STAMP,
+                                                                          EVENT_NAME);
+        final int size = analyticsEvent.toJSONObject().toString().length();
+        final Map<Integer, Integer> idsAndSize = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 3; i++) {
+            Uri uri = dbUtil.saveEvent(analyticsEvent);
+            idsAndSize.put(Integer.parseInt(uri.getLastPathSegment()), size);
+        }
+        Uri kept = dbUtil.saveEvent(analyticsEvent);
+        assertEquals(4L * size, dbUtil.getTotalSize());
+
+        assertEquals(3, dbUtil.deleteEvents(idsAndSize));
+        assertEquals(size, dbUtil.getTotalSize());
+        Cursor c = dbUtil.queryAllEvents();
+        assertEquals(1, c.getCount());
+        c.moveToFirst();
+        assertEquals(Integer.parseInt(kept.getLastPathSegment()),
+                     c.getInt(EventTable.COLUMN_INDEX.ID.getValue()));
+        c.close();
+
+        // deleting missing rows recalculates the total size
+        assertEquals(0, dbUtil.deleteEvents(idsAndSize));
+        assertEquals(size, dbUtil.getTotalSize());
+    }
 }
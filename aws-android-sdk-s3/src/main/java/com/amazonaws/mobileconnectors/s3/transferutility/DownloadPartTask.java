@@ -0,0 +1,203 @@
+/**
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.s3.transferutility;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+
+import com.amazonaws.logging.Log;
+import com.amazonaws.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloads one byte range of a ranged download and writes it at its offset
+ * in the file. The bytes written so far are recorded in the range record, so
+ * a resumed download continues the range where it stopped.
+ */
+class DownloadPartTask implements Callable<Boolean> {
+    private static final Log LOGGER = LogFactory.getLog(DownloadPartTask.class);
+    private static final int RETRY_COUNT = 3;
+    private static final int SIXTEEN_KB = 1024 * 16;
+    private static final long ONE_MB = 1024 * 1024;
+
+    private final TransferRecord range;
+    private final String eTag;
+    private final DownloadTask.DownloadTaskProgressListener downloadTaskProgressListener;
+    private final AmazonS3 s3;
+    private final TransferDBUtil dbUtil;
+    private final InFlightPartLimiter inFlightPartLimiter;
+
+    public DownloadPartTask(TransferRecord range,
+                            String eTag,
+                            DownloadTask.DownloadTaskProgressListener downloadTaskProgressListener,
+                            AmazonS3 s3,
+                            TransferDBUtil dbUtil,
+                            InFlightPartLimiter inFlightPartLimiter) {
+        this.range = range;
+        this.eTag = eTag;
+        this.downloadTaskProgressListener = downloadTaskProgressListener;
+        this.s3 = s3;
+        this.dbUtil = dbUtil;
+        this.inFlightPartLimiter = inFlightPartLimiter;
+    }
+
+    /*
+     * Runs range download task and returns whether successfully downloaded.
+     * The slot reserved in the in-flight part limiter by DownloadTask is
+     * released once the range finishes, successfully or not.
+     */
+    @Override
+    public Boolean call() throws Exception {
+        try {
+            return downloadRange();
+        } finally {
+            inFlightPartLimiter.release(range.bytesTotal);
+        }
+    }
+
+    private Boolean downloadRange() throws Exception {
+        range.state = TransferState.IN_PROGRESS;
+        int retried = 1;
+        while (true) {
+            try {
+                fetchRemainingBytes();
+                range.state = TransferState.PART_COMPLETED;
+                dbUtil.updateState(range.id, TransferState.PART_COMPLETED);
+                return true;
+            } catch (AbortedException e) {
+                // If request got aborted, operation was paused or canceled. do not retry.
+                LOGGER.debug("Download range aborted.");
+                return false;
+            } catch (final Exception e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    LOGGER.debug("Download range interrupted.");
+                    return false;
+                }
+                LOGGER.error("Unexpected error occurred: " + e);
+
+                // Check if network is not connected, set the state to WAITING_FOR_NETWORK.
+                try {
+                    if (TransferNetworkLossHandler.getInstance() != null &&
+                            !TransferNetworkLossHandler.getInstance().isNetworkConnected()) {
+                        LOGGER.info("Thread: [" + Thread.currentThread().getId() + "]: Network wasn't available.");
+                        range.state = TransferState.WAITING_FOR_NETWORK;
+                        dbUtil.updateState(range.id, TransferState.WAITING_FOR_NETWORK);
+                        return false;
+                    }
+                } catch (TransferUtilityException transferUtilityException) {
+                    LOGGER.error("TransferUtilityException: [" + transferUtilityException + "]");
+                }
+
+                if (retried >= RETRY_COUNT) {
+                    range.state = TransferState.FAILED;
+                    dbUtil.updateState(range.id, TransferState.FAILED);
+                    LOGGER.error("Encountered error downloading range ", e);
+                    throw e;
+                }
+
+                // Sleep before retrying
+                long delayMs = exponentialBackoffWithJitter(retried);
+                LOGGER.info("Retrying in " + delayMs + " ms.");
+                TimeUnit.MILLISECONDS.sleep(delayMs);
+                LOGGER.debug("Retry attempt: " + retried++, e);
+            }
+        }
+    }
+
+    /**
+     * Fetches the bytes of the range that are not in the file yet and writes
+     * them at their offset. The range record is updated every megabyte and
+     * when the fetch stops, so that its bytesCurrent never exceeds the bytes
+     * actually written.
+     */
+    private void fetchRemainingBytes() throws IOException {
+        if (range.bytesCurrent >= range.bytesTotal) {
+            return;
+        }
+        final GetObjectRequest getObjectRequest = new GetObjectRequest(range.bucketName, range.key);
+        TransferUtility.appendTransferServiceUserAgentString(getObjectRequest);
+        getObjectRequest.setRange(range.rangeStart + range.bytesCurrent, range.rangeLast);
+        if (eTag != null) {
+            getObjectRequest.withMatchingETagConstraint(eTag);
+        }
+
+        final S3Object object = s3.getObject(getObjectRequest);
+        if (object == null) {
+            // AmazonS3.getObject returns null when the ETag constraint isn't met
+            throw new AmazonClientException("Object " + range.key
+                    + " changed while downloading range " + range.partNumber);
+        }
+
+        final InputStream is = object.getObjectContent();
+        final RandomAccessFile raf = new RandomAccessFile(new File(range.file), "rw");
+        long bytesPersisted = range.bytesCurrent;
+        try {
+            final FileChannel channel = raf.getChannel();
+            final byte[] buffer = new byte[SIXTEEN_KB];
+            int bytesRead;
+            while ((bytesRead = is.read(buffer)) != -1) {
+                final ByteBuffer src = ByteBuffer.wrap(buffer, 0, bytesRead);
+                long position = range.rangeStart + range.bytesCurrent;
+                while (src.hasRemaining()) {
+                    position += channel.write(src, position);
+                }
+                range.bytesCurrent += bytesRead;
+                downloadTaskProgressListener.onProgressChanged(range.partNumber, range.bytesCurrent);
+                if (range.bytesCurrent - bytesPersisted >= ONE_MB) {
+                    bytesPersisted = range.bytesCurrent;
+                    dbUtil.updateBytesTransferred(range.id, bytesPersisted);
+                }
+            }
+        } finally {
+            if (range.bytesCurrent != bytesPersisted) {
+                dbUtil.updateBytesTransferred(range.id, range.bytesCurrent);
+            }
+            try {
+                raf.close();
+            } catch (final IOException ioe) {
+                LOGGER.warn("got exception", ioe);
+            }
+            try {
+                is.close();
+            } catch (final IOException ioe) {
+                LOGGER.warn("got exception", ioe);
+            }
+        }
+        if (range.bytesCurrent < range.bytesTotal) {
+            throw new IOException("Range " + range.partNumber + " ended after "
+                    + range.bytesCurrent + " of " + range.bytesTotal + " bytes");
+        }
+    }
+
+    private long exponentialBackoffWithJitter(int retryAttempt) {
+        final long baseTimeMs = 1000L;
+        final long jitterFactor = 1000L;
+        long delay = baseTimeMs * (1 << retryAttempt);
+        long jitter = (long) (jitterFactor * Math.random());
+        return delay + jitter;
+    }
+}
@@ -20,7 +20,9 @@ import com.amazonaws.event.ProgressEvent;
 import com.amazonaws.event.ProgressListener;
 import com.amazonaws.retry.RetryUtils;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 
 import com.amazonaws.logging.Log;
@@ -32,12 +34,22 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 /**
  * Performs download operation and returns a Boolean value indicating whether
  * the file has been downloaded successfully.
+ *
+ * Objects at or above the ranged download threshold configured in
+ * {@link TransferUtilityOptions} are split into byte ranges, fetched
+ * concurrently on the part thread pool and written at their offsets.
  */
 class DownloadTask implements Callable<Boolean> {
 
@@ -46,20 +58,29 @@ class DownloadTask implements Callable<Boolean> {
 
     private final AmazonS3 s3;
     private final TransferRecord download;
+    private final TransferDBUtil dbUtil;
     private final TransferStatusUpdater updater;
 
+    private final Map<Integer, Future<Boolean>> downloadPartTasks;
+
     /**
      * Constructs a DownloadTask with the given download info and S3 client.
      *
      * @param download A TransferRecord object storing all the information of the
      *                 download
      * @param s3       Low-level S3 client
+     * @param dbUtil   database util
      * @param updater  status updater
      */
-    public DownloadTask(TransferRecord download, AmazonS3 s3, TransferStatusUpdater updater) {
+    public DownloadTask(TransferRecord download,
+                        AmazonS3 s3,
+                        TransferDBUtil dbUtil,
+                        TransferStatusUpdater updater) {
         this.download = download;
         this.s3 = s3;
+        this.dbUtil = dbUtil;
         this.updater = updater;
+        this.downloadPartTasks = new ConcurrentHashMap<Integer, Future<Boolean>>();
     }
 
     /**
@@ -84,6 +105,10 @@ class DownloadTask implements Callable<Boolean> {
         ProgressListener progressListener = updater.newProgressListener(download.id);
 
         try {
+            if (download.isMultipart == 1 || shouldDownloadInRanges()) {
+                return downloadRangesAndWaitForCompletion();
+            }
+
             getObjectRequest = new GetObjectRequest(download.bucketName, download.key);
             TransferUtility.appendTransferServiceUserAgentString(getObjectRequest);
             final File file = new File(download.file);
@@ -113,6 +138,15 @@ class DownloadTask implements Callable<Boolean> {
             updater.updateState(download.id, TransferState.COMPLETED);
             return true;
         } catch (final Exception e) {
+            /*
+             * Future.get() will catch InterruptedException, but it's not a
+             * failure, it may be caused by a pause operation from applications.
+             * Cancel all the on-going range tasks of a ranged download.
+             */
+            for (final Future<Boolean> task : downloadPartTasks.values()) {
+                task.cancel(true);
+            }
+
             // No need to update the progress listener.
             if (TransferState.PENDING_CANCEL.equals(download.state)) {
                 updater.updateState(download.id, TransferState.CANCELED);
@@ -169,6 +203,148 @@ class DownloadTask implements Callable<Boolean> {
         }
     }
 
+    /**
+     * Checks whether a new download should be fetched in byte ranges, and if
+     * so records it as a ranged download. It issues a HEAD request to learn
+     * the size and the ETag of the object.
+     *
+     * @return true if the object is fetched in byte ranges
+     */
+    private boolean shouldDownloadInRanges() {
+        final TransferUtilityOptions tuOptions = download.transferUtilityOptions;
+        if (tuOptions == null || tuOptions.getRangedDownloadThreshold() <= 0
+                || new File(download.file).length() > 0) {
+            return false;
+        }
+        final GetObjectMetadataRequest getObjectMetadataRequest =
+                new GetObjectMetadataRequest(download.bucketName, download.key);
+        TransferUtility.appendTransferServiceUserAgentString(getObjectMetadataRequest);
+        final ObjectMetadata metadata = s3.getObjectMetadata(getObjectMetadataRequest);
+        if (metadata.getContentLength() < tuOptions.getRangedDownloadThreshold()) {
+            return false;
+        }
+        download.isMultipart = 1;
+        download.bytesTotal = metadata.getContentLength();
+        download.eTag = metadata.getETag();
+        dbUtil.updateRangedDownload(download.id, download.bytesTotal, download.eTag);
+        return true;
+    }
+
+    /**
+     * Fetches the byte ranges of the object that are not in the file yet,
+     * concurrently, and waits for all of them to finish. The range records
+     * are created on the first run; a resumed download only fetches what's
+     * missing from each range.
+     *
+     * @return true if all the ranges were downloaded
+     * @throws Exception if a range failed or the wait was interrupted
+     */
+    private Boolean downloadRangesAndWaitForCompletion() throws Exception {
+        final TransferUtilityOptions tuOptions = download.transferUtilityOptions != null
+                ? download.transferUtilityOptions
+                : new TransferUtilityOptions();
+        final File file = new File(download.file);
+        List<TransferRecord> ranges = dbUtil.getDownloadRangesFromDB(download.id);
+        if (ranges.isEmpty()) {
+            allocateFile(file, download.bytesTotal);
+            dbUtil.insertDownloadRangeRecords(download, tuOptions.getDownloadRangeSize());
+            ranges = dbUtil.getDownloadRangesFromDB(download.id);
+        } else if (file.length() != download.bytesTotal) {
+            // The file was removed or truncated since the ranges were fetched
+            allocateFile(file, download.bytesTotal);
+            for (final TransferRecord range : ranges) {
+                range.bytesCurrent = 0;
+                range.state = TransferState.WAITING;
+                dbUtil.updateTransferRecord(range);
+            }
+        }
+
+        long bytesAlreadyTransferred = 0;
+        for (final TransferRecord range : ranges) {
+            bytesAlreadyTransferred += range.bytesCurrent;
+        }
+        if (bytesAlreadyTransferred > 0) {
+            LOGGER.debug(String.format("Resume transfer %d from %d bytes", download.id,
+                    bytesAlreadyTransferred));
+        }
+        final DownloadTaskProgressListener downloadTaskProgressListener =
+                new DownloadTaskProgressListener(ranges, bytesAlreadyTransferred);
+        updater.updateProgress(download.id, bytesAlreadyTransferred, download.bytesTotal, true);
+
+        final InFlightPartLimiter inFlightPartLimiter =
+                new InFlightPartLimiter(tuOptions.getDownloadRangeConcurrency(), Long.MAX_VALUE);
+        LOGGER.info("Ranged download " + download.id + " in " + ranges.size() + " ranges.");
+        for (final TransferRecord range : ranges) {
+            if (TransferState.PART_COMPLETED.equals(range.state)) {
+                continue;
+            }
+            inFlightPartLimiter.acquire(range.bytesTotal);
+            try {
+                downloadPartTasks.put(range.partNumber, TransferThreadPool.submitTask(
+                        new DownloadPartTask(range, download.eTag, downloadTaskProgressListener,
+                                s3, dbUtil, inFlightPartLimiter)));
+            } catch (final RuntimeException e) {
+                // the range task releases the limiter when it runs, this one never will
+                inFlightPartLimiter.release(range.bytesTotal);
+                throw e;
+            }
+        }
+
+        boolean isSuccess = true;
+        for (final Future<Boolean> task : downloadPartTasks.values()) {
+            // DownloadPartTask returns false when it's interrupted by user
+            // or the network, and the state is set by caller
+            isSuccess &= task.get();
+        }
+        if (!isSuccess) {
+            try {
+                if (TransferNetworkLossHandler.getInstance() != null &&
+                    !TransferNetworkLossHandler.getInstance().isNetworkConnected()) {
+                    LOGGER.info("Network not connected. Setting the state to WAITING_FOR_NETWORK.");
+                    updater.updateState(download.id, TransferState.WAITING_FOR_NETWORK);
+                    return false;
+                }
+            } catch (TransferUtilityException transferUtilityException) {
+                LOGGER.error("TransferUtilityException: [" + transferUtilityException + "]");
+            }
+            return false;
+        }
+
+        updater.updateProgress(download.id, download.bytesTotal, download.bytesTotal, true);
+        updater.updateState(download.id, TransferState.COMPLETED);
+        return true;
+    }
+
+    /**
+     * Creates the file, and its parent if it doesn't exist, with the given
+     * length so that ranges can be written at their offsets.
+     *
+     * @param file file to be written
+     * @param length size of the object
+     */
+    private void allocateFile(File file, long length) {
+        final File parentDirectory = file.getParentFile();
+        if (parentDirectory != null && !parentDirectory.exists()) {
+            parentDirectory.mkdirs();
+        }
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            raf.setLength(length);
+        } catch (final IOException e) {
+            throw new AmazonClientException("Unable to allocate file for object contents: "
+                    + e.getMessage(), e);
+        } finally {
+            try {
+                if (raf != null) {
+                    raf.close();
+                }
+            } catch (final IOException ioe) {
+                LOGGER.warn("got exception", ioe);
+            }
+        }
+    }
+
     /**
      * Writes stream data into a file.
      *
@@ -215,4 +391,36 @@ class DownloadTask implements Callable<Boolean> {
             }
         }
     }
+
+    /**
+     * Progress Listener for a ranged download. Sums the bytes fetched by all
+     * the ranges of the download.
+     */
+    class DownloadTaskProgressListener {
+
+        // Bytes fetched so far per range, keyed by range number.
+        private final Map<Integer, Long> bytesPerRange;
+
+        // This variable tracks the previously reported total bytes transferred.
+        private long prevTotalBytesTransferred;
+
+        DownloadTaskProgressListener(List<TransferRecord> ranges, long bytesAlreadyTransferred) {
+            this.bytesPerRange = new HashMap<Integer, Long>();
+            for (final TransferRecord range : ranges) {
+                bytesPerRange.put(range.partNumber, range.bytesCurrent);
+            }
+            this.prevTotalBytesTransferred = bytesAlreadyTransferred;
+        }
+
+        public synchronized void onProgressChanged(final int rangeNum,
+            final long bytesTransferredSoFarForRangeNum) {
+            final Long previous = bytesPerRange.put(rangeNum, bytesTransferredSoFarForRangeNum);
+            final long delta = bytesTransferredSoFarForRangeNum - (previous == null ? 0 : previous);
+            final long totalBytesTransferred = prevTotalBytesTransferred + delta;
+            if (totalBytesTransferred > prevTotalBytesTransferred) {
+                updater.updateProgress(download.id, totalBytesTransferred, download.bytesTotal, true);
+                prevTotalBytesTransferred = totalBytesTransferred;
+            }
+        }
+    }
 }
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.s3.transferutility;
+
+/**
+ * Bounds the number of parts and the number of part bytes of a single
+ * multipart upload or ranged download that are in flight at the same time.
+ * The part thread pool bounds the concurrency across all the transfers;
+ * this limiter keeps one large transfer from queueing all its parts at once.
+ */
+class InFlightPartLimiter {
+
+    private final int maxParts;
+    private final long maxBytes;
+
+    private int partsInFlight;
+    private long bytesInFlight;
+
+    InFlightPartLimiter(int maxParts, long maxBytes) {
+        this.maxParts = Math.max(maxParts, 1);
+        this.maxBytes = Math.max(maxBytes, 1);
+    }
+
+    /**
+     * Blocks until a part of the given size may be uploaded. A part larger
+     * than the byte budget is admitted once nothing else is in flight.
+     *
+     * @param partSize size of the part in bytes
+     * @throws InterruptedException if the waiting thread is interrupted,
+     *             e.g. when the transfer is paused or canceled
+     */
+    synchronized void acquire(long partSize) throws InterruptedException {
+        while (partsInFlight > 0
+                && (partsInFlight >= maxParts || bytesInFlight + partSize > maxBytes)) {
+            wait();
+        }
+        partsInFlight++;
+        bytesInFlight += partSize;
+    }
+
+    /**
+     * Releases a part previously admitted by {@link #acquire(long)}.
+     *
+     * @param partSize size of the part in bytes
+     */
+    synchronized void release(long partSize) {
+        partsInFlight--;
+        bytesInFlight -= partSize;
+        notifyAll();
+    }
+}
@@ -238,6 +238,10 @@ class TransferDBBase {
     }
 
     /**
+     * Inserts multiple records in a single transaction. With the Uri of the
+     * table, the first record is the main record of the others; with the
+     * part Uri of a main record, all the records are its parts.
+     *
      * @param uri The Uri of a table.
      * @param valuesArray A array of values to insert.
      * @return The mainUploadId of the multipart transfer records
@@ -263,6 +267,22 @@ class TransferDBBase {
                     database.endTransaction();
                 }
                 break;
+            case TRANSFER_PART:
+                // All the values are part records of an existing main record
+                mainUploadId = Integer.parseInt(uri.getLastPathSegment());
+                try {
+                    database.beginTransaction();
+                    for (final ContentValues values : valuesArray) {
+                        values.put(TransferTable.COLUMN_MAIN_UPLOAD_ID, mainUploadId);
+                        database.insertOrThrow(TransferTable.TABLE_TRANSFER, null, values);
+                    }
+                    database.setTransactionSuccessful();
+                } catch (final Exception e) {
+                    LOGGER.error("bulkInsert error : ", e);
+                } finally {
+                    database.endTransaction();
+                }
+                break;
             default:
                 throw new IllegalArgumentException("Unknown URI: " + uri);
         }
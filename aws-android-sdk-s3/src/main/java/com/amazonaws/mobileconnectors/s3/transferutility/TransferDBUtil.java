@@ -638,6 +638,85 @@ class TransferDBUtil {
         return list;
     }
 
+    /**
+     * Marks a download as a ranged download of an object with the given size
+     * and ETag. The ETag is used to make sure that all the ranges, including
+     * the ones fetched after a resume, belong to the same object.
+     *
+     * @param id The id of the download.
+     * @param bytesTotal The size of the object.
+     * @param eTag The ETag of the object.
+     * @return Number of rows updated.
+     */
+    public int updateRangedDownload(int id, long bytesTotal, String eTag) {
+        final ContentValues values = new ContentValues();
+        values.put(TransferTable.COLUMN_IS_MULTIPART, 1);
+        values.put(TransferTable.COLUMN_BYTES_TOTAL, bytesTotal);
+        values.put(TransferTable.COLUMN_ETAG, eTag);
+        return transferDBBase.update(getRecordUri(id), values, null, null);
+    }
+
+    /**
+     * Inserts a part record for every byte range of a ranged download. The
+     * ranges are numbered from 1 and cover the object from the first to
+     * the last byte.
+     *
+     * @param download The main record of the ranged download.
+     * @param rangeSize The size of each range, the last one may be smaller.
+     * @return The id of the main record.
+     */
+    public int insertDownloadRangeRecords(TransferRecord download, long rangeSize) {
+        final int numRanges = (int) Math.ceil((double) download.bytesTotal / rangeSize);
+        final ContentValues[] valuesArray = new ContentValues[numRanges];
+        long rangeStart = 0;
+        for (int i = 0; i < numRanges; i++) {
+            final long rangeLast = Math.min(rangeStart + rangeSize, download.bytesTotal) - 1;
+            final ContentValues values = new ContentValues();
+            values.put(TransferTable.COLUMN_TYPE, TransferType.DOWNLOAD.toString());
+            values.put(TransferTable.COLUMN_STATE, TransferState.WAITING.toString());
+            values.put(TransferTable.COLUMN_BUCKET_NAME, download.bucketName);
+            values.put(TransferTable.COLUMN_KEY, download.key);
+            values.put(TransferTable.COLUMN_FILE, download.file);
+            values.put(TransferTable.COLUMN_BYTES_CURRENT, 0L);
+            values.put(TransferTable.COLUMN_BYTES_TOTAL, rangeLast - rangeStart + 1);
+            values.put(TransferTable.COLUMN_IS_MULTIPART, 1);
+            values.put(TransferTable.COLUMN_PART_NUM, i + 1);
+            values.put(TransferTable.COLUMN_DATA_RANGE_START, rangeStart);
+            values.put(TransferTable.COLUMN_DATA_RANGE_LAST, rangeLast);
+            values.put(TransferTable.COLUMN_IS_LAST_PART, i == numRanges - 1 ? 1 : 0);
+            values.put(TransferTable.COLUMN_IS_ENCRYPTED, 0);
+            valuesArray[i] = values;
+            rangeStart = rangeLast + 1;
+        }
+        return transferDBBase.bulkInsert(getPartUri(download.id), valuesArray);
+    }
+
+    /**
+     * Queries the byte range records of a ranged download. It's used when
+     * starting or resuming a ranged download.
+     *
+     * @param mainDownloadId The id of the main record of the ranged download.
+     * @return A list of TransferRecord, one per byte range
+     */
+    public List<TransferRecord> getDownloadRangesFromDB(int mainDownloadId) {
+        final List<TransferRecord> list = new ArrayList<TransferRecord>();
+        Cursor c = null;
+        try {
+            c = transferDBBase.query(getPartUri(mainDownloadId), null, null, null, null);
+            while (c.moveToNext()) {
+                final TransferRecord range = new TransferRecord(
+                        c.getInt(c.getColumnIndexOrThrow(TransferTable.COLUMN_ID)));
+                range.updateFromDB(c);
+                list.add(range);
+            }
+        } finally {
+            if (c != null) {
+                c.close();
+            }
+        }
+        return list;
+    }
+
     /**
      * Queries waiting for network partUpload tasks of a multipart upload and returns
      * true if one such partUpload tasks
@@ -181,7 +181,7 @@ class TransferRecord {
             checkPreferredNetworkAvailability(updater, connManager)) {
             if (type.equals(TransferType.DOWNLOAD)) {
                 submittedTask = TransferThreadPool
-                        .submitTask(new DownloadTask(this, s3, updater));
+                        .submitTask(new DownloadTask(this, s3, dbUtil, updater));
             } else {
                 submittedTask = TransferThreadPool
                         .submitTask(new UploadTask(this, s3, dbUtil, updater));
@@ -32,8 +32,9 @@ class TransferThreadPool {
     private static ExecutorService executorMainTask;
     private static ExecutorService executorPartTask;
 
-    static synchronized void init(final int transferThreadPoolSize) {
-        LOGGER.debug("Initializing the thread pool of size: " + transferThreadPoolSize);
+    static synchronized void init(final int transferThreadPoolSize, final int partUploadConcurrency) {
+        LOGGER.debug("Initializing the thread pool of size: " + transferThreadPoolSize
+                + " with part upload concurrency: " + partUploadConcurrency);
         
         final int poolSize = Math.max((int) (Math.ceil((double) transferThreadPoolSize / 2)), 1);
         
@@ -41,14 +42,15 @@ class TransferThreadPool {
             executorMainTask = buildExecutor(poolSize);
         }
         if (executorPartTask == null) {
-            // Upload individual parts serially
-            executorPartTask = buildExecutor(1);
+            // Transfer individual parts concurrently, shared by all the transfers
+            executorPartTask = buildExecutor(Math.max(partUploadConcurrency, 1));
         }
     }
 
     public static <T> Future<T> submitTask(Callable<T> c) {
-        init(TransferUtilityOptions.getDefaultThreadPoolSize());
-        if (c instanceof UploadPartTask) {
+        init(TransferUtilityOptions.getDefaultThreadPoolSize(),
+                TransferUtilityOptions.getDefaultPartUploadConcurrency());
+        if (c instanceof UploadPartTask || c instanceof DownloadPartTask) {
             return executorPartTask.submit(c);
         } else {
             return executorMainTask.submit(c);
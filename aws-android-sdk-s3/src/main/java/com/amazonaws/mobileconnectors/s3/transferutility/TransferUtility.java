@@ -326,7 +326,8 @@ public class TransferUtility {
         this.transferUtilityOptions = tuOptions;
         this.dbUtil = new TransferDBUtil(context.getApplicationContext());
         this.updater = TransferStatusUpdater.getInstance(context.getApplicationContext());
-        TransferThreadPool.init(this.transferUtilityOptions.getTransferThreadPoolSize());
+        TransferThreadPool.init(this.transferUtilityOptions.getTransferThreadPoolSize(),
+                this.transferUtilityOptions.getPartUploadConcurrency());
         this.connManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
     }
 
@@ -347,7 +348,8 @@ public class TransferUtility {
         this.transferUtilityOptions = new TransferUtilityOptions();
         this.dbUtil = new TransferDBUtil(context.getApplicationContext());
         this.updater = TransferStatusUpdater.getInstance(context.getApplicationContext());
-        TransferThreadPool.init(this.transferUtilityOptions.getTransferThreadPoolSize());
+        TransferThreadPool.init(this.transferUtilityOptions.getTransferThreadPoolSize(),
+                this.transferUtilityOptions.getPartUploadConcurrency());
         this.connManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
     }
 
@@ -26,6 +26,7 @@ import java.io.Serializable;
  * 
  * TransferUtilityOptions tuOptions = new TransferUtilityOptions();
  * tuOptions.setTransferThreadPoolSize(10); // 10 threads for upload and download operations.
+ * tuOptions.setPartUploadConcurrency(4); // 4 parts of a multipart upload in flight.
  *
  * // Initializes TransferUtility
  * TransferUtility transferUtility = TransferUtility
@@ -49,6 +50,21 @@ public class TransferUtilityOptions implements Serializable {
      */
     private static final int MILLIS_IN_MINUTE = 60 * 1000;
 
+    /**
+     * Default in-flight part byte budget of a multipart upload.
+     */
+    private static final long DEFAULT_MAX_IN_FLIGHT_PART_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Default size of a byte range of a ranged download.
+     */
+    private static final long DEFAULT_DOWNLOAD_RANGE_SIZE = 8L * 1024 * 1024;
+
+    /**
+     * Minimum size of a byte range of a ranged download.
+     */
+    private static final long MINIMUM_DOWNLOAD_RANGE_SIZE = 1024L * 1024;
+
     /**
      * TransferService checks for the transfers that are waiting or in progress
      * and restarts the transfer for every time interval in milliseconds.
@@ -68,6 +84,36 @@ public class TransferUtilityOptions implements Serializable {
      * Type of connection to use for transfers.
      */
     private TransferNetworkConnectionType transferNetworkConnectionType;
+
+    /**
+     * Maximum number of parts of a single multipart upload that
+     * are uploaded concurrently.
+     */
+    private int partUploadConcurrency;
+
+    /**
+     * Maximum number of part bytes of a single multipart upload
+     * that may be in flight at any time.
+     */
+    private long maxInFlightPartBytes;
+
+    /**
+     * Minimum object size in bytes above which a download is split into
+     * byte ranges that are fetched concurrently. Zero disables ranged
+     * downloads.
+     */
+    private long rangedDownloadThreshold;
+
+    /**
+     * Size in bytes of each byte range of a ranged download.
+     */
+    private long downloadRangeSize;
+
+    /**
+     * Maximum number of byte ranges of a single ranged download that are
+     * fetched concurrently.
+     */
+    private int downloadRangeConcurrency;
     
     /**
      * Constructor that sets the options to the
@@ -78,6 +124,11 @@ public class TransferUtilityOptions implements Serializable {
         this.transferServiceCheckTimeInterval = getDefaultCheckTimeInterval();
         this.transferThreadPoolSize = getDefaultThreadPoolSize();
         this.transferNetworkConnectionType = getDefaultTransferNetworkConnectionType();
+        this.partUploadConcurrency = getDefaultPartUploadConcurrency();
+        this.maxInFlightPartBytes = getDefaultMaxInFlightPartBytes();
+        this.rangedDownloadThreshold = getDefaultRangedDownloadThreshold();
+        this.downloadRangeSize = getDefaultDownloadRangeSize();
+        this.downloadRangeConcurrency = getDefaultDownloadRangeConcurrency();
     }
 
     /**
@@ -93,6 +144,11 @@ public class TransferUtilityOptions implements Serializable {
         this.transferServiceCheckTimeInterval = getDefaultCheckTimeInterval();
         this.transferThreadPoolSize = transferThreadPoolSize;
         this.transferNetworkConnectionType = transferNetworkConnectionType;
+        this.partUploadConcurrency = getDefaultPartUploadConcurrency();
+        this.maxInFlightPartBytes = getDefaultMaxInFlightPartBytes();
+        this.rangedDownloadThreshold = getDefaultRangedDownloadThreshold();
+        this.downloadRangeSize = getDefaultDownloadRangeSize();
+        this.downloadRangeConcurrency = getDefaultDownloadRangeConcurrency();
     }
 
     /**
@@ -153,6 +209,127 @@ public class TransferUtilityOptions implements Serializable {
         return transferNetworkConnectionType;
     }
 
+    /**
+     * Retrieve the number of parts of a multipart upload that are
+     * uploaded concurrently.
+     *
+     * @return the partUploadConcurrency
+     */
+    public int getPartUploadConcurrency() {
+        return partUploadConcurrency;
+    }
+
+    /**
+     * Set the number of parts of a multipart upload that are uploaded
+     * concurrently. The value also sizes the thread pool shared by the
+     * parts of all the uploads. If it's not positive, then set the
+     * default value.
+     *
+     * @param partUploadConcurrency the partUploadConcurrency to set
+     */
+    public void setPartUploadConcurrency(final int partUploadConcurrency) {
+        if (partUploadConcurrency <= 0) {
+            this.partUploadConcurrency = getDefaultPartUploadConcurrency();
+        } else {
+            this.partUploadConcurrency = partUploadConcurrency;
+        }
+    }
+
+    /**
+     * Retrieve the maximum number of part bytes of a multipart upload
+     * that may be in flight at any time.
+     *
+     * @return the maxInFlightPartBytes
+     */
+    public long getMaxInFlightPartBytes() {
+        return maxInFlightPartBytes;
+    }
+
+    /**
+     * Set the maximum number of part bytes of a multipart upload that
+     * may be in flight at any time. A part larger than the budget is
+     * still uploaded, but only when no other part of the same upload is
+     * in flight. If it's not positive, then set the default value.
+     *
+     * @param maxInFlightPartBytes the maxInFlightPartBytes to set
+     */
+    public void setMaxInFlightPartBytes(final long maxInFlightPartBytes) {
+        if (maxInFlightPartBytes <= 0) {
+            this.maxInFlightPartBytes = getDefaultMaxInFlightPartBytes();
+        } else {
+            this.maxInFlightPartBytes = maxInFlightPartBytes;
+        }
+    }
+
+    /**
+     * Retrieve the object size above which downloads are fetched in
+     * concurrent byte ranges.
+     *
+     * @return the rangedDownloadThreshold, zero if ranged downloads are disabled
+     */
+    public long getRangedDownloadThreshold() {
+        return rangedDownloadThreshold;
+    }
+
+    /**
+     * Set the object size in bytes above which a download is split into
+     * byte ranges that are fetched concurrently and written at their
+     * offsets in the file. The progress of every range is recorded, so a
+     * resumed download only fetches the missing ranges. Enabling ranged
+     * downloads costs one extra HEAD request per download to learn the
+     * object size. Zero or a negative value disables ranged downloads.
+     *
+     * @param rangedDownloadThreshold the rangedDownloadThreshold to set
+     */
+    public void setRangedDownloadThreshold(final long rangedDownloadThreshold) {
+        this.rangedDownloadThreshold = Math.max(rangedDownloadThreshold, 0);
+    }
+
+    /**
+     * Retrieve the size of each byte range of a ranged download.
+     *
+     * @return the downloadRangeSize
+     */
+    public long getDownloadRangeSize() {
+        return downloadRangeSize;
+    }
+
+    /**
+     * Set the size in bytes of each byte range of a ranged download. If
+     * it's below the minimum range size of 1 MB, then set the minimum.
+     *
+     * @param downloadRangeSize the downloadRangeSize to set
+     */
+    public void setDownloadRangeSize(final long downloadRangeSize) {
+        this.downloadRangeSize = Math.max(downloadRangeSize, MINIMUM_DOWNLOAD_RANGE_SIZE);
+    }
+
+    /**
+     * Retrieve the number of byte ranges of a ranged download that are
+     * fetched concurrently.
+     *
+     * @return the downloadRangeConcurrency
+     */
+    public int getDownloadRangeConcurrency() {
+        return downloadRangeConcurrency;
+    }
+
+    /**
+     * Set the number of byte ranges of a ranged download that are fetched
+     * concurrently. Ranges of all the downloads share the thread pool
+     * sized by {@link #setPartUploadConcurrency(int)}. If it's not
+     * positive, then set the default value.
+     *
+     * @param downloadRangeConcurrency the downloadRangeConcurrency to set
+     */
+    public void setDownloadRangeConcurrency(final int downloadRangeConcurrency) {
+        if (downloadRangeConcurrency <= 0) {
+            this.downloadRangeConcurrency = getDefaultDownloadRangeConcurrency();
+        } else {
+            this.downloadRangeConcurrency = downloadRangeConcurrency;
+        }
+    }
+
     /**
      * Return the default thread pool size.
      * 
@@ -162,6 +339,51 @@ public class TransferUtilityOptions implements Serializable {
         return 2 * (Runtime.getRuntime().availableProcessors() + 1);
     }
 
+    /**
+     * Return the default part upload concurrency.
+     *
+     * @return Number of available processors + 1
+     */
+    static int getDefaultPartUploadConcurrency() {
+        return Runtime.getRuntime().availableProcessors() + 1;
+    }
+
+    /**
+     * Return the default in-flight part byte budget.
+     *
+     * @return 64 MB
+     */
+    static long getDefaultMaxInFlightPartBytes() {
+        return DEFAULT_MAX_IN_FLIGHT_PART_BYTES;
+    }
+
+    /**
+     * Return the default ranged download threshold.
+     *
+     * @return 0, ranged downloads are disabled by default
+     */
+    static long getDefaultRangedDownloadThreshold() {
+        return 0L;
+    }
+
+    /**
+     * Return the default download range size.
+     *
+     * @return 8 MB
+     */
+    static long getDefaultDownloadRangeSize() {
+        return DEFAULT_DOWNLOAD_RANGE_SIZE;
+    }
+
+    /**
+     * Return the default download range concurrency.
+     *
+     * @return Number of available processors + 1
+     */
+    static int getDefaultDownloadRangeConcurrency() {
+        return Runtime.getRuntime().availableProcessors() + 1;
+    }
+
     /**
      * Return the default check time interval.
      * 
@@ -37,24 +37,37 @@ class UploadPartTask implements Callable<Boolean> {
     private final UploadPartRequest uploadPartRequest;
     private final AmazonS3 s3;
     private final TransferDBUtil dbUtil;
+    private final InFlightPartLimiter inFlightPartLimiter;
 
     public UploadPartTask(UploadTask.UploadPartTaskMetadata uploadPartTaskMetadata,
                           UploadTask.UploadTaskProgressListener uploadTaskProgressListener,
                           UploadPartRequest uploadPartRequest,
                           AmazonS3 s3,
-                          TransferDBUtil dbUtil) {
+                          TransferDBUtil dbUtil,
+                          InFlightPartLimiter inFlightPartLimiter) {
         this.uploadPartTaskMetadata = uploadPartTaskMetadata;
         this.uploadPartTaskProgressListener = new UploadPartTaskProgressListener(uploadTaskProgressListener);
         this.uploadPartRequest = uploadPartRequest;
         this.s3 = s3;
         this.dbUtil = dbUtil;
+        this.inFlightPartLimiter = inFlightPartLimiter;
     }
 
     /*
      * Runs part upload task and returns whether successfully uploaded.
+     * The slot reserved in the in-flight part limiter by UploadTask is
+     * released once the part finishes, successfully or not.
      */
     @Override
     public Boolean call() throws Exception {
+        try {
+            return uploadPart();
+        } finally {
+            inFlightPartLimiter.release(uploadPartRequest.getPartSize());
+        }
+    }
+
+    private Boolean uploadPart() throws Exception {
         uploadPartTaskMetadata.state = TransferState.IN_PROGRESS;
         uploadPartRequest.setGeneralProgressListener(uploadPartTaskProgressListener);
         int retried = 1;
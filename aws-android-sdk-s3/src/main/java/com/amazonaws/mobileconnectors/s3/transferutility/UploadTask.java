@@ -45,6 +45,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -53,8 +54,10 @@ import java.util.concurrent.Future;
  * a thread is created with UploadTask. Here a check is made for
  * single-part uploads (<= 5MB) and multi-part uploads (> 5MB).
  *
- * For multi-part uploads, a thread is created per part (5MB)
- * and submitted to the thread pool.
+ * For multi-part uploads, a task is created per part (5MB)
+ * and submitted to the part thread pool, bounded per upload by
+ * the part concurrency and in-flight byte budget configured in
+ * {@link TransferUtilityOptions}.
  */
 class UploadTask implements Callable<Boolean> {
 
@@ -79,7 +82,7 @@ class UploadTask implements Callable<Boolean> {
         this.s3 = s3;
         this.dbUtil = dbUtil;
         this.updater = updater;
-        this.uploadPartTasks = new HashMap<Integer, UploadPartTaskMetadata>();
+        this.uploadPartTasks = new ConcurrentHashMap<Integer, UploadPartTaskMetadata>();
     }
 
     /*
@@ -153,19 +156,37 @@ class UploadTask implements Callable<Boolean> {
         requestList = dbUtil.getNonCompletedPartRequestsFromDB(upload.id,
                 upload.multipartId);
         LOGGER.info("Multipart upload " + upload.id + " in " + requestList.size() + " parts.");
-        for (final UploadPartRequest request : requestList) {
-            TransferUtility.appendMultipartTransferServiceUserAgentString(request);
-
-            UploadPartTaskMetadata uploadPartTaskMetadata = new UploadPartTaskMetadata();
-            uploadPartTaskMetadata.uploadPartRequest = request;
-            uploadPartTaskMetadata.bytesTransferredSoFar = 0;
-            uploadPartTaskMetadata.state = TransferState.WAITING;
-            uploadPartTasks.put(request.getPartNumber(), uploadPartTaskMetadata);
-            uploadPartTaskMetadata.uploadPartTask = TransferThreadPool.submitTask(
-                    new UploadPartTask(uploadPartTaskMetadata, uploadTaskProgressListener, request, s3, dbUtil));
-        }
 
+        final InFlightPartLimiter inFlightPartLimiter = createInFlightPartLimiter(upload);
         try {
+            /*
+             * Parts are submitted as the limiter admits them, so that at most
+             * partUploadConcurrency parts and maxInFlightPartBytes bytes of
+             * this upload are in flight. Waiting here is interrupted when the
+             * transfer is paused or canceled.
+             */
+            for (final UploadPartRequest request : requestList) {
+                TransferUtility.appendMultipartTransferServiceUserAgentString(request);
+
+                UploadPartTaskMetadata uploadPartTaskMetadata = new UploadPartTaskMetadata();
+                uploadPartTaskMetadata.uploadPartRequest = request;
+                uploadPartTaskMetadata.bytesTransferredSoFar = 0;
+                uploadPartTaskMetadata.state = TransferState.WAITING;
+                inFlightPartLimiter.acquire(request.getPartSize());
+                // registered first so that the progress of the part is counted from its start
+                uploadPartTasks.put(request.getPartNumber(), uploadPartTaskMetadata);
+                try {
+                    uploadPartTaskMetadata.uploadPartTask = TransferThreadPool.submitTask(
+                            new UploadPartTask(uploadPartTaskMetadata, uploadTaskProgressListener,
+                                    request, s3, dbUtil, inFlightPartLimiter));
+                } catch (final RuntimeException e) {
+                    // the part task releases the limiter when it runs, this one never will
+                    uploadPartTasks.remove(request.getPartNumber());
+                    inFlightPartLimiter.release(request.getPartSize());
+                    throw e;
+                }
+            }
+
             boolean isSuccess = true;
             /*
              * Future.get() will block the current thread until the method
@@ -270,6 +291,15 @@ class UploadTask implements Callable<Boolean> {
         }
     }
 
+    private InFlightPartLimiter createInFlightPartLimiter(TransferRecord upload) {
+        // TransferUtilityOptions is absent for transfers recorded by older versions
+        final TransferUtilityOptions tuOptions = upload.transferUtilityOptions != null
+                ? upload.transferUtilityOptions
+                : new TransferUtilityOptions();
+        return new InFlightPartLimiter(tuOptions.getPartUploadConcurrency(),
+                tuOptions.getMaxInFlightPartBytes());
+    }
+
     private Boolean uploadSinglePartAndWaitForCompletion() {
         final PutObjectRequest putObjectRequest = createPutObjectRequest(upload);
         final ProgressListener progressListener = updater.newProgressListener(upload.id);
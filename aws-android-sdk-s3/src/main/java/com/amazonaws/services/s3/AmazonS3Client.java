@@ -64,6 +64,7 @@ import com.amazonaws.services.s3.internal.DeleteObjectTaggingHeaderHandler;
 import com.amazonaws.services.s3.internal.DeleteObjectsResponse;
 import com.amazonaws.services.s3.internal.GetObjectTaggingResponseHeaderHandler;
 import com.amazonaws.services.s3.internal.InputSubstream;
+import com.amazonaws.services.s3.internal.MD5DigestCalculatingInputStream;
 import com.amazonaws.services.s3.internal.ObjectExpirationHeaderHandler;
 import com.amazonaws.services.s3.internal.RepeatableFileInputStream;
 import com.amazonaws.services.s3.internal.ResponseHeaderHandlerChain;
@@ -1776,6 +1777,8 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
 
         final boolean skipContentMd5Check = ServiceUtils
                 .skipMd5CheckPerRequest(putObjectRequest, clientOptions);
+        // calculates the MD5 of a file while it is uploaded, to read it once
+        MD5DigestCalculatingInputStream md5DigestStream = null;
 
         // If a file is specified for upload, we need to pull some additional
         // information from it to auto-configure a few options
@@ -1791,7 +1794,15 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
                 metadata.setContentType(Mimetypes.getInstance().getMimetype(file));
             }
 
-            if (calculateMD5 && !skipContentMd5Check) {
+            if (calculateMD5 && !skipContentMd5Check && clientOptions.isSinglePassUploadEnabled()) {
+                try {
+                    md5DigestStream = new MD5DigestCalculatingInputStream(
+                            new RepeatableFileInputStream(file));
+                    input = md5DigestStream;
+                } catch (final FileNotFoundException fnfe) {
+                    throw new AmazonClientException("Unable to find file to upload", fnfe);
+                }
+            } else if (calculateMD5 && !skipContentMd5Check) {
                 try {
                     final String contentMd5_b64 = Md5Utils.md5AsBase64(file);
                     metadata.setContentMD5(contentMd5_b64);
@@ -1801,10 +1812,12 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
                 }
             }
 
-            try {
-                input = new RepeatableFileInputStream(file);
-            } catch (final FileNotFoundException fnfe) {
-                throw new AmazonClientException("Unable to find file to upload", fnfe);
+            if (md5DigestStream == null) {
+                try {
+                    input = new RepeatableFileInputStream(file);
+                } catch (final FileNotFoundException fnfe) {
+                    throw new AmazonClientException("Unable to find file to upload", fnfe);
+                }
             }
         }
 
@@ -1922,6 +1935,13 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
             }
         }
 
+        // an object encrypted with SSE-KMS, e.g. by the default encryption of
+        // the bucket, doesn't have the MD5 of the data as ETag
+        if (md5DigestStream != null && !ServiceUtils.skipMd5CheckPerResponse(returnedMetadata)) {
+            verifyUploadedMd5(md5DigestStream.getMd5Digest(), returnedMetadata.getETag(),
+                    bucketName, key);
+        }
+
         fireProgressEvent(progressListenerCallbackExecutor, ProgressEvent.COMPLETED_EVENT_CODE);
 
         final PutObjectResult result = new PutObjectResult();
@@ -1939,6 +1959,33 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
         return result;
     }
 
+    /**
+     * Checks the MD5 calculated while uploading an object against the ETag
+     * returned by Amazon S3.
+     *
+     * @param clientSideHash the MD5 of the uploaded data.
+     * @param eTag the ETag of the uploaded object.
+     * @param bucketName the bucket of the object.
+     * @param key the key of the object.
+     */
+    private static void verifyUploadedMd5(byte[] clientSideHash, String eTag,
+            String bucketName, String key) {
+        byte[] serverSideHash = null;
+        try {
+            serverSideHash = BinaryUtils.fromHex(eTag);
+        } catch (final Exception e) {
+            log.warn("Unable to verify the integrity of the uploaded data. "
+                    + "Unable to parse the ETag: " + eTag);
+            return;
+        }
+        if (!Arrays.equals(clientSideHash, serverSideHash)) {
+            throw new AmazonClientException("Unable to verify integrity of data upload.  "
+                    + "Client calculated content hash didn't match hash calculated by Amazon S3.  "
+                    + "You may need to delete the data stored in Amazon S3. (bucketName: "
+                    + bucketName + ", key: " + key + ")");
+        }
+    }
+
     /**
      * Calculate the content length of a mark supported input stream.
      *
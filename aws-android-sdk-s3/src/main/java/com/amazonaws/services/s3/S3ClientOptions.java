@@ -31,6 +31,8 @@ public class S3ClientOptions {
     public static final boolean DEFAULT_ACCELERATE_MODE_ENABLED = false;
     /** S3 dualstack endpoint is by default not enabled */
     public static final boolean DEFAULT_DUALSTACK_ENABLED = false;
+    /** Single-pass uploads are by default not enabled */
+    public static final boolean DEFAULT_SINGLE_PASS_UPLOAD_ENABLED = false;
 
     /** Flag for skipping content MD5 check for local testing */
     private boolean skipContentMd5Check;
@@ -40,6 +42,7 @@ public class S3ClientOptions {
     private final boolean accelerateModeEnabled;
     private final boolean payloadSigningEnabled;
     private final boolean dualstackEnabled;
+    private final boolean singlePassUploadEnabled;
 
     /**
      * @return a new S3ClientOptions builder.
@@ -59,6 +62,7 @@ public class S3ClientOptions {
         private boolean accelerateModeEnabled = DEFAULT_ACCELERATE_MODE_ENABLED;
         private boolean payloadSigningEnabled = DEFAULT_PAYLOAD_SIGNING_ENABLED;
         private boolean dualstackEnabled = DEFAULT_DUALSTACK_ENABLED;
+        private boolean singlePassUploadEnabled = DEFAULT_SINGLE_PASS_UPLOAD_ENABLED;
 
         private Builder() {
         }
@@ -73,7 +77,8 @@ public class S3ClientOptions {
                     chunkedEncodingDisabled,
                     accelerateModeEnabled,
                     payloadSigningEnabled,
-                    dualstackEnabled);
+                    dualstackEnabled,
+                    singlePassUploadEnabled);
         }
 
         /**
@@ -204,6 +209,31 @@ public class S3ClientOptions {
             this.dualstackEnabled = true;
             return this;
         }
+
+        /**
+         * <p>
+         * Configures the client to read the file of a PutObjectRequest only
+         * once.
+         * </p>
+         * <p>
+         * The default behavior is to calculate the Content-MD5 of the file
+         * before uploading it, which reads the file twice. Setting this flag
+         * will result in the MD5 being calculated while the file is uploaded
+         * and checked against the ETag returned by Amazon S3 instead. The
+         * chunk-encoded payload is still signed as it is uploaded.
+         * </p>
+         * <p>
+         * <b>Note:</b> Since no Content-MD5 header is sent, a corrupted upload
+         * is detected after the object was stored, and reported by an
+         * {@link com.amazonaws.AmazonClientException}.
+         * </p>
+         *
+         * @return this Builder instance that can be used for method chaining
+         */
+        public Builder enableSinglePassUpload() {
+            this.singlePassUploadEnabled = true;
+            return this;
+        }
     }
 
     /**
@@ -218,6 +248,7 @@ public class S3ClientOptions {
         this.accelerateModeEnabled = DEFAULT_ACCELERATE_MODE_ENABLED;
         this.payloadSigningEnabled = DEFAULT_PAYLOAD_SIGNING_ENABLED;
         this.dualstackEnabled = DEFAULT_DUALSTACK_ENABLED;
+        this.singlePassUploadEnabled = DEFAULT_SINGLE_PASS_UPLOAD_ENABLED;
     }
 
     /**
@@ -233,6 +264,7 @@ public class S3ClientOptions {
         this.accelerateModeEnabled = other.accelerateModeEnabled;
         this.payloadSigningEnabled = other.payloadSigningEnabled;
         this.dualstackEnabled = other.dualstackEnabled;
+        this.singlePassUploadEnabled = other.singlePassUploadEnabled;
     }
 
     private S3ClientOptions(boolean skipContentMd5Check,
@@ -240,13 +272,15 @@ public class S3ClientOptions {
             boolean chunkedEncodingDisabled,
             boolean accelerateModeEnabled,
             boolean payloadSigningEnabled,
-            boolean dualstackEnabled) {
+            boolean dualstackEnabled,
+            boolean singlePassUploadEnabled) {
         this.skipContentMd5Check = skipContentMd5Check;
         this.pathStyleAccess = pathStyleAccess;
         this.chunkedEncodingDisabled = chunkedEncodingDisabled;
         this.accelerateModeEnabled = accelerateModeEnabled;
         this.payloadSigningEnabled = payloadSigningEnabled;
         this.dualstackEnabled = dualstackEnabled;
+        this.singlePassUploadEnabled = singlePassUploadEnabled;
     }
 
     /**
@@ -404,6 +438,18 @@ public class S3ClientOptions {
         return dualstackEnabled;
     }
 
+    /**
+     * <p>
+     * Returns whether the client reads the file of a PutObjectRequest only
+     * once, calculating its MD5 while uploading it.
+     * </p>
+     *
+     * @return True if single-pass uploads are enabled.
+     */
+    public boolean isSinglePassUploadEnabled() {
+        return singlePassUploadEnabled;
+    }
+
 
     /**
      * <p>
@@ -22,7 +22,6 @@ import com.amazonaws.auth.AwsChunkedEncodingInputStream;
 import com.amazonaws.services.s3.Headers;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.UploadPartRequest;
-import com.amazonaws.util.BinaryUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -31,7 +30,6 @@ import java.io.InputStream;
  * AWS4 signer implementation for AWS S3
  */
 public class AWSS3V4Signer extends AWS4Signer {
-    private static final String CONTENT_SHA_256 = "STREAMING-AWS4-HMAC-SHA256-PAYLOAD";
     private static final int DEFAULT_BYTE_LENGTH = 4096;
 
     /**
@@ -42,25 +40,6 @@ public class AWSS3V4Signer extends AWS4Signer {
         super(false);
     }
 
-    /**
-     * If necessary, creates a chunk-encoding wrapper on the request payload.
-     */
-    @Override
-    protected void processRequestPayload(Request<?> request,
-            HeaderSigningResult headerSigningResult) {
-        if (useChunkEncoding(request)) {
-            InputStream payloadStream = request.getContent();
-            String dateTime = headerSigningResult.getDateTime();
-            String keyPath = headerSigningResult.getScope();
-            byte[] kSigning = headerSigningResult.getKSigning();
-            String signature = BinaryUtils.toHex(headerSigningResult
-                    .getSignature());
-            AwsChunkedEncodingInputStream chunkEncodededStream = new AwsChunkedEncodingInputStream(
-                    payloadStream, kSigning, dateTime, keyPath, signature, this);
-            request.setContent(chunkEncodededStream);
-        }
-    }
-
     @Override
     protected String calculateContentHashPresign(Request<?> request) {
         return "UNSIGNED-PAYLOAD";
@@ -109,15 +88,18 @@ public class AWSS3V4Signer extends AWS4Signer {
                     Headers.CONTENT_LENGTH,
                     Long.toString(AwsChunkedEncodingInputStream
                             .calculateStreamContentLength(originalContentLength)));
-            return CONTENT_SHA_256;
+            return STREAMING_CONTENT_SHA256;
         }
         return super.calculateContentHash(request);
     }
 
     /**
-     * Determine whether to use aws-chunked for signing
+     * Determine whether to use aws-chunked for signing. The payload of
+     * PutObject and UploadPart requests is chunk-encoded by
+     * {@link AWS4Signer#processRequestPayload(Request, HeaderSigningResult)}.
      */
-    private static boolean useChunkEncoding(Request<?> request) {
+    @Override
+    protected boolean useChunkEncoding(Request<?> request) {
         // Whether to use chunked encoding for signing the request
         boolean chunkedEncodingEnabled = false;
         if (request.getOriginalRequest() instanceof PutObjectRequest
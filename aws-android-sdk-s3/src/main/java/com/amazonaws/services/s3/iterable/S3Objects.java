@@ -15,12 +15,18 @@
 
 package com.amazonaws.services.s3.iterable;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.DaemonThreadPools;
 
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Provides an easy way to iterate Amazon S3 objects in a "foreach" statement.
@@ -34,14 +40,22 @@ import java.util.Iterator;
  * <p>
  * The list of {@link S3ObjectSummary}s will be fetched lazily, a page at a
  * time, as they are needed. The size of the page can be controlled with the
- * {@link S3Objects#withBatchSize(int)} method.
+ * {@link S3Objects#withBatchSize(int)} method. With
+ * {@link S3Objects#withPrefetching(boolean)}, the next page is fetched in the
+ * background while the current one is iterated.
  */
 public final class S3Objects implements Iterable<S3ObjectSummary> {
 
+    private static final int PREFETCH_THREAD_COUNT = 2;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+    private static ExecutorService prefetchExecutor;
+
     private AmazonS3 s3;
     private String prefix = null;
     private String bucketName;
     private Integer batchSize = null;
+    private boolean prefetching = false;
 
     private S3Objects(AmazonS3 s3, String bucketName) {
         this.s3 = s3;
@@ -88,10 +102,27 @@ public final class S3Objects implements Iterable<S3ObjectSummary> {
         return this;
     }
 
+    /**
+     * Sets whether the next page of {@link S3ObjectSummary}s is fetched in the
+     * background while the current page is iterated.
+     *
+     * @param prefetching true to fetch the next page in the background.
+     * @return the S3Objects.
+     */
+    @SuppressWarnings("checkstyle:hiddenfield")
+    public S3Objects withPrefetching(boolean prefetching) {
+        this.prefetching = prefetching;
+        return this;
+    }
+
     public Integer getBatchSize() {
         return batchSize;
     }
 
+    public boolean isPrefetching() {
+        return prefetching;
+    }
+
     public String getPrefix() {
         return prefix;
     }
@@ -110,6 +141,9 @@ public final class S3Objects implements Iterable<S3ObjectSummary> {
 
         private Iterator<S3ObjectSummary> currentIterator = null;
 
+        /** The next page being fetched in the background, if any. */
+        private Future<ObjectListing> nextListing = null;
+
         @Override
         public boolean hasNext() {
             prepareCurrentListing();
@@ -137,11 +171,39 @@ public final class S3Objects implements Iterable<S3ObjectSummary> {
                     req.setPrefix(getPrefix());
                     req.setMaxKeys(getBatchSize());
                     currentListing = getS3().listObjects(req);
+                } else if (nextListing != null) {
+                    currentListing = getNextListing();
                 } else {
                     currentListing = getS3().listNextBatchOfObjects(currentListing);
                 }
 
                 currentIterator = currentListing.getObjectSummaries().iterator();
+                if (isPrefetching() && currentListing.isTruncated()) {
+                    final ObjectListing previousListing = currentListing;
+                    nextListing = getPrefetchExecutor().submit(new Callable<ObjectListing>() {
+                        @Override
+                        public ObjectListing call() {
+                            return getS3().listNextBatchOfObjects(previousListing);
+                        }
+                    });
+                }
+            }
+        }
+
+        private ObjectListing getNextListing() {
+            final Future<ObjectListing> future = nextListing;
+            nextListing = null;
+            try {
+                return future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                throw new AmazonClientException("Interrupted while listing objects", e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new AmazonClientException("Unable to list objects", e.getCause());
             }
         }
 
@@ -152,4 +214,12 @@ public final class S3Objects implements Iterable<S3ObjectSummary> {
         return new S3ObjectIterator();
     }
 
+    private static synchronized ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = DaemonThreadPools.newFixedThreadPool("S3ObjectsPrefetch",
+                    PREFETCH_THREAD_COUNT, THREAD_KEEP_ALIVE_SECONDS);
+        }
+        return prefetchExecutor;
+    }
+
 }
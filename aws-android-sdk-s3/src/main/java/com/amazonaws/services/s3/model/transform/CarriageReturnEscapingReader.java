@@ -0,0 +1,120 @@
+/*
+ * Copyright 2010-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.s3.model.transform;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reader which replaces any carriage return (\r) characters of an XML
+ * document with explicit XML character entities as the document is read, to
+ * prevent the SAX parser from misinterpreting 0x0D characters as 0x0A and
+ * being unable to parse the XML.
+ */
+final class CarriageReturnEscapingReader extends FilterReader {
+    private static final char[] CARRIAGE_RETURN_ENTITY = "&#013;".toCharArray();
+    private static final int BUFFER_SIZE = 8192;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    /** Index of the next entity character to return, if one is pending. */
+    private int entityPosition = CARRIAGE_RETURN_ENTITY.length;
+
+    /**
+     * @param in the reader of the XML document.
+     */
+    CarriageReturnEscapingReader(Reader in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final char[] c = new char[1];
+        return read(c, 0, 1) == -1 ? -1 : c[0];
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int count = 0;
+        while (count < len) {
+            if (entityPosition < CARRIAGE_RETURN_ENTITY.length) {
+                cbuf[off + count++] = CARRIAGE_RETURN_ENTITY[entityPosition++];
+                continue;
+            }
+            if (position == limit) {
+                // don't block once some characters were read
+                if (count > 0) {
+                    break;
+                }
+                final int read = in.read(buffer, 0, buffer.length);
+                if (read == -1) {
+                    return -1;
+                }
+                position = 0;
+                limit = read;
+            }
+            final char c = buffer[position++];
+            if (c == '\r') {
+                entityPosition = 0;
+            } else {
+                cbuf[off + count++] = c;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n < 0) {
+            throw new IllegalArgumentException("skip value is negative");
+        }
+        final char[] skipped = new char[(int) Math.min(n, BUFFER_SIZE)];
+        long remaining = n;
+        while (remaining > 0) {
+            final int read = read(skipped, 0, (int) Math.min(remaining, skipped.length));
+            if (read == -1) {
+                break;
+            }
+            remaining -= read;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return entityPosition < CARRIAGE_RETURN_ENTITY.length || position < limit || in.ready();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readAheadLimit) throws IOException {
+        throw new IOException("mark() not supported");
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("reset() not supported");
+    }
+}
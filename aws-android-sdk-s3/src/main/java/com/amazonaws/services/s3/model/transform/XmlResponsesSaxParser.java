@@ -127,6 +127,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -177,14 +178,41 @@ public class XmlResponsesSaxParser {
      */
     protected void parseXmlInputStream(DefaultHandler handler, InputStream inputStream)
             throws IOException {
+        parseXmlInputStream(handler, inputStream, false);
+    }
+
+    /**
+     * Parses an XML document from an input stream using a document handler,
+     * escaping carriage return characters as the document is read so that
+     * they are kept in the parsed values.
+     *
+     * @param handler the handler for the XML document
+     * @param inputStream an input stream containing the XML document to parse
+     * @throws IOException on error reading from the input stream (ie connection
+     *             reset)
+     * @throws AmazonClientException on error with malformed XML, etc
+     */
+    private void parseSanitizedXmlInputStream(DefaultHandler handler, InputStream inputStream)
+            throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("Sanitizing XML document destined for handler " + handler.getClass());
+        }
+        parseXmlInputStream(handler, inputStream, sanitizeXmlDocument);
+    }
+
+    private void parseXmlInputStream(DefaultHandler handler, InputStream inputStream,
+            boolean sanitize) throws IOException {
         try {
 
             if (log.isDebugEnabled()) {
                 log.debug("Parsing XML response document with handler: " + handler.getClass());
             }
 
-            final BufferedReader breader = new BufferedReader(new InputStreamReader(inputStream,
-                    Constants.DEFAULT_ENCODING));
+            Reader reader = new InputStreamReader(inputStream, Constants.DEFAULT_ENCODING);
+            if (sanitize) {
+                reader = new CarriageReturnEscapingReader(reader);
+            }
+            final BufferedReader breader = new BufferedReader(reader);
             xr.setContentHandler(handler);
             xr.setErrorHandler(handler);
             xr.parse(new InputSource(breader));
@@ -205,6 +233,18 @@ public class XmlResponsesSaxParser {
         }
     }
 
+    /**
+     * Reads the whole XML document and replaces any carriage return
+     * characters with explicit XML character entities.
+     *
+     * @param handler the handler the XML document is destined to
+     * @param inputStream an input stream containing the XML document
+     * @return an input stream of the sanitized document
+     * @throws IOException on error reading from the input stream
+     * @deprecated the listing responses are now sanitized as they are parsed,
+     *             without holding the whole document in memory.
+     */
+    @Deprecated
     protected InputStream sanitizeXmlDocument(DefaultHandler handler, InputStream inputStream)
             throws IOException {
 
@@ -364,7 +404,7 @@ public class XmlResponsesSaxParser {
             final boolean shouldSDKDecodeResponse)
             throws IOException {
         final ListBucketHandler handler = new ListBucketHandler(shouldSDKDecodeResponse);
-        parseXmlInputStream(handler, sanitizeXmlDocument(handler, inputStream));
+        parseSanitizedXmlInputStream(handler, inputStream);
         return handler;
     }
 
@@ -380,7 +420,7 @@ public class XmlResponsesSaxParser {
             final boolean shouldSDKDecodeResponse)
             throws IOException {
         final ListObjectsV2Handler handler = new ListObjectsV2Handler(shouldSDKDecodeResponse);
-        parseXmlInputStream(handler, sanitizeXmlDocument(handler, inputStream));
+        parseSanitizedXmlInputStream(handler, inputStream);
 
         return handler;
     }
@@ -396,7 +436,7 @@ public class XmlResponsesSaxParser {
     public ListVersionsHandler parseListVersionsResponse(InputStream inputStream,final boolean shouldSDKDecodeResponse)
             throws IOException {
         final ListVersionsHandler handler = new ListVersionsHandler(shouldSDKDecodeResponse);
-        parseXmlInputStream(handler, sanitizeXmlDocument(handler, inputStream));
+        parseSanitizedXmlInputStream(handler, inputStream);
         return handler;
     }
 
@@ -411,7 +451,7 @@ public class XmlResponsesSaxParser {
     public ListAllMyBucketsHandler parseListMyBucketsResponse(InputStream inputStream)
             throws IOException {
         final ListAllMyBucketsHandler handler = new ListAllMyBucketsHandler();
-        parseXmlInputStream(handler, sanitizeXmlDocument(handler, inputStream));
+        parseSanitizedXmlInputStream(handler, inputStream);
         return handler;
     }
 
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.mobileconnectors.s3.transferutility;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the ranged downloads of DownloadTask against a mocked S3 client and
+ * an in-memory transfer table.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DownloadTaskTest {
+    private static final int DOWNLOAD_ID = 1;
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "key";
+    private static final String ETAG = "etag";
+    private static final int RANGE_SIZE = 1024 * 1024;
+    private static final int OBJECT_SIZE = 3 * RANGE_SIZE + RANGE_SIZE / 2;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] content;
+    private File file;
+    private AmazonS3 s3;
+    private TransferDBUtil dbUtil;
+    private TransferStatusUpdater updater;
+    private TransferRecord download;
+    private List<TransferRecord> ranges;
+    private List<long[]> requestedRanges;
+
+    @Before
+    public void setup() throws IOException {
+        content = new byte[OBJECT_SIZE];
+        new Random(42).nextBytes(content);
+        file = new File(folder.getRoot(), "download");
+        requestedRanges = Collections.synchronizedList(new ArrayList<long[]>());
+
+        s3 = mock(AmazonS3.class);
+        final ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(OBJECT_SIZE);
+        metadata.setHeader("ETag", ETAG);
+        when(s3.getObjectMetadata(any(GetObjectMetadataRequest.class))).thenReturn(metadata);
+
+        ranges = new ArrayList<TransferRecord>();
+        dbUtil = mock(TransferDBUtil.class);
+        when(dbUtil.getDownloadRangesFromDB(DOWNLOAD_ID)).thenAnswer(new Answer<List<TransferRecord>>() {
+            @Override
+            public List<TransferRecord> answer(InvocationOnMock invocation) {
+                return new ArrayList<TransferRecord>(ranges);
+            }
+        });
+        when(dbUtil.insertDownloadRangeRecords(any(TransferRecord.class), anyLong()))
+                .thenAnswer(new Answer<Integer>() {
+                    @Override
+                    public Integer answer(InvocationOnMock invocation) {
+                        ranges.addAll(newRanges((TransferRecord) invocation.getArguments()[0],
+                                (Long) invocation.getArguments()[1]));
+                        return DOWNLOAD_ID;
+                    }
+                });
+        updater = mock(TransferStatusUpdater.class);
+
+        final TransferUtilityOptions options = new TransferUtilityOptions();
+        options.setRangedDownloadThreshold(RANGE_SIZE);
+        options.setDownloadRangeSize(RANGE_SIZE);
+        options.setDownloadRangeConcurrency(4);
+        download = new TransferRecord(DOWNLOAD_ID);
+        download.bucketName = BUCKET;
+        download.key = KEY;
+        download.file = file.getAbsolutePath();
+        download.transferUtilityOptions = options;
+    }
+
+    @Test
+    public void testRangesAreWrittenAtTheirOffsets() throws IOException {
+        // the first ranges finish last
+        when(s3.getObject(any(GetObjectRequest.class))).thenAnswer(new ObjectAnswer() {
+            @Override
+            InputStream newContent(long start, long last) throws IOException {
+                try {
+                    Thread.sleep((OBJECT_SIZE - start) / RANGE_SIZE * 50);
+                } catch (final InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return super.newContent(start, last);
+            }
+        });
+
+        assertTrue(new DownloadTask(download, s3, dbUtil, updater).call());
+
+        assertArrayEquals(content, readFile());
+        assertEquals(4, ranges.size());
+        assertEquals(4, requestedRanges.size());
+        verify(dbUtil).updateRangedDownload(DOWNLOAD_ID, OBJECT_SIZE, ETAG);
+        verify(updater).updateState(DOWNLOAD_ID, TransferState.COMPLETED);
+    }
+
+    @Test
+    public void testFailedRangeResumesWhereItStopped() throws IOException {
+        final long failedRangeStart = RANGE_SIZE;
+        final int bytesBeforeFailure = 300 * 1024;
+        when(s3.getObject(any(GetObjectRequest.class))).thenAnswer(new ObjectAnswer() {
+            private boolean failed;
+
+            @Override
+            synchronized InputStream newContent(long start, long last) throws IOException {
+                if (start != failedRangeStart || failed) {
+                    return super.newContent(start, last);
+                }
+                failed = true;
+                return new ByteArrayInputStream(content, (int) start, bytesBeforeFailure) {
+                    @Override
+                    public synchronized int read(byte[] b, int off, int len) {
+                        final int read = super.read(b, off, len);
+                        if (read == -1) {
+                            throw new IllegalStateException("connection reset");
+                        }
+                        return read;
+                    }
+                };
+            }
+        });
+
+        assertTrue(new DownloadTask(download, s3, dbUtil, updater).call());
+
+        assertArrayEquals(content, readFile());
+        assertEquals(5, requestedRanges.size());
+        assertEquals(1, countRequests(failedRangeStart, 2L * RANGE_SIZE - 1));
+        assertEquals(1, countRequests(failedRangeStart + bytesBeforeFailure, 2L * RANGE_SIZE - 1));
+        assertEquals(1, countRequests(0, RANGE_SIZE - 1));
+        assertEquals(1, countRequests(2L * RANGE_SIZE, 3L * RANGE_SIZE - 1));
+        assertEquals(1, countRequests(3L * RANGE_SIZE, OBJECT_SIZE - 1));
+        verify(updater).updateState(DOWNLOAD_ID, TransferState.COMPLETED);
+    }
+
+    @Test
+    public void testResumeFetchesOnlyMissingBytes() throws IOException {
+        download.isMultipart = 1;
+        download.bytesTotal = OBJECT_SIZE;
+        download.eTag = ETAG;
+        ranges.addAll(newRanges(download, RANGE_SIZE));
+        // the first range is complete, the second one is partially written
+        final int partialBytes = 100 * 1024;
+        ranges.get(0).bytesCurrent = RANGE_SIZE;
+        ranges.get(0).state = TransferState.PART_COMPLETED;
+        ranges.get(1).bytesCurrent = partialBytes;
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(OBJECT_SIZE);
+            raf.write(content, 0, RANGE_SIZE + partialBytes);
+        } finally {
+            raf.close();
+        }
+        when(s3.getObject(any(GetObjectRequest.class))).thenAnswer(new ObjectAnswer());
+
+        assertTrue(new DownloadTask(download, s3, dbUtil, updater).call());
+
+        assertArrayEquals(content, readFile());
+        assertEquals(3, requestedRanges.size());
+        assertEquals(0, countRequests(0, RANGE_SIZE - 1));
+        assertEquals(1, countRequests(RANGE_SIZE + partialBytes, 2L * RANGE_SIZE - 1));
+        verify(s3, never()).getObjectMetadata(any(GetObjectMetadataRequest.class));
+        verify(dbUtil, never()).insertDownloadRangeRecords(any(TransferRecord.class), anyLong());
+        verify(updater).updateProgress(eq(DOWNLOAD_ID), eq((long) RANGE_SIZE + partialBytes),
+                eq((long) OBJECT_SIZE), eq(true));
+        verify(updater).updateState(DOWNLOAD_ID, TransferState.COMPLETED);
+    }
+
+    /**
+     * Serves the requested byte range of the content, and records it.
+     */
+    private class ObjectAnswer implements Answer<S3Object> {
+        @Override
+        public S3Object answer(InvocationOnMock invocation) throws IOException {
+            final GetObjectRequest request = (GetObjectRequest) invocation.getArguments()[0];
+            assertEquals(Arrays.asList(ETAG), request.getMatchingETagConstraints());
+            final long[] range = request.getRange();
+            requestedRanges.add(range);
+            final S3Object object = new S3Object();
+            object.setObjectContent(newContent(range[0], range[1]));
+            return object;
+        }
+
+        InputStream newContent(long start, long last) throws IOException {
+            return new ByteArrayInputStream(content, (int) start, (int) (last - start + 1));
+        }
+    }
+
+    private int countRequests(long start, long last) {
+        int count = 0;
+        synchronized (requestedRanges) {
+            for (final long[] range : requestedRanges) {
+                if (range[0] == start && range[1] == last) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private byte[] readFile() throws IOException {
+        assertEquals(OBJECT_SIZE, file.length());
+        final byte[] bytes = new byte[(int) file.length()];
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            raf.readFully(bytes);
+        } finally {
+            raf.close();
+        }
+        return bytes;
+    }
+
+    /**
+     * Creates the range records the way TransferDBUtil lays them out.
+     */
+    private static List<TransferRecord> newRanges(TransferRecord download, long rangeSize) {
+        final List<TransferRecord> list = new ArrayList<TransferRecord>();
+        long rangeStart = 0;
+        for (int i = 0; rangeStart < download.bytesTotal; i++) {
+            final long rangeLast = Math.min(rangeStart + rangeSize, download.bytesTotal) - 1;
+            final TransferRecord range = new TransferRecord(DOWNLOAD_ID + i + 1);
+            range.mainUploadId = download.id;
+            range.partNumber = i + 1;
+            range.bucketName = download.bucketName;
+            range.key = download.key;
+            range.file = download.file;
+            range.rangeStart = rangeStart;
+            range.rangeLast = rangeLast;
+            range.bytesTotal = rangeLast - rangeStart + 1;
+            range.state = TransferState.WAITING;
+            list.add(range);
+            rangeStart = rangeLast + 1;
+        }
+        return list;
+    }
+}
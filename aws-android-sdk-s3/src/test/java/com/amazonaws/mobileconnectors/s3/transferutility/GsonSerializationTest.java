@@ -66,7 +66,9 @@ public class GsonSerializationTest {
         final String jsonOptions = "{" +
                 "\"transferServiceCheckTimeInterval\":6000," +
                 "\"transferThreadPoolSize\":10," +
-                "\"transferNetworkConnectionType\":\"ANY\"" +
+                "\"transferNetworkConnectionType\":\"ANY\"," +
+                "\"partUploadConcurrency\":4," +
+                "\"maxInFlightPartBytes\":20971520" +
                 "}";
 
         TransferUtilityOptions tuOptions = gson.fromJson(jsonOptions, TransferUtilityOptions.class);
@@ -77,5 +79,31 @@ public class GsonSerializationTest {
                 tuOptions.getTransferThreadPoolSize());
         assertEquals(TransferNetworkConnectionType.ANY,
                 tuOptions.getTransferNetworkConnectionType());
+        assertEquals(4,
+                tuOptions.getPartUploadConcurrency());
+        assertEquals(20971520L,
+                tuOptions.getMaxInFlightPartBytes());
+    }
+
+    @Test
+    public void testTransferUtilityOptionsDeserializationKeepsDefaultsOfMissingFields() {
+        // Options persisted before part concurrency was configurable
+        final String jsonOptions = "{" +
+                "\"transferThreadPoolSize\":10," +
+                "\"transferNetworkConnectionType\":\"ANY\"" +
+                "}";
+
+        TransferUtilityOptions tuOptions = gson.fromJson(jsonOptions, TransferUtilityOptions.class);
+
+        assertEquals(TransferUtilityOptions.getDefaultPartUploadConcurrency(),
+                tuOptions.getPartUploadConcurrency());
+        assertEquals(TransferUtilityOptions.getDefaultMaxInFlightPartBytes(),
+                tuOptions.getMaxInFlightPartBytes());
+        assertEquals(TransferUtilityOptions.getDefaultRangedDownloadThreshold(),
+                tuOptions.getRangedDownloadThreshold());
+        assertEquals(TransferUtilityOptions.getDefaultDownloadRangeSize(),
+                tuOptions.getDownloadRangeSize());
+        assertEquals(TransferUtilityOptions.getDefaultDownloadRangeConcurrency(),
+                tuOptions.getDownloadRangeConcurrency());
     }
 }
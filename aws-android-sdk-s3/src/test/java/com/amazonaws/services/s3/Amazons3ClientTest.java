@@ -19,13 +19,20 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazonaws.AmazonClientException;
 
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.Request;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.auth.Signer;
+import com.amazonaws.http.HttpClient;
 import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.http.HttpRequest;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.internal.StaticCredentialsProvider;
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.internal.AWSS3V4Signer;
@@ -33,11 +40,22 @@ import com.amazonaws.services.s3.internal.Constants;
 import com.amazonaws.services.s3.model.DeleteBucketRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.Md5Utils;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
 
 public class Amazons3ClientTest {
     private AmazonS3Client s3;
@@ -256,5 +274,117 @@ public class Amazons3ClientTest {
     public void testSetNotificationThreshold() {
         s3.setNotificationThreshold(8 * 1024);
     }
-}
 
+    @Test
+    public void testSinglePassUpload() throws IOException {
+        final byte[] data = randomData();
+        final File file = tempFile(data);
+        final FakeHttpClient httpClient = new FakeHttpClient(
+                BinaryUtils.toHex(Md5Utils.computeMD5Hash(data)));
+        final AmazonS3Client client = singlePassClient(httpClient);
+
+        final PutObjectResult result = client.putObject("bucket", "key", file);
+
+        assertEquals(BinaryUtils.toHex(Md5Utils.computeMD5Hash(data)), result.getETag());
+        assertFalse(httpClient.request.getHeaders().containsKey("Content-MD5"));
+        assertEquals(String.valueOf(data.length),
+                httpClient.request.getHeaders().get("x-amz-decoded-content-length"));
+        assertTrue(httpClient.uploaded.size() > data.length);
+    }
+
+    @Test
+    public void testSinglePassUploadETagMismatch() throws IOException {
+        final byte[] data = randomData();
+        final File file = tempFile(data);
+        final FakeHttpClient httpClient = new FakeHttpClient(
+                BinaryUtils.toHex(Md5Utils.computeMD5Hash(new byte[0])));
+        final AmazonS3Client client = singlePassClient(httpClient);
+
+        try {
+            client.putObject("bucket", "key", file);
+            fail("Expected AmazonClientException");
+        } catch (final AmazonClientException expected) {
+            assertTrue(expected.getMessage().contains("Unable to verify integrity"));
+        }
+    }
+
+    @Test
+    public void testSinglePassUploadSkipsETagCheckForKmsEncryption() throws IOException {
+        final byte[] data = randomData();
+        final File file = tempFile(data);
+        // the bucket encrypts objects with SSE-KMS by default, the ETag isn't
+        // the MD5 of the data
+        final FakeHttpClient httpClient = new FakeHttpClient(
+                BinaryUtils.toHex(Md5Utils.computeMD5Hash(new byte[0])));
+        httpClient.headers.put("x-amz-server-side-encryption", "aws:kms");
+        final AmazonS3Client client = singlePassClient(httpClient);
+
+        final PutObjectResult result = client.putObject("bucket", "key", file);
+
+        assertEquals("aws:kms", result.getSSEAlgorithm());
+    }
+
+    private AmazonS3Client singlePassClient(HttpClient httpClient) {
+        final AmazonS3Client client = new AmazonS3Client(new StaticCredentialsProvider(creds),
+                Region.getRegion(Regions.US_EAST_1), new ClientConfiguration(), httpClient);
+        client.setS3ClientOptions(S3ClientOptions.builder().enableSinglePassUpload().build());
+        return client;
+    }
+
+    private static byte[] randomData() {
+        final byte[] data = new byte[300 * 1024];
+        new Random(1).nextBytes(data);
+        return data;
+    }
+
+    private static File tempFile(byte[] data) throws IOException {
+        final File file = File.createTempFile("single-pass", ".bin");
+        file.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /**
+     * An HttpClient which reads the request content and returns an ETag.
+     */
+    private static final class FakeHttpClient implements HttpClient {
+        private final String eTag;
+        private final ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        private final Map<String, String> headers = new HashMap<String, String>();
+        private HttpRequest request;
+
+        FakeHttpClient(String eTag) {
+            this.eTag = eTag;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) throws IOException {
+            this.request = request;
+            final InputStream content = request.getContent();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                uploaded.write(buffer, 0, read);
+            }
+            final HttpResponse.Builder builder = HttpResponse.builder()
+                    .statusCode(200)
+                    .statusText("OK")
+                    .header("ETag", "\"" + eTag + "\"")
+                    .content(new ByteArrayInputStream(new byte[0]));
+            for (final Map.Entry<String, String> header : headers.entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+            return builder.build();
+        }
+
+        @Override
+        public void shutdown() {
+            // No op
+        }
+    }
+}
@@ -26,10 +26,12 @@ public class S3ClientOptionsTest {
                 .setAccelerateModeEnabled(true)
                 .setPathStyleAccess(true)
                 .skipContentMd5Check(true)
+                .enableSinglePassUpload()
                 .build();
         assertTrue(options.isAccelerateModeEnabled());
         assertTrue(options.isPathStyleAccess());
         assertTrue(options.isContentMd5CheckSkipped());
+        assertTrue(options.isSinglePassUploadEnabled());
     }
 }
 
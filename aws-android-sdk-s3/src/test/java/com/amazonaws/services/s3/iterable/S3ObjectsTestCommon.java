@@ -22,6 +22,7 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -148,4 +149,28 @@ public abstract class S3ObjectsTestCommon {
         assertFalse(iter.hasNext());
     }
 
+    @Test
+    public void testPrefetchesNextPage() throws Exception {
+        when(objectListing.isTruncated()).thenReturn(true);
+        when(objectListing.getObjectSummaries()).thenReturn(
+                Arrays.asList(firstSummary));
+
+        ObjectListing secondPage = mock(ObjectListing.class);
+        when(secondPage.isTruncated()).thenReturn(false);
+        when(secondPage.getObjectSummaries()).thenReturn(
+                Arrays.asList(secondSummary));
+        when(s3.listNextBatchOfObjects(objectListing)).thenReturn(secondPage);
+
+        Iterator<S3ObjectSummary> iter = s3Objects.withPrefetching(true).iterator();
+        assertTrue(iter.hasNext());
+        // the second page is requested before the first one is consumed
+        verify(s3, timeout(1000)).listNextBatchOfObjects(objectListing);
+        assertSame(firstSummary, iter.next());
+        assertTrue(iter.hasNext());
+        assertSame(secondSummary, iter.next());
+        assertFalse(iter.hasNext());
+
+        verify(s3, times(1)).listNextBatchOfObjects(objectListing);
+    }
+
 }
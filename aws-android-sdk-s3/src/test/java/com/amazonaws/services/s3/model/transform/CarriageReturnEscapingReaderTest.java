@@ -0,0 +1,92 @@
+/*
+ * Copyright 2010-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.s3.model.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.util.StringUtils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+public class CarriageReturnEscapingReaderTest {
+
+    @Test
+    public void testEscapesCarriageReturns() throws IOException {
+        assertEquals("a&#013;b&#013;&#013;\nc", readAll(
+                new CarriageReturnEscapingReader(new StringReader("a\rb\r\r\nc")), 8192));
+    }
+
+    @Test
+    public void testEscapesAcrossSmallReads() throws IOException {
+        final StringBuilder input = new StringBuilder();
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            input.append("key").append(i).append('\r');
+            expected.append("key").append(i).append("&#013;");
+        }
+        assertEquals(expected.toString(), readAll(
+                new CarriageReturnEscapingReader(new StringReader(input.toString())), 3));
+    }
+
+    @Test
+    public void testSingleCharacterReads() throws IOException {
+        final Reader reader = new CarriageReturnEscapingReader(new StringReader("\r"));
+        final StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            sb.append((char) c);
+        }
+        assertEquals("&#013;", sb.toString());
+    }
+
+    @Test
+    public void testListingKeepsCarriageReturns() throws IOException {
+        final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                + "<Name>bucket</Name><Prefix></Prefix><Marker></Marker>"
+                + "<MaxKeys>1000</MaxKeys><IsTruncated>false</IsTruncated>"
+                + "<Contents><Key>key\rwith\r\nreturns</Key>"
+                + "<LastModified>2019-01-01T00:00:00.000Z</LastModified>"
+                + "<ETag>&quot;etag&quot;</ETag><Size>1</Size>"
+                + "<StorageClass>STANDARD</StorageClass></Contents>"
+                + "</ListBucketResult>";
+        final ObjectListing listing = new XmlResponsesSaxParser()
+                .parseListBucketObjectsResponse(
+                        new ByteArrayInputStream(xml.getBytes(StringUtils.UTF8)), false)
+                .getObjectListing();
+
+        assertFalse(listing.isTruncated());
+        assertEquals(1, listing.getObjectSummaries().size());
+        assertEquals("key\rwith\r\nreturns", listing.getObjectSummaries().get(0).getKey());
+    }
+
+    private static String readAll(Reader reader, int bufferSize) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        final char[] buffer = new char[bufferSize];
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+            sb.append(buffer, 0, read);
+        }
+        return sb.toString();
+    }
+}
@@ -117,6 +117,21 @@ public class QueueBufferConfig {
 
     public static final int LONGPOLL_WAIT_TIMEOUT_SECONDS_DEFAULT = 20;
 
+    /**
+     * Should the number of receive batches be adapted to the consumption of
+     * messages? If true, maxInflightReceiveBatches and maxDoneReceiveBatches
+     * are upper limits: the buffer prefetches enough messages to serve the
+     * observed consumption rate while a receive is in flight, but no more than
+     * can be consumed before their visibility timeout expires. The visibility
+     * of the prefetched messages which are about to expire is also extended
+     * once, with ChangeMessageVisibilityBatch, instead of letting them be
+     * discarded.
+     */
+    private boolean adaptivePrefetching;
+
+    /** false */
+    public static final boolean ADAPTIVE_PREFETCHING_DEFAULT = false;
+
     public QueueBufferConfig(long maxBatchOpenMs,
             int maxInflightOutboundBatches,
             int maxInflightReceiveBatches,
@@ -136,6 +151,7 @@ public class QueueBufferConfig {
         this.visibilityTimeoutSeconds = visibilityTimeout;
         this.longPollWaitTimeoutSeconds = longPollTimeout;
         this.maxBatchSize = maxBatch;
+        this.adaptivePrefetching = ADAPTIVE_PREFETCHING_DEFAULT;
     }
 
     public QueueBufferConfig() {
@@ -161,6 +177,7 @@ public class QueueBufferConfig {
         maxInflightOutboundBatches = other.maxInflightOutboundBatches;
         maxInflightReceiveBatches = other.maxInflightReceiveBatches;
         visibilityTimeoutSeconds = other.visibilityTimeoutSeconds;
+        adaptivePrefetching = other.adaptivePrefetching;
     }
 
     @Override
@@ -173,7 +190,8 @@ public class QueueBufferConfig {
                 + maxDoneReceiveBatches + ", maxBatchSizeBytes="
                 + maxBatchSizeBytes + ", visibilityTimeoutSeconds="
                 + visibilityTimeoutSeconds + ", longPollWaitTimeoutSeconds="
-                + longPollWaitTimeoutSeconds + "]";
+                + longPollWaitTimeoutSeconds + ", adaptivePrefetching="
+                + adaptivePrefetching + "]";
     }
 
     /**
@@ -427,6 +445,31 @@ public class QueueBufferConfig {
         return this;
     }
 
+    /**
+     * Should the number of receive batches be adapted to the consumption of
+     * messages? If true, maxInflightReceiveBatches and maxDoneReceiveBatches
+     * are upper limits, and the visibility of the prefetched messages which
+     * are about to expire is extended once.
+     */
+    public boolean isAdaptivePrefetching() {
+        return adaptivePrefetching;
+    }
+
+    /**
+     * Should the number of receive batches be adapted to the consumption of
+     * messages? If true, maxInflightReceiveBatches and maxDoneReceiveBatches
+     * are upper limits, and the visibility of the prefetched messages which
+     * are about to expire is extended once.
+     */
+    public void setAdaptivePrefetching(boolean adaptivePrefetching) {
+        this.adaptivePrefetching = adaptivePrefetching;
+    }
+
+    public QueueBufferConfig withAdaptivePrefetching(boolean adaptivePrefetching) {
+        this.adaptivePrefetching = adaptivePrefetching;
+        return this;
+    }
+
     /**
      * this method checks the config for validity. If the config is deemed to be
      * invalid, an informative exception is thrown.
@@ -19,6 +19,8 @@ import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequest;
 import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResult;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
 import com.amazonaws.services.sqs.model.Message;
 import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
@@ -29,10 +31,15 @@ import com.amazonaws.logging.LogFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The ReceiveQueueBuffer class is responsible for dequeueing of messages from a
@@ -42,17 +49,36 @@ import java.util.concurrent.TimeUnit;
  * as the maximum number of threads used to retrieve the messages are
  * configurable.
  * <p>
+ * If {@link QueueBufferConfig#isAdaptivePrefetching()}, the number of batches
+ * is sized from the observed consumption rate, the duration of the receive
+ * calls and the visibility timeout, and the visibility of the prefetched
+ * messages about to expire is extended once.
+ * <p>
  * Synchronization strategy: - Threads must hold the TaskSpawnSyncPoint object
- * monitor to spawn a new task or modify the number of inflight tasks - Threads
- * must hold the monitor of the "futures" list to modify the list - Threads must
- * hold the monitor of the "finishedTasks" list to modify the list - If you need
- * to lock both futures and finishedTasks, lock futures first and finishedTasks
- * second
+ * monitor to spawn a new task or modify the number of inflight tasks - The
+ * "futures" and "finishedTasks" queues are thread safe and are never locked
+ * by this class: a thread adding to one of them then checks the other, so that
+ * a future and a finished batch added at the same time always meet - Batches
+ * synchronize their own messages
  */
 public class ReceiveQueueBuffer {
 
     private static Log log = LogFactory.getLog(ReceiveQueueBuffer.class);
 
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** The shortest period the consumption rate is measured over. */
+    private static final long RATE_SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** The weight of the last sample in the smoothed consumption rate. */
+    private static final double RATE_SMOOTHING = 0.5;
+
+    /**
+     * The visibility of a prefetched batch is extended when less than this
+     * fraction of the visibility timeout is left.
+     */
+    private static final int EXPIRY_MARGIN_DIVISOR = 4;
+
     private final QueueBufferConfig config;
 
     private final String qUrl;
@@ -87,10 +113,27 @@ public class ReceiveQueueBuffer {
     volatile boolean shutDown = false;
 
     /** message delivery futures we gave out */
-    private final LinkedList<ReceiveMessageFuture> futures = new LinkedList<ReceiveMessageFuture>();
+    private final LinkedBlockingDeque<ReceiveMessageFuture> futures =
+            new LinkedBlockingDeque<ReceiveMessageFuture>();
 
-    /** finished batches are stored in this list. */
-    private LinkedList<ReceiveMessageBatchTask> finishedTasks = new LinkedList<ReceiveMessageBatchTask>();
+    /** finished batches are stored in this queue. */
+    private final ConcurrentLinkedQueue<ReceiveMessageBatchTask> finishedTasks =
+            new ConcurrentLinkedQueue<ReceiveMessageBatchTask>();
+
+    /** The size of {@code finishedTasks}, which is slow to count. */
+    private final AtomicInteger finishedTaskCount = new AtomicInteger();
+
+    /** Messages handed to futures since the current rate sample started. */
+    private final AtomicInteger consumedInSample = new AtomicInteger();
+
+    /** Synchronized by {@code taskSpawnSyncPoint}. */
+    private long sampleStartNanos = System.nanoTime();
+
+    /** Smoothed number of messages consumed per second. */
+    private volatile double consumptionRate;
+
+    /** Smoothed duration of the receive calls. */
+    private volatile long receiveLatencyNanos;
 
     ReceiveQueueBuffer(AmazonSQS paramSQS, Executor paramExecutor, QueueBufferConfig paramConfig,
             String url) {
@@ -155,11 +198,9 @@ public class ReceiveQueueBuffer {
      */
     private ReceiveMessageFuture issueFuture(int size,
             QueueBufferCallback<ReceiveMessageRequest, ReceiveMessageResult> callback) {
-        synchronized (futures) {
-            ReceiveMessageFuture theFuture = new ReceiveMessageFuture(callback, size);
-            futures.addLast(theFuture);
-            return theFuture;
-        }
+        ReceiveMessageFuture theFuture = new ReceiveMessageFuture(callback, size);
+        futures.addLast(theFuture);
+        return theFuture;
     }
 
     /**
@@ -168,82 +209,71 @@ public class ReceiveQueueBuffer {
      * won't do anything.
      */
     private void satisfyFuturesFromBuffer() {
-        synchronized (futures) {
-            synchronized (finishedTasks) {
-                // attempt to satisfy futures until we run out of either futures
-                // or
-                // finished tasks
-                while ((!futures.isEmpty()) && (!finishedTasks.isEmpty())) {
-                    ReceiveMessageFuture currentFuture = futures.poll();
-                    fillFuture(currentFuture);
-                }
+        // attempt to satisfy futures until we run out of either futures or
+        // finished tasks
+        while (!finishedTasks.isEmpty()) {
+            ReceiveMessageFuture currentFuture = futures.poll();
+            if (currentFuture == null) {
+                break;
+            }
+            if (!fillFuture(currentFuture)) {
+                // another thread drained the finished tasks meanwhile. give
+                // the future back, the loop checks again for a task finished
+                // in the meantime.
+                futures.addFirst(currentFuture);
             }
         }
+        if (config.isAdaptivePrefetching()) {
+            extendExpiringBatches();
+        }
     }
 
     /**
      * Fills the future with whatever results were received by the full batch
      * currently at the head of the completed batch queue. Those results may be
-     * retrieved messages, or an exception. this method assumes that you are
-     * holding the finished tasks lock locks when invoking it. violate this
-     * assumption at your own peril
+     * retrieved messages, or an exception. A batch which is empty, or whose
+     * messages expired, fills the future with an empty result, like a long
+     * poll which timed out. Batches drained by other futures are removed on
+     * the way.
+     *
+     * @return false if there was no batch to fill the future with.
      */
-    private void fillFuture(ReceiveMessageFuture f) {
-        ReceiveMessageResult r = new ReceiveMessageResult();
-        LinkedList<Message> messages = new LinkedList<Message>();
-        r.setMessages(messages);
-        Exception exception = null;
-
-        if (!finishedTasks.isEmpty()) {
-            ReceiveMessageBatchTask t = finishedTasks.getFirst();
-
-            exception = t.getException();
-            int retrieved = 0;
-            boolean batchDone = false;
-            while (retrieved < f.getRequestedSize())
-            {
-                Message m = t.removeMessage();
-                // a non-empty batch can still give back a null
-                // message if the message expired.
-                if (null != m) {
-                    messages.add(m);
-                    ++retrieved;
-                }
-                else {
-                    batchDone = true;
-                    break;
-                }
-
-            }
+    private boolean fillFuture(ReceiveMessageFuture f) {
+        ReceiveMessageBatchTask t;
+        while ((t = finishedTasks.peek()) != null) {
+            List<Message> messages = t.claimMessages(f.getRequestedSize());
             // we may have just drained the batch.
-            batchDone = batchDone || t.isEmpty() || (exception != null);
-            if (batchDone) {
-                finishedTasks.removeFirst();
+            if (t.isDrained()) {
+                removeFinishedTask(t);
+            }
+            if (messages == null) {
+                // another future drained the batch meanwhile
+                continue;
             }
-            r.setMessages(messages);
-        }
 
-        // if after the above runs the exception is not null,
-        // the finished batch has encountered an error, and we will
-        // report that in the Future. Otherwise, we will fill
-        // the future with the receive result
-        if (exception != null)
-            f.setFailure(exception);
-        else
-            f.setSuccess(r);
-
-        // now, a bit of maintenance. remove empty non-exception-bearing
-        // batches so we can get new ones.
-        while (!finishedTasks.isEmpty()) {
-            ReceiveMessageBatchTask t = finishedTasks.getFirst();
-            if ((!t.isEmpty()) || (t.getException() != null)) {
-                // if we found a finished task that has useful content,
-                // our cleanup is done
-                break;
+            // if the finished batch has encountered an error, we will report
+            // that in the Future. Otherwise, we will fill the future with the
+            // receive result
+            Exception exception = t.getException();
+            if (exception != null) {
+                f.setFailure(exception);
+            } else {
+                consumedInSample.addAndGet(messages.size());
+                ReceiveMessageResult r = new ReceiveMessageResult();
+                r.setMessages(messages);
+                f.setSuccess(r);
             }
-            // throw away the empty batch.
-            finishedTasks.removeFirst();
+            return true;
         }
+        return false;
+    }
+
+    private boolean removeFinishedTask(ReceiveMessageBatchTask t) {
+        if (finishedTasks.remove(t)) {
+            finishedTaskCount.decrementAndGet();
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -258,19 +288,23 @@ public class ReceiveQueueBuffer {
 
         int desiredBatches = config.getMaxDoneReceiveBatches();
         desiredBatches = desiredBatches < 1 ? 1 : desiredBatches;
+        int adaptiveBatches = Integer.MAX_VALUE;
+        if (config.isAdaptivePrefetching()) {
+            adaptiveBatches = adaptiveBatchCount();
+            desiredBatches = Math.min(desiredBatches, adaptiveBatches);
+        }
 
-        synchronized (finishedTasks) {
-            if (finishedTasks.size() >= desiredBatches)
-                return;
+        int finishedBatches = finishedTaskCount.get();
+        if (finishedBatches >= desiredBatches)
+            return;
 
-            // if we have some finished batches already, and
-            // existing inflight batches will bring us to the limit,
-            // don't spawn more. if our finished tasks cache is empty, we will
-            // always spawn a thread.
-            if (finishedTasks.size() > 0
-                    && (finishedTasks.size() + inflightReceiveMessageBatches) >= desiredBatches)
-                return;
-        }
+        // if we have some finished batches already, and
+        // existing inflight batches will bring us to the limit,
+        // don't spawn more. if our finished tasks cache is empty, we will
+        // always spawn a thread.
+        if (finishedBatches > 0
+                && (finishedBatches + inflightReceiveMessageBatches) >= desiredBatches)
+            return;
 
         synchronized (taskSpawnSyncPoint) {
             if (visibilityTimeoutNanos == -1) {
@@ -288,6 +322,7 @@ public class ReceiveQueueBuffer {
             // must allow at least one inflight receive task, or receive won't
             // work at all.
             max = max > 0 ? max : 1;
+            max = Math.min(max, adaptiveBatches);
             int toSpawn = max - inflightReceiveMessageBatches;
             if (toSpawn > 0) {
                 ReceiveMessageBatchTask task = new ReceiveMessageBatchTask(this);
@@ -309,12 +344,11 @@ public class ReceiveQueueBuffer {
      */
     void reportBatchFinished(ReceiveMessageBatchTask batch)
     {
-        synchronized (finishedTasks) {
-            finishedTasks.addLast(batch);
-            if (log.isTraceEnabled()) {
-                log.info("Queue " + qUrl + " now has " + finishedTasks.size()
-                        + " receive results cached ");
-            }
+        finishedTasks.add(batch);
+        int finishedBatches = finishedTaskCount.incrementAndGet();
+        if (log.isTraceEnabled()) {
+            log.info("Queue " + qUrl + " now has " + finishedBatches
+                    + " receive results cached ");
         }
         synchronized (taskSpawnSyncPoint) {
             --inflightReceiveMessageBatches;
@@ -323,18 +357,82 @@ public class ReceiveQueueBuffer {
         spawnMoreReceiveTasks();
     }
 
+    /**
+     * @return the number of batches which serve the consumption of messages
+     *         while a receive call is in flight, but which can all be consumed
+     *         before their visibility timeout expires.
+     */
+    private int adaptiveBatchCount() {
+        double rate = sampleConsumptionRate();
+        double batchSize = Math.max(1, config.getMaxBatchSize());
+        int batches = (int) Math.ceil(rate * receiveLatencyNanos / NANOS_PER_SECOND / batchSize)
+                + 1;
+        if (visibilityTimeoutNanos > 0) {
+            // half of the visibility timeout, so that the messages of the
+            // last batch are not received just before they expire
+            int consumable = (int) (rate * visibilityTimeoutNanos / NANOS_PER_SECOND / 2
+                    / batchSize);
+            batches = Math.min(batches, Math.max(1, consumable));
+        }
+        return batches;
+    }
+
+    /**
+     * @return the smoothed number of messages consumed per second, updated
+     *         at most once per sample period.
+     */
+    private double sampleConsumptionRate() {
+        long now = System.nanoTime();
+        synchronized (taskSpawnSyncPoint) {
+            long elapsed = now - sampleStartNanos;
+            if (elapsed >= RATE_SAMPLE_NANOS) {
+                double sample = consumedInSample.getAndSet(0) * NANOS_PER_SECOND / elapsed;
+                consumptionRate = consumptionRate * (1 - RATE_SMOOTHING)
+                        + sample * RATE_SMOOTHING;
+                sampleStartNanos = now;
+            }
+        }
+        return consumptionRate;
+    }
+
+    private void recordReceiveLatency(long latencyNanos) {
+        long previous = receiveLatencyNanos;
+        receiveLatencyNanos = previous == 0 ? latencyNanos : (previous + latencyNanos) / 2;
+    }
+
+    /**
+     * Extends the visibility of the prefetched batches about to expire, on
+     * the executor. The visibility of a batch is extended once.
+     */
+    private void extendExpiringBatches() {
+        if (visibilityTimeoutNanos <= 0 || consumptionRate == 0) {
+            return;
+        }
+        long marginNanos = visibilityTimeoutNanos / EXPIRY_MARGIN_DIVISOR;
+        long now = System.nanoTime();
+        for (final ReceiveMessageBatchTask t : finishedTasks) {
+            final Map<String, Message> entries = t.startVisibilityExtension(now, marginNanos);
+            if (entries != null) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        t.extendVisibility(entries);
+                    }
+                });
+            }
+        }
+    }
+
     /**
      * Clears and nacks any pre-fetched messages in this buffer.
      */
     public void clear() {
         boolean done = false;
         while (!done) {
-            ReceiveMessageBatchTask currentBatch = null;
-            synchronized (finishedTasks) {
-                currentBatch = finishedTasks.poll();
-            }
+            ReceiveMessageBatchTask currentBatch = finishedTasks.poll();
 
             if (currentBatch != null) {
+                finishedTaskCount.decrementAndGet();
                 currentBatch.clear();
             } else {
                 // ran out of batches to clear
@@ -372,10 +470,13 @@ public class ReceiveQueueBuffer {
      * {@code ReceiveMessage} completes. At that point, the batch opens and its
      * messages (if any) become available to read.
      */
-    private class ReceiveMessageBatchTask implements Runnable {
+    class ReceiveMessageBatchTask implements Runnable {
         private Exception exception = null;
         private List<Message> messages;
         private long visibilityDeadlineNano;
+        private long visibilityTimeoutNano;
+        private boolean visibilityExtended = false;
+        private boolean drained = false;
         private boolean open = false;
         private ReceiveQueueBuffer parentBuffer;
 
@@ -439,6 +540,119 @@ public class ReceiveQueueBuffer {
                 return messages.remove(messages.size() - 1);
         }
 
+        /**
+         * Returns up to the given number of messages, fewer if the batch
+         * doesn't have as many or its messages expired.
+         *
+         * @param count the max number of messages.
+         * @return the messages, never null.
+         */
+        synchronized List<Message> removeMessages(int count) {
+            LinkedList<Message> removed = new LinkedList<Message>();
+            while (removed.size() < count) {
+                Message m = removeMessage();
+                if (m == null) {
+                    break;
+                }
+                removed.add(m);
+            }
+            return removed;
+        }
+
+        /**
+         * Claims up to the given number of messages for a future. The future
+         * which drains the batch, or finds it empty, expired or failed, gets
+         * the remaining messages, possibly none, and later futures get null.
+         *
+         * @param count the max number of messages.
+         * @return the messages, or null if the batch was already drained.
+         */
+        synchronized List<Message> claimMessages(int count) {
+            if (drained) {
+                return null;
+            }
+            if (getException() != null) {
+                drained = true;
+                return Collections.emptyList();
+            }
+            List<Message> removed = removeMessages(count);
+            drained = messages.isEmpty();
+            return removed;
+        }
+
+        /**
+         * @return true if a future claimed the last messages of the batch.
+         */
+        synchronized boolean isDrained() {
+            return drained;
+        }
+
+        /**
+         * Starts extending the visibility of the messages if they are about to
+         * expire and it wasn't extended yet.
+         *
+         * @return the messages to extend by batch entry id, or null if the
+         *         visibility shouldn't be extended.
+         */
+        synchronized Map<String, Message> startVisibilityExtension(long now, long marginNanos) {
+            if (!open || visibilityExtended || messages.isEmpty()
+                    || visibilityDeadlineNano - now > marginNanos
+                    || visibilityDeadlineNano - now <= 0) {
+                return null;
+            }
+            visibilityExtended = true;
+            Map<String, Message> entries = new HashMap<String, Message>();
+            int i = 0;
+            for (Message m : messages) {
+                entries.put(Integer.toString(i), m);
+                ++i;
+            }
+            return entries;
+        }
+
+        /**
+         * Extends the visibility of the messages by a visibility timeout.
+         * Messages whose visibility couldn't be extended are dropped.
+         */
+        void extendVisibility(Map<String, Message> entries) {
+            ChangeMessageVisibilityBatchRequest batchRequest = new ChangeMessageVisibilityBatchRequest()
+                    .withQueueUrl(qUrl);
+            ResultConverter.appendUserAgent(batchRequest,
+                    AmazonSQSBufferedAsyncClient.USER_AGENT);
+            int visibilityTimeoutSeconds = (int) TimeUnit.NANOSECONDS
+                    .toSeconds(visibilityTimeoutNano);
+            List<ChangeMessageVisibilityBatchRequestEntry> requestEntries =
+                    new ArrayList<ChangeMessageVisibilityBatchRequestEntry>(entries.size());
+            for (Map.Entry<String, Message> entry : entries.entrySet()) {
+                requestEntries.add(new ChangeMessageVisibilityBatchRequestEntry()
+                        .withId(entry.getKey())
+                        .withReceiptHandle(entry.getValue().getReceiptHandle())
+                        .withVisibilityTimeout(visibilityTimeoutSeconds));
+            }
+            batchRequest.setEntries(requestEntries);
+
+            long start = System.nanoTime();
+            ChangeMessageVisibilityBatchResult result;
+            try {
+                result = sqsClient.changeMessageVisibilityBatch(batchRequest);
+            } catch (AmazonClientException e) {
+                // Log and ignore, the messages will expire.
+                log.warn("ReceiveMessageBatchTask: changeMessageVisibility failed " + e);
+                return;
+            }
+            synchronized (this) {
+                if (System.nanoTime() > visibilityDeadlineNano) {
+                    // too late, the messages may have been received by
+                    // another consumer
+                    return;
+                }
+                visibilityDeadlineNano = start + visibilityTimeoutNano;
+                for (BatchResultErrorEntry failed : result.getFailed()) {
+                    messages.remove(entries.get(failed.getId()));
+                }
+            }
+        }
+
         /**
          * Nacks and clears all messages remaining in the batch.
          */
@@ -483,17 +697,19 @@ public class ReceiveQueueBuffer {
         @Override
         public void run() {
 
+            long start = System.nanoTime();
             try {
-                visibilityDeadlineNano = System.nanoTime() + visibilityTimeoutNanos;
+                visibilityTimeoutNano = visibilityTimeoutNanos;
+                visibilityDeadlineNano = start + visibilityTimeoutNanos;
                 ReceiveMessageRequest request = new ReceiveMessageRequest(qUrl)
                         .withMaxNumberOfMessages(config.getMaxBatchSize());
                 ResultConverter.appendUserAgent(request, AmazonSQSBufferedAsyncClient.USER_AGENT);
 
                 if (config.getVisibilityTimeoutSeconds() > 0) {
                     request.setVisibilityTimeout(config.getVisibilityTimeoutSeconds());
-                    visibilityDeadlineNano = System.nanoTime()
-                            + TimeUnit.NANOSECONDS.convert(config.getVisibilityTimeoutSeconds(),
-                                    TimeUnit.SECONDS);
+                    visibilityTimeoutNano = TimeUnit.NANOSECONDS.convert(
+                            config.getVisibilityTimeoutSeconds(), TimeUnit.SECONDS);
+                    visibilityDeadlineNano = System.nanoTime() + visibilityTimeoutNano;
                 }
 
                 if (config.isLongPoll()) {
@@ -501,6 +717,7 @@ public class ReceiveQueueBuffer {
                 }
 
                 messages = sqsClient.receiveMessage(request).getMessages();
+                recordReceiveLatency(System.nanoTime() - start);
             } catch (AmazonClientException e) {
                 exception = e;
             } finally {
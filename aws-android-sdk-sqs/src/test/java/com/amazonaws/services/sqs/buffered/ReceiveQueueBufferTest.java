@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.sqs.buffered;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResult;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResultEntry;
+import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
+import com.amazonaws.services.sqs.model.GetQueueAttributesResult;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReceiveQueueBufferTest {
+
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/queue";
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private AmazonSQS sqs;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        sqs = mock(AmazonSQS.class);
+        when(sqs.getQueueAttributes(any(GetQueueAttributesRequest.class))).thenReturn(
+                new GetQueueAttributesResult().addAttributesEntry("VisibilityTimeout", "30"));
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testEmptyLongPollCompletesWithNoMessages() throws Exception {
+        when(sqs.receiveMessage(any(ReceiveMessageRequest.class)))
+                .thenReturn(new ReceiveMessageResult());
+        ReceiveQueueBuffer buffer = new ReceiveQueueBuffer(sqs, executor,
+                new QueueBufferConfig(), QUEUE_URL);
+
+        ReceiveMessageResult result = buffer.receiveMessageAsync(new ReceiveMessageRequest(QUEUE_URL),
+                null).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue(result.getMessages().isEmpty());
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testConcurrentFuturesReceiveEveryMessageOnce() throws Exception {
+        final int total = 200;
+        final AtomicInteger sent = new AtomicInteger();
+        when(sqs.receiveMessage(any(ReceiveMessageRequest.class)))
+                .thenAnswer(new Answer<ReceiveMessageResult>() {
+                    @Override
+                    public ReceiveMessageResult answer(InvocationOnMock invocation) {
+                        List<Message> messages = new ArrayList<Message>();
+                        for (int i = 0; i < 10; i++) {
+                            int id = sent.getAndIncrement();
+                            if (id >= total) {
+                                break;
+                            }
+                            messages.add(message(id));
+                        }
+                        return new ReceiveMessageResult().withMessages(messages);
+                    }
+                });
+        final ReceiveQueueBuffer buffer = new ReceiveQueueBuffer(sqs, executor,
+                new QueueBufferConfig().withMaxInflightReceiveBatches(4), QUEUE_URL);
+
+        final Set<String> received = Collections.synchronizedSet(new HashSet<String>());
+        final AtomicInteger duplicates = new AtomicInteger();
+        List<Callable<Void>> consumers = new ArrayList<Callable<Void>>();
+        for (int c = 0; c < 8; c++) {
+            consumers.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    while (received.size() < total) {
+                        ReceiveMessageRequest request = new ReceiveMessageRequest(QUEUE_URL)
+                                .withMaxNumberOfMessages(3);
+                        for (Message m : buffer.receiveMessageAsync(request, null)
+                                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getMessages()) {
+                            if (!received.add(m.getMessageId())) {
+                                duplicates.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        ExecutorService consumerExecutor = Executors.newFixedThreadPool(consumers.size());
+        try {
+            for (Future<Void> f : consumerExecutor.invokeAll(consumers)) {
+                f.get();
+            }
+        } finally {
+            consumerExecutor.shutdownNow();
+        }
+
+        assertEquals(total, received.size());
+        assertEquals(0, duplicates.get());
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testExtendVisibilityDropsFailedEntries() throws Exception {
+        when(sqs.receiveMessage(any(ReceiveMessageRequest.class))).thenReturn(
+                new ReceiveMessageResult().withMessages(message(0), message(1), message(2)));
+        final List<Runnable> spawned = new ArrayList<Runnable>();
+        ReceiveQueueBuffer buffer = new ReceiveQueueBuffer(sqs, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                spawned.add(command);
+            }
+        }, new QueueBufferConfig(), QUEUE_URL);
+
+        // the first receive spawns the batch, and takes one of its messages
+        Future<ReceiveMessageResult> first = buffer.receiveMessageAsync(
+                new ReceiveMessageRequest(QUEUE_URL).withMaxNumberOfMessages(1), null);
+        ReceiveQueueBuffer.ReceiveMessageBatchTask batch =
+                (ReceiveQueueBuffer.ReceiveMessageBatchTask) spawned.get(0);
+        batch.run();
+        List<Message> firstMessages = first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getMessages();
+        assertEquals(1, firstMessages.size());
+
+        // close to the end of the 30s visibility timeout
+        final Map<String, Message> entries = batch.startVisibilityExtension(
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(29), TimeUnit.SECONDS.toNanos(5));
+        assertNotNull(entries);
+        assertEquals(2, entries.size());
+        assertNull("visibility is only extended once", batch.startVisibilityExtension(
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(29), TimeUnit.SECONDS.toNanos(5)));
+
+        final String failedId = entries.keySet().iterator().next();
+        final Message failed = entries.get(failedId);
+        final List<ChangeMessageVisibilityBatchResultEntry> successful =
+                new ArrayList<ChangeMessageVisibilityBatchResultEntry>();
+        for (String id : entries.keySet()) {
+            if (!id.equals(failedId)) {
+                successful.add(new ChangeMessageVisibilityBatchResultEntry().withId(id));
+            }
+        }
+        final List<ChangeMessageVisibilityBatchRequest> requests =
+                new ArrayList<ChangeMessageVisibilityBatchRequest>();
+        when(sqs.changeMessageVisibilityBatch(any(ChangeMessageVisibilityBatchRequest.class)))
+                .thenAnswer(new Answer<ChangeMessageVisibilityBatchResult>() {
+                    @Override
+                    public ChangeMessageVisibilityBatchResult answer(InvocationOnMock invocation) {
+                        requests.add((ChangeMessageVisibilityBatchRequest) invocation
+                                .getArguments()[0]);
+                        return new ChangeMessageVisibilityBatchResult()
+                                .withSuccessful(successful)
+                                .withFailed(new BatchResultErrorEntry().withId(failedId)
+                                        .withCode("ReceiptHandleIsInvalid").withSenderFault(true));
+                    }
+                });
+        batch.extendVisibility(entries);
+
+        assertEquals(1, requests.size());
+        assertEquals(2, requests.get(0).getEntries().size());
+        for (ChangeMessageVisibilityBatchRequestEntry e : requests.get(0).getEntries()) {
+            assertEquals(Integer.valueOf(30), e.getVisibilityTimeout());
+        }
+
+        List<Message> remaining = buffer.receiveMessageAsync(new ReceiveMessageRequest(QUEUE_URL),
+                null).get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getMessages();
+        assertEquals(1, remaining.size());
+        assertTrue(entries.containsValue(remaining.get(0)));
+        assertTrue(remaining.get(0) != failed);
+    }
+
+    private static Message message(int id) {
+        return new Message().withMessageId("message-" + id).withReceiptHandle("handle-" + id)
+                .withBody("body-" + id);
+    }
+}